@@ -1,12 +1,15 @@
 package org.sebastiandine.cardcollectionmanager;
 
 import java.io.IOException;
+
+import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
 import org.sebastiandine.cardcollectionmanager.ui.MainFrame;
 
 public class Main {
 
 	public static void main(String[] args) throws IOException {
 
+		PropertiesFactory.warmUpIconCache();	/* load all icons once, before the user interface gets built */
 		new MainFrame();		
 	}
 }
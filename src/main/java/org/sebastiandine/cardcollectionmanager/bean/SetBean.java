@@ -1,7 +1,14 @@
 package org.sebastiandine.cardcollectionmanager.bean;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
+import java.util.GregorianCalendar;
 
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 
@@ -22,14 +29,35 @@ public class SetBean implements CardCollectionBean, Serializable, Comparable<Car
 		DUMMY = new SetBean();
 		DUMMY.setName("");
 		DUMMY.setCode("");
-		DUMMY.setRelease(Calendar.getInstance());
+		DUMMY.setReleaseDate(LocalDate.now());
 	}
 	
+	/**
+	 * Value of {@link #getReleaseEpochDay()}, if the release date of a set is not maintained.
+	 */
+	public static final long NO_RELEASE = Long.MIN_VALUE;
+	
+	/**
+	 * Shared formatter of {@link #getReleaseText()}. {@link DateTimeFormatter} is immutable and thread-safe.
+	 */
+	private static final DateTimeFormatter RELEASE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+	
 	private static final long serialVersionUID = 4506343002161746959L;
 	
+	/**
+	 * Serialized form of former versions, which stored the release date as {@link Calendar}. It is kept, so legacy
+	 * data (Java serialization) can still be read and gets migrated to the epoch-day on load.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("name", String.class),
+		new ObjectStreamField("code", String.class),
+		new ObjectStreamField("release", Calendar.class)
+	};
+	
 	private String name;
 	private String code;
-	private Calendar release;
+	private long releaseEpochDay = NO_RELEASE;			/* days since 1970-01-01, see LocalDate#toEpochDay() */
+	private transient String releaseText;				/* formatted release date, created on first use */
 	
 	public String getName() {
 		return name;
@@ -43,11 +71,68 @@ public class SetBean implements CardCollectionBean, Serializable, Comparable<Car
 	public void setCode(String code) {
 		this.code = code;
 	}
-	public Calendar getRelease() {
-		return release;
+	
+	/**
+	 * @return Release date as days since 1970-01-01. {@link #NO_RELEASE}, if the release date is not maintained.
+	 */
+	public long getReleaseEpochDay() {
+		return releaseEpochDay;
+	}
+	
+	/**
+	 * @param releaseEpochDay Release date as days since 1970-01-01. {@link #NO_RELEASE}, if the release date is not maintained.
+	 */
+	public void setReleaseEpochDay(long releaseEpochDay) {
+		this.releaseEpochDay = releaseEpochDay;
+		this.releaseText = null;
+	}
+	
+	/**
+	 * @return {@code true}, if the release date is maintained.
+	 */
+	public boolean hasRelease() {
+		return releaseEpochDay != NO_RELEASE;
+	}
+	
+	/**
+	 * @return Release date. {@code null}, if the release date is not maintained.
+	 */
+	public LocalDate getReleaseDate() {
+		return hasRelease() ? LocalDate.ofEpochDay(releaseEpochDay) : null;
+	}
+	
+	/**
+	 * @param releaseDate Release date. {@code null}, if the release date is not maintained.
+	 */
+	public void setReleaseDate(LocalDate releaseDate) {
+		setReleaseEpochDay(releaseDate == null ? NO_RELEASE : releaseDate.toEpochDay());
 	}
-	public void setRelease(Calendar release) {
-		this.release = release;
+	
+	/**
+	 * This method returns the release date in the format {@code yyyy-MM-dd}. The text is created only once per set.
+	 * 
+	 * @return Formatted release date. Empty string, if the release date is not maintained.
+	 */
+	public String getReleaseText() {
+		String text = releaseText;
+		if(text == null){
+			text = hasRelease() ? RELEASE_FORMAT.format(LocalDate.ofEpochDay(releaseEpochDay)) : "";
+			releaseText = text;
+		}
+		return text;
+	}
+	
+	/**
+	 * This method converts the date of a {@link Calendar} (in its own time zone) to days since 1970-01-01.
+	 * 
+	 * @param calendar Date, which should be converted.
+	 * @return Days since 1970-01-01. {@link #NO_RELEASE}, if parameter {@code calendar} is {@code null}.
+	 */
+	public static long toEpochDay(Calendar calendar){
+		if(calendar == null){
+			return NO_RELEASE;
+		}
+		return LocalDate.of(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH)).toEpochDay();
 	}
 	
 	@Override
@@ -68,7 +153,7 @@ public class SetBean implements CardCollectionBean, Serializable, Comparable<Car
 		
 		out += "Code: " + this.code;
 		out += ", Name: " + this.name;
-		out += ", Release: " + this.release;
+		out += ", Release: " + this.getReleaseText();
 		
 		return out;
 	}
@@ -100,23 +185,44 @@ public class SetBean implements CardCollectionBean, Serializable, Comparable<Car
 	
 	/**
 	 * Implementation of interface {@link Comparable}.
-	 * The comparation is based on the attribute {@link SetBean#release}.
+	 * The comparation is based on the attribute {@link SetBean#releaseEpochDay}.
 	 * <ul>
 	 * <li>If the release date of this {@link SetBean} is older than the given {@link SetBean}, the method returns {@code -1}.</li>
 	 * <li>If the release date of this {@link SetBean} is younger than the given {@link SetBean}, the method returns {@code 1}.</li>
 	 * <li>If the release date of both {@link SetBean} object is the same, the method returns {@code 0}.</li>
 	 * </ul>
+	 * Sets without release date are older than all other sets.
 	 */
 	@Override
 	public int compareTo(CardCollectionBean set) {
-		SetBean compare = (SetBean) set;
-		if(this.getRelease().before(compare.getRelease())){
-			return -1;
+		return Long.compare(this.releaseEpochDay, ((SetBean) set).releaseEpochDay);
+	}
+	
+	/**
+	 * This method reads the serialized form, which holds the release date as {@link Calendar}.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		this.name = (String) fields.get("name", null);
+		this.code = (String) fields.get("code", null);
+		this.releaseEpochDay = toEpochDay((Calendar) fields.get("release", null));
+	}
+	
+	/**
+	 * This method writes the serialized form, which holds the release date as {@link Calendar}.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("name", name);
+		fields.put("code", code);
+		if(hasRelease()){
+			LocalDate date = LocalDate.ofEpochDay(releaseEpochDay);
+			fields.put("release", new GregorianCalendar(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth()));
 		}
-		if(this.getRelease().after(compare.getRelease())){
-			return 1;
+		else{
+			fields.put("release", null);
 		}
-		return 0;
+		out.writeFields();
 	}
 
 	
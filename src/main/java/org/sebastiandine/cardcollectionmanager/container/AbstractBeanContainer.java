@@ -1,15 +1,28 @@
 package org.sebastiandine.cardcollectionmanager.container;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
@@ -18,73 +31,91 @@ import org.sebastiandine.cardcollectionmanager.logging.Logger;
  * This abstract class acts as a template for container classes, which manage {@link CardCollectionBean} implementing objects.
  * Child classes need to implement a list of {@link CardCollectionBean} implementing objects, which represents the actual
  * bean container. Afterwards they can use the methods defined in this abstract class on this list (assign parameter {@code container} in all methods).
+ * The methods, which access beans by their ID, require the list to be an {@link IndexedBeanList}.
  * 
  * @author Sebastian Dine
  *
  */
 public abstract class AbstractBeanContainer {
 	
+	private static final String LEGACY_BACKUP_SUFFIX = ".legacy";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final String DAMAGED_SUFFIX = ".damaged";
+	
+	/**
+	 * Number of snapshot generations, which are kept on disk (including the current one).
+	 */
+	protected static final int SNAPSHOT_GENERATIONS = 3;
+	
+	/**
+	 * Marker of the trailer {@code [int magic][int crc32]}, which ends every snapshot file ("CSUM").
+	 */
+	private static final int SNAPSHOT_TRAILER_MAGIC = 0x4353554D;
+	private static final int TRAILER_LENGTH = 8;
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+	
 	/**
 	 * This method assigns the next free ID to parameter {@code bean} and appends it to the end of parameter {@code container}.
 	 * 
-	 * @param container Container list of {@link CardCollectionBean} objects.
+	 * @param container {@link IndexedBeanList} of {@link CardCollectionBean} objects.
 	 * @param bean {@link CardCollectionBean} object which should be added to @param container.
 	 */
-	protected static void addBeanToContainer(List<CardCollectionBean> container, CardCollectionBean bean){
-		
-		bean.setId(getNextId(container));
+	protected static void addBeanToContainer(IndexedBeanList container, CardCollectionBean bean){
+		bean.setId(container.nextId());
 		container.add(bean);
 	}
 	
 	/**
-	 * This method returns the next free ID within the given container.
+	 * This method adds parameter {@code bean} with its already assigned ID to parameter {@code container} or replaces
+	 * the bean with the same ID in O(1).
 	 * 
-	 * @param container Container to which the next free ID should be calculated.
+	 * @param container {@link IndexedBeanList} of {@link CardCollectionBean} objects.
+	 * @param bean {@link CardCollectionBean} object which should be put into @param container.
+	 */
+	protected static void putBeanToContainer(IndexedBeanList container, CardCollectionBean bean){
+		container.put(bean);
+	}
+	
+	/**
+	 * This method returns the next free ID within the given container in O(1).
+	 * 
+	 * @param container {@link IndexedBeanList} to which the next free ID should be calculated.
 	 * @return Next free ID within container.
 	 */
-	protected static int getNextId(List<CardCollectionBean> container){
-		if(container.isEmpty()){
-			return 1;
-		}
-		else{
-			Collections.sort(container);
-			return (container.get(container.size()-1).getId() + 1);
-		}
+	protected static int getNextId(IndexedBeanList container){
+		return container.nextId();
 	}
 	
 	/**
-	 * This method deletes the entry with the given id ({@code id}) from the list, given by parameter {@code container}.
+	 * This method deletes the entry with the given id ({@code id}) from the given {@link IndexedBeanList} in O(1).
 	 * 
-	 * @param container List of {@link CardCollectionBean} objects, from which an entry should be deleted.
+	 * @param container {@link IndexedBeanList}, from which an entry should be deleted.
 	 * @param id Id of the {@link CardCollectionBean} object in {@code container}, which should be deleted.
 	 */
-	protected static void deleteBeanById(List<CardCollectionBean> container, int id){
-		for(int i = 0; i < container.size(); i++){
-			if(container.get(i).getId() == id){
-				Logger.debug("Bean deleted: "+container.get(i).toString()+".");
-				container.remove(i);
-				return;
-			}
+	protected static void deleteBeanById(IndexedBeanList container, int id){
+		CardCollectionBean bean = container.removeById(id);
+		if(bean != null){
+			Logger.debug("Bean deleted: {}.", bean);
+		}
+		else{
+			Logger.debug("No bean with id={} found.", id);
 		}
-		Logger.debug("No bean with id="+id+" found.");
 	}
 	
-	
 	/**
-	 * This method returns the entry with the given id ({@code id}) from the list, given by parameter {@code container} 
-	 * @param container List of {@link CardCollectionBean} objects, from which an entry should be returned.
+	 * This method returns the entry with the given id ({@code id}) from the given {@link IndexedBeanList} in O(1).
+	 * 
+	 * @param container {@link IndexedBeanList}, from which an entry should be returned.
 	 * @param id Id of the {@link CardCollectionBean} object in {@code container}, which should be returned.
 	 * @return {@link CardCollectionBean} object from the given list with the given ID. {@value null} if no entry
 	 * 			with the given ID has been found.
 	 */
-	protected static CardCollectionBean getBeanById(List<CardCollectionBean> container, int id){
-		for(int i = 0; i < container.size(); i++){
-			if(container.get(i).getId() == id){
-				return container.get(i);
-			}
+	protected static CardCollectionBean getBeanById(IndexedBeanList container, int id){
+		CardCollectionBean bean = container.getById(id);
+		if(bean == null){
+			Logger.warn("No bean with id={} found.", id);
 		}
-		Logger.warn("No bean with id="+id+" found.");
-		return null;
+		return bean;
 	}
 	
 	/**
@@ -100,18 +131,163 @@ public abstract class AbstractBeanContainer {
 	}
 	
 	/**
-	 * This method serializes the list, given by parameter {@code container}, into a file, specified by parameter {@code url}.  
+	 * This method serializes the list, given by parameter {@code container}, into a file, specified by parameter {@code url},
+	 * using the binary format of parameter {@code codec}.
+	 * <br><br>
+	 * The data is written to {@code <url>.tmp} first, followed by the trailer {@code [int trailer magic][int crc32]},
+	 * and forced to disk. Afterwards the previous generations are shifted ({@code <url>} becomes {@code <url>.1} and so on,
+	 * up to {@link #SNAPSHOT_GENERATIONS} files) and the temporary file is renamed to {@code <url>} atomically. Hence
+	 * a crash or a full disk during the write never damages an already written snapshot.
 	 * 
 	 * @param container List of {@link CardCollectionBean} objects, which should be serialized.
 	 * @param url URL to the file, in which the data of parameter {@code container} should be serialized.
+	 * @param codec {@link BeanBinaryCodec} of the bean type within parameter {@code container}.
 	 * @throws IOException
 	 */
-	protected static void serializeContainer(List<CardCollectionBean> container, String url) throws IOException{
-		FileOutputStream fileOut = new FileOutputStream(new File(url));
-		ObjectOutputStream objectOut = new ObjectOutputStream(fileOut);
-		objectOut.writeObject(container);
-		objectOut.flush();
-		objectOut.close();
+	protected static void serializeContainer(List<CardCollectionBean> container, String url, BeanBinaryCodec codec) throws IOException{
+		File target = new File(url);
+		File tmp = new File(url + TEMP_SUFFIX);
+		
+		try(FileOutputStream fileOut = new FileOutputStream(tmp)){
+			CheckedOutputStream checkedOut = new CheckedOutputStream(fileOut, new CRC32());
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checkedOut, WRITE_BUFFER_SIZE));
+			codec.writeContainer(container, out);						/* flushes all data through the checksum */
+			int checksum = (int) checkedOut.getChecksum().getValue();
+			out.writeInt(SNAPSHOT_TRAILER_MAGIC);
+			out.writeInt(checksum);
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		
+		installSnapshot(tmp, target, url);
+	}
+	
+	/**
+	 * This method encodes the list, given by parameter {@code container}, into the binary format of parameter {@code codec}
+	 * without touching any file. The result can be written later on by {@link #serializeEncodedContainer(byte[], String)},
+	 * e.g. by another thread, while the beans within the list are edited again.
+	 * 
+	 * @param container List of {@link CardCollectionBean} objects, which should be encoded.
+	 * @param codec {@link BeanBinaryCodec} of the bean type within parameter {@code container}.
+	 * @return Encoded content of parameter {@code container}.
+	 * @throws IOException
+	 */
+	protected static byte[] encodeContainer(List<CardCollectionBean> container, BeanBinaryCodec codec) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(WRITE_BUFFER_SIZE);
+		DataOutputStream out = new DataOutputStream(bytes);
+		codec.writeContainer(container, out);
+		out.close();
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * This method writes the content, which has been encoded by {@link #encodeContainer(List, BeanBinaryCodec)},
+	 * into a file, specified by parameter {@code url}. Trailer, generations and the atomic rename are the same as
+	 * for {@link #serializeContainer(List, String, BeanBinaryCodec)}.
+	 * 
+	 * @param content Encoded container.
+	 * @param url URL to the file, in which parameter {@code content} should be written.
+	 * @throws IOException
+	 */
+	protected static void serializeEncodedContainer(byte[] content, String url) throws IOException{
+		File target = new File(url);
+		File tmp = new File(url + TEMP_SUFFIX);
+		CRC32 checksum = new CRC32();
+		checksum.update(content, 0, content.length);
+		
+		try(FileOutputStream fileOut = new FileOutputStream(tmp)){
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, WRITE_BUFFER_SIZE));
+			out.write(content);
+			out.writeInt(SNAPSHOT_TRAILER_MAGIC);
+			out.writeInt((int) checksum.getValue());
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		
+		installSnapshot(tmp, target, url);
+	}
+	
+	/**
+	 * This method replaces the current snapshot by the completely written temporary file and shifts the older generations.
+	 * 
+	 * @param tmp Temporary file, which holds the new snapshot.
+	 * @param target File of the current snapshot.
+	 * @param url URL of the current snapshot.
+	 * @throws IOException
+	 */
+	private static void installSnapshot(File tmp, File target, String url) throws IOException{
+		shiftGenerations(url);
+		try {
+			Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		syncDirectory(target);
+	}
+	
+	/**
+	 * This method shifts the generations of a snapshot by one: {@code <url>.(n-1)} becomes {@code <url>.n}, ...,
+	 * {@code <url>} becomes {@code <url>.1}. The oldest generation gets overwritten.
+	 * 
+	 * @param url URL of the current snapshot.
+	 * @throws IOException
+	 */
+	private static void shiftGenerations(String url) throws IOException{
+		for(int generation = SNAPSHOT_GENERATIONS - 1; generation > 0; generation--){
+			Path source = Paths.get(getGenerationUrl(url, generation - 1));
+			if(Files.exists(source)){
+				Files.move(source, Paths.get(getGenerationUrl(url, generation)), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+	}
+	
+	/**
+	 * This method forces the directory entry of a renamed file to disk. Not all platforms allow to open a directory,
+	 * in which case the rename is only as durable as the file system makes it.
+	 * 
+	 * @param file Renamed file.
+	 */
+	private static void syncDirectory(File file){
+		File directory = file.getAbsoluteFile().getParentFile();
+		if(directory == null){
+			return;
+		}
+		try(FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)){
+			channel.force(true);
+		} catch (IOException e) {
+			Logger.debug("Directory "+directory.getPath()+" could not be synced: "+e.getMessage());
+		}
+	}
+	
+	/**
+	 * This method returns the URL of the given generation of a snapshot. Generation {@code 0} is the current snapshot.
+	 * 
+	 * @param url URL of the current snapshot.
+	 * @param generation Generation, starting with {@code 0} for the current snapshot.
+	 * @return URL of the generation.
+	 */
+	protected static String getGenerationUrl(String url, int generation){
+		return generation == 0 ? url : url + "." + generation;
+	}
+	
+	/**
+	 * This method copies all generations of a snapshot, which could not be read, to {@code <generation>.damaged}.
+	 * Hence they are not overwritten by the next snapshots and can be recovered manually.
+	 * 
+	 * @param url URL of the current snapshot.
+	 */
+	protected static void preserveDamagedContainer(String url){
+		for(int generation = 0; generation < SNAPSHOT_GENERATIONS; generation++){
+			Path source = Paths.get(getGenerationUrl(url, generation));
+			if(Files.exists(source)){
+				try {
+					Files.copy(source, Paths.get(source.toString() + DAMAGED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+					Logger.warn("Damaged snapshot kept at "+source+DAMAGED_SUFFIX+".");
+				} catch (IOException e) {
+					Logger.error("Failed to keep damaged snapshot "+source+": "+e.getMessage());
+				}
+			}
+		}
 	}
 	
 	/**
@@ -133,20 +309,133 @@ public abstract class AbstractBeanContainer {
 	
 	/**
 	 * This method deserializes a file, specified by parameter {@code url} and returns the data as list of {@link CardCollectionBean} 
-	 * objects.
+	 * objects. If the file is missing or damaged (wrong checksum, truncated), the newest valid older generation will be read
+	 * instead. If the file has been written in the legacy format (Java serialization), it will be migrated to the binary format
+	 * of parameter {@code codec} once. The legacy file is kept as backup at {@code <url>.legacy}.
+	 * 
+	 * @param url URL to the file, which should be deserialized.
+	 * @param codec {@link BeanBinaryCodec} of the bean type within the file.
+	 * @return List of {@link CardCollectionBean} objects from deserialized file.
+	 * @throws FileNotFoundException If no generation of the file exists.
+	 * @throws IOException If no generation of the file could be read.
+	 * @throws ClassNotFoundException
+	 */
+	protected static List<CardCollectionBean> deserializeContainer(String url, BeanBinaryCodec codec) throws FileNotFoundException, IOException, ClassNotFoundException{
+		IOException failure = null;
+		for(int generation = 0; generation < SNAPSHOT_GENERATIONS; generation++){
+			String candidate = getGenerationUrl(url, generation);
+			if(!new File(candidate).exists()){
+				continue;
+			}
+			try {
+				List<CardCollectionBean> container = deserializeGeneration(candidate, url, codec);
+				if(failure != null){
+					Logger.warn("Newer snapshots of "+url+" are damaged. Loaded generation "+candidate+" instead.");
+				}
+				return container;
+			} catch (IOException e) {
+				Logger.error("Snapshot at "+candidate+" could not be read: "+e.getMessage());
+				failure = e;
+			}
+		}
+		if(failure == null){
+			throw new FileNotFoundException("No serialized data found at "+url+".");
+		}
+		throw failure;
+	}
+	
+	/**
+	 * This method reads a single generation of a snapshot into a heap {@link ByteBuffer} and verifies its checksum.
+	 * Files without trailer have been written before checksums were introduced and are read without verification.
+	 * The file is not mapped, because a mapping would keep it open until the buffer gets garbage collected, and on some
+	 * platforms (e.g. Windows) an open file cannot be renamed by the migration of legacy data or by the next snapshot.
+	 * 
+	 * @param candidate URL of the generation, which should be read.
+	 * @param url URL of the current snapshot, to which legacy data gets migrated.
+	 * @param codec {@link BeanBinaryCodec} of the bean type within the file.
+	 * @return List of {@link CardCollectionBean} objects from the file.
+	 * @throws IOException If the file is damaged.
+	 * @throws ClassNotFoundException
+	 */
+	private static List<CardCollectionBean> deserializeGeneration(String candidate, String url, BeanBinaryCodec codec) throws IOException, ClassNotFoundException{
+		boolean legacy;
+		try(FileChannel channel = FileChannel.open(Paths.get(candidate), StandardOpenOption.READ)){
+			if(channel.size() > Integer.MAX_VALUE){
+				throw new IOException("File exceeds "+Integer.MAX_VALUE+" bytes.");
+			}
+			ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+			while(data.hasRemaining()){
+				if(channel.read(data) < 0){
+					throw new IOException("Unexpected end of file.");
+				}
+			}
+			data.flip();
+			int length = data.limit();
+			legacy = length >= 2 && (data.getShort(0) & 0xFFFF) == BeanBinaryCodec.LEGACY_SERIALIZATION_MAGIC;
+			if(!legacy){
+				/* every binary snapshot ends with the trailer, so a missing one means the file has been cut off */
+				if(length < TRAILER_LENGTH || data.getInt(length - TRAILER_LENGTH) != SNAPSHOT_TRAILER_MAGIC){
+					throw new IOException("Missing checksum trailer.");
+				}
+				length -= TRAILER_LENGTH;
+				ByteBuffer checked = data.duplicate();
+				checked.limit(length);
+				CRC32 crc = new CRC32();
+				crc.update(checked);
+				if((int) crc.getValue() != data.getInt(length + 4)){
+					throw new IOException("Checksum mismatch.");
+				}
+				
+				data.limit(length);
+				List<CardCollectionBean> container = codec.readContainer(data);
+				if(data.hasRemaining()){
+					throw new IOException(data.remaining()+" unexpected bytes after the container data.");
+				}
+				return container;
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Unexpected end of file.");
+		}
+		
+		/* migrate after the channel has been closed, as the file gets replaced by the migrated snapshot */
+		return migrateLegacyContainer(candidate, url, codec);
+	}
+	
+	/**
+	 * This method migrates a file of the legacy format (Java serialization of the whole container list) into the binary
+	 * format of parameter {@code codec}.
+	 * 
+	 * @param candidate URL to the file, which should be migrated.
+	 * @param url URL of the current snapshot, to which the migrated data gets written.
+	 * @param codec {@link BeanBinaryCodec} of the bean type within the file.
+	 * @return List of {@link CardCollectionBean} objects from the legacy file.
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	private static List<CardCollectionBean> migrateLegacyContainer(String candidate, String url, BeanBinaryCodec codec) throws IOException, ClassNotFoundException{
+		Logger.info("File at "+candidate+" has been written in the legacy format. Migrate it to binary format version "+codec.getVersion()+".");
+		
+		List<CardCollectionBean> container = deserializeLegacyContainer(candidate);
+		Files.copy(Paths.get(candidate), Paths.get(url + LEGACY_BACKUP_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+		serializeContainer(container, url, codec);
+		
+		Logger.info("File at "+candidate+" migrated. Legacy data kept at "+url+LEGACY_BACKUP_SUFFIX+".");
+		return container;
+	}
+	
+	/**
+	 * This method deserializes a file of the legacy format, which holds a Java serialized list of {@link CardCollectionBean} objects.
 	 * 
 	 * @param url URL to the file, which should be deserialized.
 	 * @return List of {@link CardCollectionBean} objects from deserialized file.
-	 * @throws FileNotFoundException
 	 * @throws IOException
 	 * @throws ClassNotFoundException
 	 */
 	@SuppressWarnings("unchecked")
-	protected static List<CardCollectionBean> deserializeContainer(String url) throws FileNotFoundException, IOException, ClassNotFoundException{
-		ObjectInputStream objectIn = new ObjectInputStream(new FileInputStream(url)); 
-		List<CardCollectionBean> container = (ArrayList<CardCollectionBean>)objectIn.readObject();
-		objectIn.close();
-		return container;
+	private static List<CardCollectionBean> deserializeLegacyContainer(String url) throws IOException, ClassNotFoundException{
+		try(ObjectInputStream objectIn = new ObjectInputStream(new BufferedInputStream(new FileInputStream(url)))){
+			return (ArrayList<CardCollectionBean>)objectIn.readObject();
+		}
 	}
 	
 
@@ -0,0 +1,168 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+
+/**
+ * This abstract class acts as a template for hand-written binary codecs, which persist the content of a bean container.
+ * It replaces the Java serialization of the whole container list by a compact and schema-versioned format.
+ * <br><br>
+ * Every container file starts with a header {@code [int magic][short version]}. The magic number identifies the
+ * bean type of the container, the version the schema of the following data. Readers must be able to read all
+ * versions up to {@link #getVersion()}.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public abstract class BeanBinaryCodec {
+
+	/**
+	 * First two bytes of a file created by Java serialization ({@code ObjectOutputStream}). Used to detect
+	 * container files of the legacy format, which need to be migrated.
+	 */
+	public static final int LEGACY_SERIALIZATION_MAGIC = 0xACED;
+
+	/**
+	 * This method returns the magic number, which identifies container files of this codec.
+	 *
+	 * @return Magic number of the container files.
+	 */
+	public abstract int getMagic();
+
+	/**
+	 * This method returns the schema version, which is written by this codec.
+	 *
+	 * @return Current schema version.
+	 */
+	public abstract short getVersion();
+
+	/**
+	 * This method writes the content of parameter {@code container} (without header).
+	 *
+	 * @param container List of beans, which should be written.
+	 * @param out Target stream.
+	 * @throws IOException
+	 */
+	protected abstract void writeContent(List<CardCollectionBean> container, DataOutputStream out) throws IOException;
+
+	/**
+	 * This method reads the content of a container (without header), written in schema version {@code version}.
+	 *
+	 * @param in Source stream or buffer (see {@link #readContainer(ByteBuffer)}).
+	 * @param version Schema version of the data.
+	 * @return List of read beans.
+	 * @throws IOException
+	 */
+	protected abstract List<CardCollectionBean> readContent(DataInput in, short version) throws IOException;
+
+	/**
+	 * This method writes a single bean, e.g. as payload of a journal record.
+	 *
+	 * @param bean Bean, which should be written.
+	 * @param out Target stream.
+	 * @throws IOException
+	 */
+	public abstract void writeBean(CardCollectionBean bean, DataOutputStream out) throws IOException;
+
+	/**
+	 * This method reads a single bean, which has been written by {@link #writeBean(CardCollectionBean, DataOutputStream)}.
+	 *
+	 * @param in Source stream.
+	 * @return Read bean.
+	 * @throws IOException
+	 */
+	public abstract CardCollectionBean readBean(DataInputStream in) throws IOException;
+
+	/**
+	 * This method writes the header and the content of the given container.
+	 *
+	 * @param container List of beans, which should be written.
+	 * @param out Target stream.
+	 * @throws IOException
+	 */
+	public void writeContainer(List<CardCollectionBean> container, DataOutputStream out) throws IOException{
+		out.writeInt(getMagic());
+		out.writeShort(getVersion());
+		writeContent(container, out);
+		out.flush();
+	}
+
+	/**
+	 * This method reads a container, which has been written by {@link #writeContainer(List, DataOutputStream)}.
+	 *
+	 * @param in Source stream.
+	 * @return List of read beans.
+	 * @throws IOException If the data is not of the format of this codec or of an unknown schema version.
+	 */
+	public List<CardCollectionBean> readContainer(DataInputStream in) throws IOException{
+		return readContainer((DataInput) in);
+	}
+
+	private List<CardCollectionBean> readContainer(DataInput in) throws IOException{
+		int magic = in.readInt();
+		if(magic != getMagic()){
+			throw new IOException("Unknown container format (magic number "+Integer.toHexString(magic)+").");
+		}
+		short version = in.readShort();
+		if(version < 1 || version > getVersion()){
+			throw new IOException("Unsupported container schema version "+version+".");
+		}
+		return readContent(in, version);
+	}
+
+	/**
+	 * This method reads a container from a buffer, e.g. the content of a container file. The data is decoded straight from
+	 * the buffer by the same decoder as {@link #readContainer(DataInputStream)}. Afterwards the position of the buffer
+	 * is right after the container data.
+	 *
+	 * @param content Buffer, which is positioned at the container header.
+	 * @return List of read beans.
+	 * @throws IOException If the data is not of the format of this codec, of an unknown schema version or truncated.
+	 */
+	public List<CardCollectionBean> readContainer(ByteBuffer content) throws IOException{
+		try {
+			return readContainer(new ByteBufferDataInput(content));
+		} catch (EOFException e) {
+			throw new IOException("Unexpected end of the container data.");
+		}
+	}
+
+	/**
+	 * This method writes a string, which might be {@code null}, as {@code [int byte length][UTF-8 bytes]}.
+	 * A length of {@code -1} represents {@code null}.
+	 */
+	protected static void writeString(String text, DataOutputStream out) throws IOException{
+		if(text == null){
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * This method reads a string, which has been written by {@link #writeString(String, DataOutputStream)}.
+	 */
+	protected static String readString(DataInput in) throws IOException{
+		int length = in.readInt();
+		if(length == -1){
+			return null;
+		}
+		if(length < 0 || (in instanceof ByteBufferDataInput && length > ((ByteBufferDataInput) in).remaining())){
+			throw new IOException("Invalid string length "+length+".");
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
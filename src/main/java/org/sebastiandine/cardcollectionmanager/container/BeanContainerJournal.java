@@ -0,0 +1,418 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+
+/**
+ * This class provides an append-only journal (write-ahead log) for a serialized bean container.
+ * Instead of rewriting the whole container on every change, each add, edit or delete is appended
+ * as one small record to the file {@code <snapshot url>.journal}. On startup the journal gets replayed
+ * on top of the last snapshot of the container.
+ * <br><br>
+ * Each record is framed as {@code [int length][int crc32][byte operation][int id][payload]}, where the payload
+ * of a put record is the bean written by a {@link BeanBinaryCodec}. A batch record holds several put and delete
+ * operations, which are written with a single checksum, so either all or none of them are replayed. A record
+ * which has not been written completely (e.g. due to a crash) fails the length or checksum check and
+ * marks the end of the journal. Replaying a record is idempotent (put by id, delete by id), so records
+ * which are already contained in a snapshot can safely be replayed again.
+ * <br><br>
+ * Compaction is done in two steps: {@link #rotate()} moves the current journal aside to
+ * {@code <snapshot url>.journal.compacting} and starts a fresh one. After the new snapshot has been written,
+ * {@link #finishCompaction()} deletes the moved journal.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class BeanContainerJournal {
+
+	private static final byte OP_PUT = 1;			/* payload is a bean written by the BeanBinaryCodec */
+	private static final byte OP_DELETE = 2;
+	private static final byte OP_BATCH = 3;			/* payload is a sequence of put and delete operations, id holds their count */
+
+	private static final String JOURNAL_SUFFIX = ".journal";
+	private static final String COMPACTING_SUFFIX = ".journal.compacting";
+
+	/**
+	 * Callback interface, which receives the records of a journal during {@link BeanContainerJournal#replay(ReplayHandler)}.
+	 */
+	public interface ReplayHandler {
+
+		/**
+		 * Called for a record, which adds a new bean or replaces the existing bean with the same ID.
+		 * @param bean Bean of the record.
+		 */
+		void put(CardCollectionBean bean);
+
+		/**
+		 * Called for a record, which deletes the bean with the given ID.
+		 * @param id ID of the deleted bean.
+		 */
+		void delete(int id);
+	}
+
+	private final String snapshotUrl;
+	private final BeanBinaryCodec codec;
+	private final File journalFile;
+	private final File compactingFile;
+
+	private FileOutputStream out;
+	private int recordCount;
+
+	/**
+	 * Constructor, which creates a journal for the snapshot file at the given url.
+	 *
+	 * @param snapshotUrl URL of the snapshot file of the container. The journal files will be stored next to it.
+	 * @param codec {@link BeanBinaryCodec} of the bean type within the container.
+	 */
+	public BeanContainerJournal(String snapshotUrl, BeanBinaryCodec codec){
+		this.snapshotUrl = snapshotUrl;
+		this.codec = codec;
+		this.journalFile = new File(snapshotUrl + JOURNAL_SUFFIX);
+		this.compactingFile = new File(snapshotUrl + COMPACTING_SUFFIX);
+	}
+
+	/**
+	 * This method returns the url of the snapshot file, to which this journal belongs.
+	 *
+	 * @return URL of the snapshot file.
+	 */
+	public String getSnapshotUrl(){
+		return snapshotUrl;
+	}
+
+	/**
+	 * This method returns the number of records, which have been appended to or replayed from the active journal file.
+	 *
+	 * @return Number of records in the active journal file.
+	 */
+	public synchronized int getRecordCount(){
+		return recordCount;
+	}
+
+	/**
+	 * This method appends a record, which adds or replaces the given bean.
+	 *
+	 * @param bean Bean, which has been added or edited.
+	 * @throws IOException
+	 */
+	public synchronized void appendPut(CardCollectionBean bean) throws IOException{
+		appendEncoded(encodePut(bean), 1);
+	}
+
+	/**
+	 * This method appends a record, which deletes the bean with the given ID.
+	 *
+	 * @param id ID of the deleted bean.
+	 * @throws IOException
+	 */
+	public synchronized void appendDelete(int id) throws IOException{
+		appendEncoded(encodeDelete(id), 1);
+	}
+
+	/**
+	 * This method creates an empty {@link Batch}, which can be appended by {@link #appendBatch(Batch)}.
+	 *
+	 * @return New {@link Batch} of this journal.
+	 */
+	public Batch newBatch(){
+		return new Batch();
+	}
+
+	/**
+	 * This method appends all operations of the given {@link Batch} as a single record. Since the record is protected
+	 * by a single checksum, the operations are replayed all together or not at all.
+	 *
+	 * @param batch {@link Batch}, which has been created by {@link #newBatch()}.
+	 * @throws IOException
+	 */
+	public synchronized void appendBatch(Batch batch) throws IOException{
+		if(batch.size == 0){
+			return;
+		}
+		appendEncoded(encodeBatch(batch), batch.size);
+	}
+
+	/**
+	 * This method encodes a framed record, which adds or replaces the given bean. It does not touch the journal file,
+	 * so the bean can be encoded by the thread which changes it, while the record is appended later on
+	 * by {@link #appendEncoded(byte[], int)}.
+	 *
+	 * @param bean Bean, which has been added or edited.
+	 * @return Framed record.
+	 * @throws IOException
+	 */
+	public byte[] encodePut(CardCollectionBean bean) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		DataOutputStream payload = new DataOutputStream(bytes);
+		codec.writeBean(bean, payload);
+		payload.close();
+
+		return frameRecord(OP_PUT, bean.getId(), bytes.toByteArray());
+	}
+
+	/**
+	 * @param id ID of the deleted bean.
+	 * @return Framed record, which deletes the bean with the given ID.
+	 */
+	public byte[] encodeDelete(int id){
+		return frameRecord(OP_DELETE, id, new byte[0]);
+	}
+
+	/**
+	 * @param batch {@link Batch}, which has been created by {@link #newBatch()}.
+	 * @return Framed record, which holds all operations of the given batch.
+	 * @throws IOException
+	 */
+	public byte[] encodeBatch(Batch batch) throws IOException{
+		batch.out.flush();
+		return frameRecord(OP_BATCH, batch.size, batch.bytes.toByteArray());
+	}
+
+	/**
+	 * This method appends records, which have been encoded by this journal, with a single write call.
+	 *
+	 * @param records One or more framed records.
+	 * @param operations Number of operations of the records. It is added to the record count, so large batches
+	 * 		  trigger a compaction.
+	 * @throws IOException
+	 */
+	public synchronized void appendEncoded(byte[] records, int operations) throws IOException{
+		openJournal().write(records);
+		recordCount += operations;
+	}
+
+	/**
+	 * This method frames a single record.
+	 */
+	private static byte[] frameRecord(byte operation, int id, byte[] payload){
+		byte[] record = new byte[payload.length + 13];
+		ByteBuffer frame = ByteBuffer.wrap(record);
+		frame.putInt(payload.length + 5);
+		frame.putInt(0);						/* placeholder for the checksum */
+		frame.put(operation);
+		frame.putInt(id);
+		frame.put(payload);
+
+		CRC32 crc = new CRC32();
+		crc.update(record, 8, record.length - 8);
+		frame.putInt(4, (int) crc.getValue());
+		return record;
+	}
+
+	private FileOutputStream openJournal() throws IOException{
+		if(out == null){
+			out = new FileOutputStream(journalFile, true);
+		}
+		return out;
+	}
+
+	/**
+	 * This method replays all records of the journal files (a left over compacting journal first, then the active journal)
+	 * to the given handler. A torn record at the end of the active journal will be cut off.
+	 *
+	 * @param handler Handler, which applies the records to the container.
+	 * @throws IOException
+	 */
+	public synchronized void replay(ReplayHandler handler) throws IOException{
+		if(compactingFile.exists()){
+			Logger.warn("Found journal of an unfinished compaction at '"+compactingFile.getPath()+"'. Replay it.");
+			replayFile(compactingFile, handler);
+		}
+		if(journalFile.exists()){
+			long validLength = replayFile(journalFile, handler);
+			if(validLength < journalFile.length()){
+				Logger.warn("Journal '"+journalFile.getPath()+"' ends with an incomplete record. Cut off at byte "+validLength+".");
+				try(RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")){
+					raf.setLength(validLength);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method replays a single journal file and returns the length of its valid part.
+	 */
+	private long replayFile(File file, ReplayHandler handler) throws IOException{
+		long validLength = 0;
+		int replayed = 0;
+
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+			while(true){
+				byte[] record;
+				int checksum;
+				try{
+					int length = in.readInt();
+					checksum = in.readInt();
+					if(length < 5 || length > file.length() - validLength - 8){
+						break;
+					}
+					record = new byte[length];
+					in.readFully(record);
+				}
+				catch(EOFException e){
+					break;
+				}
+
+				CRC32 crc = new CRC32();
+				crc.update(record);
+				if((int) crc.getValue() != checksum){
+					Logger.warn("Checksum mismatch in journal '"+file.getPath()+"' at byte "+validLength+".");
+					break;
+				}
+
+				replayed += applyRecord(record, handler);
+				validLength += 8 + record.length;
+			}
+		}
+
+		if(file.equals(journalFile)){
+			recordCount = replayed;
+		}
+		Logger.info(replayed+" records replayed from journal '"+file.getPath()+"'.");
+		return validLength;
+	}
+
+	/**
+	 * This method applies a single record and returns the number of its operations.
+	 */
+	private int applyRecord(byte[] record, ReplayHandler handler) throws IOException{
+		DataInputStream body = new DataInputStream(new ByteArrayInputStream(record));
+		byte operation = body.readByte();
+		int id = body.readInt();
+
+		if(operation == OP_BATCH){
+			for(int i = 0; i < id; i++){
+				applyOperation(body.readByte(), body.readInt(), body, handler);
+			}
+			return id;
+		}
+		applyOperation(operation, id, body, handler);
+		return 1;
+	}
+
+	private void applyOperation(byte operation, int id, DataInputStream body, ReplayHandler handler) throws IOException{
+		switch(operation){
+		case OP_PUT:
+			handler.put(codec.readBean(body));
+			break;
+		case OP_DELETE:
+			handler.delete(id);
+			break;
+		default:
+			throw new IOException("Unknown journal operation "+operation+".");
+		}
+	}
+
+	/**
+	 * This class collects put and delete operations, which are appended to the journal as a single record
+	 * by {@link BeanContainerJournal#appendBatch(Batch)}.
+	 */
+	public class Batch {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		private final DataOutputStream out = new DataOutputStream(bytes);
+		private int size;
+
+		private Batch(){}
+
+		/**
+		 * @param bean Bean, which has been added or edited.
+		 * @throws IOException
+		 */
+		public void put(CardCollectionBean bean) throws IOException{
+			out.writeByte(OP_PUT);
+			out.writeInt(bean.getId());
+			codec.writeBean(bean, out);
+			size++;
+		}
+
+		/**
+		 * @param id ID of the deleted bean.
+		 * @throws IOException
+		 */
+		public void delete(int id) throws IOException{
+			out.writeByte(OP_DELETE);
+			out.writeInt(id);
+			size++;
+		}
+
+		/**
+		 * @return Number of operations of this batch.
+		 */
+		public int size(){
+			return size;
+		}
+	}
+
+	/**
+	 * This method checks, whether a journal of an unfinished compaction is left over.
+	 *
+	 * @return {@code true}, if a compaction has not been finished.
+	 */
+	public synchronized boolean hasUnfinishedCompaction(){
+		return compactingFile.exists();
+	}
+
+	/**
+	 * This method moves the active journal aside in order to compact it into a new snapshot. Records appended afterwards
+	 * are written to a fresh journal file. Call {@link #finishCompaction()} once the new snapshot has been written.
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void rotate() throws IOException{
+		close();
+		if(journalFile.exists()){
+			if(compactingFile.exists()){
+				/* left over of an unfinished compaction: merge both, the next snapshot will contain all of their records */
+				Files.write(compactingFile.toPath(), Files.readAllBytes(journalFile.toPath()), StandardOpenOption.APPEND);
+				Files.delete(journalFile.toPath());
+			}
+			else if(!journalFile.renameTo(compactingFile)){
+				throw new IOException("Failed to move journal '"+journalFile.getPath()+"' for compaction.");
+			}
+		}
+		recordCount = 0;
+	}
+
+	/**
+	 * This method deletes the journal, which has been moved aside by {@link #rotate()}. It must only be called, after
+	 * the snapshot containing all of its records has been written successfully.
+	 */
+	public synchronized void finishCompaction(){
+		if(compactingFile.exists() && !compactingFile.delete()){
+			Logger.error("Failed to delete compacted journal at '"+compactingFile.getPath()+"'.");
+		}
+	}
+
+	/**
+	 * This method closes the underlying file of the active journal. It will be reopened by the next append.
+	 */
+	public synchronized void close(){
+		if(out != null){
+			try {
+				out.close();
+			} catch (IOException e) {
+				Logger.warn("Failed to close journal at '"+journalFile.getPath()+"'.");
+				Logger.warn(e.getMessage());
+			}
+			out = null;
+		}
+	}
+
+}
@@ -0,0 +1,328 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+
+/**
+ * This class persists the changes of a bean container write-behind: the thread, which changes the container, only encodes
+ * journal records and enqueues them. A single background thread writes all records, which have been enqueued within
+ * a short delay, with a single write call, so bursts of changes are coalesced into one save.
+ * <br><br>
+ * Full snapshots are enqueued as well. They are encoded by the enqueueing thread and written in the order of their
+ * enqueueing, i.e. after all records enqueued before them, while all later records go into the fresh journal.
+ * {@link #flush()} waits until everything enqueued has been written, e.g. before the application gets closed,
+ * and reports, whether the container has to enqueue a snapshot, since a write failed.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class BeanContainerWriter {
+
+	/**
+	 * Single entry of the write queue: either encoded journal records or a snapshot.
+	 */
+	private static class PendingWrite {
+		private final BeanContainerJournal journal;
+		private final byte[] records;
+		private final int operations;
+		private final byte[] snapshot;
+		private final long enqueueTime = System.nanoTime();
+
+		private PendingWrite(BeanContainerJournal journal, byte[] records, int operations, byte[] snapshot){
+			this.journal = journal;
+			this.records = records;
+			this.operations = operations;
+			this.snapshot = snapshot;
+		}
+	}
+
+	private final BeanBinaryCodec codec;
+	private final long delayMillis;
+	private final ScheduledExecutorService executor;
+
+	private final List<PendingWrite> pending = new ArrayList<PendingWrite>();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+	private BeanContainerJournal activeJournal;						/* only used by the writer thread */
+	private int operationsSinceSnapshot;							/* guarded by pending */
+	private volatile boolean snapshotRequired;
+
+	private final AtomicLong saveCount = new AtomicLong();
+	private final AtomicLong snapshotCount = new AtomicLong();
+	private final AtomicLong writtenOperations = new AtomicLong();
+	private final AtomicLong totalLatency = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * Constructor, which creates a {@link BeanContainerWriter} object.
+	 *
+	 * @param codec {@link BeanBinaryCodec} of the bean type within the container.
+	 * @param delayMillis Delay between the first enqueued change and its save. All changes within the delay are saved together.
+	 * @param threadName Name of the background thread.
+	 */
+	public BeanContainerWriter(BeanBinaryCodec codec, long delayMillis, final String threadName){
+		this.codec = codec;
+		this.delayMillis = delayMillis;
+		this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, threadName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * This method enqueues records, which have been encoded by the given journal.
+	 *
+	 * @param journal {@link BeanContainerJournal}, to which the records should be appended.
+	 * @param records One or more framed records.
+	 * @param operations Number of operations of the records.
+	 */
+	public void enqueueRecords(BeanContainerJournal journal, byte[] records, int operations){
+		synchronized(pending){
+			pending.add(new PendingWrite(journal, records, operations, null));
+			operationsSinceSnapshot += operations;
+		}
+		scheduleFlush();
+	}
+
+	/**
+	 * This method enqueues a full snapshot of the container. The container is encoded right away by the calling thread,
+	 * since its beans might be edited again before the snapshot gets written. Once it has been written, the journal
+	 * records enqueued before it are discarded.
+	 *
+	 * @param journal {@link BeanContainerJournal} of the snapshot file.
+	 * @param container Container, of which the snapshot should be taken.
+	 */
+	public void enqueueSnapshot(BeanContainerJournal journal, List<CardCollectionBean> container){
+		byte[] snapshot;
+		try {
+			snapshot = AbstractBeanContainer.encodeContainer(container, codec);
+		} catch (IOException e) {
+			Logger.error("Failed to encode snapshot of '{}'.", journal.getSnapshotUrl());
+			Logger.error(e.getMessage());
+			snapshotRequired = true;
+			return;
+		}
+		synchronized(pending){
+			pending.add(new PendingWrite(journal, null, 0, snapshot));
+			operationsSinceSnapshot = 0;
+			snapshotRequired = false;
+		}
+		scheduleFlush();
+	}
+
+	/**
+	 * This method returns the number of operations, which have been enqueued since the last snapshot.
+	 *
+	 * @return Number of operations since the last snapshot.
+	 */
+	public int getOperationsSinceSnapshot(){
+		synchronized(pending){
+			return operationsSinceSnapshot;
+		}
+	}
+
+	/**
+	 * This method signals, whether records could not be written. In that case, the container should enqueue a snapshot.
+	 *
+	 * @return {@code true}, if a snapshot is required.
+	 */
+	public boolean isSnapshotRequired(){
+		return snapshotRequired;
+	}
+
+	/**
+	 * This method sets the number of operations since the last snapshot, e.g. after a journal has been replayed.
+	 *
+	 * @param operations Number of operations in the journal.
+	 */
+	public void setOperationsSinceSnapshot(int operations){
+		synchronized(pending){
+			operationsSinceSnapshot = operations;
+		}
+	}
+
+	/**
+	 * This method blocks until all enqueued records and snapshots have been written. If a record or snapshot could not
+	 * be written, the changes are only kept in memory, so the container has to enqueue a full snapshot and flush again.
+	 *
+	 * @return {@code true}, if everything has been written, {@code false}, if a snapshot is required.
+	 */
+	public boolean flush(){
+		try {
+			executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					drain();
+				}
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Logger.warn("Interrupted while waiting for pending saves.");
+			return false;
+		} catch (ExecutionException e) {
+			Logger.error("Failed to write pending saves.");
+			Logger.error(e.getMessage());
+			snapshotRequired = true;
+		}
+		return !snapshotRequired;
+	}
+
+	private void scheduleFlush(){
+		if(flushScheduled.compareAndSet(false, true)){
+			executor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					flushScheduled.set(false);
+					drain();
+				}
+			}, delayMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * This method writes all pending entries. Consecutive records for the same journal are written with a single call.
+	 * It is only called by the writer thread.
+	 */
+	private void drain(){
+		List<PendingWrite> writes;
+		synchronized(pending){
+			if(pending.isEmpty()){
+				return;
+			}
+			writes = new ArrayList<PendingWrite>(pending);
+			pending.clear();
+		}
+
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		int operations = 0;
+		long runStart = 0;
+		for(int i = 0; i < writes.size(); i++){
+			PendingWrite write = writes.get(i);
+			switchJournal(write.journal);
+
+			if(write.snapshot != null){
+				writeSnapshot(write);
+				continue;
+			}
+
+			if(operations == 0){
+				runStart = write.enqueueTime;
+			}
+			records.write(write.records, 0, write.records.length);
+			operations += write.operations;
+			boolean lastOfRun = i == writes.size() - 1 || writes.get(i + 1).snapshot != null
+								|| writes.get(i + 1).journal != write.journal;
+			if(lastOfRun){
+				writeRecords(records.toByteArray(), operations, runStart);
+				records.reset();
+				operations = 0;
+			}
+		}
+	}
+
+	private void switchJournal(BeanContainerJournal journal){
+		if(activeJournal != null && activeJournal != journal){
+			activeJournal.close();
+		}
+		activeJournal = journal;
+	}
+
+	private void writeRecords(byte[] records, int operations, long enqueueTime){
+		try {
+			activeJournal.appendEncoded(records, operations);
+			saveCount.incrementAndGet();
+			writtenOperations.addAndGet(operations);
+			recordLatency(enqueueTime);
+		} catch (IOException e) {
+			Logger.error("Failed to append {} operations to journal of '{}'. Request full snapshot.", operations, activeJournal.getSnapshotUrl());
+			Logger.error(e.getMessage());
+			snapshotRequired = true;
+		}
+	}
+
+	private void writeSnapshot(PendingWrite write){
+		String url = write.journal.getSnapshotUrl();
+		try {
+			write.journal.rotate();
+			AbstractBeanContainer.serializeEncodedContainer(write.snapshot, url);
+			write.journal.finishCompaction();
+			snapshotCount.incrementAndGet();
+			recordLatency(write.enqueueTime);
+			Logger.info("Snapshot of {} bytes stored to file '{}'.", write.snapshot.length, url);
+		} catch (IOException e) {
+			Logger.error("Failed to save snapshot to file '{}'.", url);
+			Logger.error(e.getMessage());
+			snapshotRequired = true;
+		}
+	}
+
+	private void recordLatency(long enqueueTime){
+		long latency = (System.nanoTime() - enqueueTime) / 1000000;
+		totalLatency.addAndGet(latency);
+		if(latency > maxLatency.get()){
+			maxLatency.set(latency);
+		}
+	}
+
+	/**
+	 * @return Number of entries, which wait to be written.
+	 */
+	public int getPendingCount(){
+		synchronized(pending){
+			return pending.size();
+		}
+	}
+
+	/**
+	 * @return Number of write calls, which appended journal records.
+	 */
+	public long getSaveCount(){
+		return saveCount.get();
+	}
+
+	/**
+	 * @return Number of snapshots, which have been written.
+	 */
+	public long getSnapshotCount(){
+		return snapshotCount.get();
+	}
+
+	/**
+	 * @return Number of operations, which have been appended to a journal. Divided by {@link #getSaveCount()},
+	 * 		   it shows how many operations have been coalesced into a single save on average.
+	 */
+	public long getWrittenOperationCount(){
+		return writtenOperations.get();
+	}
+
+	/**
+	 * @return Average time between the enqueueing of a change and its save in milliseconds.
+	 */
+	public long getAverageLatencyMillis(){
+		long saves = saveCount.get() + snapshotCount.get();
+		return saves == 0 ? 0 : totalLatency.get() / saves;
+	}
+
+	/**
+	 * @return Maximum time between the enqueueing of a change and its save in milliseconds.
+	 */
+	public long getMaxLatencyMillis(){
+		return maxLatency.get();
+	}
+
+}
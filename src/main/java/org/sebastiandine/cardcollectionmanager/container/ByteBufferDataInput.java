@@ -0,0 +1,156 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * This class reads the primitive values of a {@link DataInput} from a {@link ByteBuffer}, starting at its current position.
+ * It lets the decoders of the binary codecs (e.g. {@link CardBeanBinaryCodec}) read straight from a buffer, so every
+ * format has a single decoder for streams and buffers. An exhausted buffer is reported by an {@link EOFException},
+ * like by a {@link DataInputStream}.
+ *
+ * @author Sebastian Dine
+ *
+ */
+class ByteBufferDataInput implements DataInput {
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * Constructor, which creates a {@link ByteBufferDataInput} object.
+	 *
+	 * @param buffer Source buffer. Its position is advanced by every read.
+	 */
+	ByteBufferDataInput(ByteBuffer buffer){
+		this.buffer = buffer;
+	}
+
+	/**
+	 * @return Number of bytes, which are left to be read.
+	 */
+	int remaining(){
+		return buffer.remaining();
+	}
+
+	@Override
+	public void readFully(byte[] b) throws IOException {
+		readFully(b, 0, b.length);
+	}
+
+	@Override
+	public void readFully(byte[] b, int off, int len) throws IOException {
+		if(len > buffer.remaining()){
+			throw new EOFException();
+		}
+		buffer.get(b, off, len);
+	}
+
+	@Override
+	public int skipBytes(int n) {
+		int skipped = Math.max(0, Math.min(n, buffer.remaining()));
+		buffer.position(buffer.position() + skipped);
+		return skipped;
+	}
+
+	@Override
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	@Override
+	public byte readByte() throws IOException {
+		try {
+			return buffer.get();
+		} catch (BufferUnderflowException e) {
+			throw new EOFException();
+		}
+	}
+
+	@Override
+	public int readUnsignedByte() throws IOException {
+		return readByte() & 0xFF;
+	}
+
+	@Override
+	public short readShort() throws IOException {
+		try {
+			return buffer.getShort();
+		} catch (BufferUnderflowException e) {
+			throw new EOFException();
+		}
+	}
+
+	@Override
+	public int readUnsignedShort() throws IOException {
+		return readShort() & 0xFFFF;
+	}
+
+	@Override
+	public char readChar() throws IOException {
+		return (char) readShort();
+	}
+
+	@Override
+	public int readInt() throws IOException {
+		try {
+			return buffer.getInt();
+		} catch (BufferUnderflowException e) {
+			throw new EOFException();
+		}
+	}
+
+	@Override
+	public long readLong() throws IOException {
+		try {
+			return buffer.getLong();
+		} catch (BufferUnderflowException e) {
+			throw new EOFException();
+		}
+	}
+
+	@Override
+	public float readFloat() throws IOException {
+		return Float.intBitsToFloat(readInt());
+	}
+
+	@Override
+	public double readDouble() throws IOException {
+		return Double.longBitsToDouble(readLong());
+	}
+
+	/**
+	 * This method reads the bytes up to the next line terminator as characters of ISO-8859-1, like
+	 * {@link DataInputStream#readLine()}.
+	 */
+	@Override
+	public String readLine() throws IOException {
+		if(!buffer.hasRemaining()){
+			return null;
+		}
+		StringBuilder line = new StringBuilder();
+		while(buffer.hasRemaining()){
+			char c = (char) (buffer.get() & 0xFF);
+			if(c == '\n'){
+				break;
+			}
+			if(c == '\r'){
+				if(buffer.hasRemaining() && buffer.get(buffer.position()) == '\n'){
+					buffer.get();
+				}
+				break;
+			}
+			line.append(c);
+		}
+		return line.toString();
+	}
+
+	@Override
+	public String readUTF() throws IOException {
+		return DataInputStream.readUTF(this);
+	}
+
+}
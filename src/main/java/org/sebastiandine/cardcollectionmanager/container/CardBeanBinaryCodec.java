@@ -0,0 +1,213 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+/**
+ * This codec persists containers of {@link CardBean} objects in a compact binary format. The sets of all cards
+ * are stored only once in a dictionary and referenced by their index.
+ * <br><br>
+ * Schema version 1: {@code [int setCount]} followed by the set dictionary (see {@link SetBeanBinaryCodec}),
+ * then {@code [int cardCount]} followed by the cards. Each card is written as
+ * {@code [int id][string name][int setIndex][byte language][byte condition][int amount][byte flags]
+ * [string note][string imageFront][string imageBack]}.
+ * <ul>
+ * <li>{@code setIndex}, {@code language} and {@code condition} are {@code -1}, if not maintained.</li>
+ * <li>{@code language} and {@code condition} are the ordinals of {@link LanguageEnum} and {@link ConditionEnum}.
+ * New constants must therefore only be appended to these enumerations.</li>
+ * <li>{@code flags} combines foil ({@code 1}), signed ({@code 2}) and altered ({@code 4}).</li>
+ * </ul>
+ * Single cards (e.g. journal records) are written in the same layout, but with the set inline instead of
+ * {@code setIndex}. The set is prefixed by a byte, which is {@code 0}, if no set is maintained, and {@code 1} otherwise.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardBeanBinaryCodec extends BeanBinaryCodec {
+
+	private static final int MAGIC = 0x43434D43; /* 'CCMC' */
+	private static final short VERSION = 1;
+
+	private static final byte INLINE_NO_SET = 0;
+	private static final byte INLINE_SET = 1;
+
+	private static final int FLAG_FOIL = 1;
+	private static final int FLAG_SIGNED = 2;
+	private static final int FLAG_ALTERED = 4;
+
+	private static final LanguageEnum[] LANGUAGES = LanguageEnum.values();
+	private static final ConditionEnum[] CONDITIONS = ConditionEnum.values();
+
+	@Override
+	public int getMagic() {
+		return MAGIC;
+	}
+
+	@Override
+	public short getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	protected void writeContent(List<CardCollectionBean> container, DataOutputStream out) throws IOException {
+
+		/* build set dictionary */
+		List<SetBean> sets = new ArrayList<SetBean>();
+		Map<String, Integer> setIndexByCode = new HashMap<String, Integer>();
+		int[] setIndices = new int[container.size()];
+
+		for(int i = 0; i < container.size(); i++){
+			SetBean set = ((CardBean) container.get(i)).getSet();
+			if(set == null){
+				setIndices[i] = -1;
+				continue;
+			}
+			Integer index = setIndexByCode.get(set.getCode());
+			if(index == null){
+				index = sets.size();
+				sets.add(set);
+				setIndexByCode.put(set.getCode(), index);
+			}
+			setIndices[i] = index;
+		}
+
+		out.writeInt(sets.size());
+		for(SetBean set : sets){
+			SetBeanBinaryCodec.writeSet(set, out);
+		}
+
+		out.writeInt(container.size());
+		for(int i = 0; i < container.size(); i++){
+			CardBean card = (CardBean) container.get(i);
+			out.writeInt(card.getId());
+			writeString(card.getName(), out);
+			out.writeInt(setIndices[i]);
+			writeCardAttributes(card, out);
+		}
+	}
+
+	@Override
+	protected List<CardCollectionBean> readContent(DataInput in, short version) throws IOException {
+
+		int setCount = in.readInt();
+		SetBean[] sets = new SetBean[setCount];
+		for(int i = 0; i < setCount; i++){
+			sets[i] = SetBeanBinaryCodec.readSet(in);
+		}
+
+		int cardCount = in.readInt();
+		List<CardCollectionBean> container = new ArrayList<CardCollectionBean>(cardCount);
+		for(int i = 0; i < cardCount; i++){
+			CardBean card = new CardBean();
+			card.setId(in.readInt());
+			readRecord(card, sets, in);
+			container.add(card);
+		}
+		return container;
+	}
+
+	@Override
+	public void writeBean(CardCollectionBean bean, DataOutputStream out) throws IOException {
+		CardBean card = (CardBean) bean;
+		out.writeInt(card.getId());
+		writeString(card.getName(), out);
+		if(card.getSet() == null){
+			out.writeByte(INLINE_NO_SET);
+		}
+		else{
+			out.writeByte(INLINE_SET);
+			SetBeanBinaryCodec.writeSet(card.getSet(), out);
+		}
+		writeCardAttributes(card, out);
+	}
+
+	@Override
+	public CardCollectionBean readBean(DataInputStream in) throws IOException {
+		CardBean card = new CardBean();
+		card.setId(in.readInt());
+		card.setName(readString(in));
+		byte setLayout = in.readByte();
+		if(setLayout == INLINE_SET){
+			card.setSet(SetBeanBinaryCodec.readSet(in));
+		}
+		else if(setLayout != INLINE_NO_SET){
+			throw new IOException("Invalid set layout "+setLayout+" of card with id="+card.getId()+".");
+		}
+		readCardAttributes(card, in);
+		return card;
+	}
+
+	/**
+	 * This method writes all attributes of a card, which follow its set.
+	 */
+	private static void writeCardAttributes(CardBean card, DataOutputStream out) throws IOException{
+		out.writeByte(card.getLanguage() == null ? -1 : card.getLanguage().ordinal());
+		out.writeByte(card.getCondition() == null ? -1 : card.getCondition().ordinal());
+		out.writeInt(card.getAmount());
+
+		int flags = 0;
+		if(card.isFoil()) flags |= FLAG_FOIL;
+		if(card.isSigned()) flags |= FLAG_SIGNED;
+		if(card.isAltered()) flags |= FLAG_ALTERED;
+		out.writeByte(flags);
+
+		writeString(card.getNote(), out);
+		writeString(card.getImageFront() == null ? null : card.getImageFront().getName(), out);
+		writeString(card.getImageBack() == null ? null : card.getImageBack().getName(), out);
+	}
+
+	/**
+	 * This method reads the record of a card within a container {@code [string name][int setIndex][attributes]}, which follows its ID.
+	 *
+	 * @param card Card, whose ID has already been read.
+	 * @param sets Set dictionary of the container.
+	 */
+	private static void readRecord(CardBean card, SetBean[] sets, DataInput in) throws IOException{
+		card.setName(readString(in));
+		int setIndex = in.readInt();
+		if(setIndex >= sets.length){
+			throw new IOException("Invalid set index "+setIndex+" of card with id="+card.getId()+".");
+		}
+		card.setSet(setIndex < 0 ? null : sets[setIndex]);
+		readCardAttributes(card, in);
+	}
+
+	/**
+	 * This method reads all attributes of a card, which follow its set.
+	 */
+	private static void readCardAttributes(CardBean card, DataInput in) throws IOException{
+		byte language = in.readByte();
+		byte condition = in.readByte();
+		if(language >= LANGUAGES.length || condition >= CONDITIONS.length){
+			throw new IOException("Invalid language or condition of card with id="+card.getId()+".");
+		}
+		card.setLanguage(language < 0 ? null : LANGUAGES[language]);
+		card.setCondition(condition < 0 ? null : CONDITIONS[condition]);
+		card.setAmount(in.readInt());
+
+		int flags = in.readByte();
+		card.setFoil((flags & FLAG_FOIL) != 0);
+		card.setSigned((flags & FLAG_SIGNED) != 0);
+		card.setAltered((flags & FLAG_ALTERED) != 0);
+
+		card.setNote(readString(in));
+		String imageFront = readString(in);
+		String imageBack = readString(in);
+		card.setImageFront(imageFront == null ? null : new File(imageFront));
+		card.setImageBack(imageBack == null ? null : new File(imageBack));
+	}
+
+}
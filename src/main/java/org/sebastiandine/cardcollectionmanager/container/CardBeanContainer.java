@@ -1,13 +1,17 @@
 package org.sebastiandine.cardcollectionmanager.container;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
 import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
 import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 import org.sebastiandine.cardcollectionmanager.services.CardBeanImageServices;
@@ -25,25 +29,147 @@ public class CardBeanContainer extends AbstractBeanContainer {
 	 * This is the internal list which holds the {@link CardBean} objects to which 
 	 * this container class provides interaction functionalities.
 	 * Be aware that this list as specified by interface {@link CardCollectionBean} in order to
-	 * use functionalites from parent class {@link AbstractBeanContainer}.
+	 * use functionalites from parent class {@link AbstractBeanContainer}. It keeps an index of all
+	 * IDs, so lookups and deletions by ID do not need to scan the list.
 	 */
-	private static List<CardCollectionBean> cardBeanList;
+	private static IndexedBeanList cardBeanList;
+	
+	/**
+	 * Read-only view of {@link #cardBeanList}, typed as {@link CardBean}. It does not copy any element.
+	 */
+	private static final List<CardBean> cardBeanView = new CardBeanView();
+	
+	/**
+	 * All {@link CardBean} objects of {@link #cardBeanList}, sorted by name. It is kept up to date
+	 * with every add, update and deletion instead of being sorted on each request.
+	 */
+	private static final NameSortedCardBeanList cardBeansSortedByName = new NameSortedCardBeanList();
+	
+	/**
+	 * Secondary indexes of all {@link CardBean} objects of {@link #cardBeanList} by set, name, language, condition and flags.
+	 * They are kept up to date with every add, update and deletion and answer {@link #query()}.
+	 */
+	private static final CardBeanIndex cardBeanIndex = new CardBeanIndex();
+	
+	/**
+	 * Distinct names of all {@link CardBean} objects of {@link #cardBeanList} and of the card catalog for the autocompletion
+	 * of card names. It is kept up to date with every add, update and deletion.
+	 */
+	private static final CardNameIndex cardNameIndex = new CardNameIndex();
+	
+	/**
+	 * Listeners, which get notified about every add, update and deletion.
+	 */
+	private static final List<CardBeanContainerListener> listeners = new CopyOnWriteArrayList<CardBeanContainerListener>();
+	
+	/**
+	 * Number of journal records after which the journal gets compacted into a fresh snapshot.
+	 */
+	private static final int COMPACTION_THRESHOLD = 1000;
+	
+	/**
+	 * Journal, to which every single change of {@link #cardBeanList} is appended.
+	 */
+	private static BeanContainerJournal journal;
+	
+	/**
+	 * Binary codec, which is used to persist {@link #cardBeanList} and the records of {@link #journal}.
+	 */
+	private static final BeanBinaryCodec codec = new CardBeanBinaryCodec();
+	
+	/**
+	 * Delay, within which all changes are coalesced into a single save.
+	 */
+	private static final long WRITE_DELAY_MILLIS = 200;
+	
+	/**
+	 * Background writer, which appends the journal records and writes the snapshots, so no file I/O
+	 * happens on the thread which changes the container.
+	 */
+	private static final BeanContainerWriter writer = new BeanContainerWriter(codec, WRITE_DELAY_MILLIS, "carddata-writer");
 	
 	/**
 	 * Static constructor. Here the serialized {@link CardBean} objects are getting
-	 * deserialized and stored to list {@link #cardBeanList}.
+	 * deserialized and stored to list {@link #cardBeanList}. Afterwards the journal of
+	 * changes since the last snapshot gets replayed on top of it.
 	 */
 	static{
+		long loadStart = System.nanoTime();
 		try {
 			Logger.debug("Try to deserialize CardBean data at '"+PropertiesFactory.getCardDataFileUrl()+"'.");
-			cardBeanList = deserializeContainer(PropertiesFactory.getCardDataFileUrl());
+			cardBeanList = new IndexedBeanList(deserializeContainer(PropertiesFactory.getCardDataFileUrl(), codec));
 		} catch (ClassNotFoundException e) {
 			Logger.fatal(e.getMessage());
 			e.printStackTrace();
-		} catch (IOException e) {									/* If no carddata file gets detected, a new one will be created */					
-			cardBeanList = new ArrayList<CardCollectionBean>();
+		} catch (FileNotFoundException e) {							/* If no carddata file gets detected, a new one will be created */					
+			cardBeanList = new IndexedBeanList();
 			Logger.warn("No serialized CardBean data found at '"+PropertiesFactory.getCardDataFileUrl()+"'.");
 			Logger.info("Plain CardBean container created.");
+		} catch (IOException e) {									/* all generations damaged: keep them, before they get replaced by new snapshots */
+			cardBeanList = new IndexedBeanList();
+			Logger.fatal("No generation of the CardBean data at '"+PropertiesFactory.getCardDataFileUrl()+"' could be read.");
+			preserveDamagedContainer(PropertiesFactory.getCardDataFileUrl());
+			Logger.info("Plain CardBean container created.");
+		}
+		
+		journal = new BeanContainerJournal(PropertiesFactory.getCardDataFileUrl(), codec);
+		if(cardBeanList != null){
+			replayJournal();
+			canonicalizeSets();
+			cardBeansSortedByName.rebuild(cardBeanList);
+			cardBeanIndex.rebuild(cardBeanList);
+			cardNameIndex.clearCardNames();
+			for(CardCollectionBean bean : cardBeanList){
+				cardNameIndex.addCardName(((CardBean) bean).getName());
+			}
+			Logger.info("Loaded {} cards in {} ms.", cardBeanList.size(), (System.nanoTime() - loadStart) / 1000000);
+		}
+		
+		/* pending changes must not get lost, if the application is terminated without closing the main window */
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, "carddata-shutdown-flush"));
+	}
+	
+	/**
+	 * This method replays the journal of {@link CardBean} changes on top of the deserialized snapshot.
+	 * If a compaction has not been finished during the last run, a fresh snapshot will be written right away.
+	 */
+	private static void replayJournal(){
+		try {
+			journal.replay(new BeanContainerJournal.ReplayHandler() {
+				@Override
+				public void put(CardCollectionBean bean) {
+					putBeanToContainer(cardBeanList, bean);
+				}
+				@Override
+				public void delete(int id) {
+					deleteBeanById(cardBeanList, id);
+				}
+			});
+		} catch (IOException e) {
+			Logger.error("Failed to replay CardBean journal of '"+PropertiesFactory.getCardDataFileUrl()+"'.");
+			Logger.error(e.getMessage());
+		}
+		
+		writer.setOperationsSinceSnapshot(journal.getRecordCount());
+		if(journal.hasUnfinishedCompaction()){
+			saveCardBeanList();
+		}
+	}
+	
+	/**
+	 * This method replaces the set of every loaded {@link CardBean} object by its canonical instance of
+	 * {@link SetBeanContainer}, so all cards of a set share a single {@link SetBean} object instead of one copy per
+	 * snapshot dictionary and journal record.
+	 */
+	private static void canonicalizeSets(){
+		for(int i = 0; i < cardBeanList.size(); i++){
+			CardBean card = (CardBean) cardBeanList.get(i);
+			card.setSet(SetBeanContainer.canonicalize(card.getSet()));
 		}
 	}
 	
@@ -60,9 +186,105 @@ public class CardBeanContainer extends AbstractBeanContainer {
 	 * 		  does not need to be predefined.
 	 */
 	public static void addCardBean(CardBean card){
+		applyAdd(card);
+		journalPut(card);
+		Logger.info("CardBean added to CardBeanContainer: {}.", card);
+	}
+	
+	/**
+	 * This method persists the changes of a {@link CardBean} object, which has been edited in place.
+	 * If the container does not hold a {@link CardBean} with the same ID yet, it will be added.
+	 * 
+	 * @param card Edited {@link CardBean} object with an already assigned ID.
+	 */
+	public static void updateCardBean(CardBean card){
+		applyUpdate(card);
+		journalPut(card);
+		Logger.info("CardBean updated in CardBeanContainer: {}.", card);
+	}
+	
+	/**
+	 * This method starts a new {@link Batch}, which collects several adds, updates and deletions.
+	 * They are applied and persisted together by {@link Batch#commit()}.
+	 * 
+	 * @return New, empty {@link Batch}.
+	 */
+	public static Batch beginBatch(){
+		return new Batch();
+	}
+	
+	/**
+	 * Adds the given {@link CardBean} object to the in-memory structures and notifies the listeners.
+	 */
+	private static void applyAdd(CardBean card){
+		card.setSet(SetBeanContainer.canonicalize(card.getSet()));
 		addBeanToContainer(cardBeanList, card);
-		saveCardBeanList();
-		Logger.info("CardBean added to CardBeanContainer: "+card.toString()+".");
+		int position = cardBeansSortedByName.insert(card);
+		cardBeanIndex.add(card);
+		cardNameIndex.addCardName(card.getName());
+		for(CardBeanContainerListener listener : listeners){
+			listener.cardBeanInserted(card, position);
+		}
+	}
+	
+	/**
+	 * Puts the given {@link CardBean} object into the in-memory structures and notifies the listeners.
+	 */
+	private static void applyUpdate(CardBean card){
+		card.setSet(SetBeanContainer.canonicalize(card.getSet()));
+		CardBean replaced = (CardBean) cardBeanList.getById(card.getId());		/* null for a new card, which is not worth a warning */
+		putBeanToContainer(cardBeanList, card);
+		int oldPosition = -1;
+		if(replaced != null){
+			oldPosition = cardBeansSortedByName.remove(replaced);
+		}
+		int newPosition = cardBeansSortedByName.insert(card);
+		/* the name might have been edited in place, so the name index is updated by the key of the secondary index */
+		String oldNameKey = cardBeanIndex.getNameKey(card.getId());
+		if(oldNameKey != null){
+			cardNameIndex.removeCardName(oldNameKey);
+		}
+		cardBeanIndex.add(card);
+		cardNameIndex.addCardName(card.getName());
+		for(CardBeanContainerListener listener : listeners){
+			if(oldPosition < 0){
+				listener.cardBeanInserted(card, newPosition);
+			}
+			else{
+				listener.cardBeanUpdated(card, oldPosition, newPosition);
+			}
+		}
+	}
+	
+	/**
+	 * Deletes the {@link CardBean} object with the given ID and its image files, and notifies the listeners.
+	 * 
+	 * @return {@code true}, if the container held a {@link CardBean} object with the given ID.
+	 */
+	private static boolean applyDelete(int id){
+		CardBean deleted = (CardBean) getBeanById(cardBeanList, id);
+		if(deleted == null){
+			return false;
+		}
+		
+		try {
+			CardBeanImageServices.deleteImageFiles(deleted);
+		} catch (IOException e) {
+			Logger.warn("Failed to delete corrsponding image files.");
+			Logger.warn(e.getMessage());
+		}
+		
+		int position = cardBeansSortedByName.remove(deleted);
+		deleteBeanById(cardBeanList, id);
+		String nameKey = cardBeanIndex.getNameKey(id);
+		if(nameKey != null){
+			cardNameIndex.removeCardName(nameKey);
+		}
+		cardBeanIndex.remove(id);
+		for(CardBeanContainerListener listener : listeners){
+			listener.cardBeanDeleted(deleted, position);
+		}
+		return true;
 	}
 	
 	/**
@@ -73,6 +295,16 @@ public class CardBeanContainer extends AbstractBeanContainer {
 		return getNextId(cardBeanList);
 	}
 	
+	/**
+	 * This method checks, whether the container holds a {@link CardBean} element with the given 'id'.
+	 * 
+	 * @param id ID of the {@link CardBean} element.
+	 * @return {@code true}, if an element with the given ID exists.
+	 */
+	public static boolean containsCardBeanId(int id){
+		return cardBeanList.indexOfId(id) >= 0;
+	}
+	
 	/**
 	 * This method deletes the {@link CardBean} element with the given 'id' from the internal list of {@link CardBean} objects.
 	 * 
@@ -80,17 +312,13 @@ public class CardBeanContainer extends AbstractBeanContainer {
 	 * 	      the id of a target object.
 	 */
 	public static void deleteCardBeanById(int id){
-		
-		try {
-			CardBeanImageServices.deleteImageFiles(getCardBeanById(id));
-		} catch (IOException e) {
-			Logger.warn("Failed to delete corrsponding image files.");
-			Logger.warn(e.getMessage());
+		if(!applyDelete(id)){
+			return;
 		}
-		
-		deleteBeanById(cardBeanList, id);
-		saveCardBeanList();
-		Logger.info("CardBean with ID="+id+" deleted.");
+		BeanContainerJournal activeJournal = getJournal();
+		writer.enqueueRecords(activeJournal, activeJournal.encodeDelete(id), 1);
+		compactJournalIfRequired();
+		Logger.info("CardBean with ID={} deleted.", id);
 	}
 	
 	/**
@@ -100,7 +328,7 @@ public class CardBeanContainer extends AbstractBeanContainer {
 	 * @return {@link CardBean} element with the given ID. {@code null}, if no element with the given ID exists.
 	 */
 	public static CardBean getCardBeanById(int id){
-		Logger.debug("Try to get CardBean with ID="+id+".");
+		Logger.debug("Try to get CardBean with ID={}.", id);
 		CardBean bean = (CardBean) getBeanById(cardBeanList, id);
 		if(bean == null){
 			return CardBean.DUMMY;
@@ -111,17 +339,102 @@ public class CardBeanContainer extends AbstractBeanContainer {
 	}
 	
 	
+	/**
+	 * This method returns a read-only view of the internal list of {@link CardBean} objects. The view does not copy
+	 * the list and reflects all later changes of the container. Like the container itself, it must only be used by
+	 * the thread which changes the container (the event dispatch thread). Background tasks should use
+	 * {@link #getCardBeanSnapshot()} instead.
+	 * 
+	 * @return Unmodifiable live view of all internal {@link CardBean} objects.
+	 */
+	public static List<CardBean> getCardBeans(){
+		return cardBeanView;
+	}
+	
+	/**
+	 * This method returns a read-only view of the internal {@link CardBean} objects, sorted by card names
+	 * (and by ID for equal names). The view does not copy the list and reflects all later changes of the container.
+	 * 
+	 * @return Unmodifiable live view of all internal {@link CardBean} objects, sorted by card names.
+	 */
+	public static List<CardBean> getCardBeansSortedByName(){
+		return Collections.unmodifiableList(cardBeansSortedByName);
+	}
+	
+	/**
+	 * This method returns an immutable snapshot of the internal {@link CardBean} objects, sorted by card names.
+	 * The snapshot is not affected by later changes of the container and can therefore be handed over to background tasks.
+	 * 
+	 * @return Immutable list of all internal {@link CardBean} objects, sorted by card names.
+	 */
+	public static List<CardBean> getCardBeanSnapshot(){
+		return List.copyOf(cardBeansSortedByName);
+	}
+	
+	/**
+	 * This method returns the position of the given {@link CardBean} object within {@link #getCardBeansSortedByName()}.
+	 * 
+	 * @param card {@link CardBean} object of the container.
+	 * @return Position of the object. {@code -1}, if the object is not part of the container.
+	 */
+	public static int getSortedPositionOf(CardBean card){
+		return cardBeansSortedByName.positionOf(card);
+	}
+	
+	/**
+	 * This method starts a new {@link CardBeanQuery}, which is answered by the secondary indexes of the container
+	 * instead of a scan of all {@link CardBean} objects. Like the container itself, it must only be used by the event dispatch thread.
+	 * 
+	 * @return New query without any conditions.
+	 */
+	public static CardBeanQuery query(){
+		return new CardBeanQuery(cardBeanIndex);
+	}
+	
+	/**
+	 * This method returns the index of all card names for autocompletion. It must only be used by the event dispatch thread.
+	 *
+	 * @return Index of the names of all cards of the container and of the card catalog.
+	 */
+	public static CardNameIndex getNameIndex(){
+		return cardNameIndex;
+	}
+	
+	/**
+	 * This method registers a listener, which gets notified about every change of the container.
+	 * 
+	 * @param listener {@link CardBeanContainerListener}, which should be registered.
+	 */
+	public static void addCardBeanContainerListener(CardBeanContainerListener listener){
+		listeners.add(listener);
+	}
+	
+	/**
+	 * This method unregisters a listener, which has been registered by {@link #addCardBeanContainerListener(CardBeanContainerListener)}.
+	 * 
+	 * @param listener {@link CardBeanContainerListener}, which should be unregistered.
+	 */
+	public static void removeCardBeanContainerListener(CardBeanContainerListener listener){
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * This method returns the number of {@link CardBean} objects within the container.
+	 * 
+	 * @return Number of {@link CardBean} objects.
+	 */
+	public static int getCardBeanCount(){
+		return cardBeanList.size();
+	}
+	
 	/**
 	 * This method returns the internal list of {@link CardBean} objects as an array.
 	 * 
 	 * @return Array with all internal {@link CardBean} objects.
 	 */
 	public static CardBean[] getCardBeanList(){
-		CardCollectionBean[] general_array = convertContainerToArray(cardBeanList);
-		CardBean[] specific_array = Arrays.asList(general_array).toArray(new CardBean[general_array.length]);
-		
 		Logger.debug("Array of CardBean objects provided.");
-		return specific_array;
+		return cardBeanView.toArray(new CardBean[cardBeanList.size()]);
 	}
 	
 	/**
@@ -131,29 +444,227 @@ public class CardBeanContainer extends AbstractBeanContainer {
 	 * @return Array with all internal {@link CardBean} objects, sorted by card names.
 	 */
 	public static CardBean[] getCardBeanListSortedByName(){
-		CardBean[] cardBeanList = getCardBeanList();
-		Arrays.sort(cardBeanList, new Comparator<CardBean>() {
-		    @Override
-		    public int compare(CardBean o1, CardBean o2) {
-		        return o1.getName().compareTo(o2.getName());
-		    }
-		});
-		
-		return cardBeanList;
+		return cardBeansSortedByName.toArray(new CardBean[cardBeansSortedByName.size()]);
 	}
 	
 	/**
-	 * This method saves the current internal list of {@link CardBean} objects to the local system.
+	 * This method saves the current internal list of {@link CardBean} objects to the local system as a full snapshot
+	 * and resets the journal of changes. The snapshot is encoded right away and written in the background.
 	 * The save destination is defined by property 'url_carddata' in config file 'config/config.properties'.
 	 */
 	public static void saveCardBeanList(){
+		writer.enqueueSnapshot(getJournal(), cardBeanList);
+	}
+	
+	/**
+	 * This method blocks until all changes of the container have been written to the local system.
+	 * If the background writer failed to write some changes, a full snapshot is written instead.
+	 * It should be called before the application gets closed.
+	 */
+	public static void flush(){
+		if(!writer.flush()){
+			Logger.warn("Not all CardBean changes could be written. Retry with a full snapshot.");
+			saveCardBeanList();
+			if(!writer.flush()){
+				Logger.fatal("CardBean data could not be saved to file '{}'.", journal.getSnapshotUrl());
+			}
+		}
+		Logger.info("CardBean data flushed. "+writer.getWrittenOperationCount()+" changes in "+writer.getSaveCount()+" saves, "
+					+writer.getSnapshotCount()+" snapshots, average latency "+writer.getAverageLatencyMillis()+" ms.");
+	}
+	
+	/**
+	 * This method returns the background writer of the container, which provides metrics about the saves.
+	 * 
+	 * @return {@link BeanContainerWriter} of the container.
+	 */
+	public static BeanContainerWriter getWriter(){
+		return writer;
+	}
+	
+	/**
+	 * This method enqueues a record for the given added or edited {@link CardBean} object. The record is encoded right away,
+	 * since the object might be edited again before it gets written.
+	 */
+	private static void journalPut(CardBean card){
+		BeanContainerJournal activeJournal = getJournal();
 		try {
-			serializeContainer(cardBeanList, PropertiesFactory.getCardDataFileUrl());
+			writer.enqueueRecords(activeJournal, activeJournal.encodePut(card), 1);
 		} catch (IOException e) {
-			Logger.error("Failed to save internal card list to file '"+PropertiesFactory.getCardDataFileUrl()+"'.");
+			Logger.error("Failed to encode CardBean for the journal. Save full container instead.");
 			Logger.error(e.getMessage());
+			saveCardBeanList();
+		}
+		compactJournalIfRequired();
+	}
+	
+	/**
+	 * This method returns the journal for the current card data file. If the card data directory has been
+	 * changed in the meantime, a new journal gets started next to a full snapshot at the new location.
+	 */
+	private static BeanContainerJournal getJournal(){
+		if(!journal.getSnapshotUrl().equals(PropertiesFactory.getCardDataFileUrl())){
+			Logger.info("Card data location changed to '"+PropertiesFactory.getCardDataFileUrl()+"'. Start new journal.");
+			journal = new BeanContainerJournal(PropertiesFactory.getCardDataFileUrl(), codec);
+			saveCardBeanList();
+		}
+		return journal;
+	}
+	
+	/**
+	 * This method compacts the journal into a fresh snapshot, once it exceeds {@link #COMPACTION_THRESHOLD} operations
+	 * or once the background writer failed to append records.
+	 */
+	private static void compactJournalIfRequired(){
+		if(writer.getOperationsSinceSnapshot() >= COMPACTION_THRESHOLD || writer.isSnapshotRequired()){
+			Logger.info("Compact CardBean journal into a fresh snapshot.");
+			saveCardBeanList();
+		}
+	}
+
+	/**
+	 * This class collects several adds, updates and deletions of {@link CardBean} objects. Nothing is changed, until
+	 * {@link #commit()} gets called. Then all operations are applied in the order of their collection and persisted
+	 * together as a single journal record, so either all or none of them survive a crash.
+	 * <br><br>
+	 * Like the container itself, a batch must only be committed by the event dispatch thread.
+	 */
+	public static class Batch {
+
+		private static final byte OP_ADD = 0;
+		private static final byte OP_UPDATE = 1;
+		private static final byte OP_DELETE = 2;
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		private byte[] operations = new byte[INITIAL_CAPACITY];
+		private CardBean[] cards = new CardBean[INITIAL_CAPACITY];		/* null for deletions */
+		private int[] ids = new int[INITIAL_CAPACITY];
+		private int size;
+		private boolean committed;
+
+		private Batch(){}
+
+		/**
+		 * @param card Predefined {@link CardBean} object. Attribute 'id' will be defined by {@link #commit()}.
+		 * @return This batch.
+		 */
+		public Batch addCardBean(CardBean card){
+			return collect(OP_ADD, card, -1);
+		}
+
+		/**
+		 * @param card Edited {@link CardBean} object with an already assigned ID.
+		 * @return This batch.
+		 */
+		public Batch updateCardBean(CardBean card){
+			return collect(OP_UPDATE, card, card.getId());
+		}
+
+		/**
+		 * @param id ID of the {@link CardBean} element, which should be deleted.
+		 * @return This batch.
+		 */
+		public Batch deleteCardBeanById(int id){
+			return collect(OP_DELETE, null, id);
+		}
+
+		/**
+		 * @return Number of collected operations.
+		 */
+		public int size(){
+			return size;
+		}
+
+		private Batch collect(byte operation, CardBean card, int id){
+			if(committed){
+				throw new IllegalStateException("Batch has already been committed.");
+			}
+			if(size == operations.length){
+				int capacity = size * 2;
+				operations = Arrays.copyOf(operations, capacity);
+				cards = Arrays.copyOf(cards, capacity);
+				ids = Arrays.copyOf(ids, capacity);
+			}
+			operations[size] = operation;
+			cards[size] = card;
+			ids[size] = id;
+			size++;
+			return this;
+		}
+
+		/**
+		 * This method applies all collected operations to the container and persists them with a single journal record.
+		 * Listeners get notified about every single operation. If the journal cannot be written, the full container
+		 * will be saved instead.
+		 */
+		public void commit(){
+			if(committed){
+				throw new IllegalStateException("Batch has already been committed.");
+			}
+			committed = true;
+			if(size == 0){
+				return;
+			}
+
+			BeanContainerJournal.Batch record = getJournal().newBatch();
+			boolean recordFailed = false;
+			for(int i = 0; i < size; i++){
+				CardBean card = cards[i];
+				try {
+					switch(operations[i]){
+					case OP_ADD:
+						applyAdd(card);
+						record.put(card);
+						break;
+					case OP_UPDATE:
+						applyUpdate(card);
+						record.put(card);
+						break;
+					default:
+						if(applyDelete(ids[i])){
+							record.delete(ids[i]);
+						}
+					}
+				} catch (IOException e) {
+					recordFailed = true;
+					Logger.error("Failed to encode CardBean batch operation.");
+					Logger.error(e.getMessage());
+				}
+			}
+
+			if(recordFailed){
+				saveCardBeanList();
+			}
+			else if(record.size() > 0){
+				try {
+					BeanContainerJournal activeJournal = getJournal();
+					writer.enqueueRecords(activeJournal, activeJournal.encodeBatch(record), record.size());
+				} catch (IOException e) {
+					Logger.error("Failed to encode CardBean batch for the journal. Save full container instead.");
+					Logger.error(e.getMessage());
+					saveCardBeanList();
+				}
+				compactJournalIfRequired();
+			}
+			Logger.info("Batch of {} CardBean operations committed.", size);
+		}
+	}
+
+	/**
+	 * Read-only view of {@link #cardBeanList}, which casts its elements to {@link CardBean}.
+	 */
+	private static class CardBeanView extends AbstractList<CardBean> implements RandomAccess {
+		
+		@Override
+		public CardBean get(int position) {
+			return (CardBean) cardBeanList.get(position);
+		}
+		
+		@Override
+		public int size() {
+			return cardBeanList.size();
 		}
-		Logger.info("CardBean data stored to file '"+PropertiesFactory.getCardDataFileUrl()+"'.");
 	}
 
 }
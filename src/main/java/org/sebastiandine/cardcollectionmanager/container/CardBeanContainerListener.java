@@ -0,0 +1,43 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+
+/**
+ * This interface has to be implemented by classes, which want to be notified about changes of the
+ * {@link CardBeanContainer}. Listeners are registered by {@link CardBeanContainer#addCardBeanContainerListener(CardBeanContainerListener)}.
+ * <br><br>
+ * All positions refer to the name-sorted view {@link CardBeanContainer#getCardBeansSortedByName()}.
+ * Notifications are sent by the thread, which changed the container.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public interface CardBeanContainerListener {
+
+	/**
+	 * Called after a {@link CardBean} object has been added to the container.
+	 *
+	 * @param card Added {@link CardBean} object.
+	 * @param position Position of the added object.
+	 */
+	void cardBeanInserted(CardBean card, int position);
+
+	/**
+	 * Called after a {@link CardBean} object of the container has been updated. If its name has been changed,
+	 * the object might have moved to another position.
+	 *
+	 * @param card Updated {@link CardBean} object.
+	 * @param oldPosition Position of the object before the update.
+	 * @param newPosition Position of the object after the update.
+	 */
+	void cardBeanUpdated(CardBean card, int oldPosition, int newPosition);
+
+	/**
+	 * Called after a {@link CardBean} object has been deleted from the container.
+	 *
+	 * @param card Deleted {@link CardBean} object.
+	 * @param position Former position of the deleted object.
+	 */
+	void cardBeanDeleted(CardBean card, int position);
+
+}
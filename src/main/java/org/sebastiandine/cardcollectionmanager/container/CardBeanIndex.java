@@ -0,0 +1,430 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+/**
+ * This class holds the secondary indexes of the {@link CardBean} objects of {@link CardBeanContainer}. It is maintained
+ * incrementally on every add, update and deletion, so questions like "all cards of Alpha" or "all German near mint foils"
+ * do not need to scan the whole container (see {@link CardBeanQuery}).
+ * <br><br>
+ * Every card occupies a slot, which stays stable until the card gets deleted (then the slot is reused).
+ * The enum and flag dimensions are kept as one {@link BitSet} of slots per value, the set codes and the normalized
+ * names (see {@link #normalizeName(String)}) as small posting lists of slots. The keys of every slot are remembered,
+ * because a card might have been edited in place, before its update is applied. The slots are found by the ID of their card
+ * through an open addressing hash table on primitive {@code int} arrays, like the index of {@link IndexedBeanList}.
+ * <br><br>
+ * Like the container, the index must only be changed and read by the event dispatch thread.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardBeanIndex {
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private static final int NO_ID = 0;				/* IDs are positive, 0 marks an empty bucket of the ID table */
+
+	private int[] idKeys = new int[32];
+	private int[] idSlots = new int[32];
+	private int idMask = 31;
+	private int idCount;
+	private CardBean[] cards = new CardBean[16];
+	private String[] setKeys = new String[16];
+	private String[] nameKeys = new String[16];
+	private byte[] languages = new byte[16];
+	private byte[] conditions = new byte[16];
+
+	private int[] freeSlots = new int[16];
+	private int freeCount;
+	private int slotCount;
+
+	private final BitSet occupied = new BitSet();
+	private final Map<String, Postings> bySetCode = new HashMap<String, Postings>();
+	private final Map<String, Postings> byName = new HashMap<String, Postings>();
+	private final BitSet[] byLanguage = createBitSets(LanguageEnum.values().length);
+	private final BitSet[] byCondition = createBitSets(ConditionEnum.values().length);
+	private final BitSet foil = new BitSet();
+	private final BitSet signed = new BitSet();
+	private final BitSet altered = new BitSet();
+
+	/**
+	 * This method normalizes a card name for lookups: accents are stripped, whitespace is collapsed and the name
+	 * is converted to lower case. So 'Jotun Grunt', 'j&ouml;tun  grunt' and ' JOTUN GRUNT' are the same key.
+	 *
+	 * @param name Card name, might be {@code null}.
+	 * @return Normalized name. Empty, if the name is {@code null}.
+	 */
+	public static String normalizeName(String name){
+		if(name == null){
+			return "";
+		}
+		String stripped = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+		return WHITESPACE.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * This method replaces the content of this index by the beans of the given container.
+	 */
+	void rebuild(List<CardCollectionBean> container){
+		Arrays.fill(idKeys, NO_ID);
+		idCount = 0;
+		Arrays.fill(cards, null);
+		freeCount = 0;
+		slotCount = 0;
+		occupied.clear();
+		bySetCode.clear();
+		byName.clear();
+		for(BitSet bits : byLanguage){
+			bits.clear();
+		}
+		for(BitSet bits : byCondition){
+			bits.clear();
+		}
+		foil.clear();
+		signed.clear();
+		altered.clear();
+
+		for(CardCollectionBean bean : container){
+			add((CardBean) bean);
+		}
+	}
+
+	/**
+	 * This method adds the given bean to the index. If the index already holds a bean with the same ID, it gets replaced.
+	 */
+	void add(CardBean card){
+		remove(card.getId());
+
+		int slot = allocateSlot();
+		putSlot(card.getId(), slot);
+		cards[slot] = card;
+		occupied.set(slot);
+
+		setKeys[slot] = setKeyOf(card);
+		if(setKeys[slot] != null){
+			postingsOf(bySetCode, setKeys[slot]).add(slot);
+		}
+		nameKeys[slot] = normalizeName(card.getName());
+		postingsOf(byName, nameKeys[slot]).add(slot);
+
+		languages[slot] = (byte) (card.getLanguage() == null ? -1 : card.getLanguage().ordinal());
+		if(languages[slot] >= 0){
+			byLanguage[languages[slot]].set(slot);
+		}
+		conditions[slot] = (byte) (card.getCondition() == null ? -1 : card.getCondition().ordinal());
+		if(conditions[slot] >= 0){
+			byCondition[conditions[slot]].set(slot);
+		}
+
+		foil.set(slot, card.isFoil());
+		signed.set(slot, card.isSigned());
+		altered.set(slot, card.isAltered());
+	}
+
+	/**
+	 * This method removes the bean with the given ID from the index. The keys, under which it has been added,
+	 * are used, since the bean itself might have been edited in the meantime.
+	 *
+	 * @return {@code true}, if the index held a bean with the given ID.
+	 */
+	boolean remove(int id){
+		int slot = removeSlot(id);
+		if(slot < 0){
+			return false;
+		}
+
+		if(setKeys[slot] != null){
+			removePosting(bySetCode, setKeys[slot], slot);
+		}
+		removePosting(byName, nameKeys[slot], slot);
+		if(languages[slot] >= 0){
+			byLanguage[languages[slot]].clear(slot);
+		}
+		if(conditions[slot] >= 0){
+			byCondition[conditions[slot]].clear(slot);
+		}
+		foil.clear(slot);
+		signed.clear(slot);
+		altered.clear(slot);
+		occupied.clear(slot);
+
+		cards[slot] = null;
+		setKeys[slot] = null;
+		nameKeys[slot] = null;
+		if(freeCount == freeSlots.length){
+			freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+		}
+		freeSlots[freeCount++] = slot;
+		return true;
+	}
+
+	/**
+	 * @return Number of indexed beans.
+	 */
+	public int size(){
+		return idCount;
+	}
+
+	/**
+	 * @return Normalized name, under which the bean with the given ID has been added. {@code null}, if the index holds no such bean.
+	 */
+	String getNameKey(int id){
+		int slot = slotOf(id);
+		return slot < 0 ? null : nameKeys[slot];
+	}
+
+	/**
+	 * @return Bean of the given slot. {@code null}, if the slot is free.
+	 */
+	CardBean getCard(int slot){
+		return slot < slotCount ? cards[slot] : null;
+	}
+
+	/**
+	 * @return Copy of the slots of all indexed beans.
+	 */
+	BitSet matchAll(){
+		return (BitSet) occupied.clone();
+	}
+
+	/**
+	 * @param code Set code, not case sensitive.
+	 * @return Copy of the slots of all beans of the given set.
+	 */
+	BitSet matchSetCode(String code){
+		return toBitSet(code == null ? null : bySetCode.get(code.toLowerCase(Locale.ROOT)));
+	}
+
+	/**
+	 * @param name Card name, which gets normalized by {@link #normalizeName(String)}.
+	 * @return Copy of the slots of all beans with the given name.
+	 */
+	BitSet matchName(String name){
+		return toBitSet(byName.get(normalizeName(name)));
+	}
+
+	/**
+	 * @return Copy of the slots of all beans with the given language.
+	 */
+	BitSet matchLanguage(LanguageEnum language){
+		return (BitSet) byLanguage[language.ordinal()].clone();
+	}
+
+	/**
+	 * @return Copy of the slots of all beans with the given condition.
+	 */
+	BitSet matchCondition(ConditionEnum condition){
+		return (BitSet) byCondition[condition.ordinal()].clone();
+	}
+
+	/**
+	 * @return Copy of the slots of all beans, which are foil.
+	 */
+	BitSet matchFoil(){
+		return (BitSet) foil.clone();
+	}
+
+	/**
+	 * @return Copy of the slots of all beans, which are signed.
+	 */
+	BitSet matchSigned(){
+		return (BitSet) signed.clone();
+	}
+
+	/**
+	 * @return Copy of the slots of all beans, which are altered.
+	 */
+	BitSet matchAltered(){
+		return (BitSet) altered.clone();
+	}
+
+	private static int mix(int id){
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return Slot of the bean with the given ID. {@code -1}, if the index holds no such bean.
+	 */
+	private int slotOf(int id){
+		if(id == NO_ID){
+			return -1;
+		}
+		for(int bucket = mix(id) & idMask; ; bucket = (bucket + 1) & idMask){
+			int key = idKeys[bucket];
+			if(key == id){
+				return idSlots[bucket];
+			}
+			if(key == NO_ID){
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * This method assigns the given slot to an ID, which is not held by the ID table yet.
+	 */
+	private void putSlot(int id, int slot){
+		if(id == NO_ID){
+			throw new IllegalArgumentException("Beans with id="+NO_ID+" cannot be indexed.");
+		}
+		if((idCount + 1) * 2 > idKeys.length){
+			rehash(idKeys.length * 2);
+		}
+		int bucket = mix(id) & idMask;
+		while(idKeys[bucket] != NO_ID){
+			bucket = (bucket + 1) & idMask;
+		}
+		idKeys[bucket] = id;
+		idSlots[bucket] = slot;
+		idCount++;
+	}
+
+	/**
+	 * Removes an ID from the ID table by shifting back the following entries of its probe sequence,
+	 * so lookups never need tombstones.
+	 *
+	 * @return Slot of the removed ID. {@code -1}, if the index holds no such bean.
+	 */
+	private int removeSlot(int id){
+		if(id == NO_ID){
+			return -1;
+		}
+		int bucket = mix(id) & idMask;
+		while(idKeys[bucket] != id){
+			if(idKeys[bucket] == NO_ID){
+				return -1;
+			}
+			bucket = (bucket + 1) & idMask;
+		}
+		int slot = idSlots[bucket];
+		int gap = bucket;
+		for(int next = (gap + 1) & idMask; idKeys[next] != NO_ID; next = (next + 1) & idMask){
+			int home = mix(idKeys[next]) & idMask;
+			/* move the entry into the gap, if its home bucket is not between the gap and its current bucket */
+			if(((next - home) & idMask) >= ((next - gap) & idMask)){
+				idKeys[gap] = idKeys[next];
+				idSlots[gap] = idSlots[next];
+				gap = next;
+			}
+		}
+		idKeys[gap] = NO_ID;
+		idCount--;
+		return slot;
+	}
+
+	private void rehash(int capacity){
+		int[] oldKeys = idKeys;
+		int[] oldSlots = idSlots;
+		idKeys = new int[capacity];
+		idSlots = new int[capacity];
+		idMask = capacity - 1;
+		for(int i = 0; i < oldKeys.length; i++){
+			if(oldKeys[i] != NO_ID){
+				int bucket = mix(oldKeys[i]) & idMask;
+				while(idKeys[bucket] != NO_ID){
+					bucket = (bucket + 1) & idMask;
+				}
+				idKeys[bucket] = oldKeys[i];
+				idSlots[bucket] = oldSlots[i];
+			}
+		}
+	}
+
+	private int allocateSlot(){
+		if(freeCount > 0){
+			return freeSlots[--freeCount];
+		}
+		if(slotCount == cards.length){
+			int capacity = slotCount * 2;
+			cards = Arrays.copyOf(cards, capacity);
+			setKeys = Arrays.copyOf(setKeys, capacity);
+			nameKeys = Arrays.copyOf(nameKeys, capacity);
+			languages = Arrays.copyOf(languages, capacity);
+			conditions = Arrays.copyOf(conditions, capacity);
+		}
+		return slotCount++;
+	}
+
+	private static String setKeyOf(CardBean card){
+		if(card.getSet() == null || card.getSet().getCode() == null){
+			return null;
+		}
+		return card.getSet().getCode().toLowerCase(Locale.ROOT);
+	}
+
+	private static Postings postingsOf(Map<String, Postings> map, String key){
+		Postings postings = map.get(key);
+		if(postings == null){
+			postings = new Postings();
+			map.put(key, postings);
+		}
+		return postings;
+	}
+
+	private static void removePosting(Map<String, Postings> map, String key, int slot){
+		Postings postings = map.get(key);
+		if(postings != null && postings.remove(slot) && postings.size == 0){
+			map.remove(key);
+		}
+	}
+
+	private static BitSet toBitSet(Postings postings){
+		BitSet bits = new BitSet();
+		if(postings != null){
+			for(int i = 0; i < postings.size; i++){
+				bits.set(postings.slots[i]);
+			}
+		}
+		return bits;
+	}
+
+	private static BitSet[] createBitSets(int count){
+		BitSet[] bitSets = new BitSet[count];
+		for(int i = 0; i < count; i++){
+			bitSets[i] = new BitSet();
+		}
+		return bitSets;
+	}
+
+	/**
+	 * Unordered list of slots of a single key. Most names and many sets only have a few cards, so a list is much
+	 * smaller than a bitmap, which would need a bit for every slot up to the highest one.
+	 */
+	private static class Postings {
+
+		private int[] slots = new int[2];
+		private int size;
+
+		private void add(int slot){
+			if(size == slots.length){
+				slots = Arrays.copyOf(slots, size * 2);
+			}
+			slots[size++] = slot;
+		}
+
+		private boolean remove(int slot){
+			for(int i = 0; i < size; i++){
+				if(slots[i] == slot){
+					slots[i] = slots[--size];
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,202 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+/**
+ * This class collects conditions on the {@link CardBean} objects of {@link CardBeanContainer} and answers them from the
+ * secondary indexes of {@link CardBeanIndex} instead of scanning the container. All conditions must be met: the slots of
+ * every condition get intersected, starting with the set code and the name, which are usually the most selective ones.
+ * <br><br>
+ * Example: {@code CardBeanContainer.query().language(LanguageEnum.German).condition(ConditionEnum.Near_Mint).foil(true).count()}.
+ * <br><br>
+ * Like the container itself, a query must only be run by the event dispatch thread.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardBeanQuery {
+
+	private final CardBeanIndex index;
+
+	private String setCode;
+	private String name;
+	private LanguageEnum language;
+	private ConditionEnum condition;
+	private Boolean foil;
+	private Boolean signed;
+	private Boolean altered;
+
+	CardBeanQuery(CardBeanIndex index){
+		this.index = index;
+	}
+
+	/**
+	 * @param code Code of the set of the cards, not case sensitive.
+	 * @return This query.
+	 */
+	public CardBeanQuery setCode(String code){
+		this.setCode = code;
+		return this;
+	}
+
+	/**
+	 * @param set Set of the cards.
+	 * @return This query.
+	 */
+	public CardBeanQuery set(SetBean set){
+		return setCode(set.getCode());
+	}
+
+	/**
+	 * @param name Name of the cards. It is compared in its normalized form (see {@link CardBeanIndex#normalizeName(String)}).
+	 * @return This query.
+	 */
+	public CardBeanQuery name(String name){
+		this.name = name;
+		return this;
+	}
+
+	/**
+	 * @return This query.
+	 */
+	public CardBeanQuery language(LanguageEnum language){
+		this.language = language;
+		return this;
+	}
+
+	/**
+	 * @return This query.
+	 */
+	public CardBeanQuery condition(ConditionEnum condition){
+		this.condition = condition;
+		return this;
+	}
+
+	/**
+	 * @param foil {@code true} for foil cards only, {@code false} for non-foil cards only.
+	 * @return This query.
+	 */
+	public CardBeanQuery foil(boolean foil){
+		this.foil = foil;
+		return this;
+	}
+
+	/**
+	 * @param signed {@code true} for signed cards only, {@code false} for unsigned cards only.
+	 * @return This query.
+	 */
+	public CardBeanQuery signed(boolean signed){
+		this.signed = signed;
+		return this;
+	}
+
+	/**
+	 * @param altered {@code true} for altered cards only, {@code false} for unaltered cards only.
+	 * @return This query.
+	 */
+	public CardBeanQuery altered(boolean altered){
+		this.altered = altered;
+		return this;
+	}
+
+	/**
+	 * @return Number of {@link CardBean} objects, which meet all conditions.
+	 */
+	public int count(){
+		return match().cardinality();
+	}
+
+	/**
+	 * @return Sum of the amounts of all {@link CardBean} objects, which meet all conditions.
+	 */
+	public int sumAmount(){
+		BitSet slots = match();
+		int amount = 0;
+		for(int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)){
+			amount += index.getCard(slot).getAmount();
+		}
+		return amount;
+	}
+
+	/**
+	 * @return All {@link CardBean} objects, which meet all conditions, sorted by {@link NameSortedCardBeanList#NAME_ORDER}.
+	 */
+	public List<CardBean> list(){
+		BitSet slots = match();
+		List<CardBean> cards = new ArrayList<CardBean>(slots.cardinality());
+		for(int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)){
+			cards.add(index.getCard(slot));
+		}
+		Collections.sort(cards, NameSortedCardBeanList.NAME_ORDER);
+		return cards;
+	}
+
+	/**
+	 * @return IDs of all {@link CardBean} objects, which meet all conditions.
+	 */
+	public BitSet ids(){
+		BitSet slots = match();
+		BitSet ids = new BitSet();
+		for(int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)){
+			ids.set(index.getCard(slot).getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * This method intersects the slots of all conditions.
+	 */
+	private BitSet match(){
+		BitSet slots = null;
+		if(setCode != null){
+			slots = index.matchSetCode(setCode);
+		}
+		if(name != null){
+			slots = intersect(slots, index.matchName(name));
+		}
+		if(language != null){
+			slots = intersect(slots, index.matchLanguage(language));
+		}
+		if(condition != null){
+			slots = intersect(slots, index.matchCondition(condition));
+		}
+		if(foil != null){
+			slots = intersectFlag(slots, foil, index.matchFoil());
+		}
+		if(signed != null){
+			slots = intersectFlag(slots, signed, index.matchSigned());
+		}
+		if(altered != null){
+			slots = intersectFlag(slots, altered, index.matchAltered());
+		}
+		return slots == null ? index.matchAll() : slots;
+	}
+
+	private static BitSet intersect(BitSet slots, BitSet other){
+		if(slots == null){
+			return other;
+		}
+		slots.and(other);
+		return slots;
+	}
+
+	private BitSet intersectFlag(BitSet slots, boolean value, BitSet flagged){
+		if(value){
+			return intersect(slots, flagged);
+		}
+		if(slots == null){
+			slots = index.matchAll();
+		}
+		slots.andNot(flagged);
+		return slots;
+	}
+
+}
@@ -0,0 +1,527 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class indexes card names for the autocompletion of the card maintenance dialog. Names are compared in their
+ * normalized form (see {@link CardBeanIndex#normalizeName(String)}) and offered in the spelling, in which they have been
+ * added first.
+ * <ul>
+ * <li>A compressed prefix trie (radix tree) answers {@link #complete(String, int)}: all names, which start with the typed text.</li>
+ * <li>A trigram index answers {@link #findSimilar(String, int)}: names, which share enough trigrams with the typed text,
+ * so typos still find the existing spelling.</li>
+ * </ul>
+ * Names get added from the cards of {@link CardBeanContainer}, which counts their references and removes a name once no card
+ * uses it anymore, and from a card catalog ({@link #addCatalogNames(Collection)}), which are kept permanently.
+ * The names of a large catalog can be held by a separate index instead (see {@link #setCatalogIndex(CardNameIndex)}),
+ * which is built by a background thread, so the event dispatch thread never has to index them.
+ * <br><br>
+ * Like the container, the index must only be changed and read by the event dispatch thread. A new index may be filled by
+ * any thread, as long as it is passed to the event dispatch thread afterwards and not changed anymore.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardNameIndex {
+
+	/**
+	 * Minimal similarity (Dice coefficient of the trigrams) of a name to be returned by {@link #findSimilar(String, int)}.
+	 */
+	static final double MIN_SIMILARITY = 0.4;
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	private final Map<String, NameEntry> entriesByKey = new HashMap<String, NameEntry>();
+	private NameEntry[] entriesById = new NameEntry[16];
+	private int[] freeIds = new int[16];
+	private int freeCount;
+	private int idCount;
+
+	private final Node root = new Node("");
+	private final Map<String, Postings> byTrigram = new HashMap<String, Postings>();
+
+	/* scratch counters of findSimilar(), which are reset after every call */
+	private int[] sharedTrigrams = new int[16];
+
+	/**
+	 * Index of the names of the card catalog, which is consulted by {@link #suggest(String, int)}. {@code null}, if not set.
+	 */
+	private CardNameIndex catalogIndex;
+
+	/**
+	 * @return Number of distinct names.
+	 */
+	public int size(){
+		return entriesByKey.size();
+	}
+
+	/**
+	 * This method adds a reference of a card to the given name.
+	 *
+	 * @param name Card name. Empty names are ignored.
+	 */
+	void addCardName(String name){
+		NameEntry entry = getOrCreateEntry(name);
+		if(entry != null){
+			entry.cardCount++;
+		}
+	}
+
+	/**
+	 * This method removes a reference of a card from the given name. The name is removed, once neither a card nor the
+	 * catalog uses it anymore.
+	 *
+	 * @param name Card name, as it has been added (or its normalized form).
+	 */
+	void removeCardName(String name){
+		NameEntry entry = entriesByKey.get(CardBeanIndex.normalizeName(name));
+		if(entry != null && entry.cardCount > 0){
+			entry.cardCount--;
+			removeIfUnused(entry);
+		}
+	}
+
+	/**
+	 * This method removes all names of cards. Names of the catalog are kept.
+	 */
+	void clearCardNames(){
+		for(NameEntry entry : new ArrayList<NameEntry>(entriesByKey.values())){
+			entry.cardCount = 0;
+			removeIfUnused(entry);
+		}
+	}
+
+	/**
+	 * This method adds the names of a card catalog, e.g. all card names of the official MtG API. They are kept, even if no
+	 * card of the collection uses them.
+	 *
+	 * @param names Card names.
+	 */
+	public void addCatalogNames(Collection<String> names){
+		for(String name : names){
+			NameEntry entry = getOrCreateEntry(name);
+			if(entry != null){
+				entry.catalog = true;
+			}
+		}
+	}
+
+	/**
+	 * This method replaces the index of the names of the card catalog, which is consulted by {@link #suggest(String, int)}
+	 * besides the names of this index.
+	 *
+	 * @param catalogIndex Index of the catalog names (see {@link #addCatalogNames(Collection)}), which must not be changed
+	 * 			anymore. {@code null} removes the catalog names.
+	 */
+	public void setCatalogIndex(CardNameIndex catalogIndex){
+		this.catalogIndex = catalogIndex;
+	}
+
+	/**
+	 * This method returns all names, which start with the given text.
+	 *
+	 * @param prefix Typed text, which gets normalized.
+	 * @param limit Maximum number of names.
+	 * @return Names in the order of their normalized form, so shorter names come before longer names with the same beginning.
+	 */
+	public List<String> complete(String prefix, int limit){
+		List<String> names = new ArrayList<String>(Math.min(limit, 64));
+		String key = CardBeanIndex.normalizeName(prefix);
+		Node node = root;
+		int position = 0;
+		while(position < key.length()){
+			Node child = node.getChild(key.charAt(position));
+			if(child == null){
+				return names;
+			}
+			int remaining = key.length() - position;
+			if(remaining <= child.label.length()){
+				if(!child.label.startsWith(key.substring(position))){
+					return names;
+				}
+				node = child;
+				break;
+			}
+			if(!key.startsWith(child.label, position)){
+				return names;
+			}
+			position += child.label.length();
+			node = child;
+		}
+		collect(node, names, limit);
+		return names;
+	}
+
+	/**
+	 * This method returns all names, which are similar to the given text, i.e. which share at least {@link #MIN_SIMILARITY}
+	 * of their trigrams with it (Dice coefficient).
+	 *
+	 * @param text Typed text, which gets normalized.
+	 * @param limit Maximum number of names.
+	 * @return Names, most similar first.
+	 */
+	public List<String> findSimilar(String text, int limit){
+		String[] trigrams = trigramsOf(CardBeanIndex.normalizeName(text));
+		if(trigrams.length == 0){
+			return new ArrayList<String>();
+		}
+
+		if(sharedTrigrams.length < idCount){
+			sharedTrigrams = new int[entriesById.length];
+		}
+		int[] touched = new int[64];
+		int touchedCount = 0;
+		for(String trigram : trigrams){
+			Postings postings = byTrigram.get(trigram);
+			if(postings == null){
+				continue;
+			}
+			for(int i = 0; i < postings.size; i++){
+				int id = postings.ids[i];
+				if(sharedTrigrams[id]++ == 0){
+					if(touchedCount == touched.length){
+						touched = Arrays.copyOf(touched, touchedCount * 2);
+					}
+					touched[touchedCount++] = id;
+				}
+			}
+		}
+
+		final double[] scores = new double[touchedCount];
+		List<Integer> candidates = new ArrayList<Integer>();
+		for(int i = 0; i < touchedCount; i++){
+			NameEntry entry = entriesById[touched[i]];
+			scores[i] = 2.0 * sharedTrigrams[entry.id] / (trigrams.length + entry.trigramCount);
+			sharedTrigrams[entry.id] = 0;
+			if(scores[i] >= MIN_SIMILARITY){
+				candidates.add(i);
+			}
+		}
+
+		final int[] ids = touched;
+		Collections.sort(candidates, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				int result = Double.compare(scores[o2], scores[o1]);
+				if(result != 0){
+					return result;
+				}
+				return entriesById[ids[o1]].key.compareTo(entriesById[ids[o2]].key);
+			}
+		});
+
+		List<String> names = new ArrayList<String>(Math.min(limit, candidates.size()));
+		for(int i = 0; i < candidates.size() && names.size() < limit; i++){
+			names.add(entriesById[ids[candidates.get(i)]].name);
+		}
+		return names;
+	}
+
+	/**
+	 * This method returns the names for an autocompletion: first all names, which start with the given text, and then
+	 * similar names (see {@link #findSimilar(String, int)}). Names of this index come before the names of the catalog index
+	 * (see {@link #setCatalogIndex(CardNameIndex)}), so the spelling of the collection wins.
+	 *
+	 * @param text Typed text.
+	 * @param limit Maximum number of names.
+	 * @return Suggested names without duplicates.
+	 */
+	public List<String> suggest(String text, int limit){
+		Map<String, String> namesByKey = new LinkedHashMap<String, String>();
+		addSuggestions(namesByKey, complete(text, limit), limit);
+		if(catalogIndex != null){
+			addSuggestions(namesByKey, catalogIndex.complete(text, limit), limit);
+		}
+		if(namesByKey.size() < limit){
+			addSuggestions(namesByKey, findSimilar(text, limit), limit);
+			if(catalogIndex != null){
+				addSuggestions(namesByKey, catalogIndex.findSimilar(text, limit), limit);
+			}
+		}
+		return new ArrayList<String>(namesByKey.values());
+	}
+
+	private static void addSuggestions(Map<String, String> namesByKey, List<String> names, int limit){
+		for(String name : names){
+			if(namesByKey.size() == limit){
+				return;
+			}
+			String key = CardBeanIndex.normalizeName(name);
+			if(!namesByKey.containsKey(key)){
+				namesByKey.put(key, name);
+			}
+		}
+	}
+
+	private NameEntry getOrCreateEntry(String name){
+		String key = CardBeanIndex.normalizeName(name);
+		if(key.isEmpty()){
+			return null;
+		}
+		NameEntry entry = entriesByKey.get(key);
+		if(entry == null){
+			entry = new NameEntry(allocateId(), key, name.trim());
+			entriesByKey.put(key, entry);
+			entriesById[entry.id] = entry;
+			insert(entry);
+			String[] trigrams = trigramsOf(key);
+			entry.trigramCount = trigrams.length;
+			for(String trigram : trigrams){
+				Postings postings = byTrigram.get(trigram);
+				if(postings == null){
+					postings = new Postings();
+					byTrigram.put(trigram, postings);
+				}
+				postings.add(entry.id);
+			}
+		}
+		return entry;
+	}
+
+	private void removeIfUnused(NameEntry entry){
+		if(entry.cardCount > 0 || entry.catalog){
+			return;
+		}
+		entriesByKey.remove(entry.key);
+		entriesById[entry.id] = null;
+		delete(entry.key);
+		for(String trigram : trigramsOf(entry.key)){
+			Postings postings = byTrigram.get(trigram);
+			if(postings != null && postings.remove(entry.id) && postings.size == 0){
+				byTrigram.remove(trigram);
+			}
+		}
+		if(freeCount == freeIds.length){
+			freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+		}
+		freeIds[freeCount++] = entry.id;
+	}
+
+	private int allocateId(){
+		if(freeCount > 0){
+			return freeIds[--freeCount];
+		}
+		if(idCount == entriesById.length){
+			entriesById = Arrays.copyOf(entriesById, idCount * 2);
+		}
+		return idCount++;
+	}
+
+	/**
+	 * This method inserts the key of the given entry into the trie. An edge gets split, if the key leaves it in its middle.
+	 */
+	private void insert(NameEntry entry){
+		String key = entry.key;
+		Node node = root;
+		int position = 0;
+		while(position < key.length()){
+			Node child = node.getChild(key.charAt(position));
+			if(child == null){
+				Node leaf = new Node(key.substring(position));
+				leaf.entry = entry;
+				node.addChild(leaf);
+				return;
+			}
+			int common = commonPrefixLength(child.label, key, position);
+			if(common < child.label.length()){
+				Node middle = new Node(child.label.substring(0, common));
+				node.replaceChild(child, middle);
+				child.label = child.label.substring(common);
+				middle.addChild(child);
+				child = middle;
+			}
+			position += common;
+			node = child;
+		}
+		node.entry = entry;
+	}
+
+	/**
+	 * This method removes the given key from the trie. Nodes without entry and children get removed, nodes without entry
+	 * and a single child get merged with it, so the trie stays compressed.
+	 */
+	private void delete(String key){
+		List<Node> path = new ArrayList<Node>();
+		Node node = root;
+		path.add(node);
+		int position = 0;
+		while(position < key.length()){
+			node = node.getChild(key.charAt(position));
+			if(node == null || !key.startsWith(node.label, position)){
+				return;
+			}
+			position += node.label.length();
+			path.add(node);
+		}
+		node.entry = null;
+
+		for(int i = path.size() - 1; i > 0; i--){
+			Node current = path.get(i);
+			Node parent = path.get(i - 1);
+			if(current.entry != null){
+				break;
+			}
+			if(current.childCount == 0){
+				parent.removeChild(current);
+				continue;
+			}
+			if(current.childCount == 1){
+				Node child = current.children[0];
+				current.label = current.label + child.label;
+				current.entry = child.entry;
+				current.children = child.children;
+				current.childCount = child.childCount;
+			}
+			break;
+		}
+	}
+
+	private static void collect(Node node, List<String> names, int limit){
+		if(names.size() >= limit){
+			return;
+		}
+		if(node.entry != null){
+			names.add(node.entry.name);
+		}
+		for(int i = 0; i < node.childCount && names.size() < limit; i++){
+			collect(node.children[i], names, limit);
+		}
+	}
+
+	private static int commonPrefixLength(String label, String key, int offset){
+		int length = Math.min(label.length(), key.length() - offset);
+		int common = 0;
+		while(common < length && label.charAt(common) == key.charAt(offset + common)){
+			common++;
+		}
+		return common;
+	}
+
+	/**
+	 * This method returns the distinct trigrams of the given normalized name. The name is padded by two leading and one
+	 * trailing space, so the beginning of a name weighs more than its middle.
+	 */
+	static String[] trigramsOf(String key){
+		if(key.isEmpty()){
+			return new String[0];
+		}
+		String padded = "  " + key + " ";
+		Set<String> trigrams = new LinkedHashSet<String>();
+		for(int i = 0; i + 3 <= padded.length(); i++){
+			trigrams.add(padded.substring(i, i + 3));
+		}
+		return trigrams.toArray(new String[trigrams.size()]);
+	}
+
+	/**
+	 * Distinct name of the index.
+	 */
+	private static class NameEntry {
+		private final int id;
+		private final String key;
+		private final String name;
+		private int trigramCount;
+		private int cardCount;
+		private boolean catalog;
+
+		private NameEntry(int id, String key, String name){
+			this.id = id;
+			this.key = key;
+			this.name = name;
+		}
+	}
+
+	/**
+	 * Node of the compressed prefix trie. Its children are sorted by the first character of their labels.
+	 */
+	private static class Node {
+		private String label;
+		private NameEntry entry;
+		private Node[] children = NO_CHILDREN;
+		private int childCount;
+
+		private Node(String label){
+			this.label = label;
+		}
+
+		private int search(char c){
+			int low = 0;
+			int high = childCount - 1;
+			while(low <= high){
+				int middle = (low + high) >>> 1;
+				char first = children[middle].label.charAt(0);
+				if(first < c){
+					low = middle + 1;
+				}
+				else if(first > c){
+					high = middle - 1;
+				}
+				else{
+					return middle;
+				}
+			}
+			return -(low + 1);
+		}
+
+		private Node getChild(char c){
+			int position = search(c);
+			return position >= 0 ? children[position] : null;
+		}
+
+		private void addChild(Node child){
+			int position = -(search(child.label.charAt(0)) + 1);
+			if(childCount == children.length){
+				children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+			}
+			System.arraycopy(children, position, children, position + 1, childCount - position);
+			children[position] = child;
+			childCount++;
+		}
+
+		private void replaceChild(Node child, Node replacement){
+			children[search(child.label.charAt(0))] = replacement;
+		}
+
+		private void removeChild(Node child){
+			int position = search(child.label.charAt(0));
+			System.arraycopy(children, position + 1, children, position, childCount - position - 1);
+			children[--childCount] = null;
+		}
+	}
+
+	/**
+	 * Unordered list of the IDs of all names with a certain trigram.
+	 */
+	private static class Postings {
+		private int[] ids = new int[2];
+		private int size;
+
+		private void add(int id){
+			if(size == ids.length){
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+
+		private boolean remove(int id){
+			for(int i = 0; i < size; i++){
+				if(ids[i] == id){
+					ids[i] = ids[--size];
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,275 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+
+/**
+ * This list holds {@link CardCollectionBean} objects together with an index from their IDs to their positions
+ * within the list and a counter of the highest assigned ID. Lookup, removal by ID and the calculation of the next
+ * free ID are therefore O(1).
+ * <br><br>
+ * The index is an open addressing hash table with linear probing on primitive {@code int} arrays, so no boxed
+ * {@link Integer} keys are created. In order to remove beans in constant time, the last bean of the list takes over
+ * the position of a removed bean. The order of the list is therefore only the insertion order as long as no bean
+ * gets removed.
+ * <br><br>
+ * Beans must not change their ID while they are held by this list.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class IndexedBeanList extends AbstractList<CardCollectionBean> implements RandomAccess {
+
+	private static final int EMPTY = 0;			/* IDs are positive, 0 marks an empty slot of the index */
+
+	private CardCollectionBean[] elements;
+	private int size;
+	private int maxId;
+
+	private int[] indexKeys;
+	private int[] indexPositions;
+	private int indexMask;
+
+	public IndexedBeanList(){
+		this.elements = new CardCollectionBean[16];
+		initIndex(32);
+	}
+
+	/**
+	 * Constructor, which creates an {@link IndexedBeanList} containing all beans of the given collection.
+	 *
+	 * @param beans Beans, which should be added to the list. Beans with the same ID replace each other.
+	 */
+	public IndexedBeanList(Collection<? extends CardCollectionBean> beans){
+		this.elements = new CardCollectionBean[Math.max(16, beans.size())];
+		initIndex(Integer.highestOneBit(Math.max(16, beans.size()) * 2) * 2);
+		for(CardCollectionBean bean : beans){
+			put(bean);
+		}
+	}
+
+	private void initIndex(int capacity){
+		indexKeys = new int[capacity];
+		indexPositions = new int[capacity];
+		indexMask = capacity - 1;
+	}
+
+	@Override
+	public CardCollectionBean get(int position) {
+		if(position >= size){
+			throw new IndexOutOfBoundsException("Position "+position+", size "+size+".");
+		}
+		return elements[position];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * This method appends the given bean to the list. A bean with the same ID must not be part of the list.
+	 */
+	@Override
+	public void add(int position, CardCollectionBean bean) {
+		if(position != size){
+			throw new UnsupportedOperationException("Beans can only be appended to an IndexedBeanList.");
+		}
+		if(indexOfId(bean.getId()) >= 0){
+			throw new IllegalArgumentException("A bean with id="+bean.getId()+" is already part of the list.");
+		}
+		append(bean);
+	}
+
+	/**
+	 * This method replaces the bean at the given position. The new bean must have the same ID as the replaced bean.
+	 */
+	@Override
+	public CardCollectionBean set(int position, CardCollectionBean bean) {
+		CardCollectionBean old = get(position);
+		if(old.getId() != bean.getId()){
+			throw new IllegalArgumentException("Bean with id="+old.getId()+" cannot be replaced by a bean with id="+bean.getId()+".");
+		}
+		elements[position] = bean;
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		Arrays.fill(indexKeys, EMPTY);
+		size = 0;
+		maxId = 0;
+		modCount++;
+	}
+
+	/**
+	 * This method adds the given bean or replaces the bean with the same ID.
+	 *
+	 * @param bean Bean, which should be put into the list.
+	 */
+	public void put(CardCollectionBean bean){
+		int position = indexOfId(bean.getId());
+		if(position >= 0){
+			elements[position] = bean;
+		}
+		else{
+			append(bean);
+		}
+	}
+
+	/**
+	 * This method returns the position of the bean with the given ID.
+	 *
+	 * @param id ID of the bean.
+	 * @return Position of the bean within the list. {@code -1}, if no bean with the given ID exists.
+	 */
+	public int indexOfId(int id){
+		if(id == EMPTY){
+			return -1;
+		}
+		for(int slot = mix(id) & indexMask; ; slot = (slot + 1) & indexMask){
+			int key = indexKeys[slot];
+			if(key == id){
+				return indexPositions[slot];
+			}
+			if(key == EMPTY){
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * This method returns the bean with the given ID.
+	 *
+	 * @param id ID of the bean.
+	 * @return Bean with the given ID. {@code null}, if no bean with the given ID exists.
+	 */
+	public CardCollectionBean getById(int id){
+		int position = indexOfId(id);
+		return position < 0 ? null : elements[position];
+	}
+
+	/**
+	 * This method removes the bean with the given ID. The last bean of the list takes over its position.
+	 *
+	 * @param id ID of the bean, which should be removed.
+	 * @return Removed bean. {@code null}, if no bean with the given ID exists.
+	 */
+	public CardCollectionBean removeById(int id){
+		int position = indexOfId(id);
+		if(position < 0){
+			return null;
+		}
+		CardCollectionBean removed = elements[position];
+		removeFromIndex(id);
+
+		int last = size - 1;
+		if(position != last){
+			elements[position] = elements[last];
+			updateIndex(elements[position].getId(), position);
+		}
+		elements[last] = null;
+		size--;
+		modCount++;
+
+		if(size == 0){
+			maxId = 0;
+		}
+		return removed;
+	}
+
+	/**
+	 * This method returns the next free ID, which is one above the highest ID ever held by this list since it
+	 * has been empty the last time.
+	 *
+	 * @return Next free ID.
+	 */
+	public int nextId(){
+		return maxId + 1;
+	}
+
+	private void append(CardCollectionBean bean){
+		if(bean.getId() == EMPTY){
+			throw new IllegalArgumentException("Beans with id="+EMPTY+" cannot be indexed.");
+		}
+		if(size == elements.length){
+			elements = Arrays.copyOf(elements, size * 2);
+		}
+		elements[size] = bean;
+		insertIntoIndex(bean.getId(), size);
+		size++;
+		modCount++;
+		if(bean.getId() > maxId){
+			maxId = bean.getId();
+		}
+	}
+
+	/**
+	 * Spreads the bits of the ID, since IDs are mostly consecutive.
+	 */
+	private static int mix(int id){
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void insertIntoIndex(int id, int position){
+		if((size + 1) * 2 > indexKeys.length){
+			rehash(indexKeys.length * 2);
+		}
+		int slot = mix(id) & indexMask;
+		while(indexKeys[slot] != EMPTY){
+			slot = (slot + 1) & indexMask;
+		}
+		indexKeys[slot] = id;
+		indexPositions[slot] = position;
+	}
+
+	private void updateIndex(int id, int position){
+		int slot = mix(id) & indexMask;
+		while(indexKeys[slot] != id){
+			slot = (slot + 1) & indexMask;
+		}
+		indexPositions[slot] = position;
+	}
+
+	/**
+	 * Removes an ID from the index by shifting back the following entries of its probe sequence,
+	 * so no tombstones are required.
+	 */
+	private void removeFromIndex(int id){
+		int slot = mix(id) & indexMask;
+		while(indexKeys[slot] != id){
+			slot = (slot + 1) & indexMask;
+		}
+
+		int gap = slot;
+		for(int next = (gap + 1) & indexMask; indexKeys[next] != EMPTY; next = (next + 1) & indexMask){
+			int home = mix(indexKeys[next]) & indexMask;
+			/* move the entry into the gap, if its home slot is not between the gap and its current slot */
+			if(((next - home) & indexMask) >= ((next - gap) & indexMask)){
+				indexKeys[gap] = indexKeys[next];
+				indexPositions[gap] = indexPositions[next];
+				gap = next;
+			}
+		}
+		indexKeys[gap] = EMPTY;
+	}
+
+	private void rehash(int capacity){
+		initIndex(capacity);
+		for(int i = 0; i < size; i++){
+			int slot = mix(elements[i].getId()) & indexMask;
+			while(indexKeys[slot] != EMPTY){
+				slot = (slot + 1) & indexMask;
+			}
+			indexKeys[slot] = elements[i].getId();
+			indexPositions[slot] = i;
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+
+/**
+ * This list keeps {@link CardBean} objects sorted by their names (and by their IDs for equal names). It is maintained
+ * incrementally by {@link CardBeanContainer}: single changes are applied by binary search and an array shift instead of
+ * sorting the whole collection again.
+ * <br><br>
+ * The list itself is read-only for everyone outside of the container package.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class NameSortedCardBeanList extends AbstractList<CardBean> implements RandomAccess {
+
+	/**
+	 * Order of this list: by name, then by ID. {@code null} names are treated as empty names.
+	 */
+	public static final Comparator<CardBean> NAME_ORDER = new Comparator<CardBean>() {
+		@Override
+		public int compare(CardBean o1, CardBean o2) {
+			int result = nameOf(o1).compareTo(nameOf(o2));
+			if(result != 0){
+				return result;
+			}
+			return Integer.compare(o1.getId(), o2.getId());
+		}
+	};
+
+	private CardBean[] elements = new CardBean[16];
+	private int size;
+
+	private static String nameOf(CardBean bean){
+		return bean.getName() == null ? "" : bean.getName();
+	}
+
+	@Override
+	public CardBean get(int position) {
+		if(position >= size){
+			throw new IndexOutOfBoundsException("Position "+position+", size "+size+".");
+		}
+		return elements[position];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * This method replaces the content of this list by the sorted beans of the given container.
+	 */
+	void rebuild(List<CardCollectionBean> container){
+		elements = new CardBean[Math.max(16, container.size())];
+		for(int i = 0; i < container.size(); i++){
+			elements[i] = (CardBean) container.get(i);
+		}
+		size = container.size();
+		Arrays.sort(elements, 0, size, NAME_ORDER);
+		modCount++;
+	}
+
+	/**
+	 * This method inserts the given bean at its sorted position.
+	 *
+	 * @return Position of the inserted bean.
+	 */
+	int insert(CardBean bean){
+		int position = Arrays.binarySearch(elements, 0, size, bean, NAME_ORDER);
+		if(position < 0){
+			position = -(position + 1);
+		}
+		if(size == elements.length){
+			elements = Arrays.copyOf(elements, size * 2);
+		}
+		System.arraycopy(elements, position, elements, position + 1, size - position);
+		elements[position] = bean;
+		size++;
+		modCount++;
+		return position;
+	}
+
+	/**
+	 * This method removes the given bean.
+	 *
+	 * @return Former position of the bean. {@code -1}, if the bean is not part of this list.
+	 */
+	int remove(CardBean bean){
+		int position = positionOf(bean);
+		if(position >= 0){
+			System.arraycopy(elements, position + 1, elements, position, size - position - 1);
+			elements[--size] = null;
+			modCount++;
+		}
+		return position;
+	}
+
+	/**
+	 * This method returns the position of the given bean. If the bean has been edited since it has been inserted,
+	 * its sort key changed and it needs to be searched by identity.
+	 *
+	 * @return Position of the bean. {@code -1}, if the bean is not part of this list.
+	 */
+	int positionOf(CardBean bean){
+		int position = Arrays.binarySearch(elements, 0, size, bean, NAME_ORDER);
+		if(position >= 0 && elements[position] == bean){
+			return position;
+		}
+		for(int i = 0; i < size; i++){
+			if(elements[i] == bean){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
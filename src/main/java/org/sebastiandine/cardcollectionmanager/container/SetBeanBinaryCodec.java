@@ -0,0 +1,87 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+
+/**
+ * This codec persists containers of {@link SetBean} objects in a compact binary format.
+ * <br><br>
+ * Schema version 1: {@code [int count]} followed by {@code count} sets, each written as
+ * {@code [string code][string name][long release in epoch days]}. The release is {@link SetBean#NO_RELEASE},
+ * if not maintained.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class SetBeanBinaryCodec extends BeanBinaryCodec {
+
+	private static final int MAGIC = 0x43434D53; /* 'CCMS' */
+	private static final short VERSION = 1;
+
+	@Override
+	public int getMagic() {
+		return MAGIC;
+	}
+
+	@Override
+	public short getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	protected void writeContent(List<CardCollectionBean> container, DataOutputStream out) throws IOException {
+		out.writeInt(container.size());
+		for(CardCollectionBean bean : container){
+			writeSet((SetBean) bean, out);
+		}
+	}
+
+	@Override
+	protected List<CardCollectionBean> readContent(DataInput in, short version) throws IOException {
+		int count = in.readInt();
+		List<CardCollectionBean> container = new ArrayList<CardCollectionBean>(count);
+		for(int i = 0; i < count; i++){
+			container.add(readSet(in));
+		}
+		return container;
+	}
+
+	@Override
+	public void writeBean(CardCollectionBean bean, DataOutputStream out) throws IOException {
+		writeSet((SetBean) bean, out);
+	}
+
+	@Override
+	public CardCollectionBean readBean(DataInputStream in) throws IOException {
+		return readSet(in);
+	}
+
+	/**
+	 * This method writes a single {@link SetBean} object. It is shared with {@link CardBeanBinaryCodec}, which stores
+	 * the sets of its cards in a dictionary.
+	 */
+	static void writeSet(SetBean set, DataOutputStream out) throws IOException{
+		writeString(set.getCode(), out);
+		writeString(set.getName(), out);
+		out.writeLong(set.getReleaseEpochDay());
+	}
+
+	/**
+	 * This method reads a single {@link SetBean} object, written by {@link #writeSet(SetBean, DataOutputStream)}.
+	 */
+	static SetBean readSet(DataInput in) throws IOException{
+		SetBean set = new SetBean();
+		set.setCode(readString(in));
+		set.setName(readString(in));
+		set.setReleaseEpochDay(in.readLong());
+		return set;
+	}
+
+}
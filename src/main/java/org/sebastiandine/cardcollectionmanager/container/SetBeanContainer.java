@@ -2,21 +2,21 @@
 package org.sebastiandine.cardcollectionmanager.container;
 
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
 import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
 import org.sebastiandine.cardcollectionmanager.bean.SetBean;
 import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 import org.sebastiandine.cardcollectionmanager.services.MtgApiClient;
 
-import io.magicthegathering.javasdk.resource.MtgSet;
-
 /**
  * This container class provides holds a list of {@link SetBean} objects and provides
  * methods for interaction with this list.
@@ -32,6 +32,18 @@ public class SetBeanContainer extends AbstractBeanContainer {
 	 */
 	private static List<CardCollectionBean> setBeanList;
 	
+	/**
+	 * Registry of the canonical {@link SetBean} object of every set code (lower case). It holds all sets of
+	 * {@link #setBeanList} and additionally all sets, which are only known from card data. All {@link CardBean}
+	 * objects of a set reference its canonical instance (see {@link #canonicalize(SetBean)}).
+	 */
+	private static final Map<String, SetBean> setBeansByCode = new ConcurrentHashMap<String, SetBean>();
+	
+	/**
+	 * Binary codec, which is used to persist {@link #setBeanList}.
+	 */
+	private static final BeanBinaryCodec codec = new SetBeanBinaryCodec();
+	
 	
 	/**
 	 * Static constructor. Here the serialized {@link SetBean} objects are getting
@@ -41,18 +53,24 @@ public class SetBeanContainer extends AbstractBeanContainer {
 	 */
 	static{
 		try {
-			Logger.debug("Try to deserialize SetBean data at "+PropertiesFactory.getSetDataUrl()+".");
-			setBeanList = deserializeContainer(PropertiesFactory.getSetDataUrl());
+			Logger.debug("Try to deserialize SetBean data at {}.", PropertiesFactory.getSetDataUrl());
+			setBeanList = deserializeContainer(PropertiesFactory.getSetDataUrl(), codec);
 		} catch (ClassNotFoundException e) {
 			Logger.fatal(e.getMessage());
 		} catch (IOException e) {									/* If no setdata file gets detected, a new one will be created */	
-			Logger.warn("No serialized SetBean data found at "+PropertiesFactory.getSetDataUrl()+".");
+			Logger.warn("No serialized SetBean data found at {}.", PropertiesFactory.getSetDataUrl());
 			Logger.info("Try to call offical MtG API in order to receive up to date set data.");
 			setBeanList = new ArrayList<CardCollectionBean>();
-			createSetBeanListFromApi();
-			Logger.info("Serialized SetBean data created.");
+			try {
+				createSetBeanList(MtgApiClient.getAllSets());
+				Logger.info("Serialized SetBean data created.");
+			} catch (RuntimeException apiException) {				/* e.g. offline: start without sets instead of failing the class initialization */
+				setBeanList.clear();
+				Logger.error("Failed to receive set data from the offical MtG API. Continue without set data.");
+				Logger.error(apiException.getMessage());
+			}
 		}
-		
+		registerSetBeanList();
 	}
 
 	
@@ -62,64 +80,119 @@ public class SetBeanContainer extends AbstractBeanContainer {
 	private SetBeanContainer(){}
 	
 	/**
-	 * This method receives all sets from the official Mtg interface and creates an internal 
-	 * list of {@link SetBean} objects from it.
+	 * This method creates the internal list of {@link SetBean} objects from the sets of the official Mtg interface
+	 * and saves it.
+	 * 
+	 * @param sets Sets of {@link MtgApiClient#getAllSets()}, already sorted by release date.
 	 */
-	private static void createSetBeanListFromApi(){
+	private static void createSetBeanList(SetBean[] sets){
+		setBeanList.addAll(Arrays.asList(sets));
+		saveSetBeanList();
+	}
+	
+	/**
+	 * This method synchronizes the internal {@link SetBean} list with the sets of the offical Mtg API, which are
+	 * requested from the API instead of the local card catalog (see {@link MtgApiClient#fetchAllSets()}).
+	 * See {@link #updateSetBeanList(SetBean[])}.
+	 * 
+	 * @return Delta between the former internal list and the API list.
+	 */
+	public static SetBeanDelta updateSetBeanListFromApi(){
+		return updateSetBeanList(MtgApiClient.fetchAllSets());
+	}
+	
+	/**
+	 * This method synchronizes the internal {@link SetBean} list with the given sets by their code (see {@link SetBeanDelta}).
+	 * Only changed sets are touched: new sets are inserted, changed sets get updated in place (so cards, which reference them,
+	 * stay valid) and sets, which are missing in the given list, are retired from the list, but stay known for existing cards.
+	 * The list is only saved, if anything has changed.
+	 * 
+	 * @param apiSets Sets of {@link MtgApiClient#getAllSets()} or a stand-in, already sorted by release date.
+	 * @return Delta between the former internal list and the given sets.
+	 */
+	public static SetBeanDelta updateSetBeanList(SetBean[] apiSets){
+		if(apiSets.length == 0){
+			Logger.warn("Received no set data. Internal list is kept.");
+			apiSets = getSetBeanList();
+		}
 		
-		for(MtgSet i : MtgApiClient.getAllSets()){
-			SetBean bean = new SetBean();
-			bean.setName(i.getName());
-			bean.setCode(i.getCode());
-			
-			try {
-				Calendar releaseDate = Calendar.getInstance();
-				SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
-				releaseDate.setTime(formatter.parse(i.getReleaseDate()));
-				bean.setRelease(releaseDate);
-			} catch (ParseException e) {
-				Logger.warn("Unable to parse release date of set "+i.getName()+".");
-				Logger.warn(e.getMessage());
-			}
-			
-			addBeanToContainer(setBeanList, bean);
+		SetBeanDelta delta = SetBeanDelta.compute(setBeanList, apiSets);
+		if(delta.isEmpty()){
+			Logger.debug("Internal list is already up to date.");
+			return delta;
 		}
 		
+		List<CardCollectionBean> syncedList = delta.applyTo(setBeansByCode);
+		setBeanList.clear();
+		setBeanList.addAll(syncedList);
 		saveSetBeanList();
+		Logger.info("Set data has been updated: {}. Latest set is {}.", delta, getLatestSet().getName());
+		if(Logger.isDebugEnabled()){
+			Logger.debug("Changed sets: {}.", delta.describeSets());
+		}
+		return delta;
 	}
 	
 	/**
-	 * This method checks the offical Mtg API for the latest set. If the latest set of the API response
-	 * and the latest set within the internal {@link SetBean} list do net match, the internal {@link SetBean}
-	 * list will be updated with all new sets.
+	 * This method registers all sets of {@link #setBeanList} in {@link #setBeansByCode}. If a set code already has a
+	 * canonical instance (e.g. from card data or an earlier set list), this instance takes over the name and release
+	 * date of the set list and replaces the new instance within the list. Hence cards, which already reference it,
+	 * stay canonical.
 	 */
-	public static void updateSetBeanListFromApi(){
-		
-		String codeLastSetSerialzed = getLatestSet().getCode();
-		MtgSet set = MtgApiClient.getAllSets()[MtgApiClient.getAllSets().length-1];
-		String codeLastSetFromApi = set.getCode();
-
-		Logger.debug("Try to update set data from API. Latest set in internal list is "+getLatestSet().getName()+"."
-					+"Latest set within API response is "+set.getName()+".");
-		
-		if(codeLastSetSerialzed.equals(codeLastSetFromApi)){
-			Logger.debug("Internal list is already up to date.");
+	private static void registerSetBeanList(){
+		if(setBeanList == null){
+			return;
+		}
+		for(int i = 0; i < setBeanList.size(); i++){
+			SetBean set = (SetBean) setBeanList.get(i);
+			if(set.getCode() == null){
+				continue;
+			}
+			SetBean canonical = setBeansByCode.putIfAbsent(set.getCode().toLowerCase(Locale.ROOT), set);
+			if(canonical != null && canonical != set){
+				canonical.setName(set.getName());
+				canonical.setReleaseEpochDay(set.getReleaseEpochDay());
+				setBeanList.set(i, canonical);
+			}
 		}
-		else{
-			Logger.debug("Try to update set data.");
-			deleteSetBeanList();
-			createSetBeanListFromApi();
-			Logger.info("Set data has been updated. Latest set is "+set.getName()+".");
-		}	
 	}
 	
 	/**
-	 * This method clears {@link SetBeanContainer#setBeanList} and deletes the corresponding serialized file
-	 * (specified by {@link PropertiesFactory#getSetDataUrl()}) from the local disk.
+	 * This method returns the canonical instance of the given set, i.e. the single {@link SetBean} object of its set code,
+	 * which all cards share. If no instance of the code is registered yet, the given set becomes the canonical one.
+	 * 
+	 * @param set {@link SetBean} object, e.g. read from card data.
+	 * @return Canonical {@link SetBean} object with the same code. The given set, if it has no code.
+	 * 			{@code null}, if the given set is {@code null}.
 	 */
-	private static void deleteSetBeanList(){
-		deleteSerializedContainerFileFromDisk(PropertiesFactory.getSetDataUrl());
-		setBeanList.clear();
+	public static SetBean canonicalize(SetBean set){
+		if(set == null || set.getCode() == null){
+			return set;
+		}
+		SetBean canonical = setBeansByCode.putIfAbsent(set.getCode().toLowerCase(Locale.ROOT), set);
+		return canonical == null ? set : canonical;
+	}
+	
+	/**
+	 * This method returns the canonical {@link SetBean} object with the given set code in O(1). The code is not case sensitive.
+	 * 
+	 * @param code Set code, like 'lea'.
+	 * @return {@link SetBean} object with the given code. {@code null}, if no such set exists.
+	 */
+	public static SetBean getSetBeanByCode(String code){
+		if(code == null){
+			return null;
+		}
+		return setBeansByCode.get(code.toLowerCase(Locale.ROOT));
+	}
+	
+	/**
+	 * This method returns a read-only view of the registry of all canonical {@link SetBean} objects by their lower case set code.
+	 * 
+	 * @return Unmodifiable map from lower case set code to {@link SetBean} object.
+	 */
+	public static Map<String, SetBean> getSetBeansByCode(){
+		return Collections.unmodifiableMap(setBeansByCode);
 	}
 	
 	/**
@@ -142,12 +215,13 @@ public class SetBeanContainer extends AbstractBeanContainer {
 	 */
 	public static void saveSetBeanList(){
 		try {
-			serializeContainer(setBeanList, PropertiesFactory.getSetDataUrl());
+			serializeContainer(setBeanList, PropertiesFactory.getSetDataUrl(), codec);
 		} catch (IOException e) {
-			Logger.error("Failed to save internal set list to file "+PropertiesFactory.getSetDataUrl()+".");
+			Logger.error("Failed to save internal set list to file {}.", PropertiesFactory.getSetDataUrl());
 			Logger.error(e.getMessage());
+			return;
 		}
-		Logger.info("SetBean data stored to file "+PropertiesFactory.getSetDataUrl());
+		Logger.info("SetBean data stored to file {}.", PropertiesFactory.getSetDataUrl());
 	}
 	
 	/**
@@ -0,0 +1,180 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+
+/**
+ * This class describes the difference between the internal list of {@link SetBean} objects and a list of sets
+ * from the official MtG API. Sets are matched by their code (not case sensitive):
+ * <ul>
+ * <li>inserted sets are only part of the API list,</li>
+ * <li>updated sets are part of both lists, but differ in name or release date,</li>
+ * <li>retired sets are only part of the internal list.</li>
+ * </ul>
+ * A delta is computed by {@link #compute(List, SetBean[])} and applied to the canonical {@link SetBean} objects
+ * by {@link #applyTo(Map)}.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class SetBeanDelta {
+
+	private final SetBean[] apiSets;
+	private final List<SetBean> inserted = new ArrayList<SetBean>();
+	private final List<SetBean> updated = new ArrayList<SetBean>();
+	private final List<SetBean> retired = new ArrayList<SetBean>();
+
+	private SetBeanDelta(SetBean[] apiSets){
+		this.apiSets = apiSets;
+	}
+
+	/**
+	 * This method diffs the internal list of sets against the list of the API by set code.
+	 *
+	 * @param localSets Internal list of {@link SetBean} objects.
+	 * @param apiSets Sets of the API, already sorted by release date.
+	 * @return Delta between both lists. Inserted and updated sets are the objects of the API list,
+	 * 			retired sets are the objects of the internal list.
+	 */
+	public static SetBeanDelta compute(List<CardCollectionBean> localSets, SetBean[] apiSets){
+		SetBeanDelta delta = new SetBeanDelta(apiSets);
+
+		Map<String, SetBean> localByCode = new HashMap<String, SetBean>();
+		for(CardCollectionBean bean : localSets){
+			SetBean set = (SetBean) bean;
+			if(set.getCode() != null){
+				localByCode.put(toKey(set), set);
+			}
+		}
+
+		Set<String> apiCodes = new HashSet<String>();
+		for(SetBean apiSet : apiSets){
+			if(apiSet.getCode() == null || !apiCodes.add(toKey(apiSet))){
+				continue;
+			}
+			SetBean localSet = localByCode.get(toKey(apiSet));
+			if(localSet == null){
+				delta.inserted.add(apiSet);
+			}
+			else if(!hasSameData(localSet, apiSet)){
+				delta.updated.add(apiSet);
+			}
+		}
+
+		for(CardCollectionBean bean : localSets){
+			SetBean set = (SetBean) bean;
+			if(set.getCode() != null && !apiCodes.contains(toKey(set))){
+				delta.retired.add(set);
+			}
+		}
+		return delta;
+	}
+
+	/**
+	 * This method applies the delta to the given registry of canonical {@link SetBean} objects. Updated sets are changed in place,
+	 * so cards, which reference them, see the new name and release date. Inserted sets become canonical, unless their code is
+	 * already registered (e.g. from card data). Retired sets stay registered, because cards might still reference them.
+	 *
+	 * @param registry Canonical {@link SetBean} object of every lower case set code.
+	 * @return New internal list of sets in the order of the API, which only holds canonical objects.
+	 */
+	List<CardCollectionBean> applyTo(Map<String, SetBean> registry){
+		List<CardCollectionBean> setList = new ArrayList<CardCollectionBean>(apiSets.length);
+		Set<String> codes = new HashSet<String>();
+		for(SetBean apiSet : apiSets){
+			if(apiSet.getCode() == null || !codes.add(toKey(apiSet))){
+				continue;
+			}
+			SetBean canonical = registry.putIfAbsent(toKey(apiSet), apiSet);
+			if(canonical == null){
+				canonical = apiSet;
+			}
+			else if(!hasSameData(canonical, apiSet)){
+				canonical.setName(apiSet.getName());
+				canonical.setReleaseEpochDay(apiSet.getReleaseEpochDay());
+			}
+			setList.add(canonical);
+		}
+		return setList;
+	}
+
+	/**
+	 * @return {@code true}, if no set has been inserted, updated or retired.
+	 */
+	public boolean isEmpty(){
+		return inserted.isEmpty() && updated.isEmpty() && retired.isEmpty();
+	}
+
+	/**
+	 * @return Sets, which are only part of the API list.
+	 */
+	public List<SetBean> getInserted(){
+		return Collections.unmodifiableList(inserted);
+	}
+
+	/**
+	 * @return Sets of the API list, whose name or release date has changed.
+	 */
+	public List<SetBean> getUpdated(){
+		return Collections.unmodifiableList(updated);
+	}
+
+	/**
+	 * @return Sets of the internal list, which are not part of the API list anymore.
+	 */
+	public List<SetBean> getRetired(){
+		return Collections.unmodifiableList(retired);
+	}
+
+	/**
+	 * This method returns a short, human readable summary of the delta, like '2 inserted, 0 updated, 0 retired'.
+	 * It stays short for any number of changed sets, e.g. for the first update, which inserts all sets.
+	 */
+	@Override
+	public String toString(){
+		return inserted.size()+" inserted, "+updated.size()+" updated, "+retired.size()+" retired";
+	}
+
+	/**
+	 * This method returns a human readable list of all changed sets, like
+	 * '2 inserted (Kaladesh, Aether Revolt), 0 updated, 0 retired'.
+	 *
+	 * @return Names of all changed sets.
+	 */
+	public String describeSets(){
+		return describe(inserted, "inserted")+", "+describe(updated, "updated")+", "+describe(retired, "retired");
+	}
+
+	private static String describe(List<SetBean> sets, String change){
+		if(sets.isEmpty()){
+			return "0 "+change;
+		}
+		StringBuilder text = new StringBuilder().append(sets.size()).append(' ').append(change).append(" (");
+		for(int i = 0; i < sets.size(); i++){
+			if(i > 0){
+				text.append(", ");
+			}
+			text.append(sets.get(i).getName());
+		}
+		return text.append(')').toString();
+	}
+
+	private static boolean hasSameData(SetBean a, SetBean b){
+		return a.getReleaseEpochDay() == b.getReleaseEpochDay()
+				&& (a.getName() == null ? b.getName() == null : a.getName().equals(b.getName()));
+	}
+
+	private static String toKey(SetBean set){
+		return set.getCode().toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -1,11 +1,13 @@
 package org.sebastiandine.cardcollectionmanager.factories;
 
+import java.awt.Image;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.imageio.ImageIO;
 import javax.swing.GrayFilter;
@@ -30,6 +32,7 @@ public class PropertiesFactory {
 	private static final String SETDATA_KEY = "url_setdata";
 	private static final String LOGURL_KEY = "log_url";
 	private static final String LOGLEVEL_KEY = "log_level";
+	private static final String LOGASYNC_KEY = "log_async";
 	private static final String ICON_ALTERED_KEY = "icon_altered";
 	private static final String ICON_SIGNED_KEY = "icon_signed";
 	private static final String ICON_FOIL_KEY = "icon_foil";
@@ -39,8 +42,22 @@ public class PropertiesFactory {
 	private static final String ICON_DELETE_KEY = "icon_delete";
 	private static final String ICON_LOAD_KEY = "icon_load";
 	private static final String ICON_MTGBACK_KEY = "icon_mtgback";
+	private static final String IMAGECACHE_URL_KEY = "url_imagecache";
+	private static final String IMAGECACHE_SIZE_KEY = "imagecache_max_mb";
+	private static final String CATALOG_URL_KEY = "url_catalog";
+	private static final long DEFAULT_IMAGECACHE_SIZE_MB = 256;
+
+	private static final String[] ICON_KEYS = {ICON_ALTERED_KEY, ICON_SIGNED_KEY, ICON_FOIL_KEY, ICON_IMAGE_KEY, ICON_ADD_KEY,
+											   ICON_EDIT_KEY, ICON_DELETE_KEY, ICON_LOAD_KEY, ICON_MTGBACK_KEY};
 
 	private static Properties properties;
+	
+	/**
+	 * Caches of all icons, which have been loaded so far, one for the enabled and one for the disabled variants.
+	 * Each icon is loaded once and afterwards shared by all components.
+	 */
+	private static final ConcurrentHashMap<String, ImageIcon> enabledIcons = new ConcurrentHashMap<String, ImageIcon>();
+	private static final ConcurrentHashMap<String, ImageIcon> disabledIcons = new ConcurrentHashMap<String, ImageIcon>();
 
 	static {
 		properties = new Properties();
@@ -122,6 +139,54 @@ public class PropertiesFactory {
 		return (getCardDataDirectoryUrl()+"/images");
 	}
 
+	/**
+	 * This method returns the url to the directory, which caches official card images. It can be configured by the
+	 * optional key 'url_imagecache' in the config file. By default, it is the directory 'imagecache' within the carddata directory.
+	 * 
+	 * @return url to the image cache directory.
+	 */
+	public static String getImageCacheDirectoryUrl() {
+		String url = properties.getProperty(IMAGECACHE_URL_KEY);
+		if(url == null || url.trim().isEmpty()){
+			return (getCardDataDirectoryUrl()+"/imagecache");
+		}
+		return url;
+	}
+
+	/**
+	 * This method returns the maximum size of the image cache directory. It can be configured in megabytes by the
+	 * optional key 'imagecache_max_mb' in the config file.
+	 * 
+	 * @return Maximum size of the image cache directory in bytes.
+	 */
+	public static long getImageCacheMaxSize() {
+		String size = properties.getProperty(IMAGECACHE_SIZE_KEY);
+		long megabytes = DEFAULT_IMAGECACHE_SIZE_MB;
+		if(size != null){
+			try {
+				megabytes = Long.parseLong(size.trim());
+			} catch (NumberFormatException e) {
+				Logger.warn("Invalid value '"+size+"' of property '"+IMAGECACHE_SIZE_KEY+"'. Use default of "+DEFAULT_IMAGECACHE_SIZE_MB+" MB.");
+			}
+		}
+		return megabytes * 1024 * 1024;
+	}
+
+	/**
+	 * This method returns the url to the local card catalog file (see {@link org.sebastiandine.cardcollectionmanager.services.CardCatalog}).
+	 * It can be configured by the optional key 'url_catalog' in the config file. By default, it is the file 'catalog.json'
+	 * within the carddata directory.
+	 * 
+	 * @return url to the card catalog file.
+	 */
+	public static String getCardCatalogUrl() {
+		String url = properties.getProperty(CATALOG_URL_KEY);
+		if(url == null || url.trim().isEmpty()){
+			return (getCardDataDirectoryUrl()+"/catalog.json");
+		}
+		return url;
+	}
+
 	/**
 	 * This method returns the url to the log file of the application.
 	 * 
@@ -131,6 +196,16 @@ public class PropertiesFactory {
 		return properties.getProperty(LOGURL_KEY);
 	}
 
+	/**
+	 * This method returns, whether log messages are written asynchronously by a background thread. It can be
+	 * configured by the optional key 'log_async' in the config file. By default, messages are written synchronously.
+	 * 
+	 * @return {@code true}, if the log file is written asynchronously.
+	 */
+	public static boolean isLogAsync() {
+		return Boolean.parseBoolean(properties.getProperty(LOGASYNC_KEY));
+	}
+
 	/**
 	 * This method returns an {@link ImageIcon} object, displaying the icon,
 	 * which is used to display the attribute 'foil' of a card.
@@ -241,8 +316,21 @@ public class PropertiesFactory {
 	}
 	
 	/**
-	 * This method loads an image specified by the given key in the properties of this application an
-	 * provides it as an (enabled or disabled) {@link ImageIcon} object.
+	 * This method loads all icons of this application into the icon cache, so the first rendering of
+	 * the user interface does not need to read them from disk.
+	 */
+	public static void warmUpIconCache(){
+		for(String key : ICON_KEYS){
+			loadImageIconByProperitesKey(key, true);
+			loadImageIconByProperitesKey(key, false);
+		}
+		Logger.debug(enabledIcons.size()+" enabled and "+disabledIcons.size()+" disabled icons cached.");
+	}
+	
+	/**
+	 * This method provides the image specified by the given key in the properties of this application 
+	 * as an (enabled or disabled) {@link ImageIcon} object. Each image is loaded only once, all calls with the
+	 * same parameters return the same shared and immutable {@link ImageIcon} object.
 	 * 
 	 * @param key Corresponding key to the image in the properties file of this application.
 	 * @param enabled {@code true} if you want an enabled {@link ImageIcon} object, {@code false} if you want 
@@ -251,11 +339,17 @@ public class PropertiesFactory {
 	 * @return {@link ImageIcon} object of the specified image (enabled or disabled, referring to the given parameter).
 	 */
 	private static ImageIcon loadImageIconByProperitesKey(String key, boolean enabled){
+		ConcurrentHashMap<String, ImageIcon> cache = enabled ? enabledIcons : disabledIcons;
+		ImageIcon icon = cache.get(key);
+		if(icon != null){
+			return icon;
+		}
+		
 		try {
 			if (enabled) {
-				return new ImageIcon(properties.getProperty(key));
+				icon = new SharedImageIcon(new ImageIcon(properties.getProperty(key)).getImage());
 			} else {
-				return new ImageIcon(GrayFilter
+				icon = new SharedImageIcon(GrayFilter
 						.createDisabledImage(ImageIO.read(new File(properties.getProperty(key)))));
 			}
 
@@ -263,6 +357,30 @@ public class PropertiesFactory {
 			Logger.fatal("Unable to load image with key '" + key + "' from properties.");
 			return null;
 		}
+		
+		ImageIcon cached = cache.putIfAbsent(key, icon);
+		return cached == null ? icon : cached;
+	}
+	
+	/**
+	 * {@link ImageIcon}, which is shared by all components through the icon cache and therefore must not be changed.
+	 */
+	@SuppressWarnings("serial")
+	private static class SharedImageIcon extends ImageIcon {
+		
+		private SharedImageIcon(Image image){
+			super(image);
+		}
+		
+		@Override
+		public void setImage(Image image) {
+			throw new UnsupportedOperationException("Cached icons must not be changed.");
+		}
+		
+		@Override
+		public void setDescription(String description) {
+			throw new UnsupportedOperationException("Cached icons must not be changed.");
+		}
 	}
 
 	/**
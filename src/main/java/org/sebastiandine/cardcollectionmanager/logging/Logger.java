@@ -1,9 +1,13 @@
 package org.sebastiandine.cardcollectionmanager.logging;
 
 
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AsyncAppender;
 import org.apache.logging.log4j.core.appender.FileAppender;
 import org.apache.logging.log4j.core.config.AppenderRef;
 import org.apache.logging.log4j.core.config.Configuration;
@@ -14,12 +18,22 @@ import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
 /**
  * This class encapsulates the log4j engine an provides an easy to use log meachnism
  * throughout the whole application.
+ * <br><br>
+ * Besides plain messages, every level accepts parameterized messages with '{}' placeholders (e.g.
+ * {@code Logger.debug("Try to get CardBean with ID={}.", id)}) and {@link Supplier} objects. Both are only
+ * formatted, if the level is enabled. The overloads with a fixed number of parameters do not create a varargs array
+ * and the ones with an {@code int} parameter box it only for enabled levels, so a call of a disabled level does not allocate.
  * 
  * @author Sebastian Dine
  *
  */
 public class Logger {
 	
+	/**
+	 * Size of the queue of the asynchronous appender (see {@link PropertiesFactory#isLogAsync()}).
+	 */
+	private static final int ASYNC_BUFFER_SIZE = 1024;
+	
 	private static org.apache.logging.log4j.Logger logger;
 	
 	static{
@@ -42,14 +56,101 @@ public class Logger {
 		logger.fatal(text);
 	}
 	
+	public static void info(String format, Object arg){
+		logger.info(format, arg);
+	}
+	public static void error(String format, Object arg){
+		logger.error(format, arg);
+	}
+	public static void warn(String format, Object arg){
+		logger.warn(format, arg);
+	}
+	public static void debug(String format, Object arg){
+		logger.debug(format, arg);
+	}
+	public static void fatal(String format, Object arg){
+		logger.fatal(format, arg);
+	}
+	
+	public static void info(String format, Object arg1, Object arg2){
+		logger.info(format, arg1, arg2);
+	}
+	public static void error(String format, Object arg1, Object arg2){
+		logger.error(format, arg1, arg2);
+	}
+	public static void warn(String format, Object arg1, Object arg2){
+		logger.warn(format, arg1, arg2);
+	}
+	public static void debug(String format, Object arg1, Object arg2){
+		logger.debug(format, arg1, arg2);
+	}
+	public static void fatal(String format, Object arg1, Object arg2){
+		logger.fatal(format, arg1, arg2);
+	}
+	
+	public static void info(String format, int arg){
+		log(Level.INFO, format, arg);
+	}
+	public static void error(String format, int arg){
+		log(Level.ERROR, format, arg);
+	}
+	public static void warn(String format, int arg){
+		log(Level.WARN, format, arg);
+	}
+	public static void debug(String format, int arg){
+		log(Level.DEBUG, format, arg);
+	}
+	public static void fatal(String format, int arg){
+		log(Level.FATAL, format, arg);
+	}
+	
+	public static void info(Supplier<String> message){
+		log(Level.INFO, message);
+	}
+	public static void error(Supplier<String> message){
+		log(Level.ERROR, message);
+	}
+	public static void warn(Supplier<String> message){
+		log(Level.WARN, message);
+	}
+	public static void debug(Supplier<String> message){
+		log(Level.DEBUG, message);
+	}
+	public static void fatal(Supplier<String> message){
+		log(Level.FATAL, message);
+	}
+	
+	/**
+	 * @return {@code true}, if messages of level {@code DEBUG} are logged.
+	 */
+	public static boolean isDebugEnabled(){
+		return logger.isDebugEnabled();
+	}
+	
+	private static void log(Level level, String format, int arg){
+		if(logger.isEnabled(level)){
+			logger.log(level, format, Integer.valueOf(arg));
+		}
+	}
+	
+	private static void log(Level level, Supplier<String> message){
+		if(logger.isEnabled(level)){
+			logger.log(level, message.get());
+		}
+	}
+	
 	
 	/**
 	 * This method configures and initiates the internal {@link  org.apache.logging.log4j.Logger } object {@link #logger}.
+	 * If asynchronous logging is configured (see {@link PropertiesFactory#isLogAsync()}), the file appender is wrapped by an
+	 * {@link AsyncAppender}. Its background thread writes the queued messages in batches and flushes the file only at the
+	 * end of every batch.
 	 */
 	private static org.apache.logging.log4j.Logger factoryLogger(){
 		/* Create Configuration */
 		LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
 		Configuration config = ctx.getConfiguration();
+		boolean async = PropertiesFactory.isLogAsync();
 		
 		PatternLayout layout = PatternLayout.newBuilder()
 				.withConfiguration(config)
@@ -61,11 +162,27 @@ public class Logger {
 				.withName("myFileAppender")
 				.withLayout(layout)
 				.withFileName(PropertiesFactory.getLogfileUrl())
+				.withImmediateFlush(!async)
 				.build();
 		
 		AppenderRef ref = AppenderRef.createAppenderRef("myFileAppender", null, null);
 		AppenderRef[] refs = new AppenderRef[]{ref};
 		
+		if(async){
+			appender.start();
+			config.addAppender(appender);
+			appender = AsyncAppender.newBuilder()
+					.setConfiguration(config)
+					.setName("myAsyncAppender")
+					.setAppenderRefs(refs)
+					.setBufferSize(ASYNC_BUFFER_SIZE)
+					.setBlocking(true)
+					.build();
+			appender.start();
+			config.addAppender(appender);
+			refs = new AppenderRef[]{AppenderRef.createAppenderRef("myAsyncAppender", null, null)};
+		}
+		
 		/* Combine everything */
 		LoggerConfig loggerConfig = LoggerConfig
 				.createLogger(false, PropertiesFactory.getLogLevel(), "myLogger", "true", refs, null, config, null);
@@ -80,4 +197,3 @@ public class Logger {
 	
 
 }
-
@@ -3,6 +3,7 @@ package org.sebastiandine.cardcollectionmanager.services;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
@@ -14,14 +15,14 @@ import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
-import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 
 /**
  * This class provides the functionality to export a {@link CardBean} collection into an Excel
- * spreadsheet (only support .xlsx).
+ * spreadsheet (only support .xlsx). The spreadsheet is written in streaming mode, so the memory usage
+ * does not depend on the size of the collection.
  * 
  * @author Sebastian Dine
  *
@@ -41,6 +42,14 @@ public class CardBeanExcelExportServices {
 	private static final String HEADER_IMG_FRONT = "Front Image";
 	private static final String HEADER_IMG_BACK = "Back Image";
 	
+	private static final String[] HEADERS = {HEADER_ID, HEADER_NAME, HEADER_SET, HEADER_LANGUAGE, HEADER_CONDITION, HEADER_AMOUNT,
+											 HEADER_FOIL, HEADER_SIGNED, HEADER_ALTERED, HEADER_NOTE, HEADER_IMG_FRONT, HEADER_IMG_BACK};
+	
+	private static final int ROW_WINDOW_SIZE = 100;			/* rows held in memory, all others are flushed to disk */
+	private static final int WIDTH_SAMPLE_SIZE = 1000;		/* rows measured in order to estimate the column widths */
+	private static final int MAX_COLUMN_LENGTH = 80;
+	private static final int PROGRESS_INTERVAL = 500;
+	
 	/**
 	 * private constructor to disable object creation.
 	 */
@@ -82,147 +91,153 @@ public class CardBeanExcelExportServices {
 	 * @param url Path of the file, where the Excel data should be exported to.
 	 */
 	public static void exportCardBeanContainerToXlsx(File url){
-		
-		Workbook workbook = new XSSFWorkbook();
-		parseCardBeanContainer(workbook, CardBeanContainer.getCardBeanListSortedByName());
-		
-		FileOutputStream fos;
+		exportCardBeanContainerToXlsx(url, CardQuery.parse(""));
+	}
+	
+	/**
+	 * This method exports all {@link CardBean} objects of the system's collection, which match the given query, into an
+	 * Excel file (only supports *.xlsx) at the given url.
+	 * 
+	 * @param url Path of the file, where the Excel data should be exported to.
+	 * @param query {@link CardQuery}, which selects the exported cards, e.g. the one of the card table filter.
+	 */
+	public static void exportCardBeanContainerToXlsx(File url, CardQuery query){
 		try {
-			fos = new FileOutputStream(url);
-			workbook.write(fos);
-			fos.close();
-			Logger.info("Exported data sucessfully to "+url.getAbsolutePath()+".");
+			exportCardBeansToXlsx(query.select(), url, null);
 		} catch (IOException e) {
 			Logger.error("An error occured during the export to the Excel file.");
 			Logger.error(e.getMessage());
 		}
+	}
+	
+	/**
+	 * This method exports the given {@link CardBean} objects into an Excel file (only supports *.xlsx) at the given url.
+	 * The spreadsheet is streamed: only a small window of rows is held in memory, all other rows are flushed to
+	 * a temporary file. It is therefore suitable to be called by a background thread for collections of any size.
+	 * 
+	 * @param cardBeans {@link CardBean} objects, which should be exported. They must not be changed during the export.
+	 * @param url Path of the file, where the Excel data should be exported to.
+	 * @param listener {@link ExportProgressListener}, which observes the export and might cancel it. May be {@code null}.
+	 * @return {@code true}, if the export has been completed. {@code false}, if it has been cancelled. In that case,
+	 * 		   no file is left at the given url.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static boolean exportCardBeansToXlsx(List<CardBean> cardBeans, File url, ExportProgressListener listener) throws IOException{
 		
+		SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW_SIZE);
+		workbook.setCompressTempFiles(true);
+		boolean completed = false;
+		try {
+			completed = parseCardBeanContainer(workbook, cardBeans, listener);
+			if(completed){
+				try(FileOutputStream fos = new FileOutputStream(url)){
+					workbook.write(fos);
+				}
+				Logger.info("Exported data sucessfully to "+url.getAbsolutePath()+".");
+			}
+			else{
+				Logger.info("Export to "+url.getAbsolutePath()+" has been cancelled.");
+			}
+		} finally {
+			workbook.dispose();			/* delete the temporary files of the flushed rows */
+			workbook.close();
+		}
+		return completed;
 	}
 	
 	/**
-	 * This mehtod parses the given array of {@link CardBean} objects into a @link {@link Sheet} object 
+	 * This mehtod parses the given list of {@link CardBean} objects into a @link {@link Sheet} object 
 	 * of the given {@link Workbook} object.
 	 * 
 	 * @param workbook An Apache POI library {@link Workbook} object, which will later be used to create
 	 * the Excel file.
-	 * @param cardBeans Array of {@link CardBean} objects, which will be parsed into the spreadsheet
+	 * @param cardBeans List of {@link CardBean} objects, which will be parsed into the spreadsheet
+	 * @param listener {@link ExportProgressListener}, which observes the export. May be {@code null}.
+	 * @return {@code false}, if the export has been cancelled.
 	 */
-	private static void parseCardBeanContainer(Workbook workbook, CardBean[] cardBeans){
+	private static boolean parseCardBeanContainer(Workbook workbook, List<CardBean> cardBeans, ExportProgressListener listener){
 		
 		Sheet sheet = workbook.createSheet();
 		CellStyle headerStyle = createHeaderStyle(workbook);
 		
+		/* column widths have to be set before the rows are flushed, so they are estimated from a sample of the rows */
+		int[] columnLengths = new int[HEADERS.length];
+		int sampleStep = Math.max(1, cardBeans.size() / WIDTH_SAMPLE_SIZE);
+		
 		int rowIndex = 0;
 		Row row = sheet.createRow(rowIndex);
 		
 		Logger.info("Parse CardBean data into workbook's sheet.");
 		
 		/* create header line */
-		Cell cellId = row.createCell(0);
-		cellId.setCellValue(HEADER_ID);
-		cellId.setCellStyle(headerStyle);
-		
-		Cell cellName = row.createCell(1);
-		cellName.setCellValue(HEADER_NAME);
-		cellName.setCellStyle(headerStyle);
-		
-		Cell cellSet = row.createCell(2);
-		cellSet.setCellValue(HEADER_SET);
-		cellSet.setCellStyle(headerStyle);
-		
-		Cell cellLanguage = row.createCell(3);
-		cellLanguage.setCellValue(HEADER_LANGUAGE);
-		cellLanguage.setCellStyle(headerStyle);
-		
-		Cell cellCondition = row.createCell(4);
-		cellCondition.setCellValue(HEADER_CONDITION);
-		cellCondition.setCellStyle(headerStyle);
-		
-		Cell cellAmount = row.createCell(5);
-		cellAmount.setCellValue(HEADER_AMOUNT);
-		cellAmount.setCellStyle(headerStyle);
-		
-		Cell cellFoil = row.createCell(6);
-		cellFoil.setCellValue(HEADER_FOIL);
-		cellFoil.setCellStyle(headerStyle);
-		
-		Cell cellSigned = row.createCell(7);
-		cellSigned.setCellValue(HEADER_SIGNED);
-		cellSigned.setCellStyle(headerStyle);
-		
-		Cell cellAltered = row.createCell(8);
-		cellAltered.setCellValue(HEADER_ALTERED);
-		cellAltered.setCellStyle(headerStyle);
-		
-		Cell cellNote = row.createCell(9);
-		cellNote.setCellValue(HEADER_NOTE);
-		cellNote.setCellStyle(headerStyle);
-		
-		Cell cellImgFront = row.createCell(10);
-		cellImgFront.setCellValue(HEADER_IMG_FRONT);
-		cellImgFront.setCellStyle(headerStyle);
-		
-		Cell cellImgBack = row.createCell(11);
-		cellImgBack.setCellValue(HEADER_IMG_BACK);
-		cellImgBack.setCellStyle(headerStyle);
+		for(int column = 0; column < HEADERS.length; column++){
+			Cell cell = row.createCell(column);
+			cell.setCellValue(HEADERS[column]);
+			cell.setCellStyle(headerStyle);
+			columnLengths[column] = HEADERS[column].length();
+		}
+		for(int i = 0; i < cardBeans.size(); i += sampleStep){
+			String[] values = toCellValues(cardBeans.get(i));
+			for(int column = 0; column < values.length; column++){
+				if(values[column] != null){
+					columnLengths[column] = Math.max(columnLengths[column], values[column].length());
+				}
+			}
+		}
+		for(int column = 0; column < HEADERS.length; column++){
+			sheet.setColumnWidth(column, Math.min(MAX_COLUMN_LENGTH, columnLengths[column] + 2) * 256);
+		}
 		
 		/* create data lines */
 		for(CardBean bean : cardBeans){
+			if(listener != null && rowIndex % PROGRESS_INTERVAL == 0){
+				if(listener.isExportCancelled()){
+					return false;
+				}
+				listener.exportProgress(rowIndex, cardBeans.size());
+			}
+			
 			rowIndex++;
 			row = sheet.createRow(rowIndex);
 			
-			cellId = row.createCell(0);
-			cellId.setCellValue(bean.getId());
-			
-			cellName = row.createCell(1);
-			cellName.setCellValue(bean.getName());
-			
-			cellSet = row.createCell(2);
-			cellSet.setCellValue(bean.getSet().getName());
-			
-			cellLanguage = row.createCell(3);
-			cellLanguage.setCellValue(bean.getLanguage().toString());
-			
-			cellCondition = row.createCell(4);
-			cellCondition.setCellValue(bean.getCondition().toString());
-			
-			cellAmount = row.createCell(5);
-			cellAmount.setCellValue(bean.getAmount());
-			
-			cellFoil = row.createCell(6);
-			if(bean.isFoil()) cellFoil.setCellValue("Foil");
-			
-			cellSigned = row.createCell(7);
-			if(bean.isSigned()) cellSigned.setCellValue("Signed");
-			
-			cellAltered = row.createCell(8);
-			if(bean.isSigned()) cellAltered.setCellValue("Altered");
-			
-			cellNote = row.createCell(9);
-			cellNote.setCellValue(bean.getNote());
-			
-			cellImgFront = row.createCell(10);
-			if(bean.getImageFront() != null) cellImgFront.setCellValue(bean.getImageFront().getName());
-			
-			cellImgBack = row.createCell(11);
-			if(bean.getImageBack() != null) cellImgBack.setCellValue(bean.getImageBack().getName());
+			String[] values = toCellValues(bean);
+			row.createCell(0).setCellValue(bean.getId());
+			for(int column = 1; column < values.length; column++){
+				Cell cell = row.createCell(column);
+				if(column == 5){
+					cell.setCellValue(bean.getAmount());
+				}
+				else if(values[column] != null){
+					cell.setCellValue(values[column]);
+				}
+			}
+		}
+		if(listener != null){
+			listener.exportProgress(cardBeans.size(), cardBeans.size());
 		}
-			
-		sheet.autoSizeColumn(0);
-		sheet.autoSizeColumn(1);
-		sheet.autoSizeColumn(2);
-		sheet.autoSizeColumn(3);
-		sheet.autoSizeColumn(4);
-		sheet.autoSizeColumn(5);
-		sheet.autoSizeColumn(6);
-		sheet.autoSizeColumn(7);
-		sheet.autoSizeColumn(8);
-		sheet.autoSizeColumn(9);
-		sheet.autoSizeColumn(10);
-		sheet.autoSizeColumn(11);
 		
 		Logger.info("Parsing data was successful.");
-
+		return true;
+	}
+	
+	/**
+	 * This method returns the text of all cells of a data line. Empty cells are {@code null}.
+	 */
+	private static String[] toCellValues(CardBean bean){
+		return new String[]{
+			Integer.toString(bean.getId()),
+			bean.getName(),
+			bean.getSet().getName(),
+			bean.getLanguage().toString(),
+			bean.getCondition().toString(),
+			Integer.toString(bean.getAmount()),
+			bean.isFoil() ? "Foil" : null,
+			bean.isSigned() ? "Signed" : null,
+			bean.isAltered() ? "Altered" : null,
+			bean.getNote(),
+			bean.getImageFront() != null ? bean.getImageFront().getName() : null,
+			bean.getImageBack() != null ? bean.getImageBack().getName() : null
+		};
 	}
 	
 
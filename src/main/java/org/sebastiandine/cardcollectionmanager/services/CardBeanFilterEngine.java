@@ -0,0 +1,184 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+
+/**
+ * This class provides the matching logic of the card filter. Each {@link CardBean} object gets a precomputed
+ * lower case search key, which consists of all displayed attributes of the card. A card matches a query, if its
+ * search key contains the lower cased query literally (no regular expressions are involved). The keys are held in
+ * an array, which is indexed by the card ID, and created once per card, either on its first scan or on its change.
+ * <br><br>
+ * Results are {@link BitSet} objects of matching card IDs. If a query only extends the previous query and no card
+ * has been changed in the meantime, only the cards of the previous result are checked again.
+ * <br><br>
+ * {@link #filter(String, List)} may be called by a background thread, while {@link #cardChanged(CardBean)}
+ * and {@link #cardDeleted(int)} are called by the thread which changes the cards.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardBeanFilterEngine {
+
+	private static final char FIELD_SEPARATOR = '\n';		/* cannot be part of a query, so matches never span two attributes */
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private volatile AtomicReferenceArray<String> searchKeys = new AtomicReferenceArray<String>(INITIAL_CAPACITY);
+	private final Object keyLock = new Object();						/* guards all writes of the search keys */
+	private final AtomicInteger version = new AtomicInteger();
+
+	private String lastQuery;
+	private BitSet lastResult;
+	private int lastVersion = -1;
+
+	/**
+	 * This method creates the lower case search key of the given {@link CardBean} object.
+	 *
+	 * @param card {@link CardBean} object.
+	 * @return Search key of the card.
+	 */
+	public static String createSearchKey(CardBean card){
+		StringBuilder key = new StringBuilder(64);
+		key.append(card.getId()).append(FIELD_SEPARATOR);
+		key.append(card.getName()).append(FIELD_SEPARATOR);
+		key.append(card.getSet() == null ? "" : card.getSet().getName()).append(FIELD_SEPARATOR);
+		key.append(card.getLanguage()).append(FIELD_SEPARATOR);
+		key.append(card.getCondition()).append(FIELD_SEPARATOR);
+		key.append(card.getAmount()).append(FIELD_SEPARATOR);
+		key.append(card.getNote() == null ? "" : card.getNote());
+		return key.toString().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * This method returns the version of the cards, which increases with every change reported to this engine.
+	 * Results, which have been computed for an older version, are outdated.
+	 *
+	 * @return Current version.
+	 */
+	public int getVersion(){
+		return version.get();
+	}
+
+	/**
+	 * This method has to be called, after a card has been added or edited.
+	 *
+	 * @param card Added or edited {@link CardBean} object.
+	 */
+	public void cardChanged(CardBean card){
+		if(card.getId() >= 0){
+			String key = createSearchKey(card);
+			synchronized(keyLock){
+				ensureCapacity(card.getId()).set(card.getId(), key);
+			}
+		}
+		version.incrementAndGet();
+	}
+
+	/**
+	 * This method has to be called, after a card has been deleted.
+	 *
+	 * @param id ID of the deleted {@link CardBean} object.
+	 */
+	public void cardDeleted(int id){
+		synchronized(keyLock){
+			AtomicReferenceArray<String> keys = searchKeys;
+			if(id >= 0 && id < keys.length()){
+				keys.set(id, null);
+			}
+		}
+		version.incrementAndGet();
+	}
+
+	/**
+	 * This method returns the search key of the given card. It is created, if the card has not been scanned yet.
+	 *
+	 * @param card {@link CardBean} object.
+	 * @return Search key of the card, see {@link #createSearchKey(CardBean)}.
+	 */
+	public String getSearchKey(CardBean card){
+		String key = getCachedKey(card.getId());
+		if(key != null){
+			return key;
+		}
+		key = createSearchKey(card);
+		if(card.getId() < 0){
+			return key;													/* e.g. the dummy card, which is never cached */
+		}
+		synchronized(keyLock){
+			AtomicReferenceArray<String> keys = ensureCapacity(card.getId());
+			String concurrent = keys.get(card.getId());					/* an edit of the card wins */
+			if(concurrent != null){
+				return concurrent;
+			}
+			keys.set(card.getId(), key);
+		}
+		return key;
+	}
+
+	private String getCachedKey(int id){
+		AtomicReferenceArray<String> keys = searchKeys;
+		return id >= 0 && id < keys.length() ? keys.get(id) : null;
+	}
+
+	/**
+	 * This method grows the key array, so it can hold the given ID. It must only be called while holding the key lock.
+	 */
+	private AtomicReferenceArray<String> ensureCapacity(int id){
+		AtomicReferenceArray<String> keys = searchKeys;
+		if(id < keys.length()){
+			return keys;
+		}
+		AtomicReferenceArray<String> grown = new AtomicReferenceArray<String>(Math.max(id + 1, keys.length() * 2));
+		for(int i = 0; i < keys.length(); i++){
+			grown.set(i, keys.get(i));
+		}
+		searchKeys = grown;
+		return grown;
+	}
+
+	/**
+	 * This method returns the IDs of all cards, which match the given query.
+	 *
+	 * @param query Query as typed by the user.
+	 * @param cards Snapshot of all cards, which is used if the previous result cannot be narrowed.
+	 * @return IDs of all matching cards. {@code null}, if the calling thread has been interrupted.
+	 */
+	public synchronized BitSet filter(String query, List<CardBean> cards){
+		String needle = query.toLowerCase(Locale.ROOT);
+		int currentVersion = version.get();
+		BitSet result = new BitSet();
+
+		if(lastResult != null && lastVersion == currentVersion && needle.contains(lastQuery)){
+			/* every match of the extended query is a match of the previous one */
+			for(int id = lastResult.nextSetBit(0); id >= 0; id = lastResult.nextSetBit(id + 1)){
+				String key = getCachedKey(id);
+				if(key != null && key.contains(needle)){
+					result.set(id);
+				}
+			}
+		}
+		else{
+			for(int i = 0; i < cards.size(); i++){
+				if((i & 0xFFF) == 0 && Thread.currentThread().isInterrupted()){
+					return null;
+				}
+				CardBean card = cards.get(i);
+				if(getSearchKey(card).contains(needle)){
+					result.set(card.getId());
+				}
+			}
+		}
+
+		lastQuery = needle;
+		lastResult = result;
+		lastVersion = currentVersion;
+		return result;
+	}
+
+}
@@ -1,18 +1,27 @@
 package org.sebastiandine.cardcollectionmanager.services;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.List;
 
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
-import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 
+/**
+ * This class provides the functionality to export a {@link CardBean} collection into a JSON file.
+ * The document is an object, which maps the id of each card to its data. It is written field by field
+ * by a {@link JsonStreamWriter}, so all texts are escaped correctly and the document is never held in
+ * memory as a whole.
+ *
+ * @author Sebastian Dine
+ *
+ */
 public class CardBeanJsonExportService {
 
     /**
@@ -20,68 +29,117 @@ public class CardBeanJsonExportService {
 	 */
 	private CardBeanJsonExportService(){}
 
-
+	/**
+	 * This method exports the system's {@link CardBean} collection into a JSON file at the given url.
+	 *
+	 * @param url Path of the file, where the JSON data should be exported to.
+	 */
     public static void exportCardBeanContainerToJson(File url){
-		
-		CardBean[] cards = CardBeanContainer.getCardBeanList();
-        SimpleDateFormat releaseDateFormat = new SimpleDateFormat("yyyy/MM/dd");
-        
-		
-		FileOutputStream fos;
-		try {
-			fos = new FileOutputStream(url);
-            Writer w = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8));
-            w.write("{");
-    
-            for (int i = 0; i < cards.length; i++) {
-                CardBean card = cards[i];
-                // prepare image string
-                String images = "[";
-                if (card.getImageFront() != null){
-                    images += String.format("\"%s\"", card.getImageFront().getName().replaceAll("\"", " "));
-                    if (card.getImageBack() != null) { // avoid trailing comma in set with only one image
-                        images += ",";
-                    }
-                }
-                if (card.getImageBack() != null){
-                    images += String.format("\"%s\"", card.getImageBack().getName().replaceAll("\"", " "));
-                }
-                images += "]";
-
-                String obj = String.format(
-                    "\"%d\":{\"id\":%d,\"amount\":%d,\"name\":\"%s\",\"set\":{\"id\":\"%s\",\"name\":\"%s\",\"releaseDate\":\"%s\"}," +
-                    "\"setNo\":\"\",\"note\":\"%s\",\"images\":%s,\"language\":\"%s\",\"condition\":\"%s\",\"foil\":%b,\"signed\":%b,\"altered\":%b},",
-                    card.getId(),
-                    card.getId(),
-                    card.getAmount(),
-                    card.getName(),
-                    card.getSet().getCode(),
-                    card.getSet().getName().replaceAll("\"", ""),
-                    releaseDateFormat.format(card.getSet().getRelease().getTime()),
-                    card.getNote(),
-                    images,
-                    card.getLanguage().toString(),
-                    card.getCondition().toString().replace("_", ""),
-                    card.isFoil(), 
-                    card.isSigned(),
-                    card.isAltered()
-                );
-
-                if (i == (cards.length -1)){ // remove trailing comma for last entry
-                    obj = obj.substring(0, obj.length() -1); 
-                }
-                w.write(obj);
-            }
-            w.write("}");
-            w.flush();
-            w.close();
-			fos.close();
+		exportCardBeanContainerToJson(url, CardQuery.parse(""));
+	}
+
+	/**
+	 * This method exports all {@link CardBean} objects of the system's collection, which match the given query,
+	 * into a JSON file at the given url.
+	 *
+	 * @param url Path of the file, where the JSON data should be exported to.
+	 * @param query {@link CardQuery}, which selects the exported cards, e.g. the one of the card table filter.
+	 */
+    public static void exportCardBeanContainerToJson(File url, CardQuery query){
+
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(url), StandardCharsets.UTF_8)){
+			exportCardBeansToJson(query.select(), writer);
 			Logger.info("Exported data sucessfully to "+url.getAbsolutePath()+".");
 		} catch (IOException e) {
-			Logger.error("An error occured during the export to the Excel file.");
+			Logger.error("An error occured during the export to the JSON file.");
 			Logger.error(e.getMessage());
 		}
-		
+
+	}
+
+	/**
+	 * This method writes the given {@link CardBean} objects as JSON document to the given {@link Writer}.
+	 * The writer is flushed, but not closed.
+	 *
+	 * @param cardBeans {@link CardBean} objects, which should be exported.
+	 * @param writer Target of the document.
+	 * @throws IOException If the document cannot be written.
+	 */
+	public static void exportCardBeansToJson(List<CardBean> cardBeans, Writer writer) throws IOException{
+
+		JsonStreamWriter json = new JsonStreamWriter(writer);
+		json.beginObject();
+		for(CardBean card : cardBeans){
+			json.name(Integer.toString(card.getId()));
+			writeCardBean(json, card);
+		}
+		json.endObject();
+		json.flush();
+	}
+
+	private static void writeCardBean(JsonStreamWriter json, CardBean card) throws IOException{
+
+		json.beginObject();
+		json.name("id").value(card.getId());
+		json.name("amount").value(card.getAmount());
+		json.name("name").value(card.getName());
+
+		json.name("set");
+		SetBean set = card.getSet();
+		if(set == null){
+			json.nullValue();
+		}
+		else{
+			json.beginObject();
+			json.name("id").value(set.getCode());
+			json.name("name").value(set.getName());
+			json.name("releaseDate").value(formatReleaseDate(set));
+			json.endObject();
+		}
+
+		json.name("setNo").value("");
+		json.name("note").value(card.getNote());
+
+		json.name("images").beginArray();
+		if(card.getImageFront() != null){
+			json.value(card.getImageFront().getName());
+		}
+		if(card.getImageBack() != null){
+			json.value(card.getImageBack().getName());
+		}
+		json.endArray();
+
+		json.name("language").value(card.getLanguage() != null ? card.getLanguage().toString() : null);
+		json.name("condition").value(card.getCondition() != null ? card.getCondition().toString().replace("_", "") : null);
+		json.name("foil").value(card.isFoil());
+		json.name("signed").value(card.isSigned());
+		json.name("altered").value(card.isAltered());
+		json.endObject();
 	}
-    
+
+	/**
+	 * This method formats the release date of a set as {@code yyyy/MM/dd}, without creating a date formatter.
+	 */
+	private static String formatReleaseDate(SetBean set){
+		if(!set.hasRelease()){
+			return null;
+		}
+		char[] date = new char[10];
+		LocalDate release = LocalDate.ofEpochDay(set.getReleaseEpochDay());
+		int year = release.getYear();
+		int month = release.getMonthValue();
+		int day = release.getDayOfMonth();
+		date[0] = (char) ('0' + year / 1000 % 10);
+		date[1] = (char) ('0' + year / 100 % 10);
+		date[2] = (char) ('0' + year / 10 % 10);
+		date[3] = (char) ('0' + year % 10);
+		date[4] = '/';
+		date[5] = (char) ('0' + month / 10);
+		date[6] = (char) ('0' + month % 10);
+		date[7] = '/';
+		date[8] = (char) ('0' + day / 10);
+		date[9] = (char) ('0' + day % 10);
+		return new String(date);
+	}
+
 }
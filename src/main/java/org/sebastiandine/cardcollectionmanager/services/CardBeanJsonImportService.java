@@ -0,0 +1,243 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
+import org.sebastiandine.cardcollectionmanager.container.SetBeanContainer;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+
+/**
+ * This class provides the functionality to import {@link CardBean} objects from a JSON file, which has been written by
+ * {@link CardBeanJsonExportService}. The file is read incrementally by a {@link JsonStreamReader}, so it is never held
+ * in memory as a whole.
+ * <br><br>
+ * The imported cards get new IDs. Their sets are resolved by set code against {@link SetBeanContainer}. Sets, which are
+ * unknown to the system, are taken from the file.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardBeanJsonImportService {
+
+	/**
+	 * private constructor to disable object creation.
+	 */
+	private CardBeanJsonImportService(){}
+
+	/**
+	 * This method reads all {@link CardBean} objects from the given JSON file. It does not change the system's collection,
+	 * so it can be called by a background thread. Use {@link #addToCardBeanContainer(List)} afterwards.
+	 *
+	 * @param url Path of the JSON file.
+	 * @return {@link CardBean} objects of the file, without assigned IDs.
+	 * @throws IOException If the file cannot be read or is malformed.
+	 */
+	public static List<CardBean> readCardBeansFromJson(File url) throws IOException{
+		try(Reader reader = new InputStreamReader(new FileInputStream(url), StandardCharsets.UTF_8)){
+			List<CardBean> cards = readCardBeans(reader, SetBeanContainer.getSetBeansByCode());
+			Logger.info("Read "+cards.size()+" cards from "+url.getAbsolutePath()+".");
+			return cards;
+		}
+	}
+
+	/**
+	 * This method adds the given imported {@link CardBean} objects to the system's collection in a single
+	 * {@link CardBeanContainer.Batch}, which is persisted once. It has to be called by the event dispatch thread.
+	 *
+	 * @param cards {@link CardBean} objects, which have been read by {@link #readCardBeansFromJson(File)}.
+	 */
+	public static void addToCardBeanContainer(List<CardBean> cards){
+		CardBeanContainer.Batch batch = CardBeanContainer.beginBatch();
+		for(CardBean card : cards){
+			batch.addCardBean(card);
+		}
+		batch.commit();
+	}
+
+	/**
+	 * This method reads all {@link CardBean} objects of a JSON document in the format of {@link CardBeanJsonExportService}.
+	 *
+	 * @param reader Source of the document.
+	 * @param setsByCode Known {@link SetBean} objects by their lower case set code.
+	 * @return {@link CardBean} objects of the document, without assigned IDs.
+	 * @throws IOException If the document cannot be read or is malformed.
+	 */
+	public static List<CardBean> readCardBeans(Reader reader, Map<String, SetBean> setsByCode) throws IOException{
+		JsonStreamReader json = new JsonStreamReader(reader);
+		Map<String, SetBean> unknownSets = new HashMap<String, SetBean>();
+		List<CardBean> cards = new ArrayList<CardBean>();
+
+		json.beginObject();
+		while(json.hasNext()){
+			json.nextName();								/* id of the exporting system */
+			cards.add(readCardBean(json, setsByCode, unknownSets));
+		}
+		json.endObject();
+		json.peek();										/* ensures, that nothing follows the document */
+		return cards;
+	}
+
+	private static CardBean readCardBean(JsonStreamReader json, Map<String, SetBean> setsByCode,
+										 Map<String, SetBean> unknownSets) throws IOException{
+		CardBean card = new CardBean();
+		card.setNote("");
+		card.setLanguage(LanguageEnum.English);
+		card.setCondition(ConditionEnum.Near_Mint);
+
+		json.beginObject();
+		while(json.hasNext()){
+			String name = json.nextName();
+			if(json.peek() == JsonStreamReader.Token.NULL){
+				json.nextNull();
+				continue;
+			}
+			switch(name){
+			case "amount":    card.setAmount(json.nextInt()); break;
+			case "name":      card.setName(json.nextString()); break;
+			case "set":       card.setSet(readSetBean(json, setsByCode, unknownSets)); break;
+			case "note":      card.setNote(json.nextString()); break;
+			case "images":    readImages(json, card); break;
+			case "language":  card.setLanguage(parseLanguage(json.nextString())); break;
+			case "condition": card.setCondition(parseCondition(json.nextString())); break;
+			case "foil":      card.setFoil(json.nextBoolean()); break;
+			case "signed":    card.setSigned(json.nextBoolean()); break;
+			case "altered":   card.setAltered(json.nextBoolean()); break;
+			default:          json.skipValue();				/* id, setNo and unknown members */
+			}
+		}
+		json.endObject();
+
+		if(card.getName() == null || card.getSet() == null){
+			throw new IOException("Card without name or set in JSON document.");
+		}
+		return card;
+	}
+
+	/**
+	 * Reads a set and resolves it by its code. Sets, which are unknown to the system, are created once per code.
+	 */
+	private static SetBean readSetBean(JsonStreamReader json, Map<String, SetBean> setsByCode,
+									   Map<String, SetBean> unknownSets) throws IOException{
+		String code = null;
+		String name = null;
+		String releaseDate = null;
+
+		json.beginObject();
+		while(json.hasNext()){
+			String member = json.nextName();
+			if(json.peek() != JsonStreamReader.Token.STRING){
+				json.skipValue();
+				continue;
+			}
+			switch(member){
+			case "id":          code = json.nextString(); break;
+			case "name":        name = json.nextString(); break;
+			case "releaseDate": releaseDate = json.nextString(); break;
+			default:            json.skipValue();
+			}
+		}
+		json.endObject();
+
+		if(code == null){
+			throw new IOException("Set without code in JSON document.");
+		}
+		String key = code.toLowerCase(Locale.ROOT);
+		SetBean set = setsByCode.get(key);
+		if(set == null){
+			set = unknownSets.get(key);
+		}
+		if(set == null){
+			Logger.warn("Set '"+code+"' of imported cards is unknown. Take it from the imported file.");
+			set = new SetBean();
+			set.setCode(code);
+			set.setName(name != null ? name : code);
+			set.setReleaseEpochDay(parseReleaseDate(releaseDate));
+			unknownSets.put(key, set);
+		}
+		return set;
+	}
+
+	/**
+	 * Reads the image file names of a card. The first name is the front image, the second one the back image.
+	 * Images, which do not exist in the local image directory, are dropped.
+	 */
+	private static void readImages(JsonStreamReader json, CardBean card) throws IOException{
+		json.beginArray();
+		for(int i = 0; json.hasNext(); i++){
+			if(json.peek() != JsonStreamReader.Token.STRING){
+				json.skipValue();
+				continue;
+			}
+			File image = new File(PropertiesFactory.getImageDataUrl(), json.nextString());
+			if(!image.isFile()){
+				Logger.warn("Image '"+image.getName()+"' of imported card '"+card.getName()+"' not found.");
+			}
+			else if(i == 0){
+				card.setImageFront(image);
+			}
+			else if(i == 1){
+				card.setImageBack(image);
+			}
+		}
+		json.endArray();
+	}
+
+	private static LanguageEnum parseLanguage(String language){
+		for(LanguageEnum value : LanguageEnum.values()){
+			if(value.toString().equals(language)){
+				return value;
+			}
+		}
+		Logger.warn("Unknown language '"+language+"' of imported card.");
+		return LanguageEnum.English;
+	}
+
+	/**
+	 * Parses a condition, which has been exported without underscores (e.g. 'NearMint').
+	 */
+	private static ConditionEnum parseCondition(String condition){
+		for(ConditionEnum value : ConditionEnum.values()){
+			if(value.toString().replace("_", "").equals(condition)){
+				return value;
+			}
+		}
+		Logger.warn("Unknown condition '"+condition+"' of imported card.");
+		return ConditionEnum.Near_Mint;
+	}
+
+	/**
+	 * Parses a release date in the format {@code yyyy/MM/dd} to days since 1970-01-01.
+	 * {@link SetBean#NO_RELEASE}, if the release date is missing or cannot be parsed.
+	 */
+	private static long parseReleaseDate(String releaseDate){
+		if(releaseDate != null && releaseDate.length() == 10){
+			try {
+				int year = Integer.parseInt(releaseDate.substring(0, 4));
+				int month = Integer.parseInt(releaseDate.substring(5, 7));
+				int day = Integer.parseInt(releaseDate.substring(8, 10));
+				return LocalDate.of(year, month, day).toEpochDay();
+			} catch (NumberFormatException | DateTimeException e) {
+				Logger.warn("Unable to parse release date '"+releaseDate+"' of imported set.");
+			}
+		}
+		return SetBean.NO_RELEASE;
+	}
+
+}
@@ -0,0 +1,387 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sebastiandine.cardcollectionmanager.container.CardBeanIndex;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+
+import io.magicthegathering.javasdk.resource.Card;
+import io.magicthegathering.javasdk.resource.MtgSet;
+
+/**
+ * This class is a local store of the catalog of the official MtG API: all sets and the metadata (name, set and image url)
+ * of all cards, which have been requested so far. {@link MtgApiClient} reads it first, so most lookups do not need a
+ * request to the API.
+ * <br><br>
+ * The catalog is persisted as JSON document in the format of the API responses:
+ * <pre>
+ * {"sets":[{"code":"LEA","name":"Limited Edition Alpha","releaseDate":"1993-08-05","onlineOnly":false}, ...],
+ *  "cards":[{"name":"Black Lotus","set":"LEA","imageUrl":"http://..."}, ...]}
+ * </pre>
+ * Unknown values are skipped, so a bulk data file of the API can be used as catalog file or merged into it by
+ * {@link #importFile(File)}.
+ * <br><br>
+ * All methods are thread safe.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardCatalog {
+
+	private final File file;
+
+	private volatile List<MtgSet> sets = Collections.emptyList();
+
+	/**
+	 * Metadata of all cards by {@link #keyOf(String, String)}.
+	 */
+	private final Map<String, CatalogCard> cardsByKey = new ConcurrentHashMap<String, CatalogCard>();
+
+	/**
+	 * Keys of all cards, which the API does not know. They are not saved, so the API is asked again in the next session.
+	 */
+	private final Set<String> missingKeys = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Counter of all changes, so readers can detect, that the catalog has changed since they have read it.
+	 */
+	private final AtomicInteger version = new AtomicInteger();
+
+	/**
+	 * Constructor, which creates an empty {@link CardCatalog} object.
+	 *
+	 * @param file File, to which the catalog gets saved.
+	 */
+	public CardCatalog(File file){
+		this.file = file;
+	}
+
+	/**
+	 * This method creates a catalog and reads its content from the given file, if it exists.
+	 * If the file cannot be read, the catalog stays empty and gets filled by the API again.
+	 *
+	 * @param file Catalog file.
+	 * @return New {@link CardCatalog} object.
+	 */
+	public static CardCatalog load(File file){
+		CardCatalog catalog = new CardCatalog(file);
+		if(file.isFile()){
+			try {
+				catalog.importFile(file);
+				Logger.info("Read card catalog with "+catalog.getSets().size()+" sets and "+catalog.size()+" cards from "+file.getPath()+".");
+			} catch (IOException e) {
+				Logger.error("Unable to read card catalog at "+file.getPath()+".");
+				Logger.error(e.getMessage());
+			}
+		}
+		return catalog;
+	}
+
+	/**
+	 * @return File, to which the catalog gets saved.
+	 */
+	public File getFile(){
+		return file;
+	}
+
+	/**
+	 * @return {@code true}, if the catalog holds any set.
+	 */
+	public boolean hasSets(){
+		return !sets.isEmpty();
+	}
+
+	/**
+	 * @return All sets of the catalog in the order of the API response.
+	 */
+	public List<MtgSet> getSets(){
+		return new ArrayList<MtgSet>(sets);
+	}
+
+	/**
+	 * This method replaces all sets of the catalog.
+	 *
+	 * @param sets Sets of the API.
+	 */
+	public void setSets(List<MtgSet> sets){
+		this.sets = Collections.unmodifiableList(new ArrayList<MtgSet>(sets));
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @return {@code true}, if the catalog holds the card with the given name of the given set.
+	 */
+	public boolean containsCard(String name, String setCode){
+		return cardsByKey.containsKey(keyOf(name, setCode));
+	}
+
+	/**
+	 * @return {@code true}, if the API does not know the card with the given name of the given set.
+	 */
+	public boolean isMissingCard(String name, String setCode){
+		return missingKeys.contains(keyOf(name, setCode));
+	}
+
+	/**
+	 * This method marks a card as unknown to the API, so it is not requested again during this session.
+	 *
+	 * @param name Card name.
+	 * @param setCode Set code.
+	 */
+	public void putMissingCard(String name, String setCode){
+		missingKeys.add(keyOf(name, setCode));
+	}
+
+	/**
+	 * @param name Card name, which gets normalized (see {@link CardBeanIndex#normalizeName(String)}).
+	 * @param setCode Set code, not case sensitive.
+	 * @return Image url of the card. {@code null}, if the card is unknown or has no image.
+	 */
+	public String getImageUrl(String name, String setCode){
+		CatalogCard card = cardsByKey.get(keyOf(name, setCode));
+		return card == null ? null : card.imageUrl;
+	}
+
+	/**
+	 * This method adds the metadata of the given cards of the API to the catalog. Known cards get replaced.
+	 *
+	 * @param cards Cards of the API.
+	 */
+	public void putCards(List<Card> cards){
+		for(Card card : cards){
+			putCard(card.getName(), card.getSet(), card.getImageUrl());
+		}
+	}
+
+	/**
+	 * This method adds the metadata of a card to the catalog. A known card gets replaced.
+	 *
+	 * @param name Card name.
+	 * @param setCode Set code.
+	 * @param imageUrl Image url, might be {@code null}.
+	 */
+	public void putCard(String name, String setCode, String imageUrl){
+		if(name == null || setCode == null){
+			return;
+		}
+		String key = keyOf(name, setCode);
+		cardsByKey.put(key, new CatalogCard(name, setCode, imageUrl));
+		missingKeys.remove(key);
+		version.incrementAndGet();
+	}
+
+	/**
+	 * @return Number of cards of the catalog.
+	 */
+	public int size(){
+		return cardsByKey.size();
+	}
+
+	/**
+	 * @return Distinct names of all cards of the catalog.
+	 */
+	public List<String> getCardNames(){
+		Set<String> names = new LinkedHashSet<String>();
+		for(CatalogCard card : cardsByKey.values()){
+			names.add(card.name);
+		}
+		return new ArrayList<String>(names);
+	}
+
+	/**
+	 * @return Counter of all changes of the catalog.
+	 */
+	public int getVersion(){
+		return version.get();
+	}
+
+	/**
+	 * This method merges the sets and cards of the given file into the catalog. The sets of the file replace the sets of
+	 * the catalog, if the file contains any.
+	 *
+	 * @param url Catalog file or bulk data file of the API.
+	 * @throws IOException If the file cannot be read or is malformed.
+	 */
+	public void importFile(File url) throws IOException{
+		try(Reader reader = new InputStreamReader(new FileInputStream(url), StandardCharsets.UTF_8)){
+			read(reader);
+		}
+	}
+
+	/**
+	 * This method saves the catalog to its file. The file is written completely to a temporary file first, which then
+	 * replaces the former file, so a crash never leaves a truncated catalog.
+	 *
+	 * @throws IOException If the file cannot be written.
+	 */
+	public synchronized void save() throws IOException{
+		File directory = file.getAbsoluteFile().getParentFile();
+		if(directory != null && !directory.isDirectory() && !directory.mkdirs()){
+			throw new IOException("Unable to create directory "+directory.getPath()+".");
+		}
+		File temporaryFile = new File(file.getPath()+".tmp");
+		try(Writer writer = new OutputStreamWriter(new FileOutputStream(temporaryFile), StandardCharsets.UTF_8)){
+			write(writer);
+		}
+		Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Logger.debug("Saved card catalog with {} cards to {}.", size(), file.getPath());
+	}
+
+	/**
+	 * This method merges the sets and cards of a JSON document in the format of the catalog into the catalog.
+	 *
+	 * @param reader Source of the document.
+	 * @throws IOException If the document cannot be read or is malformed.
+	 */
+	void read(Reader reader) throws IOException{
+		JsonStreamReader json = new JsonStreamReader(reader);
+		json.beginObject();
+		while(json.hasNext()){
+			String name = json.nextName();
+			if(name.equals("sets") && json.peek() == JsonStreamReader.Token.BEGIN_ARRAY){
+				List<MtgSet> readSets = new ArrayList<MtgSet>();
+				json.beginArray();
+				while(json.hasNext()){
+					readSets.add(readSet(json));
+				}
+				json.endArray();
+				if(!readSets.isEmpty()){
+					setSets(readSets);
+				}
+			}
+			else if(name.equals("cards") && json.peek() == JsonStreamReader.Token.BEGIN_ARRAY){
+				json.beginArray();
+				while(json.hasNext()){
+					readCard(json);
+				}
+				json.endArray();
+			}
+			else{
+				json.skipValue();
+			}
+		}
+		json.endObject();
+		json.peek();										/* ensures, that nothing follows the document */
+	}
+
+	/**
+	 * This method writes the catalog as JSON document.
+	 *
+	 * @param writer Target of the document.
+	 * @throws IOException If the document cannot be written.
+	 */
+	void write(Writer writer) throws IOException{
+		JsonStreamWriter json = new JsonStreamWriter(writer);
+		json.beginObject();
+
+		json.name("sets").beginArray();
+		for(MtgSet set : sets){
+			json.beginObject();
+			json.name("code").value(set.getCode());
+			json.name("name").value(set.getName());
+			if(set.getReleaseDate() != null){
+				json.name("releaseDate").value(set.getReleaseDate());
+			}
+			json.name("onlineOnly").value(set.getOnlineOnly());
+			json.endObject();
+		}
+		json.endArray();
+
+		json.name("cards").beginArray();
+		for(CatalogCard card : cardsByKey.values()){
+			json.beginObject();
+			json.name("name").value(card.name);
+			json.name("set").value(card.setCode);
+			if(card.imageUrl != null){
+				json.name("imageUrl").value(card.imageUrl);
+			}
+			json.endObject();
+		}
+		json.endArray();
+
+		json.endObject();
+		json.flush();
+	}
+
+	private static MtgSet readSet(JsonStreamReader json) throws IOException{
+		MtgSet set = new MtgSet();
+		json.beginObject();
+		while(json.hasNext()){
+			String name = json.nextName();
+			if(json.peek() == JsonStreamReader.Token.NULL){
+				json.nextNull();
+				continue;
+			}
+			switch(name){
+			case "code":        set.setCode(json.nextString()); break;
+			case "name":        set.setName(json.nextString()); break;
+			case "releaseDate": set.setReleaseDate(json.nextString()); break;
+			case "onlineOnly":  set.setOnlineOnly(json.nextBoolean()); break;
+			default:            json.skipValue();
+			}
+		}
+		json.endObject();
+		return set;
+	}
+
+	private void readCard(JsonStreamReader json) throws IOException{
+		String cardName = null;
+		String setCode = null;
+		String imageUrl = null;
+		json.beginObject();
+		while(json.hasNext()){
+			String name = json.nextName();
+			if(json.peek() == JsonStreamReader.Token.NULL){
+				json.nextNull();
+				continue;
+			}
+			switch(name){
+			case "name":     cardName = json.nextString(); break;
+			case "set":      setCode = json.nextString(); break;
+			case "imageUrl": imageUrl = json.nextString(); break;
+			default:         json.skipValue();
+			}
+		}
+		json.endObject();
+		putCard(cardName, setCode, imageUrl);
+	}
+
+	private static String keyOf(String name, String setCode){
+		return CardBeanIndex.normalizeName(name)+"\t"+(setCode == null ? "" : setCode.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Metadata of a single card.
+	 */
+	private static class CatalogCard {
+		private final String name;
+		private final String setCode;
+		private final String imageUrl;
+
+		private CatalogCard(String name, String setCode, String imageUrl){
+			this.name = name;
+			this.setCode = setCode;
+			this.imageUrl = imageUrl;
+		}
+	}
+
+}
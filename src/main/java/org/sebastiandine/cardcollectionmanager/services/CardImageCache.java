@@ -0,0 +1,352 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+
+/**
+ * This class provides a two-tier cache for official card images. The first tier is an LRU cache of decoded images
+ * in memory, bounded by the size of the decoded pixel data. The second tier is a directory on disk, which holds the
+ * downloaded image files, bounded by their total file size. Both tiers are keyed by set code and card name.
+ * <br><br>
+ * Images which are neither in memory nor on disk are downloaded from the url provided by an {@link ImageUrlResolver}.
+ * Cards without an image are remembered for the lifetime of the cache, so they are not requested again.
+ * <br><br>
+ * All methods are thread-safe.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardImageCache {
+
+	private static final String FILE_SUFFIX = ".img";
+	private static final int MAX_REDIRECTS = 5;
+	private static final int TIMEOUT = 10000;
+
+	/**
+	 * Interface of the service, which provides the download url of the official image of a card.
+	 */
+	public interface ImageUrlResolver {
+
+		/**
+		 * @param card {@link CardBean} object, for which the image is requested.
+		 * @return URL of the image. {@code null}, if there is no image for the card.
+		 * @throws IOException If the service is not reachable.
+		 */
+		String resolveImageUrl(CardBean card) throws IOException;
+	}
+
+	private final File directory;
+	private final long maxDiskBytes;
+	private final long maxMemoryBytes;
+	private final ImageUrlResolver resolver;
+
+	private final LinkedHashMap<String, ImageIcon> memoryCache = new LinkedHashMap<String, ImageIcon>(64, 0.75f, true);
+	private final Set<String> missingImages = new HashSet<String>();
+	private long memoryBytes;
+	private long diskBytes;
+
+	/**
+	 * Constructor, which creates a {@link CardImageCache} object.
+	 *
+	 * @param directory Directory of the disk cache. It will be created, if it does not exist yet.
+	 * @param maxDiskBytes Maximum total size of all image files in the directory.
+	 * @param maxMemoryBytes Maximum total size of all decoded images held in memory.
+	 * @param resolver {@link ImageUrlResolver}, which provides the download url of images.
+	 */
+	public CardImageCache(File directory, long maxDiskBytes, long maxMemoryBytes, ImageUrlResolver resolver){
+		this.directory = directory;
+		this.maxDiskBytes = maxDiskBytes;
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.resolver = resolver;
+
+		if(!directory.isDirectory() && !directory.mkdirs()){
+			Logger.error("Unable to create image cache directory '"+directory.getPath()+"'.");
+		}
+		for(File file : listCacheFiles()){
+			diskBytes += file.length();
+		}
+	}
+
+	/**
+	 * This method returns the directory of the disk cache.
+	 *
+	 * @return Directory of the disk cache.
+	 */
+	public File getDirectory(){
+		return directory;
+	}
+
+	/**
+	 * This method returns the official image of the given card. It is taken from memory, from disk or downloaded,
+	 * in this order.
+	 *
+	 * @param card {@link CardBean} object, for which the image is requested.
+	 * @return {@link ImageIcon} object of the image. {@code null}, if no image is available.
+	 */
+	public ImageIcon getImage(CardBean card){
+		if(card.getSet() == null || card.getName() == null){
+			return null;
+		}
+		String key = createKey(card.getSet().getCode(), card.getName());
+
+		synchronized(this){
+			ImageIcon icon = memoryCache.get(key);
+			if(icon != null || missingImages.contains(key)){
+				return icon;
+			}
+		}
+
+		File file = new File(directory, key + FILE_SUFFIX);
+		byte[] data = readFromDisk(file);
+		if(data == null){
+			try {
+				data = download(card);
+			} catch (IOException | RuntimeException e) {
+				Logger.warn("Failed to download image of CardBean object with id="+card.getId()+".");
+				Logger.warn(e.getMessage());
+				return null;											/* try again with the next request */
+			}
+			if(data == null){
+				synchronized(this){
+					missingImages.add(key);
+				}
+				return null;
+			}
+			writeToDisk(file, data);
+		}
+
+		ImageIcon icon = decode(data);
+		if(icon == null){
+			Logger.warn("Image of card '"+card.getName()+"' cannot be decoded.");
+			return null;
+		}
+		putIntoMemory(key, icon);
+		return icon;
+	}
+
+	/**
+	 * This method creates the cache key of an image, which is also a valid file name.
+	 *
+	 * @param setCode Code of the set of the card.
+	 * @param name Name of the card.
+	 * @return Key of the image.
+	 */
+	public static String createKey(String setCode, String name){
+		String readable = (setCode + "_" + name).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "_");
+		if(readable.length() > 80){
+			readable = readable.substring(0, 80);
+		}
+		/* the hash keeps keys unique, which differ only in replaced characters */
+		return readable + "_" + Integer.toHexString((setCode + "\n" + name).hashCode());
+	}
+
+	/**
+	 * This method returns the total size of all image files in the disk cache.
+	 *
+	 * @return Size of the disk cache in bytes.
+	 */
+	public synchronized long getDiskUsage(){
+		return diskBytes;
+	}
+
+	/**
+	 * This method returns the total size of all decoded images in memory.
+	 *
+	 * @return Size of the memory cache in bytes.
+	 */
+	public synchronized long getMemoryUsage(){
+		return memoryBytes;
+	}
+
+	private byte[] readFromDisk(File file){
+		if(!file.isFile()){
+			return null;
+		}
+		try {
+			byte[] data = Files.readAllBytes(file.toPath());
+			if(!file.setLastModified(System.currentTimeMillis())){		/* last access time for the eviction */
+				Logger.debug("Unable to touch cached image '"+file.getPath()+"'.");
+			}
+			return data;
+		} catch (IOException e) {
+			Logger.warn("Unable to read cached image '"+file.getPath()+"'.");
+			Logger.warn(e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeToDisk(File file, byte[] data){
+		if(data.length > maxDiskBytes){
+			return;
+		}
+		File temp = null;
+		try {
+			temp = File.createTempFile("download", ".tmp", directory);
+			Files.write(temp.toPath(), data);
+			long replaced = file.length();
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			synchronized(this){
+				diskBytes += data.length - replaced;
+			}
+		} catch (IOException e) {
+			Logger.warn("Unable to store image at '"+file.getPath()+"'.");
+			Logger.warn(e.getMessage());
+			deleteTempFile(temp);
+			return;
+		}
+		evictFromDisk();
+	}
+
+	/**
+	 * This method deletes the temporary file of a failed write, so it does not stay in the cache directory.
+	 */
+	private static void deleteTempFile(File temp){
+		if(temp == null){
+			return;
+		}
+		try {
+			Files.deleteIfExists(temp.toPath());
+		} catch (IOException e) {
+			Logger.warn("Unable to delete temporary file '"+temp.getPath()+"'.");
+			Logger.warn(e.getMessage());
+		}
+	}
+
+	/**
+	 * This method deletes the least recently used image files, until the disk cache fits into its size limit again.
+	 */
+	private synchronized void evictFromDisk(){
+		if(diskBytes <= maxDiskBytes){
+			return;
+		}
+		File[] files = listCacheFiles();
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File o1, File o2) {
+				return Long.compare(o1.lastModified(), o2.lastModified());
+			}
+		});
+
+		for(int i = 0; i < files.length && diskBytes > maxDiskBytes; i++){
+			long length = files[i].length();
+			if(files[i].delete()){
+				diskBytes -= length;
+				Logger.debug("Evicted cached image '{}'.", files[i]);
+			}
+		}
+	}
+
+	private File[] listCacheFiles(){
+		File[] files = directory.listFiles();
+		if(files == null){
+			return new File[0];
+		}
+		int count = 0;
+		for(File file : files){
+			if(file.isFile() && file.getName().endsWith(FILE_SUFFIX)){
+				files[count++] = file;
+			}
+		}
+		return Arrays.copyOf(files, count);
+	}
+
+	private synchronized void putIntoMemory(String key, ImageIcon icon){
+		long size = sizeOf(icon);
+		if(size > maxMemoryBytes){
+			return;
+		}
+		ImageIcon replaced = memoryCache.put(key, icon);
+		if(replaced != null){
+			memoryBytes -= sizeOf(replaced);
+		}
+		memoryBytes += size;
+
+		Iterator<ImageIcon> eldest = memoryCache.values().iterator();
+		while(memoryBytes > maxMemoryBytes && eldest.hasNext()){
+			memoryBytes -= sizeOf(eldest.next());
+			eldest.remove();
+		}
+	}
+
+	private static long sizeOf(ImageIcon icon){
+		return 4L * Math.max(1, icon.getIconWidth()) * Math.max(1, icon.getIconHeight());
+	}
+
+	private static ImageIcon decode(byte[] data){
+		try {
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+			return image == null ? null : new ImageIcon(image);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * This method downloads the image of the given card. Redirects are followed, also between http and https.
+	 * 
+	 * @return Data of the image file. {@code null}, if there is no image for the card.
+	 * @throws IOException If the image cannot be downloaded right now.
+	 */
+	private byte[] download(CardBean card) throws IOException{
+		String url = resolver.resolveImageUrl(card);
+		if(url == null){
+			Logger.info("No official image for card '"+card.getName()+"' available.");
+			return null;
+		}
+
+		for(int redirects = 0; redirects <= MAX_REDIRECTS; redirects++){
+			HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+			connection.setConnectTimeout(TIMEOUT);
+			connection.setReadTimeout(TIMEOUT);
+			connection.setInstanceFollowRedirects(false);
+
+			int status = connection.getResponseCode();
+			if(status >= 300 && status < 400 && connection.getHeaderField("Location") != null){
+				url = new URL(new URL(url), connection.getHeaderField("Location")).toString();
+				connection.disconnect();
+				continue;
+			}
+			if(status == HttpURLConnection.HTTP_NOT_FOUND){
+				connection.disconnect();
+				return null;
+			}
+			if(status != HttpURLConnection.HTTP_OK){
+				connection.disconnect();
+				throw new IOException("Download of image '"+url+"' failed with status "+status+".");
+			}
+
+			try(InputStream in = connection.getInputStream()){
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+				byte[] buffer = new byte[8192];
+				int read;
+				while((read = in.read(buffer)) != -1){
+					bytes.write(buffer, 0, read);
+				}
+				return bytes.toByteArray();
+			}
+		}
+		throw new IOException("Too many redirects for image of card '"+card.getName()+"'.");
+	}
+
+}
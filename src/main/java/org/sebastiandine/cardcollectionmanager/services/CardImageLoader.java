@@ -0,0 +1,223 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+
+/**
+ * This class loads card images in the background for a single consumer, which always displays the image of one
+ * card, like the info panel of the selected card.
+ * <br><br>
+ * Only the latest request is relevant: a request supersedes all requests before it. Superseded requests, which have not
+ * been started yet, are dropped without loading their image, so rapid selections are coalesced into a single load.
+ * The result of a superseded request, which has already been started, is discarded. Images are loaded by a single
+ * background thread and results are delivered on the event dispatch thread. If an image cannot be loaded, the fallback
+ * image is delivered instead, so the consumer never keeps waiting for it.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardImageLoader {
+
+	/**
+	 * Interface of the service, which actually loads an image. It is called by the background thread.
+	 */
+	public interface ImageSource {
+
+		/**
+		 * @param card {@link CardBean} object, for which the image is requested.
+		 * @return Image of the card.
+		 */
+		ImageIcon loadImage(CardBean card);
+	}
+
+	/**
+	 * Callback interface, which receives a loaded image on the event dispatch thread.
+	 */
+	public interface Callback {
+
+		/**
+		 * Called, if the image of the latest request has been loaded.
+		 *
+		 * @param card {@link CardBean} object of the request.
+		 * @param image Loaded image or the fallback image, if it could not be loaded.
+		 */
+		void imageLoaded(CardBean card, ImageIcon image);
+	}
+
+	/**
+	 * Single request of an image.
+	 */
+	private static class Request {
+		private final CardBean card;
+		private final Callback callback;
+		private final long requestTime = System.nanoTime();
+
+		private Request(CardBean card, Callback callback){
+			this.card = card;
+			this.callback = callback;
+		}
+	}
+
+	private final ImageSource source;
+	private final ImageIcon fallbackImage;
+	private final ExecutorService executor;
+
+	private final AtomicReference<Request> latestRequest = new AtomicReference<Request>();
+	private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+	private final AtomicLong requestedCount = new AtomicLong();
+	private final AtomicLong loadedCount = new AtomicLong();
+	private final AtomicLong deliveredCount = new AtomicLong();
+	private final AtomicLong totalLatency = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * Constructor, which creates a {@link CardImageLoader} object.
+	 *
+	 * @param source {@link ImageSource}, which loads the images.
+	 * @param fallbackImage Image, which is delivered, if {@code source} fails to load an image.
+	 * @param threadName Name of the background thread.
+	 */
+	public CardImageLoader(ImageSource source, ImageIcon fallbackImage, final String threadName){
+		this.source = source;
+		this.fallbackImage = fallbackImage;
+		this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, threadName);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * This method requests the image of the given card. It supersedes all previous requests.
+	 *
+	 * @param card {@link CardBean} object, for which the image is requested.
+	 * @param callback {@link Callback}, which receives the image, if this is still the latest request once it has been loaded.
+	 */
+	public void load(CardBean card, Callback callback){
+		latestRequest.set(new Request(card, callback));
+		requestedCount.incrementAndGet();
+
+		if(drainScheduled.compareAndSet(false, true)){
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					drain();
+				}
+			});
+		}
+	}
+
+	/**
+	 * This method loads the latest request, until no newer request arrives during a load.
+	 */
+	private void drain(){
+		drainScheduled.set(false);
+		Request request = latestRequest.get();
+
+		while(request != null){
+			ImageIcon image;
+			try {
+				image = source.loadImage(request.card);
+				loadedCount.incrementAndGet();
+			} catch (RuntimeException e) {
+				Logger.error("Failed to load image of card with id={}.", request.card.getId());
+				Logger.error(e.getMessage());
+				image = null;
+			}
+			if(image == null){
+				image = fallbackImage;
+			}
+
+			if(latestRequest.get() == request){
+				deliver(request, image);
+			}
+
+			/* a newer request will be handled by this loop, unless a new drain has already been scheduled for it */
+			if(latestRequest.compareAndSet(request, null) || drainScheduled.get()){
+				return;
+			}
+			request = latestRequest.get();
+		}
+	}
+
+	private void deliver(final Request request, final ImageIcon image){
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				Request latest = latestRequest.get();
+				if(latest != null && latest != request){
+					return;										/* superseded while waiting for the event dispatch thread */
+				}
+				long latency = (System.nanoTime() - request.requestTime) / 1000000;
+				deliveredCount.incrementAndGet();
+				totalLatency.addAndGet(latency);
+				if(latency > maxLatency.get()){
+					maxLatency.set(latency);
+				}
+				Logger.debug("Image of card with id={} delivered after {} ms.", request.card.getId(), latency);
+				request.callback.imageLoaded(request.card, image);
+			}
+		});
+	}
+
+	/**
+	 * This method returns the number of requests, which are waiting to be loaded or are being loaded right now.
+	 * Due to the coalescing of requests, it is at most one.
+	 *
+	 * @return Depth of the request queue.
+	 */
+	public int getQueueDepth(){
+		return latestRequest.get() == null ? 0 : 1;
+	}
+
+	/**
+	 * @return Number of all requests.
+	 */
+	public long getRequestedCount(){
+		return requestedCount.get();
+	}
+
+	/**
+	 * @return Number of images, which have actually been loaded by the {@link ImageSource}.
+	 */
+	public long getLoadedCount(){
+		return loadedCount.get();
+	}
+
+	/**
+	 * @return Number of images, which have been delivered to a {@link Callback}.
+	 */
+	public long getDeliveredCount(){
+		return deliveredCount.get();
+	}
+
+	/**
+	 * @return Average time between a request and the delivery of its image in milliseconds.
+	 */
+	public long getAverageLatencyMillis(){
+		long delivered = deliveredCount.get();
+		return delivered == 0 ? 0 : totalLatency.get() / delivered;
+	}
+
+	/**
+	 * @return Maximum time between a request and the delivery of its image in milliseconds.
+	 */
+	public long getMaxLatencyMillis(){
+		return maxLatency.get();
+	}
+
+}
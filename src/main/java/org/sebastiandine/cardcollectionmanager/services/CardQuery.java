@@ -0,0 +1,676 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanIndex;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanQuery;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+/**
+ * This class compiles a query of the small card query language into predicates over the attributes of {@link CardBean}
+ * objects, e.g. {@code set:LEA lang:German foil amount>2}. A query consists of terms, separated by whitespace, which
+ * all must be met:
+ * <ul>
+ * <li>{@code field:value}, {@code field=value} and {@code field!=value} for the fields 'name', 'set', 'lang' (or 'language'),
+ * 'cond' (or 'condition') and 'note'. 'name:' and 'note:' match parts of the attribute, all other forms the whole attribute.</li>
+ * <li>{@code field<n}, {@code field<=n}, {@code field>n}, {@code field>=n} and {@code field=n} for the fields 'amount' and 'id'.</li>
+ * <li>{@code foil}, {@code signed} and {@code altered} for cards with this flag, or {@code foil:no} for cards without it.</li>
+ * <li>A leading '-' negates a term, e.g. {@code -foil} or {@code -set:LEA}.</li>
+ * <li>All other words form a free text, which is matched like the plain filter of {@link CardBeanFilterEngine}.</li>
+ * </ul>
+ * Values with whitespace need to be quoted, e.g. {@code name="Black Lotus"}.
+ * <br><br>
+ * The query is planned by {@link #select()}: terms on set, exact name, language, condition and flags are answered by the
+ * indexes of the container (see {@link CardBeanContainer#query()}), all other terms are checked by a scan of the remaining
+ * candidates. The scan evaluates one term after another for the whole batch of candidates, so every term only sees the
+ * cards, which passed all former ones.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardQuery {
+
+	private static final Pattern FIELD_TERM = Pattern.compile("([a-zA-Z]+)(!=|<=|>=|:|=|<|>)(.*)", Pattern.DOTALL);
+	private static final int INTERRUPT_CHECK_INTERVAL = 0x1000;
+
+	private final String text;
+	private final List<Term> terms;
+	private final boolean plainText;
+
+	private CardQuery(String text, List<Term> terms, boolean plainText){
+		this.text = text;
+		this.terms = terms;
+		this.plainText = plainText;
+	}
+
+	/**
+	 * This method compiles the given query.
+	 *
+	 * @param text Query as typed by the user.
+	 * @return Compiled query. A query without any term matches all cards.
+	 * @throws IllegalArgumentException If a term of a known field has an invalid operator or value, like {@code lang:Klingon}.
+	 */
+	public static CardQuery parse(String text){
+		List<Term> terms = new ArrayList<Term>();
+		StringBuilder freeText = new StringBuilder();
+		for(String token : tokenize(text)){
+			boolean negated = token.length() > 1 && token.charAt(0) == '-';
+			Term term = parseTerm(negated ? token.substring(1) : token);
+			if(term == null){
+				if(freeText.length() > 0){
+					freeText.append(' ');
+				}
+				freeText.append(token);
+			}
+			else{
+				terms.add(negated ? term.negate() : term);
+			}
+		}
+
+		if(terms.isEmpty()){
+			return literal(text);
+		}
+		if(freeText.length() > 0){
+			terms.add(new FreeTextTerm(freeText.toString()));
+		}
+		return new CardQuery(text, terms, false);
+	}
+
+	/**
+	 * This method compiles the given query like {@link #parse(String)}. If the query is invalid (e.g. while it is still being
+	 * typed), it is matched literally like a plain filter text instead.
+	 *
+	 * @param text Query as typed by the user.
+	 * @return Compiled query.
+	 */
+	public static CardQuery parseOrLiteral(String text){
+		try {
+			return parse(text);
+		} catch (IllegalArgumentException e) {
+			return literal(text);
+		}
+	}
+
+	private static CardQuery literal(String text){
+		List<Term> terms = new ArrayList<Term>();
+		if(text.trim().length() > 0){
+			terms.add(new FreeTextTerm(text));
+		}
+		return new CardQuery(text, terms, true);
+	}
+
+	/**
+	 * @return The query as typed by the user.
+	 */
+	public String getText(){
+		return text;
+	}
+
+	/**
+	 * @return {@code true}, if the query has no term at all and therefore matches all cards.
+	 */
+	public boolean isEmpty(){
+		return terms.isEmpty();
+	}
+
+	/**
+	 * @return {@code true}, if the query only consists of free text, which can be matched by {@link CardBeanFilterEngine}.
+	 */
+	public boolean isPlainText(){
+		return plainText;
+	}
+
+	/**
+	 * This method checks a single card against all terms.
+	 *
+	 * @param card {@link CardBean} object.
+	 * @return {@code true}, if the card meets all terms.
+	 */
+	public boolean matches(CardBean card){
+		for(Term term : terms){
+			if(!term.test(card)){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This method answers all terms, which are supported by the indexes of the container. Like the container, it must only be
+	 * called by the event dispatch thread.
+	 *
+	 * @return IDs of all cards, which meet the indexed terms. {@code null}, if no term is supported by the indexes.
+	 */
+	public BitSet selectIndexedIds(){
+		CardBeanQuery indexQuery = CardBeanContainer.query();
+		return planIndexQuery(indexQuery, null) ? indexQuery.ids() : null;
+	}
+
+	/**
+	 * This method scans the given cards for all terms, which are not answered by the indexes. It does not touch the container
+	 * and might therefore be called by a background thread.
+	 *
+	 * @param cards Snapshot of all cards.
+	 * @param candidateIds Result of {@link #selectIndexedIds()}, or {@code null} to check all terms for all cards.
+	 * @return IDs of all matching cards. {@code null}, if the calling thread has been interrupted.
+	 */
+	public BitSet filter(List<CardBean> cards, BitSet candidateIds){
+		return filter(cards, candidateIds, null);
+	}
+
+	/**
+	 * This method scans the given cards like {@link #filter(List, BitSet)}, but matches the free text against the
+	 * search keys, which are cached by the given engine, instead of creating a key per card and scan.
+	 *
+	 * @param cards Snapshot of all cards.
+	 * @param candidateIds Result of {@link #selectIndexedIds()}, or {@code null} to check all terms for all cards.
+	 * @param filterEngine {@link CardBeanFilterEngine}, which caches the search keys, or {@code null}.
+	 * @return IDs of all matching cards. {@code null}, if the calling thread has been interrupted.
+	 */
+	public BitSet filter(List<CardBean> cards, BitSet candidateIds, CardBeanFilterEngine filterEngine){
+		List<Term> scanTerms = terms;
+		if(candidateIds != null){
+			scanTerms = new ArrayList<Term>();
+			planIndexQuery(null, scanTerms);
+		}
+		if(filterEngine != null){
+			List<Term> boundTerms = new ArrayList<Term>(scanTerms.size());
+			for(Term term : scanTerms){
+				boundTerms.add(term instanceof FreeTextTerm ? new FreeTextTerm((FreeTextTerm) term, filterEngine) : term);
+			}
+			scanTerms = boundTerms;
+		}
+
+		/* batch of candidates */
+		CardBean[] batch = new CardBean[cards.size()];
+		int size = 0;
+		for(CardBean card : cards){
+			if(candidateIds == null || candidateIds.get(card.getId())){
+				batch[size++] = card;
+			}
+		}
+		BitSet alive = new BitSet(size);
+		alive.set(0, size);
+
+		/* one term after another over all remaining candidates */
+		for(Term term : scanTerms){
+			int checked = 0;
+			for(int i = alive.nextSetBit(0); i >= 0; i = alive.nextSetBit(i + 1)){
+				if((++checked & (INTERRUPT_CHECK_INTERVAL - 1)) == 0 && Thread.currentThread().isInterrupted()){
+					return null;
+				}
+				if(!term.test(batch[i])){
+					alive.clear(i);
+				}
+			}
+		}
+
+		BitSet ids = new BitSet();
+		for(int i = alive.nextSetBit(0); i >= 0; i = alive.nextSetBit(i + 1)){
+			ids.set(batch[i].getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * This method selects all cards of the container, which match this query. Like the container, it must only be called
+	 * by the event dispatch thread.
+	 *
+	 * @return New list of all matching {@link CardBean} objects, sorted by name.
+	 */
+	public List<CardBean> select(){
+		if(isEmpty()){
+			return new ArrayList<CardBean>(CardBeanContainer.getCardBeansSortedByName());
+		}
+
+		CardBeanQuery indexQuery = CardBeanContainer.query();
+		List<Term> scanTerms = new ArrayList<Term>();
+		List<CardBean> candidates = planIndexQuery(indexQuery, scanTerms)
+				? indexQuery.list() : CardBeanContainer.getCardBeansSortedByName();
+
+		CardQuery residual = new CardQuery(text, scanTerms, false);
+		BitSet ids = residual.filter(candidates, null);
+		List<CardBean> selection = new ArrayList<CardBean>(ids.cardinality());
+		for(CardBean card : candidates){
+			if(ids.get(card.getId())){
+				selection.add(card);
+			}
+		}
+		return selection;
+	}
+
+	/**
+	 * This method assigns every term either to the index query or to the scan. Only the first term of every indexed dimension
+	 * can be answered by the index, e.g. of {@code lang:German lang:English} the second term is scanned.
+	 *
+	 * @param indexQuery Query, to which indexed terms are applied. {@code null}, if they should only be skipped.
+	 * @param scanTerms List, which receives all other terms. {@code null}, if they are not of interest.
+	 * @return {@code true}, if at least one term has been assigned to the index.
+	 */
+	private boolean planIndexQuery(CardBeanQuery indexQuery, List<Term> scanTerms){
+		Set<String> dimensions = new HashSet<String>();
+		for(Term term : terms){
+			if(term instanceof IndexedTerm && dimensions.add(((IndexedTerm) term).getIndexDimension())){
+				if(indexQuery != null){
+					((IndexedTerm) term).applyTo(indexQuery);
+				}
+			}
+			else if(scanTerms != null){
+				scanTerms.add(term);
+			}
+		}
+		return !dimensions.isEmpty();
+	}
+
+	/**
+	 * This method splits the query at whitespace, which is not quoted. Quotes are removed.
+	 */
+	private static List<String> tokenize(String text){
+		List<String> tokens = new ArrayList<String>();
+		StringBuilder token = new StringBuilder();
+		boolean quoted = false;
+		boolean hasToken = false;
+		for(int i = 0; i < text.length(); i++){
+			char c = text.charAt(i);
+			if(c == '"'){
+				quoted = !quoted;
+				hasToken = true;
+			}
+			else if(Character.isWhitespace(c) && !quoted){
+				if(hasToken){
+					tokens.add(token.toString());
+					token.setLength(0);
+					hasToken = false;
+				}
+			}
+			else{
+				token.append(c);
+				hasToken = true;
+			}
+		}
+		if(hasToken){
+			tokens.add(token.toString());
+		}
+		return tokens;
+	}
+
+	/**
+	 * This method compiles a single term.
+	 *
+	 * @return Compiled term. {@code null}, if the token is free text.
+	 */
+	private static Term parseTerm(String token){
+		String keyword = token.toLowerCase(Locale.ROOT);
+		if(keyword.equals("foil") || keyword.equals("signed") || keyword.equals("altered")){
+			return new FlagTerm(keyword, true);
+		}
+
+		Matcher matcher = FIELD_TERM.matcher(token);
+		if(!matcher.matches()){
+			return null;
+		}
+		String field = matcher.group(1).toLowerCase(Locale.ROOT);
+		String operator = matcher.group(2);
+		String value = matcher.group(3);
+
+		switch(field){
+		case "name":
+			if(operator.equals(":")){
+				return new NameContainsTerm(value);
+			}
+			return notIfUnequal(new NameTerm(value), operator, field);
+		case "set":
+			return notIfUnequal(new SetTerm(value), operator, field);
+		case "lang":
+		case "language":
+			return notIfUnequal(new LanguageTerm(parseLanguage(value)), operator, field);
+		case "cond":
+		case "condition":
+			return notIfUnequal(new ConditionTerm(parseCondition(value)), operator, field);
+		case "note":
+			if(operator.equals(":")){
+				return new NoteTerm(value, true);
+			}
+			return notIfUnequal(new NoteTerm(value, false), operator, field);
+		case "amount":
+			return new NumberTerm(field, operator, parseNumber(field, value));
+		case "id":
+			return new NumberTerm(field, operator, parseNumber(field, value));
+		case "foil":
+		case "signed":
+		case "altered":
+			return notIfUnequal(new FlagTerm(field, parseFlag(field, value)), operator, field);
+		default:
+			return null;				/* e.g. a card name with a colon */
+		}
+	}
+
+	private static Term notIfUnequal(Term term, String operator, String field){
+		switch(operator){
+		case ":":
+		case "=":
+			return term;
+		case "!=":
+			return term.negate();
+		default:
+			throw new IllegalArgumentException("Operator '"+operator+"' is not supported for field '"+field+"'.");
+		}
+	}
+
+	private static LanguageEnum parseLanguage(String value){
+		for(LanguageEnum language : LanguageEnum.values()){
+			if(language.name().equalsIgnoreCase(value)){
+				return language;
+			}
+		}
+		throw new IllegalArgumentException("Unknown language '"+value+"'.");
+	}
+
+	private static ConditionEnum parseCondition(String value){
+		String normalized = normalizeConditionName(value);
+		for(ConditionEnum condition : ConditionEnum.values()){
+			if(normalizeConditionName(condition.name()).equals(normalized)){
+				return condition;
+			}
+		}
+		throw new IllegalArgumentException("Unknown condition '"+value+"'.");
+	}
+
+	/**
+	 * 'Near_Mint', 'near mint' and 'near-mint' are the same condition.
+	 */
+	private static String normalizeConditionName(String value){
+		return value.replace("_", "").replace("-", "").replace(" ", "").toLowerCase(Locale.ROOT);
+	}
+
+	private static int parseNumber(String field, String value){
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Field '"+field+"' requires a number, but got '"+value+"'.");
+		}
+	}
+
+	private static boolean parseFlag(String field, String value){
+		switch(value.toLowerCase(Locale.ROOT)){
+		case "yes":
+		case "true":
+			return true;
+		case "no":
+		case "false":
+			return false;
+		default:
+			throw new IllegalArgumentException("Field '"+field+"' requires 'yes' or 'no', but got '"+value+"'.");
+		}
+	}
+
+	/**
+	 * A single compiled term of a query.
+	 */
+	private static abstract class Term {
+
+		/**
+		 * @return {@code true}, if the given card meets this term.
+		 */
+		abstract boolean test(CardBean card);
+
+		/**
+		 * @return Term, which matches all cards, that this term does not match.
+		 */
+		Term negate(){
+			final Term term = this;
+			return new Term() {
+				@Override
+				boolean test(CardBean card) {
+					return !term.test(card);
+				}
+			};
+		}
+	}
+
+	/**
+	 * A term, which can be answered by an index of the container instead of a scan.
+	 */
+	private static abstract class IndexedTerm extends Term {
+
+		/**
+		 * @return Name of the index dimension, which answers this term. Only one term per dimension is applied to the index.
+		 */
+		abstract String getIndexDimension();
+
+		/**
+		 * This method applies the term to a query of the container indexes.
+		 */
+		abstract void applyTo(CardBeanQuery query);
+	}
+
+	private static class FreeTextTerm extends Term {
+		private final String needle;
+		private final CardBeanFilterEngine filterEngine;		/* cache of the search keys, might be null */
+
+		private FreeTextTerm(String text){
+			this.needle = text.toLowerCase(Locale.ROOT);
+			this.filterEngine = null;
+		}
+
+		private FreeTextTerm(FreeTextTerm term, CardBeanFilterEngine filterEngine){
+			this.needle = term.needle;
+			this.filterEngine = filterEngine;
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			String key = filterEngine == null ? CardBeanFilterEngine.createSearchKey(card) : filterEngine.getSearchKey(card);
+			return key.contains(needle);
+		}
+	}
+
+	private static class NameTerm extends IndexedTerm {
+		private final String name;
+
+		private NameTerm(String name){
+			this.name = CardBeanIndex.normalizeName(name);
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			return CardBeanIndex.normalizeName(card.getName()).equals(name);
+		}
+
+		@Override
+		String getIndexDimension() {
+			return "name";
+		}
+
+		@Override
+		void applyTo(CardBeanQuery query) {
+			query.name(name);
+		}
+	}
+
+	private static class NameContainsTerm extends Term {
+		private final String part;
+
+		private NameContainsTerm(String part){
+			this.part = CardBeanIndex.normalizeName(part);
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			return CardBeanIndex.normalizeName(card.getName()).contains(part);
+		}
+	}
+
+	private static class SetTerm extends IndexedTerm {
+		private final String code;
+
+		private SetTerm(String code){
+			this.code = code;
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			return card.getSet() != null && code.equalsIgnoreCase(card.getSet().getCode());
+		}
+
+		@Override
+		String getIndexDimension() {
+			return "set";
+		}
+
+		@Override
+		void applyTo(CardBeanQuery query) {
+			query.setCode(code);
+		}
+	}
+
+	private static class LanguageTerm extends IndexedTerm {
+		private final LanguageEnum language;
+
+		private LanguageTerm(LanguageEnum language){
+			this.language = language;
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			return card.getLanguage() == language;
+		}
+
+		@Override
+		String getIndexDimension() {
+			return "language";
+		}
+
+		@Override
+		void applyTo(CardBeanQuery query) {
+			query.language(language);
+		}
+	}
+
+	private static class ConditionTerm extends IndexedTerm {
+		private final ConditionEnum condition;
+
+		private ConditionTerm(ConditionEnum condition){
+			this.condition = condition;
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			return card.getCondition() == condition;
+		}
+
+		@Override
+		String getIndexDimension() {
+			return "condition";
+		}
+
+		@Override
+		void applyTo(CardBeanQuery query) {
+			query.condition(condition);
+		}
+	}
+
+	private static class FlagTerm extends IndexedTerm {
+		private final String flag;
+		private final boolean value;
+
+		private FlagTerm(String flag, boolean value){
+			this.flag = flag;
+			this.value = value;
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			switch(flag){
+			case "foil":
+				return card.isFoil() == value;
+			case "signed":
+				return card.isSigned() == value;
+			default:
+				return card.isAltered() == value;
+			}
+		}
+
+		@Override
+		String getIndexDimension() {
+			return flag;
+		}
+
+		@Override
+		void applyTo(CardBeanQuery query) {
+			switch(flag){
+			case "foil":
+				query.foil(value);
+				break;
+			case "signed":
+				query.signed(value);
+				break;
+			default:
+				query.altered(value);
+			}
+		}
+
+		@Override
+		Term negate() {
+			return new FlagTerm(flag, !value);
+		}
+	}
+
+	private static class NoteTerm extends Term {
+		private final String note;
+		private final boolean contains;
+
+		private NoteTerm(String note, boolean contains){
+			this.note = note.toLowerCase(Locale.ROOT);
+			this.contains = contains;
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			String cardNote = card.getNote() == null ? "" : card.getNote().toLowerCase(Locale.ROOT);
+			return contains ? cardNote.contains(note) : cardNote.equals(note);
+		}
+	}
+
+	private static class NumberTerm extends Term {
+		private final String field;
+		private final String operator;
+		private final int number;
+
+		private NumberTerm(String field, String operator, int number){
+			this.field = field;
+			this.operator = operator;
+			this.number = number;
+		}
+
+		@Override
+		boolean test(CardBean card) {
+			int value = field.equals("id") ? card.getId() : card.getAmount();
+			switch(operator){
+			case "<":
+				return value < number;
+			case "<=":
+				return value <= number;
+			case ">":
+				return value > number;
+			case ">=":
+				return value >= number;
+			case "!=":
+				return value != number;
+			default:
+				return value == number;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+/**
+ * This interface has to be implemented by classes, which want to observe the progress of an export
+ * and which are able to cancel it.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public interface ExportProgressListener {
+
+	/**
+	 * Called by the export after a number of cards has been written.
+	 *
+	 * @param exported Number of cards, which have been written so far.
+	 * @param total Total number of cards of the export.
+	 */
+	void exportProgress(int exported, int total);
+
+	/**
+	 * Called by the export, in order to check whether it should stop.
+	 *
+	 * @return {@code true}, if the export should be cancelled.
+	 */
+	boolean isExportCancelled();
+
+}
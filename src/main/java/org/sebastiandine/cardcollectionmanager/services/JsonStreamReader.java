@@ -0,0 +1,417 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * This class reads JSON documents token by token from a {@link Reader}. It is the counterpart of {@link JsonStreamWriter}:
+ * characters are read into a reusable buffer, so a document of any size can be processed without holding it in memory.
+ * <br><br>
+ * The caller pulls the document in the order of its tokens, e.g. {@link #beginObject()}, then {@link #nextName()} and a
+ * value as long as {@link #hasNext()} returns {@code true}, and finally {@link #endObject()}. Unknown values can be
+ * skipped by {@link #skipValue()}. A malformed document causes an {@link IOException}.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class JsonStreamReader implements Closeable {
+
+	/**
+	 * Type of the next token of the document.
+	 */
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	private static final int MAX_DEPTH = 64;
+
+	/* scopes of the nesting levels */
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int NONEMPTY_OBJECT = 3;
+	private static final int DANGLING_NAME = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+
+	private final Reader in;
+	private final char[] buffer = new char[8192];
+	private int position;
+	private int limit;
+	private long consumed;								/* characters of all previous buffer fills, for error messages */
+
+	private final int[] scopes = new int[MAX_DEPTH];
+	private int depth = 1;
+	private Token peeked;
+
+	private final StringBuilder text = new StringBuilder();
+
+	/**
+	 * Constructor, which creates a {@link JsonStreamReader} object.
+	 *
+	 * @param in Source {@link Reader}. It should not be buffered additionally.
+	 */
+	public JsonStreamReader(Reader in){
+		this.in = in;
+		scopes[0] = EMPTY_DOCUMENT;
+	}
+
+	/**
+	 * This method returns the type of the next token without consuming it.
+	 *
+	 * @return Type of the next token.
+	 * @throws IOException If the document is malformed or cannot be read.
+	 */
+	public Token peek() throws IOException{
+		if(peeked != null){
+			return peeked;
+		}
+
+		int c;
+		switch(scopes[depth - 1]){
+		case EMPTY_DOCUMENT:
+			scopes[depth - 1] = NONEMPTY_DOCUMENT;
+			c = nextNonWhitespace();
+			break;
+		case NONEMPTY_DOCUMENT:
+			if(nextNonWhitespace() != -1){
+				throw syntaxError("Unexpected data after the end of the document");
+			}
+			return peeked = Token.END_DOCUMENT;
+		case EMPTY_ARRAY:
+			c = nextNonWhitespace();
+			if(c == ']'){
+				return peeked = Token.END_ARRAY;
+			}
+			scopes[depth - 1] = NONEMPTY_ARRAY;
+			break;
+		case NONEMPTY_ARRAY:
+			c = nextNonWhitespace();
+			if(c == ']'){
+				return peeked = Token.END_ARRAY;
+			}
+			consume(',', "Expected ',' or ']'");
+			c = nextNonWhitespace();
+			break;
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			c = nextNonWhitespace();
+			if(c == '}'){
+				return peeked = Token.END_OBJECT;
+			}
+			if(scopes[depth - 1] == NONEMPTY_OBJECT){
+				consume(',', "Expected ',' or '}'");
+				c = nextNonWhitespace();
+			}
+			if(c != '"'){
+				throw syntaxError("Expected name");
+			}
+			scopes[depth - 1] = DANGLING_NAME;
+			return peeked = Token.NAME;
+		default:										/* DANGLING_NAME */
+			nextNonWhitespace();
+			consume(':', "Expected ':'");
+			scopes[depth - 1] = NONEMPTY_OBJECT;
+			c = nextNonWhitespace();
+		}
+
+		switch(c){
+		case '{': return peeked = Token.BEGIN_OBJECT;
+		case '[': return peeked = Token.BEGIN_ARRAY;
+		case '"': return peeked = Token.STRING;
+		case 't':
+		case 'f': return peeked = Token.BOOLEAN;
+		case 'n': return peeked = Token.NULL;
+		case -1:  throw syntaxError("Unexpected end of the document");
+		default:
+			if(c == '-' || (c >= '0' && c <= '9')){
+				return peeked = Token.NUMBER;
+			}
+			throw syntaxError("Unexpected character '"+(char) c+"'");
+		}
+	}
+
+	/**
+	 * @return {@code true}, if the current object or array has another element.
+	 */
+	public boolean hasNext() throws IOException{
+		Token token = peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	public void beginObject() throws IOException{
+		open(Token.BEGIN_OBJECT, EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException{
+		close(Token.END_OBJECT);
+	}
+
+	public void beginArray() throws IOException{
+		open(Token.BEGIN_ARRAY, EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException{
+		close(Token.END_ARRAY);
+	}
+
+	/**
+	 * This method reads the name of the next member of an object.
+	 *
+	 * @return Name of the member.
+	 * @throws IOException
+	 */
+	public String nextName() throws IOException{
+		expect(Token.NAME);
+		position++;										/* opening quote */
+		return readString();
+	}
+
+	public String nextString() throws IOException{
+		expect(Token.STRING);
+		position++;
+		return readString();
+	}
+
+	public long nextLong() throws IOException{
+		expect(Token.NUMBER);
+		String number = readNumber();
+		try {
+			return Long.parseLong(number);
+		} catch (NumberFormatException e) {
+			throw syntaxError("Expected an integer but was "+number);
+		}
+	}
+
+	public int nextInt() throws IOException{
+		long value = nextLong();
+		if(value != (int) value){
+			throw syntaxError("Integer out of range: "+value);
+		}
+		return (int) value;
+	}
+
+	public boolean nextBoolean() throws IOException{
+		expect(Token.BOOLEAN);
+		if(buffered() == 't'){
+			readLiteral("true");
+			return true;
+		}
+		readLiteral("false");
+		return false;
+	}
+
+	public void nextNull() throws IOException{
+		expect(Token.NULL);
+		readLiteral("null");
+	}
+
+	/**
+	 * This method skips the next value, including all members or elements of an object or array.
+	 *
+	 * @throws IOException
+	 */
+	public void skipValue() throws IOException{
+		switch(peek()){
+		case BEGIN_OBJECT:
+			beginObject();
+			while(hasNext()){
+				nextName();
+				skipValue();
+			}
+			endObject();
+			break;
+		case BEGIN_ARRAY:
+			beginArray();
+			while(hasNext()){
+				skipValue();
+			}
+			endArray();
+			break;
+		case NAME:
+			nextName();
+			skipValue();
+			break;
+		case STRING:
+			nextString();
+			break;
+		case NUMBER:
+			peeked = null;
+			readNumber();
+			break;
+		case BOOLEAN:
+			nextBoolean();
+			break;
+		case NULL:
+			nextNull();
+			break;
+		default:
+			throw syntaxError("Expected a value but was "+peek());
+		}
+	}
+
+	@Override
+	public void close() throws IOException{
+		in.close();
+	}
+
+	private void open(Token token, int scope) throws IOException{
+		expect(token);
+		if(depth == MAX_DEPTH){
+			throw syntaxError("Document is nested too deeply");
+		}
+		position++;
+		scopes[depth++] = scope;
+	}
+
+	private void close(Token token) throws IOException{
+		expect(token);
+		position++;
+		depth--;
+	}
+
+	/**
+	 * Checks the type of the next token and marks it as consumed.
+	 */
+	private void expect(Token token) throws IOException{
+		Token next = peek();
+		if(next != token){
+			throw syntaxError("Expected "+token+" but was "+next);
+		}
+		peeked = null;
+	}
+
+	/**
+	 * Reads the rest of a string, whose opening quote has already been consumed.
+	 */
+	private String readString() throws IOException{
+		text.setLength(0);
+		while(true){
+			int start = position;
+			while(position < limit){
+				char c = buffer[position];
+				if(c == '"' || c == '\\' || c < 0x20){
+					break;
+				}
+				position++;
+			}
+			text.append(buffer, start, position - start);
+
+			if(position == limit){
+				if(!fill()){
+					throw syntaxError("Unterminated string");
+				}
+				continue;
+			}
+
+			char c = buffer[position++];
+			if(c == '"'){
+				return text.toString();
+			}
+			if(c < 0x20){
+				throw syntaxError("Unescaped control character in string");
+			}
+			text.append(readEscape());
+		}
+	}
+
+	private char readEscape() throws IOException{
+		int c = read();
+		switch(c){
+		case '"':  return '"';
+		case '\\': return '\\';
+		case '/':  return '/';
+		case 'b':  return '\b';
+		case 'f':  return '\f';
+		case 'n':  return '\n';
+		case 'r':  return '\r';
+		case 't':  return '\t';
+		case 'u':
+			int value = 0;
+			for(int i = 0; i < 4; i++){
+				int digit = Character.digit(read(), 16);
+				if(digit < 0){
+					throw syntaxError("Malformed unicode escape");
+				}
+				value = (value << 4) | digit;
+			}
+			return (char) value;
+		default:
+			throw syntaxError("Invalid escape sequence");
+		}
+	}
+
+	private String readNumber() throws IOException{
+		text.setLength(0);
+		int c = buffered();
+		while(c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')){
+			text.append((char) c);
+			position++;
+			c = buffered();
+		}
+		return text.toString();
+	}
+
+	private void readLiteral(String literal) throws IOException{
+		for(int i = 0; i < literal.length(); i++){
+			if(read() != literal.charAt(i)){
+				throw syntaxError("Expected "+literal);
+			}
+		}
+	}
+
+	/**
+	 * Skips whitespace and returns the next character without consuming it. {@code -1} at the end of the input.
+	 */
+	private int nextNonWhitespace() throws IOException{
+		int c = buffered();
+		while(c == ' ' || c == '\n' || c == '\r' || c == '\t'){
+			position++;
+			c = buffered();
+		}
+		return c;
+	}
+
+	private void consume(char expected, String message) throws IOException{
+		if(buffered() != expected){
+			throw syntaxError(message);
+		}
+		position++;
+	}
+
+	/**
+	 * Returns the next character without consuming it. {@code -1} at the end of the input.
+	 */
+	private int buffered() throws IOException{
+		if(position == limit && !fill()){
+			return -1;
+		}
+		return buffer[position];
+	}
+
+	private int read() throws IOException{
+		int c = buffered();
+		if(c != -1){
+			position++;
+		}
+		return c;
+	}
+
+	private boolean fill() throws IOException{
+		consumed += limit;
+		position = 0;
+		limit = 0;
+		int count = in.read(buffer, 0, buffer.length);
+		if(count <= 0){
+			return false;
+		}
+		limit = count;
+		return true;
+	}
+
+	private IOException syntaxError(String message){
+		return new IOException("Malformed JSON at character "+(consumed + position)+": "+message+".");
+	}
+
+}
@@ -0,0 +1,192 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * This class writes JSON documents token by token to a {@link Writer}. Characters are collected in a reusable
+ * buffer, which is passed to the {@link Writer} once it is full, so no intermediate strings are created per token.
+ * All strings get escaped according to RFC 8259 (quotes, backslashes and all control characters).
+ * <br><br>
+ * Commas and colons are inserted automatically. The caller is responsible for a well-formed sequence of calls,
+ * e.g. a {@link #name(String)} before each value within an object.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class JsonStreamWriter implements Closeable, Flushable {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final int MAX_DEPTH = 64;
+
+	private final Writer out;
+	private final char[] buffer = new char[8192];
+	private int position;
+
+	/* per nesting level: true, if the next element of the level needs a leading comma */
+	private final boolean[] needsComma = new boolean[MAX_DEPTH];
+	private int depth;
+	private boolean afterName;
+
+	/**
+	 * Constructor, which creates a {@link JsonStreamWriter} object.
+	 *
+	 * @param out Target {@link Writer}. It should not be buffered additionally.
+	 */
+	public JsonStreamWriter(Writer out){
+		this.out = out;
+	}
+
+	public JsonStreamWriter beginObject() throws IOException{
+		return open('{');
+	}
+
+	public JsonStreamWriter endObject() throws IOException{
+		return close('}');
+	}
+
+	public JsonStreamWriter beginArray() throws IOException{
+		return open('[');
+	}
+
+	public JsonStreamWriter endArray() throws IOException{
+		return close(']');
+	}
+
+	/**
+	 * This method writes the name of the next member of an object.
+	 *
+	 * @param name Name of the member.
+	 * @return This writer.
+	 * @throws IOException
+	 */
+	public JsonStreamWriter name(String name) throws IOException{
+		beforeValue();
+		writeString(name);
+		append(':');
+		afterName = true;
+		return this;
+	}
+
+	/**
+	 * This method writes a string value. {@code null} is written as JSON {@code null}.
+	 */
+	public JsonStreamWriter value(String value) throws IOException{
+		beforeValue();
+		if(value == null){
+			appendLiteral("null");
+		}
+		else{
+			writeString(value);
+		}
+		return this;
+	}
+
+	public JsonStreamWriter value(long value) throws IOException{
+		beforeValue();
+		appendLiteral(Long.toString(value));
+		return this;
+	}
+
+	public JsonStreamWriter value(boolean value) throws IOException{
+		beforeValue();
+		appendLiteral(value ? "true" : "false");
+		return this;
+	}
+
+	public JsonStreamWriter nullValue() throws IOException{
+		beforeValue();
+		appendLiteral("null");
+		return this;
+	}
+
+	@Override
+	public void flush() throws IOException{
+		out.write(buffer, 0, position);
+		position = 0;
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException{
+		flush();
+		out.close();
+	}
+
+	private JsonStreamWriter open(char bracket) throws IOException{
+		beforeValue();
+		if(depth == MAX_DEPTH - 1){
+			throw new IOException("JSON document is nested too deeply.");
+		}
+		append(bracket);
+		needsComma[++depth] = false;
+		return this;
+	}
+
+	private JsonStreamWriter close(char bracket) throws IOException{
+		if(depth == 0){
+			throw new IOException("No open object or array to close.");
+		}
+		depth--;
+		append(bracket);
+		return this;
+	}
+
+	/**
+	 * Writes the comma in front of an element of an object or array, if it is not the first one.
+	 */
+	private void beforeValue() throws IOException{
+		if(afterName){
+			afterName = false;
+			return;
+		}
+		if(needsComma[depth]){
+			append(',');
+		}
+		needsComma[depth] = true;
+	}
+
+	private void writeString(String text) throws IOException{
+		append('"');
+		int length = text.length();
+		for(int i = 0; i < length; i++){
+			char c = text.charAt(i);
+			switch(c){
+			case '"':  append('\\'); append('"'); break;
+			case '\\': append('\\'); append('\\'); break;
+			case '\n': append('\\'); append('n'); break;
+			case '\r': append('\\'); append('r'); break;
+			case '\t': append('\\'); append('t'); break;
+			case '\b': append('\\'); append('b'); break;
+			case '\f': append('\\'); append('f'); break;
+			default:
+				if(c < 0x20 || c == '\u2028' || c == '\u2029'){		/* line separators break JavaScript parsers */
+					append('\\'); append('u');
+					append(HEX[(c >> 12) & 0xF]); append(HEX[(c >> 8) & 0xF]);
+					append(HEX[(c >> 4) & 0xF]); append(HEX[c & 0xF]);
+				}
+				else{
+					append(c);
+				}
+			}
+		}
+		append('"');
+	}
+
+	private void appendLiteral(String literal) throws IOException{
+		for(int i = 0; i < literal.length(); i++){
+			append(literal.charAt(i));
+		}
+	}
+
+	private void append(char c) throws IOException{
+		if(position == buffer.length){
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+		buffer[position++] = c;
+	}
+
+}
@@ -1,20 +1,22 @@
 package org.sebastiandine.cardcollectionmanager.services;
 
-import java.awt.image.BufferedImage;
-import java.net.URL;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
 import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 
@@ -26,6 +28,11 @@ import io.magicthegathering.javasdk.resource.MtgSet;
 /**
  * This class acts as a client to the official <a href="https://magicthegathering.io">MTG API</a>. It is using the 
  * <a href="https://github.com/MagicTheGathering/mtg-sdk-java">Java based encapsulation</a> of the API.
+ * <br><br>
+ * All answers of the API are stored in the local {@link CardCatalog} (see {@link PropertiesFactory#getCardCatalogUrl()}),
+ * which is read first. Hence the API is only requested for data, which is not known yet, and the sets are refreshed
+ * once per session by a background thread. The API itself can be replaced by a local stand-in
+ * (see {@link #setCatalogSource(CatalogSource)}), e.g. for tests.
  * 
  * @author Sebastian Dine
  *
@@ -33,8 +40,97 @@ import io.magicthegathering.javasdk.resource.MtgSet;
 public class MtgApiClient {
 	
 	/**
-	 * This method posts a request to the offical MtG API and returns the corresponding image of the given 
-	 * {@link CardBean} object. If no image has been found, it returns the standard MtG card back image.
+	 * Maximum size of the decoded card images, which are held in memory.
+	 */
+	private static final long IMAGE_MEMORY_CACHE_SIZE = 64L * 1024 * 1024;
+	
+	private static CardImageCache imageCache;
+	
+	private static CardCatalog cardCatalog;
+	
+	/**
+	 * Source of the catalog data of the official MtG API.
+	 */
+	public interface CatalogSource {
+		
+		/**
+		 * @return All sets of the API.
+		 * @throws IOException If the request fails.
+		 */
+		List<MtgSet> getAllSets() throws IOException;
+		
+		/**
+		 * @param name Card name, which might be matched partially.
+		 * @param setCode Set code.
+		 * @return All cards of the given set, which match the given name.
+		 * @throws IOException If the request fails.
+		 */
+		List<Card> getCards(String name, String setCode) throws IOException;
+	}
+	
+	/**
+	 * Source, which posts requests to the official MtG API.
+	 */
+	private static final CatalogSource API_SOURCE = new CatalogSource() {
+		@Override
+		public List<MtgSet> getAllSets() throws IOException {
+			try {
+				return SetAPI.getAllSets();
+			} catch (RuntimeException e) {
+				throw new IOException("Request to the MtG API failed.", e);
+			}
+		}
+		
+		@Override
+		public List<Card> getCards(String name, String setCode) throws IOException {
+			List<String> query = new ArrayList<String>();
+			query.add("name="+name);
+			query.add("set="+setCode);
+			try {
+				return CardAPI.getAllCards(query);
+			} catch (RuntimeException e) {
+				throw new IOException("Request to the MtG API failed.", e);
+			}
+		}
+	};
+	
+	private static volatile CatalogSource catalogSource = API_SOURCE;
+	
+	/**
+	 * Background thread, which refreshes and saves the card catalog.
+	 */
+	private static final ExecutorService catalogExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "catalog-refresh");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private static final AtomicBoolean setsRefreshed = new AtomicBoolean();
+	private static final AtomicBoolean saveScheduled = new AtomicBoolean();
+	
+	/**
+	 * Sort key of sets without a valid release date.
+	 */
+	private static final int NO_RELEASE_KEY = Integer.MIN_VALUE;
+	
+	/**
+	 * Resolver, which looks up the image url of a card by {@link #getImageUrl(CardBean)}.
+	 */
+	private static final CardImageCache.ImageUrlResolver API_IMAGE_URL_RESOLVER = new CardImageCache.ImageUrlResolver() {
+		@Override
+		public String resolveImageUrl(CardBean cardBean) throws IOException {
+			return getImageUrl(cardBean);
+		}
+	};
+	
+	/**
+	 * This method returns the official image of the given {@link CardBean} object. Images are cached in memory and in the
+	 * image cache directory (see {@link PropertiesFactory#getImageCacheDirectoryUrl()}), so the official MtG API
+	 * is only requested for images, which have not been loaded before. If no image has been found, it returns the
+	 * standard MtG card back image.
 	 * 
 	 * @param cardBean {@link CardBean} object to which an image request should be posted to the API.
 	 * @return {@link ImageIcon} object of the offical image of the given {@link CardBean} object. If no image
@@ -47,24 +143,9 @@ public class MtgApiClient {
 			return PropertiesFactory.getMtgBackImageIcon();
 		}
 		
-		/* try to get the offical image */
-		List<String> query = new ArrayList<String>();
-		query.add("name="+cardBean.getName());
-		query.add("set="+cardBean.getSet().getCode());
-		
-		List<Card> cardList = CardAPI.getAllCards(query);
-		System.out.println(cardList.get(0).getImageUrl());
-
-		if(!cardList.isEmpty()){
-			try {
-				//@bug img is always null, but cardList.get(0).getImageUrl() is a valid url.
-				// the problem is, that the link does not direct to a file but a service that displays the image
-				BufferedImage img = ImageIO.read(new URL(cardList.get(0).getImageUrl()));
-				return new ImageIcon(img);
-			} catch (Exception e) {
-				Logger.warn("No image for CardBean object with id="+cardBean.getId()+" has been found.");
-				Logger.warn(e.getMessage());
-			}	
+		ImageIcon image = getImageCache().getImage(cardBean);
+		if(image != null){
+			return image;
 		}
 		
 		/* return back image if offical image could not be found */
@@ -72,59 +153,233 @@ public class MtgApiClient {
 	}
 	
 	/**
-	 *  This method posts a request to the official MtG API and returns a list of all sets as a list {@link MtgSet} objects.
-	 *  This method filters the response of the API and throws out online-only sets. Furthermore the list is sorted by release date
-	 *  ascending.
-	 *  
-	 * @return List of all Mtg sets, sorted by the release date.
+	 * This method returns the image cache for the current image cache directory. If the directory has been changed
+	 * in the meantime (e.g. by changing the carddata directory), a new cache will be created.
 	 */
-	public static MtgSet[] getAllSets(){
-		
-		List<MtgSet> setList = SetAPI.getAllSets();
-		appendEuropeanSets(setList); //append FBB, FWB and Renaissance, since they are not in the offical API
-
-		/* filter online only sets */
-		Iterator<MtgSet> iterator = setList.iterator();
+	private static synchronized CardImageCache getImageCache(){
+		File directory = new File(PropertiesFactory.getImageCacheDirectoryUrl());
+		if(imageCache == null || !imageCache.getDirectory().equals(directory)){
+			imageCache = new CardImageCache(directory, PropertiesFactory.getImageCacheMaxSize(),
+											IMAGE_MEMORY_CACHE_SIZE, API_IMAGE_URL_RESOLVER);
+		}
+		return imageCache;
+	}
+	
+	/**
+	 * This method returns the image url of the given {@link CardBean} object. It looks up the card catalog first and
+	 * posts a request to the official MtG API only for cards, which are not known yet. The response is stored in the catalog.
+	 * Since the API matches names partially, the response might not contain the card itself. In that case the card
+	 * is marked as missing in the catalog, so it is not requested again.
+	 * 
+	 * @param cardBean {@link CardBean} object, whose image url should be returned.
+	 * @return Image url. {@code null}, if the card is unknown or has no image.
+	 * @throws IOException If the request to the API fails.
+	 */
+	static String getImageUrl(CardBean cardBean) throws IOException{
+		String name = cardBean.getName();
+		String setCode = cardBean.getSet().getCode();
+		CardCatalog catalog = getCardCatalog();
+		if(catalog.containsCard(name, setCode) || catalog.isMissingCard(name, setCode)){
+			return catalog.getImageUrl(name, setCode);
+		}
 		
-		while(iterator.hasNext()){
-			if(iterator.next().getOnlineOnly()){
-				iterator.remove();
-			}
+		List<Card> cardList = catalogSource.getCards(name, setCode);
+		if(!cardList.isEmpty()){
+			catalog.putCards(cardList);
+			scheduleSave(catalog);
+		}
+		if(!catalog.containsCard(name, setCode)){
+			Logger.debug("Card '{}' of set {} is unknown to the MtG API.", name, setCode);
+			catalog.putMissingCard(name, setCode);
+			return null;
+		}
+		return catalog.getImageUrl(name, setCode);
+	}
+	
+	/**
+	 * This method returns the local card catalog. It is read from {@link PropertiesFactory#getCardCatalogUrl()}
+	 * on first use.
+	 * 
+	 * @return Card catalog of this client.
+	 */
+	public static synchronized CardCatalog getCardCatalog(){
+		if(cardCatalog == null){
+			cardCatalog = CardCatalog.load(new File(PropertiesFactory.getCardCatalogUrl()));
+		}
+		return cardCatalog;
+	}
+	
+	/**
+	 * This method replaces the card catalog of this client, e.g. by a catalog of a bulk data file or an empty
+	 * catalog for tests.
+	 * 
+	 * @param catalog New card catalog.
+	 */
+	public static synchronized void setCardCatalog(CardCatalog catalog){
+		cardCatalog = catalog;
+		setsRefreshed.set(false);
+	}
+	
+	/**
+	 * This method replaces the source of the catalog data. By default, it is the official MtG API.
+	 * 
+	 * @param source New source, e.g. a local stand-in for tests. {@code null} restores the official MtG API.
+	 */
+	public static void setCatalogSource(CatalogSource source){
+		catalogSource = source == null ? API_SOURCE : source;
+		setsRefreshed.set(false);
+	}
+	
+	/**
+	 *  This method returns all sets as {@link SetBean} objects. They are read from the card catalog, which gets
+	 *  refreshed by a background thread. Only if the catalog does not know any set yet, a request is posted to the
+	 *  official MtG API (see {@link #fetchAllSets()}).
+	 *  The sets are passed once through {@link #createSetBeans(List)}, i.e. online-only sets are filtered
+	 *  and the sets are sorted by release date ascending.
+	 *  
+	 * @return Array of all Mtg sets, sorted by the release date.
+	 * @throws UncheckedIOException If the catalog is empty and the request to the API fails.
+	 */
+	public static SetBean[] getAllSets(){
+		CardCatalog catalog = getCardCatalog();
+		if(!catalog.hasSets()){
+			return fetchAllSets();
 		}
 		
-		/* sort by release date ascending */
-		Collections.sort(setList, new Comparator<MtgSet>() {
-
+		/* the sets are read before the refresh is started, so the caller always gets the local state */
+		List<SetBean> sets = createSetBeans(catalog.getSets());
+		if(setsRefreshed.compareAndSet(false, true)){
+			catalogExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						refreshSets(catalog);
+						catalog.save();
+					} catch (IOException e) {
+						Logger.warn("Unable to refresh the card catalog. Continue with the local catalog.");
+						Logger.warn(e.getMessage());
+					}
+				}
+			});
+		}
+		return sets.toArray(new SetBean[sets.size()]);
+	}
+	
+	/**
+	 *  This method posts a request to the official MtG API and returns all sets as {@link SetBean} objects
+	 *  (see {@link #getAllSets()}). The card catalog is updated with the response.
+	 *  
+	 * @return Array of all Mtg sets, sorted by the release date.
+	 * @throws UncheckedIOException If the request to the API fails.
+	 */
+	public static SetBean[] fetchAllSets(){
+		CardCatalog catalog = getCardCatalog();
+		List<MtgSet> apiSets;
+		try {
+			apiSets = refreshSets(catalog);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		scheduleSave(catalog);
+		List<SetBean> sets = createSetBeans(apiSets);
+		return sets.toArray(new SetBean[sets.size()]);
+	}
+	
+	/**
+	 * This method requests all sets from the catalog source and stores them in the given catalog.
+	 * An empty response does not replace the sets of the catalog.
+	 */
+	private static List<MtgSet> refreshSets(CardCatalog catalog) throws IOException{
+		List<MtgSet> apiSets = catalogSource.getAllSets();
+		if(!apiSets.isEmpty()){
+			catalog.setSets(apiSets);
+		}
+		return apiSets;
+	}
+	
+	/**
+	 * This method saves the given catalog by the background thread. Changes, which are made, before the thread
+	 * has started to save, are saved together.
+	 */
+	private static void scheduleSave(CardCatalog catalog){
+		if(!saveScheduled.compareAndSet(false, true)){
+			return;
+		}
+		catalogExecutor.execute(new Runnable() {
 			@Override
-			public int compare(MtgSet o1, MtgSet o2) {
-				SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
-
+			public void run() {
+				saveScheduled.set(false);
 				try {
-					Date date1 = formatter.parse(o1.getReleaseDate());
-					Date date2 = formatter.parse(o2.getReleaseDate());
-
-					if (date1.before(date2)) {
-						return -1;
-					}
-					if (date1.after(date2)) {
-						return 1;
-					}
-					if (date1.equals(date2)) {
-						return 0;
-					}
-
-				} catch (ParseException e) {
-					Logger.warn("Unable to parse release date of sets.");
-					return 0;
-
+					catalog.save();
+				} catch (IOException e) {
+					Logger.error("Unable to save card catalog at "+catalog.getFile().getPath()+".");
+					Logger.error(e.getMessage());
 				}
-				return 0;
 			}
 		});
+	}
+	
+	/**
+	 * This method turns a response of the official MtG API into the set list of this application in a single pass:
+	 * <ol>
+	 * <li>online-only sets are filtered and the european sets, which are missing in the API, are appended,</li>
+	 * <li>the release date of every set is parsed once into days since 1970-01-01,</li>
+	 * <li>the sets are sorted by a primitive key {@code [epoch day][position in the response]}, so sets with
+	 * the same release date keep the order of the response,</li>
+	 * <li>a {@link SetBean} object is created for every set.</li>
+	 * </ol>
+	 * Sets without or with an unparsable release date are sorted first.
+	 * 
+	 * @param apiSets List of {@link MtgSet} objects from the API.
+	 * @return List of {@link SetBean} objects, sorted by release date ascending.
+	 */
+	public static List<SetBean> createSetBeans(List<MtgSet> apiSets){
 		
-		MtgSet[] setArray = new MtgSet[setList.size()];
-		setList.toArray(setArray);
-		return setArray;
+		List<MtgSet> sets = new ArrayList<MtgSet>(apiSets.size() + 3);
+		for(MtgSet set : apiSets){
+			if(!set.getOnlineOnly()){
+				sets.add(set);
+			}
+		}
+		appendEuropeanSets(sets); //append FBB, FWB and Renaissance, since they are not in the offical API
+		
+		long[] sortKeys = new long[sets.size()];
+		for(int i = 0; i < sortKeys.length; i++){
+			sortKeys[i] = ((long) parseEpochDay(sets.get(i)) << 32) | i;
+		}
+		Arrays.sort(sortKeys);
+		
+		List<SetBean> setBeans = new ArrayList<SetBean>(sortKeys.length);
+		for(long sortKey : sortKeys){
+			int epochDay = (int) (sortKey >> 32);
+			MtgSet set = sets.get((int) sortKey);
+			
+			SetBean bean = new SetBean();
+			bean.setName(set.getName());
+			bean.setCode(set.getCode());
+			bean.setReleaseEpochDay(epochDay == NO_RELEASE_KEY ? SetBean.NO_RELEASE : epochDay);
+			setBeans.add(bean);
+		}
+		return setBeans;
+	}
+	
+	/**
+	 * This method parses the release date {@code yyyy-MM-dd} of a set into days since 1970-01-01.
+	 * 
+	 * @return Days since 1970-01-01. {@link #NO_RELEASE_KEY}, if the release date is missing or invalid.
+	 */
+	private static int parseEpochDay(MtgSet set){
+		String releaseDate = set.getReleaseDate();
+		if(releaseDate == null){
+			return NO_RELEASE_KEY;
+		}
+		try {
+			return (int) LocalDate.parse(releaseDate).toEpochDay();
+		} catch (DateTimeParseException e) {
+			Logger.warn("Unable to parse release date of set "+set.getName()+".");
+			Logger.warn(e.getMessage());
+			return NO_RELEASE_KEY;
+		}
 	}
 
 	/**
@@ -4,7 +4,7 @@ import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
-import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Observable;
 import java.util.Observer;
 
@@ -17,7 +17,6 @@ import javax.swing.event.ListSelectionListener;
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
 import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
-import org.sebastiandine.cardcollectionmanager.services.CardBeanImageServices;
 import org.sebastiandine.cardcollectionmanager.ui.menubar.MenuBarObservable;
 import org.sebastiandine.cardcollectionmanager.ui.panel.card.CardBeanInfoPanel;
 import org.sebastiandine.cardcollectionmanager.ui.tables.card.CardContainerTable;
@@ -40,8 +39,8 @@ public class MainFrame extends JFrame implements ListSelectionListener, Observer
 		/* select first entry in CardBean list.
 		 * If no cardBean list could be found, use the CardBean DUMMY.
 		 */
-		if(CardBeanContainer.getCardBeanList().length != 0){
-			selectedCard = CardBeanContainer.getCardBeanList()[0];
+		if(CardBeanContainer.getCardBeanCount() != 0){
+			selectedCard = CardBeanContainer.getCardBeans().get(0);
 		}
 		else{
 			selectedCard = CardBean.DUMMY;
@@ -104,7 +103,7 @@ public class MainFrame extends JFrame implements ListSelectionListener, Observer
 	 * This method implements the reaction of regarding notifications from observed objects.
 	 * 
 	 * <ul>
-	 * <li>If the user hits the 'delete' button on the toolbar, the currently selected {@link CardBean} object will be
+	 * <li>If the user hits the 'delete' button on the toolbar, all selected {@link CardBean} objects will be
 	 * deleted and the next element of the table gets selected. The info panel and table will be updated automatically.</li>
 	 * <li>If the user edits the currently selected {@link CardBean} object, the corresponding entry in the info panel
 	 * and table will be updated automatically.</li>
@@ -124,25 +123,23 @@ public class MainFrame extends JFrame implements ListSelectionListener, Observer
 				
 				/* update routine in reaction of an update of the currently selected card */
 				if(((String)arg).equals("card_edited")){
+					/* the table model has already been notified by the container, but an edited name might have moved the row */
+					cardTable.selectRowByCardBean(cardToolBarObservable.getSelectedCard());
 					cardInfoPanel.setSelectedCard(cardTable.getSelectedCardBean());
-					cardTable.updateSelectedRow();
 				}
 			
 				/* card bean deletion routine */
 				if(((String)arg).equals("delete")){
-					/* delete card bean images */
-					try {
-						CardBeanImageServices.deleteImageFiles(cardTable.getSelectedCardBean());
-					} catch (IOException e) {
-						Logger.warn("Failed to delete image files of card bean "+cardTable.getSelectedCardBean().getName()+".");
-						Logger.warn(e.getMessage());
+					/* delete all selected card beans together with their images in one batch, the table model removes the rows by itself */
+					int selectedRow = cardTable.getSelectedRow();
+					CardBeanContainer.Batch batch = CardBeanContainer.beginBatch();
+					for(CardBean card : cardTable.getSelectedCardBeans()){
+						batch.deleteCardBeanById(card.getId());
 					}
-					/* delete card bean data */
-					CardBeanContainer.deleteCardBeanById(cardTable.getSelectedCardBean().getId());
-					CardBeanContainer.saveCardBeanList();
+					batch.commit();
 					
-					/* remove corrsponding entry from list */
-					cardTable.deleteSelectedRow();
+					/* select the next entry of the table */
+					cardTable.selectRowAfterDeletion(selectedRow);
 					
 					/* update toolbar and info panel with the newly selected card bean */
 					cardInfoPanel.setSelectedCard(cardTable.getSelectedCardBean());
@@ -154,8 +151,7 @@ public class MainFrame extends JFrame implements ListSelectionListener, Observer
 			if(arg.getClass() == CardBean.class){
 				cardToolBarObservable.setSelectedCard((CardBean)arg);
 				cardInfoPanel.setSelectedCard((CardBean)arg);
-				cardTable.appendRowByCardBean((CardBean)arg);
-				cardTable.selectRowByCardBean((CardBean)arg);
+				cardTable.selectRowByCardBean((CardBean)arg);	/* the row has already been inserted by the table model */
 				
 			}
 		}
@@ -177,8 +173,8 @@ public class MainFrame extends JFrame implements ListSelectionListener, Observer
 
 	@Override
 	public void windowOpened(WindowEvent e) {
-		// TODO Auto-generated method stub
-		
+		/* startup time, as perceived by the user: from the start of the JVM until the first frame is shown */
+		Logger.info("First frame shown {} ms after start.", ManagementFactory.getRuntimeMXBean().getUptime());
 	}
 
 	@Override
@@ -190,6 +186,7 @@ public class MainFrame extends JFrame implements ListSelectionListener, Observer
 				JOptionPane.YES_NO_OPTION);
 		
 		if(closeConfirmation == JOptionPane.YES_OPTION){
+			CardBeanContainer.flush();		/* wait for the background writer, before the data gets lost */
 			System.exit(0);
 		}
 		else{
@@ -46,24 +46,19 @@ public class ComboBoxSetBean extends JComboBox<SetBean> {
 	public void actionPerformed(ActionEvent e) {				/* Since a super class of JComboBox already implements interface
 																	ActionListener, we only need to override the actionPerformed method
 																*/
-		Logger.debug("Set selected: "+this.getSelectedItem().toString()+".");	
+		Logger.debug("Set selected: {}.", this.getSelectedItem());	
 	}
 	
 	/**
 	 * This method overrides the parent class method {@link JComboBox#setSelectedItem(Object)} in order to
-	 * work for objects of class {@link SetBean}.
+	 * work for objects of class {@link SetBean}. Since all cards reference the canonical {@link SetBean} objects
+	 * of {@link SetBeanContainer}, the set is resolved to its canonical instance and selected by identity.
 	 */
 	@Override
 	public void setSelectedItem(Object object){
 		
-		if(object.getClass() == SetBean.class){
-			int setCount = this.getItemCount();
-			for(int i=0; i < setCount; i++){
-				if(this.getItemAt(i).getCode().equals(((SetBean)object).getCode())){
-					this.getModel().setSelectedItem(this.getItemAt(i));
-					this.selectedItemChanged();
-				}
-			}
+		if(object instanceof SetBean){
+			super.setSelectedItem(SetBeanContainer.canonicalize((SetBean) object));
 		}
 		else{
 			super.setSelectedItem(object);
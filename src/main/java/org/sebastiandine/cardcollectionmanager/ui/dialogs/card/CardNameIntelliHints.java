@@ -0,0 +1,120 @@
+package org.sebastiandine.cardcollectionmanager.ui.dialogs.card;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SwingWorker;
+import javax.swing.text.JTextComponent;
+
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
+import org.sebastiandine.cardcollectionmanager.container.CardNameIndex;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+import org.sebastiandine.cardcollectionmanager.services.CardCatalog;
+import org.sebastiandine.cardcollectionmanager.services.MtgApiClient;
+
+import com.jidesoft.hints.AbstractListIntelliHints;
+
+/**
+ * This class encapsulates the autocompletion of card names for a text component. While the user types, it offers
+ * all names of {@link CardBeanContainer#getNameIndex()}, which start with the typed text, followed by similar names,
+ * so typos still lead to the known spelling. Besides the names of the collection, all names of the local card catalog
+ * (see {@link MtgApiClient#getCardCatalog()}) are offered. They are indexed by a background thread, so they are offered
+ * as soon as the index is complete.
+ * It uses the Jidesoft Common Layer library to show the names in a popup below the text component.
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class CardNameIntelliHints extends AbstractListIntelliHints {
+
+	/**
+	 * Maximum number of names, which are offered at once.
+	 */
+	private static final int MAX_HINTS = 20;
+
+	/**
+	 * Minimum number of characters, before names are offered.
+	 */
+	private static final int MIN_LENGTH = 2;
+
+	/**
+	 * Version of the card catalog, whose names are indexed by the catalog index of the name index.
+	 */
+	private static volatile int catalogVersion = -1;
+
+	/**
+	 * Flag, whether the names of the card catalog are being indexed. Only used by the event dispatch thread.
+	 */
+	private static boolean indexingCatalog;
+
+	/**
+	 * Constructor, which creates a {@link CardNameIntelliHints} object and attaches it to the given text component.
+	 * If the card catalog has changed since its names have been indexed, they get indexed again in the background.
+	 *
+	 * @param textComponent Text component, whose text should be completed.
+	 */
+	public CardNameIntelliHints(JTextComponent textComponent){
+		super(textComponent);
+		indexCatalogNamesInBackground();
+	}
+
+	/**
+	 * This method reads the card catalog and indexes its names in the background, if the catalog has changed since its
+	 * names have been indexed. Afterwards, the new index is passed to the name index on the event dispatch thread
+	 * (see {@link CardNameIndex#setCatalogIndex(CardNameIndex)}).
+	 */
+	private static void indexCatalogNamesInBackground(){
+		if(indexingCatalog){
+			return;
+		}
+		indexingCatalog = true;
+
+		SwingWorker<CardNameIndex, Void> worker = new SwingWorker<CardNameIndex, Void>() {
+
+			private int version;
+
+			@Override
+			protected CardNameIndex doInBackground() throws Exception {
+				CardCatalog catalog = MtgApiClient.getCardCatalog();
+				version = catalog.getVersion();
+				if(version == catalogVersion){
+					return null;
+				}
+				CardNameIndex catalogIndex = new CardNameIndex();
+				catalogIndex.addCatalogNames(catalog.getCardNames());
+				return catalogIndex;
+			}
+
+			@Override
+			protected void done() {
+				indexingCatalog = false;
+				try {
+					CardNameIndex catalogIndex = get();
+					if(catalogIndex != null){
+						CardBeanContainer.getNameIndex().setCatalogIndex(catalogIndex);
+						catalogVersion = version;
+					}
+				} catch (InterruptedException | ExecutionException e) {
+					Logger.error("An error occured during the indexing of the card catalog names.");
+					Logger.error(e.getMessage());
+				}
+			}
+		};
+		worker.execute();
+	}
+
+	@Override
+	public boolean updateHints(Object context) {
+		String text = context == null ? "" : context.toString();
+		if(text.trim().length() < MIN_LENGTH){
+			return false;
+		}
+		List<String> names = CardBeanContainer.getNameIndex().suggest(text, MAX_HINTS);
+		if(names.isEmpty() || (names.size() == 1 && names.get(0).equals(text))){
+			return false;
+		}
+		setListData(names.toArray());
+		return true;
+	}
+
+}
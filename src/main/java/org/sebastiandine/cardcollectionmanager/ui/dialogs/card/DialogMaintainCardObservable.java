@@ -184,7 +184,7 @@ public class DialogMaintainCardObservable extends Observable implements ActionLi
 		this.cardBean = cardBean;
 		populateUiElements(this.cardBean);
 		
-		Logger.debug("Card bean with ID="+this.cardBean.getId()+" loaded for maintenance.");
+		Logger.debug("Card bean with ID={} loaded for maintenance.", this.cardBean.getId());
 	}
 
 
@@ -304,6 +304,7 @@ public class DialogMaintainCardObservable extends Observable implements ActionLi
 	private void initUiElements(){
 		txt_name = new JTextField(30);
 		txt_name.getDocument().addDocumentListener(this);
+		new CardNameIntelliHints(txt_name); //attach auto completion of card names
 		
 		txt_note = new JTextField(30);
 		
@@ -431,7 +432,7 @@ public class DialogMaintainCardObservable extends Observable implements ActionLi
 		if (e.getSource() == btn_save){						
 			Logger.debug("Button 'Save' has been pressed.");
 			
-			if(cardBean.getId() == CardBeanContainer.getNextId()){	/* check if cardBean is a new entry */							
+			if(!CardBeanContainer.containsCardBeanId(cardBean.getId())){	/* check if cardBean is a new entry */							
 				updateInternalCardBeanFromUi();
 				CardBeanContainer.addCardBean(cardBean);		/* add new entry to CardBeanContainer */
 				Logger.info("New card bean has been stored to the system.");
@@ -452,13 +453,13 @@ public class DialogMaintainCardObservable extends Observable implements ActionLi
 					return;
 				}
 				
+				CardBeanContainer.updateCardBean(cardBean);		/* persist edited entry */
 				Logger.info("Edited card bean has been restored to the system.");
 				this.setChanged();
 				notifyObservers("card_edited");
 				Logger.debug("Notifed observers about the editing of a card.");
 			}
 			
-			CardBeanContainer.saveCardBeanList();				/* save updated CardBeanContainer */
 			dia_maintainCard.dispose();
 		}
 		
@@ -695,7 +696,7 @@ public void windowClosing(WindowEvent e) {
 	}
 	
 	/* check if card is in collection. If not, potentially uploaded image files will be deleted. */
-	if(CardBeanContainer.getCardBeanById(cardBean.getId()) == null){
+	if(!CardBeanContainer.containsCardBeanId(cardBean.getId())){
 		Logger.info("User aborted the creation of a new card.");
 		try {
 			CardBeanImageServices.deleteImageFiles(cardBean);
@@ -2,18 +2,26 @@ package org.sebastiandine.cardcollectionmanager.ui.dialogs.export;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 import org.sebastiandine.cardcollectionmanager.services.CardBeanExcelExportServices;
+import org.sebastiandine.cardcollectionmanager.services.ExportProgressListener;
+import org.sebastiandine.cardcollectionmanager.ui.tables.card.CardContainerTableFilterField;
 
 /**
  * This class provides a {@link JFileChooser} in order to select the destination, where the 
@@ -63,15 +71,80 @@ public class ExcelExportFileChooser extends JFileChooser implements ActionListen
 				Logger.error("User specified an incorrect url for the export. The url should end with '.xlsx' but does not.");
 			}
 			else{
-				CardBeanExcelExportServices.exportCardBeanContainerToXlsx(this.getSelectedFile());
-				JOptionPane.showMessageDialog(this,
-						"Collection data has been exported successfully.",
-						"Excel export success",
-						JOptionPane.INFORMATION_MESSAGE);
+				exportInBackground(this.getSelectedFile());
 			}
 		}
 		
 	}
 	
+	/**
+	 * This method runs the export in the background, while a {@link ProgressMonitor} displays its progress.
+	 * The user can cancel the export through the monitor. The result gets reported by a message dialog.
+	 * 
+	 * @param file Target file of the export.
+	 */
+	private void exportInBackground(final File file){
+		
+		final List<CardBean> cards = CardContainerTableFilterField.getInstance().getQuery().select();		/* export what the table shows */
+		final ProgressMonitor monitor = new ProgressMonitor(null, "Export collection to Excel", "", 0, Math.max(1, cards.size()));
+		monitor.setMillisToDecideToPopup(200);
+		
+		SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
+			
+			@Override
+			protected Boolean doInBackground() throws Exception {
+				return CardBeanExcelExportServices.exportCardBeansToXlsx(cards, file, new ExportProgressListener() {
+					@Override
+					public void exportProgress(int exported, int total) {
+						setProgress(total == 0 ? 100 : (int) (100L * exported / total));
+					}
+					
+					@Override
+					public boolean isExportCancelled() {
+						return monitor.isCanceled();
+					}
+				});
+			}
+			
+			@Override
+			protected void done() {
+				monitor.close();
+				try {
+					if(get()){
+						JOptionPane.showMessageDialog(null,
+								"Collection data has been exported successfully.",
+								"Excel export success",
+								JOptionPane.INFORMATION_MESSAGE);
+					}
+					else{
+						JOptionPane.showMessageDialog(null,
+								"The export has been cancelled.",
+								"Excel export cancelled",
+								JOptionPane.INFORMATION_MESSAGE);
+					}
+				} catch (InterruptedException | ExecutionException e) {
+					Logger.error("An error occured during the export to the Excel file.");
+					Logger.error(e.getMessage());
+					JOptionPane.showMessageDialog(null,
+							"Collection data could not be exported.",
+							"Excel export error",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		};
+		
+		worker.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				if("progress".equals(evt.getPropertyName())){
+					int progress = (Integer) evt.getNewValue();
+					monitor.setProgress(progress * Math.max(1, cards.size()) / 100);
+					monitor.setNote(progress+" %");
+				}
+			}
+		});
+		worker.execute();
+	}
+	
 	
 }
@@ -14,6 +14,7 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 import org.sebastiandine.cardcollectionmanager.services.CardBeanJsonExportService;
+import org.sebastiandine.cardcollectionmanager.ui.tables.card.CardContainerTableFilterField;
 
 /**
  * This class provides a {@link JFileChooser} in order to select the destination, where the 
@@ -60,7 +61,8 @@ public class JsonExportFileChooser extends JFileChooser implements ActionListene
 				Logger.error("User specified an incorrect url for the export. The url should end with '.json' but does not.");
 			}
 			else{
-				CardBeanJsonExportService.exportCardBeanContainerToJson(this.getSelectedFile());
+				CardBeanJsonExportService.exportCardBeanContainerToJson(this.getSelectedFile(),
+						CardContainerTableFilterField.getInstance().getQuery());		/* export what the table shows */
 				JOptionPane.showMessageDialog(this,
 						"Collection data has been exported successfully.",
 						"JSON export success",
@@ -0,0 +1,91 @@
+package org.sebastiandine.cardcollectionmanager.ui.dialogs.export;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+import org.sebastiandine.cardcollectionmanager.services.CardBeanJsonImportService;
+
+/**
+ * This class provides a {@link JFileChooser} in order to select a JSON file, which has been exported by
+ * this application, and imports its {@link CardBean} objects into the system's collection.
+ *
+ * @author Sebastian Dine
+ *
+ */
+@SuppressWarnings("serial")
+public class JsonImportFileChooser extends JFileChooser implements ActionListener {
+
+	public JsonImportFileChooser(){
+		this.setCurrentDirectory(new File("."));
+
+		this.addActionListener(this);
+
+		/* generate and assign file filter */
+		FileFilter fileFilter = new FileNameExtensionFilter("JSON (*.json)", "json", "JSON");
+		this.setFileFilter(fileFilter);
+
+		this.showDialog(null, "Import from JSON");
+	}
+
+	/**
+	 * This method reacts on the users input and imports the selected file.
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+
+		if(e.getActionCommand().equals(JFileChooser.APPROVE_SELECTION)){
+			Logger.info("User wants to import cards from the JSON file "+this.getSelectedFile().getAbsolutePath()+".");
+			importInBackground(this.getSelectedFile());
+		}
+
+	}
+
+	/**
+	 * This method reads the file in the background. Afterwards, the cards get added to the collection
+	 * on the event dispatch thread and the result gets reported by a message dialog.
+	 *
+	 * @param file JSON file, which should be imported.
+	 */
+	private void importInBackground(final File file){
+
+		SwingWorker<List<CardBean>, Void> worker = new SwingWorker<List<CardBean>, Void>() {
+
+			@Override
+			protected List<CardBean> doInBackground() throws Exception {
+				return CardBeanJsonImportService.readCardBeansFromJson(file);
+			}
+
+			@Override
+			protected void done() {
+				try {
+					List<CardBean> cards = get();
+					CardBeanJsonImportService.addToCardBeanContainer(cards);
+					JOptionPane.showMessageDialog(null,
+							cards.size()+" cards have been imported successfully.",
+							"JSON import success",
+							JOptionPane.INFORMATION_MESSAGE);
+				} catch (InterruptedException | ExecutionException e) {
+					Logger.error("An error occured during the import of the JSON file.");
+					Logger.error(e.getMessage());
+					JOptionPane.showMessageDialog(null,
+							"Cards could not be imported. See the log file for details.",
+							"JSON import error",
+							JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		};
+		worker.execute();
+	}
+
+}
@@ -11,8 +11,10 @@ import javax.swing.JOptionPane;
 
 import org.sebastiandine.cardcollectionmanager.bean.SetBean;
 import org.sebastiandine.cardcollectionmanager.container.SetBeanContainer;
+import org.sebastiandine.cardcollectionmanager.container.SetBeanDelta;
 import org.sebastiandine.cardcollectionmanager.ui.dialogs.export.ExcelExportFileChooser;
 import org.sebastiandine.cardcollectionmanager.ui.dialogs.export.JsonExportFileChooser;
+import org.sebastiandine.cardcollectionmanager.ui.dialogs.export.JsonImportFileChooser;
 import org.sebastiandine.cardcollectionmanager.ui.dialogs.settings.DialogSettings;
 
 
@@ -31,6 +33,7 @@ public class MenuBarObservable extends Observable implements ActionListener {
 	
 	private JMenu men_file;
 	private JMenu men_advanced;
+	private JMenu men_import;
 	private JMenu men_export;
 	private JMenu men_settings;
 	
@@ -39,6 +42,7 @@ public class MenuBarObservable extends Observable implements ActionListener {
 	private JMenuItem men_editSettings;
 	private JMenuItem men_exportExcel;
 	private JMenuItem men_exportJson;
+	private JMenuItem men_importJson;
 	
 	public MenuBarObservable(){
 		
@@ -55,6 +59,7 @@ public class MenuBarObservable extends Observable implements ActionListener {
 		
 		men_file = new JMenu("File");
 		men_advanced = new JMenu("Advanced");
+		men_import = new JMenu("Import");
 		men_export = new JMenu("Export");
 		men_settings = new JMenu("Settings");
 		
@@ -73,14 +78,19 @@ public class MenuBarObservable extends Observable implements ActionListener {
 		men_exportJson = new JMenuItem("to JSON (.json)");
 		men_exportJson.addActionListener(this);
 		
+		men_importJson = new JMenuItem("from JSON (.json)");
+		men_importJson.addActionListener(this);
+		
 		men_file.add(men_close);
 		men_advanced.add(men_updateSets);
 		men_settings.add(men_editSettings);
 		men_export.add(men_exportExcel);
 		men_export.add(men_exportJson);
+		men_import.add(men_importJson);
 		
 		menuBar.add(men_file);
 		menuBar.add(men_advanced);
+		menuBar.add(men_import);
 		menuBar.add(men_export);
 		menuBar.add(men_settings);
 	}
@@ -105,19 +115,18 @@ public class MenuBarObservable extends Observable implements ActionListener {
 		}
 		
 		if(e.getSource() == men_updateSets){
-			SetBean oldLatestSet = SetBeanContainer.getLatestSet();
-			SetBeanContainer.updateSetBeanListFromApi();
-			SetBean newLatestSet = SetBeanContainer.getLatestSet();
+			SetBeanDelta delta = SetBeanContainer.updateSetBeanListFromApi();
+			SetBean latestSet = SetBeanContainer.getLatestSet();
 			
-			if(oldLatestSet.getCode().equals(newLatestSet.getCode())){
+			if(delta.isEmpty()){
 				JOptionPane.showMessageDialog(null, 
-						"No new set data found. Latest set is "+oldLatestSet.getName()+".",
+						"No new set data found. Latest set is "+latestSet.getName()+".",
 						"Update Set Data",
 						JOptionPane.NO_OPTION);
 			}
 			else{
 				JOptionPane.showMessageDialog(null,
-						"New set data maintained. Latest set is "+newLatestSet.getName()+".",
+						"New set data maintained: "+delta+". Latest set is "+latestSet.getName()+".",
 						"Update Set Data",
 						JOptionPane.NO_OPTION);
 			}
@@ -135,6 +144,10 @@ public class MenuBarObservable extends Observable implements ActionListener {
 			new JsonExportFileChooser();
 		}
 
+		if(e.getSource() == men_importJson){
+			new JsonImportFileChooser();
+		}
+
 	}
 	
 }
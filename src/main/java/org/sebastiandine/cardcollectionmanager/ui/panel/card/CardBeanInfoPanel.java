@@ -6,6 +6,7 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 
 import javax.swing.GroupLayout;
+import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.GroupLayout.ParallelGroup;
@@ -13,6 +14,7 @@ import javax.swing.GroupLayout.SequentialGroup;
 
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
 import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
+import org.sebastiandine.cardcollectionmanager.services.CardImageLoader;
 import org.sebastiandine.cardcollectionmanager.services.MtgApiClient;
 import org.sebastiandine.cardcollectionmanager.ui.dialogs.card.DialogShowCardImage;
 
@@ -23,7 +25,17 @@ import org.sebastiandine.cardcollectionmanager.ui.dialogs.card.DialogShowCardIma
  *
  */
 @SuppressWarnings("serial")
-public class CardBeanInfoPanel extends JPanel implements MouseListener, Runnable {
+public class CardBeanInfoPanel extends JPanel implements MouseListener, CardImageLoader.Callback {
+	
+	/**
+	 * Loader of official card images, shared by all info panels. Only the image of the latest selection gets loaded.
+	 */
+	private static final CardImageLoader IMAGE_LOADER = new CardImageLoader(new CardImageLoader.ImageSource() {
+		@Override
+		public ImageIcon loadImage(CardBean card) {
+			return MtgApiClient.getCardImage(card);
+		}
+	}, PropertiesFactory.getMtgBackImageIcon(), "card-image-loader");
 	
 	private CardBean cardBean;
 	
@@ -204,10 +216,11 @@ public class CardBeanInfoPanel extends JPanel implements MouseListener, Runnable
 		lbl_txt_note.setText(cardBean.getNote());
 		
 		/* since the loading of the card image from the official MtG API might take 
-		 * some seconds, it is separated to another thread.
+		 * some seconds, it is separated to a background loader. A loading spinner is displayed
+		 * until the image of the selected card arrives.
 		 */
-		Thread thread = new Thread(this);
-		thread.start();
+		lbl_img_card.setIcon(PropertiesFactory.getLoadingImageIcon());
+		IMAGE_LOADER.load(cardBean, this);
 		
 		if(cardBean.isFoil()){
 			lbl_img_foil.setIcon(PropertiesFactory.getFoilImageIcon(true));
@@ -328,16 +341,14 @@ public class CardBeanInfoPanel extends JPanel implements MouseListener, Runnable
 
 
 	/**
-	 * This method displays a loading spinner at the card image section until 
-	 * the corresponding card image has been loaded from the official API.
-	 * Afterwards the correct image will be shown.
+	 * This method displays the official card image, once it has been loaded in the background.
+	 * Images of cards, which are not selected anymore, are ignored.
 	 */
 	@Override
-	public void run() {
-		lbl_img_card.setIcon(PropertiesFactory.getLoadingImageIcon());
-		
-		lbl_img_card.setIcon(MtgApiClient.getCardImage(cardBean));
-		
+	public void imageLoaded(CardBean card, ImageIcon image) {
+		if(card == this.cardBean){
+			lbl_img_card.setIcon(image);
+		}
 	}
 
 }
@@ -1,17 +1,16 @@
 package org.sebastiandine.cardcollectionmanager.ui.tables.card;
 
 import java.io.IOException;
-import java.util.Vector;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableModel;
 
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
 import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
-import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
 
 /**
@@ -30,7 +29,7 @@ public class CardContainerTable extends JTable {
 	private static final String[] HEADER_COLUMN = {"ID","Name","Set","Language","Condition",
 													"Amount","Foil","Signed","Altered","Note"};
 	
-	private DefaultTableModel tableModel;
+	private CardContainerTableModel tableModel;
 	
 	private static CardContainerTable singletonInstance;
 	
@@ -59,7 +58,6 @@ public class CardContainerTable extends JTable {
 		
 		/* configure table model */
 		tableModel = new CardContainerTableModel(HEADER_COLUMN);
-		populateTable();
 		this.setModel(tableModel);
 		
 		/* configure column model */
@@ -67,7 +65,7 @@ public class CardContainerTable extends JTable {
 		
 		/* configure table */
 		this.setAutoCreateRowSorter(true); //default sorting mechanism
-		this.setSelectionMode(ListSelectionModel.SINGLE_SELECTION); // only single rows should be selectable
+		this.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION); // several rows can be selected for deletion
 		this.setVisible(true);
 	}
 	
@@ -122,92 +120,19 @@ public class CardContainerTable extends JTable {
 	}
 	
 	/**
-	 * This method populates this table with data from the internal list of container {@link CardBeanContainer}.
+	 * This method selects a row close to the row, which has been selected before a deletion. If the last row of the table
+	 * has been deleted, the selection will be set to the previous row. In all other cases the row,
+	 * which followed the deleted row, will be selected.
 	 * 
-	 * @throws IOException
+	 * @param deletedRow View index of the deleted row.
 	 */
-	private void populateTable() throws IOException{
-		
-		for(CardBean i : CardBeanContainer.getCardBeanListSortedByName()){
-			appendRowByCardBean(i);
-		}
-	}
-	
-	/**
-	 * This method updates the currently selected row by populating each of its columns again with 
-	 * the data of the corresponding {@link CardBean} object.
-	 */
-	public void updateSelectedRow(){
-		int selectedRow = this.convertRowIndexToView(this.getSelectedRow());
-		
-		if (selectedRow == -1){ /* in case of sorted table (-1), we need to get the actual selected row */
-			selectedRow = this.getSelectedRow(); 
-		}
-																	   
-		CardBean cardBean = CardBeanContainer.getCardBeanById((int) this.getValueAt(selectedRow, 0));
-		
-		this.setValueAt(cardBean.getName(), selectedRow, 1);
-		this.setValueAt(cardBean.getSet().getName(), selectedRow, 2);
-		this.setValueAt(cardBean.getLanguage(), selectedRow, 3);
-		this.setValueAt(cardBean.getCondition(), selectedRow, 4);
-		this.setValueAt(cardBean.getAmount(), selectedRow, 5);
-		
-		if(cardBean.isFoil()){
-			this.setValueAt(PropertiesFactory.getFoilImageIcon(true), selectedRow, 6);
-		}
-		else{
-			this.setValueAt(null, selectedRow, 6);
-		}
-		if(cardBean.isSigned()){
-			this.setValueAt(PropertiesFactory.getSignedImageIcon(true), selectedRow, 7);
-		}
-		else{
-			this.setValueAt(null, selectedRow, 7);
-		}
-		if(cardBean.isAltered()){
-			this.setValueAt(PropertiesFactory.getAlteredImageIcon(true), selectedRow, 8);
-		}
-		else{
-			this.setValueAt(null, selectedRow, 8);
-		}
-		
-		this.setValueAt(cardBean.getNote(), selectedRow, 9);
-	}
-	
-	/**
-	 * This method deletes the currently selected row and sets the selection to the next row.
-	 */
-	public void deleteSelectedRow(){
-
-		int selectedRow = this.convertRowIndexToModel(this.getSelectedRow());
-		int newSelectedRow = this.getSelectedRow();
+	public void selectRowAfterDeletion(int deletedRow){
+		int rowCount = this.getRowCount();
 		
-		/* if the last element of the table gets deleted, the selection will be set to the
-		 * previous element.
-		 * In all other cases the next row will be selected after the deletion.
-		 */
-		if(newSelectedRow == (this.getRowCount()-1)){
-			newSelectedRow--;
-		}
-
-		/* Since some listeners throw an IndexOutOfBoundsException when a row is deleted,
-		 * such an exption gets catched.
-		 */
-		try{
-			Logger.debug("Delete row "+selectedRow+" of table.");
-			this.tableModel.removeRow(selectedRow);
-		}
-		catch(IndexOutOfBoundsException e){}
-		finally{
-			/* fire notification in order to render the deletion */
-			if(this.getRowCount() > 0){
-				this.tableModel.fireTableRowsDeleted(0, this.getRowCount()-1);
-			}
-		}
-	
 		/* select a new row if there is at least one row left */
-		if(this.getRowCount() > 0){	
-			Logger.debug("Set row selection to row "+newSelectedRow+" of table.");
+		if(rowCount > 0){
+			int newSelectedRow = Math.max(0, Math.min(deletedRow, rowCount-1));
+			Logger.debug("Set row selection to row {} of table.", newSelectedRow);
 			this.setRowSelectionInterval(newSelectedRow, newSelectedRow);
 		}
 	}
@@ -219,67 +144,42 @@ public class CardContainerTable extends JTable {
 	public CardBean getSelectedCardBean(){
 		
 		if(this.getRowCount() > 0 && this.getSelectedRow() > -1){
-			int selectedRow = this.getSelectedRow();
-			return CardBeanContainer.getCardBeanById((int) this.getValueAt(selectedRow, 0));
+			int selectedRow = this.convertRowIndexToModel(this.getSelectedRow());
+			return tableModel.getCardBeanAt(selectedRow);
 		}
 
 		return CardBean.DUMMY;
 	}
 	
 	/**
-	 * This methods select the row of the table, which represents the given {@link CardBean} object.
-	 * It uses the attribute {@link CardBean#getId()} for checking matching entries.
-	 * 
-	 * @param cardBean {@link CardBean} which should be selected in the table.
+	 * This method returns the {@link CardBean} objects corresponding to all selected rows within the table.
+	 * @return Selected {@link CardBean} objects in the order of the table. Empty, if no row is selected.
 	 */
-	public void selectRowByCardBean(CardBean cardBean){
-		int rowCount = this.getRowCount();
-		
-		for(int i = 0; i < rowCount; i++){
-			if(cardBean.getId() == ((int)this.getValueAt(i, 0))){
-				this.setRowSelectionInterval(i, i);
-			}
+	public List<CardBean> getSelectedCardBeans(){
+		int[] selectedRows = this.getSelectedRows();
+		List<CardBean> cards = new ArrayList<CardBean>(selectedRows.length);
+		for(int selectedRow : selectedRows){
+			cards.add(tableModel.getCardBeanAt(this.convertRowIndexToModel(selectedRow)));
 		}
+		return cards;
 	}
 	
 	/**
-	 * This method appends the given {@link CardBean} object as a new row to the {@link TableModel} of this table.
+	 * This methods select the row of the table, which represents the given {@link CardBean} object.
+	 * It uses the attribute {@link CardBean#getId()} for checking matching entries.
 	 * 
-	 * @param cardBean {@link CardBean} object, which should be appended to the table.
+	 * @param cardBean {@link CardBean} which should be selected in the table.
 	 */
-	public void appendRowByCardBean(CardBean cardBean){
-		
-		Vector<Object> row = new Vector<Object>();
-		
-		row.add(0,cardBean.getId());
-		row.add(1,cardBean.getName());
-		row.add(2,cardBean.getSet().getName());
-		row.add(3,cardBean.getLanguage());
-		row.add(4,cardBean.getCondition());
-		row.add(5,cardBean.getAmount());
-		
-		
-		if(cardBean.isFoil()){
-			row.add(6, PropertiesFactory.getFoilImageIcon(true));
-		}
-		else{
-			row.add(6,null);
-		}
-		if(cardBean.isSigned()){
-			row.add(7, PropertiesFactory.getSignedImageIcon(true));
-		}
-		else{
-			row.add(7, null);
-		}
-		if(cardBean.isAltered()){
-			row.add(8, PropertiesFactory.getAlteredImageIcon(true));
-		}
-		else{
-			row.add(8, null);
+	public void selectRowByCardBean(CardBean cardBean){
+		int modelRow = CardBeanContainer.getSortedPositionOf(CardBeanContainer.getCardBeanById(cardBean.getId()));
+		if(modelRow < 0){
+			return;
 		}
-		row.add(9,cardBean.getNote());
 		
-		tableModel.addRow(row);
+		int viewRow = this.convertRowIndexToView(modelRow);
+		if(viewRow >= 0){										/* -1, if the row is hidden by a filter */
+			this.setRowSelectionInterval(viewRow, viewRow);
+		}
 	}
 	
 }
@@ -1,93 +1,245 @@
 package org.sebastiandine.cardcollectionmanager.ui.tables.card;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
 import javax.swing.JTextField;
 import javax.swing.RowFilter;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.table.TableRowSorter;
 
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainerListener;
 import org.sebastiandine.cardcollectionmanager.logging.Logger;
+import org.sebastiandine.cardcollectionmanager.services.CardBeanFilterEngine;
+import org.sebastiandine.cardcollectionmanager.services.CardQuery;
 
 /**
- * This class provides a @link {@link JTextField} which acts as a filter for a 
+ * This class provides a @link {@link JTextField} which acts as a filter for a
  * {@link CardContainerTable} object.
- * 
- * This class implements the singleton pattern. Use method {@link #getInstance()} to retrieve 
+ *
+ * The input is debounced: the filter runs {@link #DEBOUNCE_DELAY} milliseconds after the last keystroke.
+ * The input is compiled to a {@link CardQuery}, e.g. {@code set:LEA lang:German foil amount>2}. Plain text is matched
+ * by a {@link CardBeanFilterEngine}, structured queries are answered by the indexes of the container first and the
+ * remaining terms are scanned. Matching is done in the background on an immutable snapshot of the cards, which is only
+ * taken again after the container has changed. Afterwards the set of visible card IDs gets published to the table
+ * on the event dispatch thread.
+ *
+ * This class implements the singleton pattern. Use method {@link #getInstance()} to retrieve
  * an object of this class.
- * 
+ *
  * @author Sebastian Dine
  *
  */
 @SuppressWarnings("serial")
-public class CardContainerTableFilterField extends JTextField implements DocumentListener {
+public class CardContainerTableFilterField extends JTextField implements DocumentListener, CardBeanContainerListener {
+
+	private static final int DEBOUNCE_DELAY = 150;
 
 	private TableRowSorter<CardContainerTableModel> tableSorter;
-	
+
+	private final CardBeanFilterEngine filterEngine = new CardBeanFilterEngine();
+	private final Timer debounceTimer;
+	private SwingWorker<BitSet, Void> runningFilter;
+	private List<CardBean> cardSnapshot;							/* dropped on every change of the container */
+
 	private static CardContainerTableFilterField singletonInstance;
-	
+
 	/**
 	 * This method returns the singleton object of class @class {@link CardContainerTableFilterField}.
-	 * 
+	 *
 	 * @return Singleton instance of class.
 	 */
 	public static CardContainerTableFilterField getInstance(){
-		
+
 		if(singletonInstance == null){
 			singletonInstance = new CardContainerTableFilterField(CardContainerTable.getInstance());
 		}
-		
+
 		return singletonInstance;
-		
+
 	}
-	
-	
+
+
 	@SuppressWarnings("unchecked")
 	private CardContainerTableFilterField(CardContainerTable table) {
-		
+
+		debounceTimer = new Timer(DEBOUNCE_DELAY, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				runFilter();
+			}
+		});
+		debounceTimer.setRepeats(false);
+
 		if (table.getRowSorter() instanceof TableRowSorter){
 			tableSorter = (TableRowSorter<CardContainerTableModel>) table.getRowSorter();
 			this.getDocument().addDocumentListener(this);
+			CardBeanContainer.addCardBeanContainerListener(this);
 		}
 		else{
 			Logger.error("Cannot find appropiate rowSorter for table.");
 			tableSorter = null;
 		}
 	}
-	
+
 	@Override
 	public void insertUpdate(DocumentEvent e) {
 		update(e);
-		
+
 	}
 
 	@Override
 	public void removeUpdate(DocumentEvent e) {
 		update(e);
-		
+
 	}
 
 	@Override
 	public void changedUpdate(DocumentEvent e) {
 		update(e);
-		
+
 	}
-	
+
 	/**
-	 * This class provides the filter functionalilty and updates the table view 
-	 * accoriding of the entry in the textfield.
+	 * This method resets the filter immediately, if the textfield has been cleared. Otherwise it (re)starts the
+	 * timer, which runs the filter after the user stopped typing.
 	 * @param e
 	 */
 	private void update(DocumentEvent e){
-		String text = this.getText();
-		
-		if(text.trim().length() == 0){
+		if(this.getText().trim().length() == 0){
+			debounceTimer.stop();
+			cancelRunningFilter();
 			tableSorter.setRowFilter(null);
 		}
 		else{
-			tableSorter.setRowFilter(RowFilter.regexFilter("(?i)"+text));
+			debounceTimer.restart();
+		}
+	}
+
+	/**
+	 * This class provides the filter functionalilty. It matches all cards against the entry of the textfield
+	 * in the background and afterwards updates the table view according to the result.
+	 */
+	private void runFilter(){
+		final String query = this.getText();
+		if(query.trim().length() == 0){
+			return;
+		}
+
+		cancelRunningFilter();
+		final int version = filterEngine.getVersion();
+		if(cardSnapshot == null){
+			cardSnapshot = CardBeanContainer.getCardBeanSnapshot();
+		}
+		final List<CardBean> cards = cardSnapshot;
+		final CardQuery cardQuery = CardQuery.parseOrLiteral(query);
+		final BitSet candidateIds = cardQuery.isPlainText() ? null : cardQuery.selectIndexedIds();		/* indexes are only read by the EDT */
+
+		runningFilter = new SwingWorker<BitSet, Void>() {
+			@Override
+			protected BitSet doInBackground() throws Exception {
+				if(cardQuery.isPlainText()){
+					return filterEngine.filter(query, cards);
+				}
+				return cardQuery.filter(cards, candidateIds, filterEngine);
+			}
+
+			@Override
+			protected void done() {
+				if(isCancelled() || runningFilter != this){
+					return;
+				}
+				runningFilter = null;
+
+				if(version != filterEngine.getVersion() || !query.equals(getText())){
+					debounceTimer.restart();		/* outdated by a change in the meantime */
+					return;
+				}
+				try {
+					BitSet visibleIds = get();
+					if(visibleIds != null){
+						tableSorter.setRowFilter(new VisibleIdRowFilter(visibleIds));
+					}
+				} catch (InterruptedException | ExecutionException e) {
+					Logger.error("Failed to filter card table by '"+query+"'.");
+					Logger.error(e.getMessage());
+				}
+			}
+		};
+		runningFilter.execute();
+	}
+
+	/**
+	 * This method returns the compiled query of the current filter text, e.g. to export exactly the filtered cards.
+	 * An invalid query is matched literally.
+	 * 
+	 * @return Compiled query. It matches all cards, if the filter is empty.
+	 */
+	public CardQuery getQuery(){
+		return CardQuery.parseOrLiteral(this.getText());
+	}
+
+	private void cancelRunningFilter(){
+		if(runningFilter != null){
+			runningFilter.cancel(true);
+			runningFilter = null;
+		}
+	}
+
+	/**
+	 * Changed cards need to be matched again, so an active filter gets refreshed. An update might replace the object
+	 * of a card, so the snapshot is dropped for every change.
+	 */
+	@Override
+	public void cardBeanInserted(CardBean card, int position) {
+		filterEngine.cardChanged(card);
+		cardSnapshot = null;
+		refreshActiveFilter();
+	}
+
+	@Override
+	public void cardBeanUpdated(CardBean card, int oldPosition, int newPosition) {
+		filterEngine.cardChanged(card);
+		cardSnapshot = null;
+		refreshActiveFilter();
+	}
+
+	@Override
+	public void cardBeanDeleted(CardBean card, int position) {
+		filterEngine.cardDeleted(card.getId());
+		cardSnapshot = null;
+		refreshActiveFilter();
+	}
+
+	private void refreshActiveFilter(){
+		if(tableSorter.getRowFilter() != null || runningFilter != null){
+			debounceTimer.restart();
+		}
+	}
+
+	/**
+	 * {@link RowFilter}, which shows all rows of cards with an ID within a given {@link BitSet}.
+	 */
+	private static class VisibleIdRowFilter extends RowFilter<CardContainerTableModel, Integer> {
+
+		private final BitSet visibleIds;
+
+		private VisibleIdRowFilter(BitSet visibleIds){
+			this.visibleIds = visibleIds;
+		}
+
+		@Override
+		public boolean include(Entry<? extends CardContainerTableModel, ? extends Integer> entry) {
+			return visibleIds.get(entry.getModel().getCardBeanAt(entry.getIdentifier()).getId());
 		}
 	}
 
-	
-	
 }
@@ -1,29 +1,98 @@
 package org.sebastiandine.cardcollectionmanager.ui.tables.card;
 
+import java.util.List;
+
+import javax.swing.ImageIcon;
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.TableModel;
 
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainerListener;
+import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
+
 
 /**
- * This class provides a {@link TableModel}, which sets all cells of a {@link JTable} object to not editable.
- * 
+ * This class provides a {@link TableModel}, which reads its cells directly from the name-sorted view of
+ * {@link CardBeanContainer}. Row {@code i} of the model is element {@code i} of {@link CardBeanContainer#getCardBeansSortedByName()},
+ * so no row data gets copied. The model listens to the container and fires a row event for every single change.
+ * <br><br>
+ * All cells of a {@link JTable} object using this model are not editable.
+ *
  * @author Sebastian Dine
  *
  */
 @SuppressWarnings("serial")
-public class CardContainerTableModel extends DefaultTableModel {
-	
+public class CardContainerTableModel extends AbstractTableModel implements CardBeanContainerListener {
+
+	private final String[] headerLine;
+	private final List<CardBean> rows;
+
+	private final ImageIcon foilIcon;
+	private final ImageIcon signedIcon;
+	private final ImageIcon alteredIcon;
+
 	/**
 	 * Constructor, which creates a {@link CardContainerTableModel} object.
-	 * 
+	 *
 	 * @param headerLine Header column of table as an array of {@link String}.
 	 */
 	public CardContainerTableModel(String[] headerLine) {
-		super(headerLine, 0);
-		
+		this.headerLine = headerLine;
+		this.rows = CardBeanContainer.getCardBeansSortedByName();
+
+		this.foilIcon = PropertiesFactory.getFoilImageIcon(true);
+		this.signedIcon = PropertiesFactory.getSignedImageIcon(true);
+		this.alteredIcon = PropertiesFactory.getAlteredImageIcon(true);
+
+		CardBeanContainer.addCardBeanContainerListener(this);
 	}
-	
+
+	@Override
+	public int getRowCount() {
+		return rows.size();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return headerLine.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return headerLine[column];
+	}
+
+	/**
+	 * This method returns the {@link CardBean} object, which is displayed in the given row of the model.
+	 *
+	 * @param row Row index of the model.
+	 * @return {@link CardBean} object of the row.
+	 */
+	public CardBean getCardBeanAt(int row){
+		return rows.get(row);
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		CardBean cardBean = rows.get(row);
+
+		switch(column){
+		case 0: return cardBean.getId();
+		case 1: return cardBean.getName();
+		case 2: return cardBean.getSet().getName();
+		case 3: return cardBean.getLanguage();
+		case 4: return cardBean.getCondition();
+		case 5: return cardBean.getAmount();
+		case 6: return cardBean.isFoil() ? foilIcon : null;
+		case 7: return cardBean.isSigned() ? signedIcon : null;
+		case 8: return cardBean.isAltered() ? alteredIcon : null;
+		case 9: return cardBean.getNote();
+		default: return null;
+		}
+	}
+
 	/**
 	 * This method sets all cells to not editable.
 	 */
@@ -32,4 +101,29 @@ public class CardContainerTableModel extends DefaultTableModel {
 		return false;
 	}
 
+	@Override
+	public void cardBeanInserted(CardBean card, int position) {
+		fireTableRowsInserted(position, position);
+	}
+
+	/**
+	 * If the updated object kept its position, only its row gets repainted. Otherwise it is reported as moved
+	 * by a deletion and an insertion.
+	 */
+	@Override
+	public void cardBeanUpdated(CardBean card, int oldPosition, int newPosition) {
+		if(oldPosition == newPosition){
+			fireTableRowsUpdated(newPosition, newPosition);
+		}
+		else{
+			fireTableRowsDeleted(oldPosition, oldPosition);
+			fireTableRowsInserted(newPosition, newPosition);
+		}
+	}
+
+	@Override
+	public void cardBeanDeleted(CardBean card, int position) {
+		fireTableRowsDeleted(position, position);
+	}
+
 }
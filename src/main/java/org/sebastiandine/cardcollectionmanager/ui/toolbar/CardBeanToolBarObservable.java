@@ -107,6 +107,15 @@ public class CardBeanToolBarObservable  extends Observable implements ActionList
 		refreshUiElements();
 	}
 	
+	/**
+	 * Returns the internally referenced {@link CardBean} object, to which the toolbar offers its functionalities.
+	 * 
+	 * @return Currently referenced {@link CardBean} object.
+	 */
+	public CardBean getSelectedCard(){
+		return cardBean;
+	}
+	
 	/**
 	 * Return the internal {@link JToolBar} object which provides the toolbar functionality.
 	 * 
@@ -0,0 +1,86 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+/**
+ * Synthetic collections for the benchmarks. The data is deterministic, so the results of two runs are comparable.
+ */
+final class BenchmarkData {
+
+	static final int SET_COUNT = 300;
+
+	private BenchmarkData(){}
+
+	/**
+	 * @return {@link #SET_COUNT} sets with distinct codes and release dates.
+	 */
+	static SetBean[] createSets(){
+		SetBean[] sets = new SetBean[SET_COUNT];
+		for(int i = 0; i < sets.length; i++){
+			sets[i] = new SetBean();
+			sets[i].setCode("S"+i);
+			sets[i].setName("Set \"Number\" "+i);
+			sets[i].setReleaseDate(LocalDate.of(1993, 8, 5).plusDays(i * 30L));
+		}
+		return sets;
+	}
+
+	/**
+	 * This method creates cards, which share the given sets. Every card has all attributes maintained, every fifth card
+	 * has images.
+	 */
+	static List<CardBean> createCards(int count, SetBean[] sets){
+		LanguageEnum[] languages = LanguageEnum.values();
+		ConditionEnum[] conditions = ConditionEnum.values();
+		List<CardBean> cards = new ArrayList<CardBean>(count);
+		for(int i = 0; i < count; i++){
+			CardBean card = new CardBean();
+			card.setId(i + 1);
+			card.setName("Card "+Integer.toString(i * 7919 % count, 36)+" of \"Power\"");
+			card.setSet(sets[i % sets.length]);
+			card.setLanguage(languages[i % languages.length]);
+			card.setCondition(conditions[i % conditions.length]);
+			card.setAmount(i % 4 + 1);
+			card.setFoil(i % 2 == 0);
+			card.setSigned(i % 3 == 0);
+			card.setAltered(i % 5 == 0);
+			card.setNote("Note "+i);
+			if(i % 5 == 0){
+				card.setImageFront(new File("img/"+i+"_front.jpg"));
+				card.setImageBack(new File("img/"+i+"_back.jpg"));
+			}
+			cards.add(card);
+		}
+		return cards;
+	}
+
+	/**
+	 * This method gives every card its own copy of its set, as cards had before sets were shared.
+	 */
+	static void copySets(List<CardBean> cards){
+		for(CardBean card : cards){
+			SetBean set = new SetBean();
+			set.setCode(card.getSet().getCode());
+			set.setName(card.getSet().getName());
+			set.setReleaseDate(card.getSet().getReleaseDate());
+			card.setSet(set);
+		}
+	}
+
+	/**
+	 * @return The given cards as list of the type the containers store.
+	 */
+	static List<CardCollectionBean> asContainer(List<CardBean> cards){
+		return new ArrayList<CardCollectionBean>(cards);
+	}
+
+}
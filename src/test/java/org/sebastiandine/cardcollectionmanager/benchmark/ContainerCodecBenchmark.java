@@ -0,0 +1,84 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanBinaryCodec;
+
+/**
+ * Compares the encoding and decoding of a card container by {@link CardBeanBinaryCodec} with the Java serialization
+ * of the former file format. In the former format every card has its own set. The sizes of both encodings are printed
+ * by the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContainerCodecBenchmark {
+
+	@Param({"10000"})
+	public int cardCount;
+
+	private final CardBeanBinaryCodec codec = new CardBeanBinaryCodec();
+
+	private List<CardCollectionBean> sharedSetCards;
+	private List<CardCollectionBean> ownSetCards;
+	private byte[] binaryData;
+	private byte[] serializedData;
+
+	@Setup
+	public void setUp() throws IOException{
+		sharedSetCards = BenchmarkData.asContainer(BenchmarkData.createCards(cardCount, BenchmarkData.createSets()));
+		List<CardBean> cards = BenchmarkData.createCards(cardCount, BenchmarkData.createSets());
+		BenchmarkData.copySets(cards);
+		ownSetCards = BenchmarkData.asContainer(cards);
+		binaryData = binaryCodecWrite();
+		serializedData = javaSerializationWrite();
+		System.out.println("Binary codec: "+binaryData.length+" bytes, Java serialization: "+serializedData.length+" bytes");
+	}
+
+	@Benchmark
+	public byte[] binaryCodecWrite() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		codec.writeContainer(sharedSetCards, new DataOutputStream(bytes));
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] javaSerializationWrite() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)){
+			out.writeObject(ownSetCards);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public List<CardCollectionBean> binaryCodecRead() throws IOException{
+		return codec.readContainer(new DataInputStream(new ByteArrayInputStream(binaryData)));
+	}
+
+	@Benchmark
+	public Object javaSerializationRead() throws IOException, ClassNotFoundException{
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedData))){
+			return in.readObject();
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.logging.Logger;
+
+/**
+ * Compares debug messages with a disabled debug level, as the containers log them for every card: built by string
+ * concatenation before the call, as formerly, or passed as '{}' placeholders and arguments. Run it from the project
+ * directory with a level above DEBUG configured, and with {@code -prof gc} to see the allocations per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DisabledLoggingBenchmark {
+
+	private CardBean card;
+	private int id;
+
+	@Setup
+	public void setUp(){
+		if(Logger.isDebugEnabled()){
+			throw new IllegalStateException("The benchmark requires a disabled debug level.");
+		}
+		card = BenchmarkData.createCards(1, BenchmarkData.createSets()).get(0);
+		id = 4711;
+	}
+
+	@Benchmark
+	public void concatenation(){
+		Logger.debug("Bean deleted: "+card.toString()+".");
+		Logger.debug("No bean with id="+id+" found.");
+	}
+
+	@Benchmark
+	public void placeholders(){
+		Logger.debug("Bean deleted: {}.", card);
+		Logger.debug("No bean with id={} found.", id);
+	}
+
+}
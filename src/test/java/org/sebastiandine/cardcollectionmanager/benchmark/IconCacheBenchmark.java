@@ -0,0 +1,73 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.swing.GrayFilter;
+import javax.swing.ImageIcon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sebastiandine.cardcollectionmanager.factories.PropertiesFactory;
+
+/**
+ * Compares the icon lookup of {@link PropertiesFactory} with the former lookup, which read every icon from disk
+ * and grayed out disabled icons on each call. One operation requests the attribute icons of a card, as the
+ * info panel does for every selected card: foil, altered and signed disabled, the image icon enabled.
+ * Run it from the project directory, so the icon paths of the configuration resolve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IconCacheBenchmark {
+
+	private static final String CONFIG_URL = "./config/config.properties";
+
+	private Properties properties;
+
+	@Setup
+	public void setUp() throws IOException{
+		properties = new Properties();
+		try(FileInputStream in = new FileInputStream(CONFIG_URL)){
+			properties.load(in);
+		}
+		PropertiesFactory.warmUpIconCache();
+	}
+
+	@Benchmark
+	public void cachedIcons(Blackhole blackhole){
+		blackhole.consume(PropertiesFactory.getFoilImageIcon(false));
+		blackhole.consume(PropertiesFactory.getAlteredImageIcon(false));
+		blackhole.consume(PropertiesFactory.getSignedImageIcon(false));
+		blackhole.consume(PropertiesFactory.getUploadedImageIcon(true));
+	}
+
+	@Benchmark
+	public void uncachedIcons(Blackhole blackhole) throws IOException{
+		blackhole.consume(loadIcon("icon_foil", false));
+		blackhole.consume(loadIcon("icon_altered", false));
+		blackhole.consume(loadIcon("icon_signed", false));
+		blackhole.consume(loadIcon("icon_image", true));
+	}
+
+	/**
+	 * The former lookup of an icon.
+	 */
+	private ImageIcon loadIcon(String key, boolean enabled) throws IOException{
+		if (enabled) {
+			return new ImageIcon(properties.getProperty(key));
+		}
+		return new ImageIcon(GrayFilter.createDisabledImage(ImageIO.read(new File(properties.getProperty(key)))));
+	}
+
+}
@@ -0,0 +1,101 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.services.CardBeanJsonExportService;
+
+/**
+ * Compares the JSON export of {@link CardBeanJsonExportService} with the former export, which built every record
+ * with {@link String#format(String, Object...)} and {@link String#replaceAll(String, String)}. Both write to
+ * a {@link Writer}, which discards the output, so only the encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonExportBenchmark {
+
+	@Param({"10000"})
+	public int cardCount;
+
+	private List<CardBean> cards;
+
+	@Setup
+	public void setUp(){
+		cards = BenchmarkData.createCards(cardCount, BenchmarkData.createSets());
+	}
+
+	@Benchmark
+	public void streamingWriter() throws IOException{
+		CardBeanJsonExportService.exportCardBeansToJson(cards, Writer.nullWriter());
+	}
+
+	@Benchmark
+	public void formattedRecords() throws IOException{
+		exportFormatted(cards, Writer.nullWriter());
+	}
+
+	/**
+	 * The former export, only adapted to the current release date of the sets.
+	 */
+	private static void exportFormatted(List<CardBean> cards, Writer w) throws IOException{
+		SimpleDateFormat releaseDateFormat = new SimpleDateFormat("yyyy/MM/dd");
+		w.write("{");
+		for (int i = 0; i < cards.size(); i++) {
+			CardBean card = cards.get(i);
+			String images = "[";
+			if (card.getImageFront() != null){
+				images += String.format("\"%s\"", card.getImageFront().getName().replaceAll("\"", " "));
+				if (card.getImageBack() != null) {
+					images += ",";
+				}
+			}
+			if (card.getImageBack() != null){
+				images += String.format("\"%s\"", card.getImageBack().getName().replaceAll("\"", " "));
+			}
+			images += "]";
+
+			Date release = Date.from(card.getSet().getReleaseDate().atStartOfDay(ZoneId.systemDefault()).toInstant());
+			String obj = String.format(
+				"\"%d\":{\"id\":%d,\"amount\":%d,\"name\":\"%s\",\"set\":{\"id\":\"%s\",\"name\":\"%s\",\"releaseDate\":\"%s\"}," +
+				"\"setNo\":\"\",\"note\":\"%s\",\"images\":%s,\"language\":\"%s\",\"condition\":\"%s\",\"foil\":%b,\"signed\":%b,\"altered\":%b},",
+				card.getId(),
+				card.getId(),
+				card.getAmount(),
+				card.getName(),
+				card.getSet().getCode(),
+				card.getSet().getName().replaceAll("\"", ""),
+				releaseDateFormat.format(release),
+				card.getNote(),
+				images,
+				card.getLanguage().toString(),
+				card.getCondition().toString().replace("_", ""),
+				card.isFoil(),
+				card.isSigned(),
+				card.isAltered()
+			);
+
+			if (i == (cards.size() -1)){
+				obj = obj.substring(0, obj.length() -1);
+			}
+			w.write(obj);
+		}
+		w.write("}");
+		w.flush();
+	}
+
+}
@@ -0,0 +1,95 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanIndex;
+import org.sebastiandine.cardcollectionmanager.container.CardNameIndex;
+
+/**
+ * Compares the name suggestions of {@link CardNameIndex} for 100,000 names with a linear scan, which matches the
+ * prefix against every (already normalized) name and sorts the matches. {@code suggest} adds similar names by the
+ * trigram index, which the scan does not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NameSuggestionBenchmark {
+
+	private static final int NAME_COUNT = 100000;
+	private static final int LIMIT = 20;
+
+	@Param({"sha", "dra kor"})
+	public String query;
+
+	private CardNameIndex index;
+	private List<String> keys;
+
+	@Setup
+	public void setUp(){
+		Random random = new Random(4711);
+		List<String> names = new ArrayList<String>(NAME_COUNT);
+		keys = new ArrayList<String>(NAME_COUNT);
+		for(int i = 0; i < NAME_COUNT; i++){
+			String name = randomName(random);
+			names.add(name);
+			keys.add(CardBeanIndex.normalizeName(name));
+		}
+		index = new CardNameIndex();
+		index.addCatalogNames(names);
+	}
+
+	@Benchmark
+	public List<String> trieComplete(){
+		return index.complete(query, LIMIT);
+	}
+
+	@Benchmark
+	public List<String> suggest(){
+		return index.suggest(query, LIMIT);
+	}
+
+	@Benchmark
+	public List<String> linearScan(){
+		String prefix = CardBeanIndex.normalizeName(query);
+		List<String> matches = new ArrayList<String>();
+		for(String key : keys){
+			if(key.startsWith(prefix)){
+				matches.add(key);
+			}
+		}
+		Collections.sort(matches);
+		return matches.subList(0, Math.min(LIMIT, matches.size()));
+	}
+
+	/**
+	 * Names of one to three words, composed of syllables, as in CardNameIndexTest.
+	 */
+	private static String randomName(Random random){
+		String[] syllables = {"bla", "ck", "lo", "tus", "dra", "gon", "sha", "kor", "vo", "mir", "zi", "qu", "el", "tor", "an"};
+		StringBuilder name = new StringBuilder();
+		int words = 1 + random.nextInt(3);
+		for(int w = 0; w < words; w++){
+			if(w > 0){
+				name.append(' ');
+			}
+			int length = 1 + random.nextInt(3);
+			for(int s = 0; s < length; s++){
+				name.append(syllables[random.nextInt(syllables.length)]);
+			}
+		}
+		return name.toString();
+	}
+
+}
@@ -0,0 +1,100 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.services.MtgApiClient;
+
+import io.magicthegathering.javasdk.resource.MtgSet;
+
+/**
+ * Compares the creation of the set list from an API response by {@link MtgApiClient#createSetBeans(List)} with the
+ * former pipeline, which sorted the response by a comparator parsing both release dates on every comparison and parsed
+ * the dates again to create the {@link SetBean} objects. The request to the API is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SetIngestionBenchmark {
+
+	@Param({"1000"})
+	public int setCount;
+
+	private List<MtgSet> response;
+
+	/**
+	 * This method creates a response in the order of the API, which is by set code rather than by release date.
+	 * Every tenth set is online-only.
+	 */
+	@Setup
+	public void setUp(){
+		response = new ArrayList<MtgSet>(setCount);
+		for(int i = 0; i < setCount; i++){
+			MtgSet set = new MtgSet();
+			set.setCode("S"+Integer.toString(i * 7919 % setCount, 36));
+			set.setName("Set "+i);
+			set.setReleaseDate(LocalDate.of(1993, 8, 5).plusDays(i * 7919L % setCount * 12).toString());
+			set.setOnlineOnly(i % 10 == 0);
+			response.add(set);
+		}
+	}
+
+	@Benchmark
+	public List<SetBean> singlePass(){
+		return MtgApiClient.createSetBeans(response);
+	}
+
+	@Benchmark
+	public List<SetBean> comparatorSort(){
+		List<MtgSet> setList = new ArrayList<MtgSet>(response);
+
+		Iterator<MtgSet> iterator = setList.iterator();
+		while(iterator.hasNext()){
+			if(iterator.next().getOnlineOnly()){
+				iterator.remove();
+			}
+		}
+		Collections.sort(setList, new Comparator<MtgSet>() {
+
+			@Override
+			public int compare(MtgSet o1, MtgSet o2) {
+				SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd");
+				try {
+					Date date1 = formatter.parse(o1.getReleaseDate());
+					Date date2 = formatter.parse(o2.getReleaseDate());
+					return date1.compareTo(date2);
+				} catch (ParseException e) {
+					return 0;
+				}
+			}
+		});
+
+		List<SetBean> sets = new ArrayList<SetBean>(setList.size());
+		for(MtgSet i : setList){
+			SetBean bean = new SetBean();
+			bean.setName(i.getName());
+			bean.setCode(i.getCode());
+			bean.setReleaseDate(i.getReleaseDate() == null ? null : LocalDate.parse(i.getReleaseDate()));
+			sets.add(bean);
+		}
+		return sets;
+	}
+
+}
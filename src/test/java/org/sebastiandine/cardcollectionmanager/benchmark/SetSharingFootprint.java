@@ -0,0 +1,48 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+
+/**
+ * Measures the heap, which a collection of cards retains, once with one shared {@link org.sebastiandine.cardcollectionmanager.bean.SetBean}
+ * per set (as the card container keeps them) and once with an own copy of the set per card. Retained heap is no
+ * throughput figure, so this is a plain program instead of a JMH benchmark. The optional argument is the number of
+ * cards (default 100000).
+ *
+ * @author Sebastian Dine
+ *
+ */
+public class SetSharingFootprint {
+
+	private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+	/* static, so the cards stay reachable between the measurements */
+	private static List<CardBean> cards;
+
+	public static void main(String[] args){
+		int cardCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+
+		long baseline = usedHeap();
+		cards = BenchmarkData.createCards(cardCount, BenchmarkData.createSets());
+		long sharedBytes = usedHeap() - baseline;
+		BenchmarkData.copySets(cards);
+		long copiedBytes = usedHeap() - baseline;
+
+		System.out.println(cardCount+" cards with shared sets: "+sharedBytes / 1024+" KiB");
+		System.out.println(cardCount+" cards with own sets:    "+copiedBytes / 1024+" KiB");
+	}
+
+	/**
+	 * @return Used heap after garbage collection.
+	 */
+	private static long usedHeap(){
+		for(int i = 0; i < 3; i++){
+			System.gc();
+		}
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+}
@@ -0,0 +1,99 @@
+package org.sebastiandine.cardcollectionmanager.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.container.AbstractBeanContainer;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanBinaryCodec;
+
+/**
+ * Compares the startup load of a card file. The snapshot is read by the same method as the card container does, i.e.
+ * into a heap buffer, verified by its checksum and decoded by {@link CardBeanBinaryCodec}. The baseline streams a
+ * file of the former format through an {@link ObjectInputStream}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotLoadBenchmark {
+
+	@Param({"100000"})
+	public int cardCount;
+
+	private final CardBeanBinaryCodec codec = new CardBeanBinaryCodec();
+
+	private File directory;
+	private String snapshotUrl;
+	private String legacyUrl;
+
+	@Setup
+	public void setUp() throws IOException{
+		directory = Files.createTempDirectory("snapshot-benchmark").toFile();
+		snapshotUrl = new File(directory, "carddata").getPath();
+		legacyUrl = new File(directory, "carddata.legacy").getPath();
+
+		SnapshotFiles.write(BenchmarkData.asContainer(BenchmarkData.createCards(cardCount, BenchmarkData.createSets())),
+				snapshotUrl, codec);
+
+		List<CardBean> cards = BenchmarkData.createCards(cardCount, BenchmarkData.createSets());
+		BenchmarkData.copySets(cards);
+		try(ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(legacyUrl)))){
+			out.writeObject(BenchmarkData.asContainer(cards));
+		}
+	}
+
+	@TearDown
+	public void tearDown(){
+		for(File file : directory.listFiles()){
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	public List<CardCollectionBean> binarySnapshot() throws IOException, ClassNotFoundException{
+		return SnapshotFiles.read(snapshotUrl, codec);
+	}
+
+	@Benchmark
+	public Object javaSerialization() throws IOException, ClassNotFoundException{
+		try(ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(legacyUrl)))){
+			return in.readObject();
+		}
+	}
+
+	/**
+	 * Access to the snapshot methods of the containers.
+	 */
+	private static final class SnapshotFiles extends AbstractBeanContainer {
+
+		static void write(List<CardCollectionBean> container, String url, CardBeanBinaryCodec codec) throws IOException{
+			serializeContainer(container, url, codec);
+		}
+
+		static List<CardCollectionBean> read(String url, CardBeanBinaryCodec codec) throws IOException, ClassNotFoundException{
+			return deserializeContainer(url, codec);
+		}
+
+	}
+
+}
@@ -0,0 +1,122 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class AbstractBeanContainerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final CardBeanBinaryCodec codec = new CardBeanBinaryCodec();
+	private String url;
+
+	@Before
+	public void setUp(){
+		url = new File(folder.getRoot(), "carddata").getPath();
+	}
+
+	@Test
+	public void testGenerationsAreKept() throws IOException, ClassNotFoundException{
+		for(int count = 1; count <= AbstractBeanContainer.SNAPSHOT_GENERATIONS + 2; count++){
+			AbstractBeanContainer.serializeContainer(utilCreateCards(count), url, codec);
+		}
+
+		assertThat(new File(url + ".tmp").exists(), is(false));
+		assertThat(new File(AbstractBeanContainer.getGenerationUrl(url, AbstractBeanContainer.SNAPSHOT_GENERATIONS)).exists(), is(false));
+		for(int generation = 0; generation < AbstractBeanContainer.SNAPSHOT_GENERATIONS; generation++){
+			assertThat(new File(AbstractBeanContainer.getGenerationUrl(url, generation)).exists(), is(true));
+		}
+		assertThat(AbstractBeanContainer.deserializeContainer(url, codec), hasSize(AbstractBeanContainer.SNAPSHOT_GENERATIONS + 2));
+	}
+
+	@Test
+	public void testCorruptSnapshotFallsBackToPreviousGeneration() throws IOException, ClassNotFoundException{
+		AbstractBeanContainer.serializeContainer(utilCreateCards(5), url, codec);
+		AbstractBeanContainer.serializeContainer(utilCreateCards(6), url, codec);
+
+		/* flip a single byte within the data of the current snapshot */
+		try(RandomAccessFile file = new RandomAccessFile(url, "rw")){
+			file.seek(20);
+			int value = file.read();
+			file.seek(20);
+			file.write(value ^ 0xFF);
+		}
+
+		assertThat(AbstractBeanContainer.deserializeContainer(url, codec), hasSize(5));
+	}
+
+	@Test
+	public void testTruncatedSnapshotFallsBackToPreviousGeneration() throws IOException, ClassNotFoundException{
+		AbstractBeanContainer.serializeContainer(utilCreateCards(5), url, codec);
+		AbstractBeanContainer.serializeContainer(utilCreateCards(6), url, codec);
+
+		try(RandomAccessFile file = new RandomAccessFile(url, "rw")){
+			file.setLength(file.length() / 2);
+		}
+
+		assertThat(AbstractBeanContainer.deserializeContainer(url, codec), hasSize(5));
+	}
+
+	@Test
+	public void testSnapshotWithoutTrailerFallsBackToPreviousGeneration() throws IOException, ClassNotFoundException{
+		AbstractBeanContainer.serializeContainer(utilCreateCards(5), url, codec);
+		AbstractBeanContainer.serializeContainer(utilCreateCards(6), url, codec);
+
+		/* cut off exactly the trailer [int trailer magic][int crc32], so the remaining data is a complete container */
+		try(RandomAccessFile file = new RandomAccessFile(url, "rw")){
+			file.setLength(file.length() - 8);
+		}
+
+		assertThat(AbstractBeanContainer.deserializeContainer(url, codec), hasSize(5));
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void testMissingSnapshot() throws IOException, ClassNotFoundException{
+		AbstractBeanContainer.deserializeContainer(url, codec);
+	}
+
+	@Test
+	public void testAllGenerationsDamaged() throws IOException, ClassNotFoundException{
+		AbstractBeanContainer.serializeContainer(utilCreateCards(5), url, codec);
+		try(RandomAccessFile file = new RandomAccessFile(url, "rw")){
+			file.setLength(10);
+		}
+
+		try {
+			AbstractBeanContainer.deserializeContainer(url, codec);
+			fail("Damaged snapshot has been read.");
+		} catch (IOException e) {
+			assertThat(e, is(not(instanceOf(FileNotFoundException.class))));
+		}
+
+		AbstractBeanContainer.preserveDamagedContainer(url);
+		assertThat(new File(url + ".damaged").length(), is(equalTo(10L)));
+	}
+
+	private static List<CardCollectionBean> utilCreateCards(int count){
+		List<CardCollectionBean> cards = new ArrayList<CardCollectionBean>();
+		for(int id = 1; id <= count; id++){
+			CardBean card = new CardBean();
+			card.setId(id);
+			card.setName("Card "+id);
+			cards.add(card);
+		}
+		return cards;
+	}
+
+}
@@ -0,0 +1,141 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class BeanContainerJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String snapshotUrl;
+	private IndexedBeanList container;
+	private BeanContainerJournal.ReplayHandler handler;
+
+	@Before
+	public void setUp(){
+		snapshotUrl = new File(folder.getRoot(), "carddata").getPath();
+		container = new IndexedBeanList();
+		handler = new BeanContainerJournal.ReplayHandler() {
+			@Override
+			public void put(CardCollectionBean bean) {
+				AbstractBeanContainer.putBeanToContainer(container, bean);
+			}
+			@Override
+			public void delete(int id) {
+				AbstractBeanContainer.deleteBeanById(container, id);
+			}
+		};
+	}
+
+	@Test
+	public void testReplayPutAndDelete() throws IOException{
+		BeanContainerJournal journal = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		journal.appendPut(utilCreateCard(1, "Black Lotus"));
+		journal.appendPut(utilCreateCard(2, "Time Walk"));
+		journal.appendPut(utilCreateCard(1, "Mox Jet"));		//edit of card 1
+		journal.appendDelete(2);
+		journal.close();
+
+		new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec()).replay(handler);
+
+		assertThat(container, hasSize(1));
+		assertThat(((CardBean)container.get(0)).getName(), is(equalTo("Mox Jet")));
+	}
+
+	@Test
+	public void testReplayCutsOffTornRecord() throws IOException{
+		BeanContainerJournal journal = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		journal.appendPut(utilCreateCard(1, "Black Lotus"));
+		journal.appendPut(utilCreateCard(2, "Time Walk"));
+		journal.close();
+
+		File journalFile = new File(snapshotUrl + ".journal");
+		try(RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")){
+			raf.setLength(raf.length() - 3);
+		}
+
+		BeanContainerJournal reopened = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		reopened.replay(handler);
+		assertThat(container, hasSize(1));
+		assertThat(reopened.getRecordCount(), is(equalTo(1)));
+
+		/* records appended after the cut must be readable again */
+		reopened.appendDelete(1);
+		reopened.close();
+		container.clear();
+		new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec()).replay(handler);
+		assertThat(container, is(empty()));
+	}
+
+	@Test
+	public void testReplayBatchAtomically() throws IOException{
+		BeanContainerJournal journal = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		journal.appendPut(utilCreateCard(1, "Black Lotus"));
+
+		BeanContainerJournal.Batch batch = journal.newBatch();
+		batch.put(utilCreateCard(2, "Time Walk"));
+		batch.put(utilCreateCard(3, "Timetwister"));
+		batch.delete(1);
+		journal.appendBatch(batch);
+		assertThat(journal.getRecordCount(), is(equalTo(4)));
+		journal.close();
+
+		BeanContainerJournal reopened = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		reopened.replay(handler);
+		assertThat(container, hasSize(2));
+		assertThat(((CardBean)container.getById(2)).getName(), is(equalTo("Time Walk")));
+		assertThat(((CardBean)container.getById(3)).getName(), is(equalTo("Timetwister")));
+		assertThat(reopened.getRecordCount(), is(equalTo(4)));
+
+		/* a torn batch must not be replayed partially */
+		File journalFile = new File(snapshotUrl + ".journal");
+		try(RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")){
+			raf.setLength(raf.length() - 3);
+		}
+		container.clear();
+		new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec()).replay(handler);
+		assertThat(container, hasSize(1));
+		assertThat(((CardBean)container.get(0)).getName(), is(equalTo("Black Lotus")));
+	}
+
+	@Test
+	public void testRotateKeepsRecordsUntilCompactionFinished() throws IOException{
+		BeanContainerJournal journal = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		journal.appendPut(utilCreateCard(1, "Black Lotus"));
+		journal.rotate();
+		journal.appendPut(utilCreateCard(2, "Time Walk"));
+		journal.close();
+
+		/* a crash before the snapshot has been written must not lose records of the rotated journal */
+		BeanContainerJournal reopened = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		assertThat(reopened.hasUnfinishedCompaction(), is(true));
+		reopened.replay(handler);
+		assertThat(container, hasSize(2));
+
+		reopened.rotate();
+		reopened.finishCompaction();
+		container.clear();
+		new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec()).replay(handler);
+		assertThat(container, is(empty()));
+	}
+
+	private static CardBean utilCreateCard(int id, String name){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		return card;
+	}
+
+}
@@ -0,0 +1,133 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class BeanContainerWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private String snapshotUrl;
+	private IndexedBeanList container;
+	private BeanContainerJournal.ReplayHandler handler;
+
+	@Before
+	public void setUp(){
+		snapshotUrl = new File(folder.getRoot(), "carddata").getPath();
+		container = new IndexedBeanList();
+		handler = new BeanContainerJournal.ReplayHandler() {
+			@Override
+			public void put(CardCollectionBean bean) {
+				AbstractBeanContainer.putBeanToContainer(container, bean);
+			}
+			@Override
+			public void delete(int id) {
+				AbstractBeanContainer.deleteBeanById(container, id);
+			}
+		};
+	}
+
+	@Test
+	public void testBurstIsCoalescedIntoSingleSave() throws IOException{
+		BeanContainerWriter writer = new BeanContainerWriter(new CardBeanBinaryCodec(), 10000, "test-writer");
+		BeanContainerJournal journal = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+
+		for(int id = 1; id <= 50; id++){
+			writer.enqueueRecords(journal, journal.encodePut(utilCreateCard(id, "Card "+id)), 1);
+		}
+		writer.enqueueRecords(journal, journal.encodeDelete(50), 1);
+		assertThat(writer.getPendingCount(), is(equalTo(51)));
+		assertThat(writer.getOperationsSinceSnapshot(), is(equalTo(51)));
+
+		writer.flush();
+		journal.close();
+
+		assertThat(writer.getPendingCount(), is(equalTo(0)));
+		assertThat(writer.getSaveCount(), is(equalTo(1L)));
+		assertThat(writer.getWrittenOperationCount(), is(equalTo(51L)));
+
+		new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec()).replay(handler);
+		assertThat(container, hasSize(49));
+	}
+
+	@Test
+	public void testSnapshotReplacesEarlierRecords() throws IOException, ClassNotFoundException{
+		BeanContainerWriter writer = new BeanContainerWriter(new CardBeanBinaryCodec(), 10000, "test-writer");
+		BeanContainerJournal journal = new BeanContainerJournal(snapshotUrl, new CardBeanBinaryCodec());
+		CardBeanBinaryCodec codec = new CardBeanBinaryCodec();
+
+		List<CardCollectionBean> snapshot = new ArrayList<CardCollectionBean>();
+		snapshot.add(utilCreateCard(1, "Black Lotus"));
+		snapshot.add(utilCreateCard(2, "Time Walk"));
+
+		writer.enqueueRecords(journal, journal.encodePut(utilCreateCard(1, "Black Lotus")), 1);
+		writer.enqueueSnapshot(journal, snapshot);
+		writer.enqueueRecords(journal, journal.encodeDelete(2), 1);
+		assertThat(writer.getOperationsSinceSnapshot(), is(equalTo(1)));
+
+		writer.flush();
+		journal.close();
+
+		assertThat(writer.getSnapshotCount(), is(equalTo(1L)));
+		assertThat(writer.getSaveCount(), is(equalTo(2L)));
+
+		/* the snapshot holds both cards, the fresh journal only the later deletion */
+		container.addAll(AbstractBeanContainer.deserializeContainer(snapshotUrl, codec));
+		assertThat(container, hasSize(2));
+		BeanContainerJournal reopened = new BeanContainerJournal(snapshotUrl, codec);
+		reopened.replay(handler);
+		assertThat(reopened.getRecordCount(), is(equalTo(1)));
+		assertThat(container, hasSize(1));
+		assertThat(((CardBean)container.get(0)).getName(), is(equalTo("Black Lotus")));
+	}
+
+	@Test
+	public void testFailedAppendIsReportedByFlush() throws IOException, ClassNotFoundException{
+		File directory = new File(folder.getRoot(), "missing");
+		String url = new File(directory, "carddata").getPath();
+		BeanContainerWriter writer = new BeanContainerWriter(new CardBeanBinaryCodec(), 10000, "test-writer");
+		BeanContainerJournal journal = new BeanContainerJournal(url, new CardBeanBinaryCodec());
+
+		/* the journal cannot be created in a missing directory */
+		writer.enqueueRecords(journal, journal.encodePut(utilCreateCard(1, "Black Lotus")), 1);
+		assertThat(writer.flush(), is(false));
+		assertThat(writer.isSnapshotRequired(), is(true));
+		assertThat(writer.getSaveCount(), is(equalTo(0L)));
+
+		assertTrue(directory.mkdir());
+		List<CardCollectionBean> snapshot = new ArrayList<CardCollectionBean>();
+		CardBean card = utilCreateCard(1, "Black Lotus");
+		snapshot.add(card);
+		writer.enqueueSnapshot(journal, snapshot);
+		card.setName("Edited after the snapshot");
+
+		assertThat(writer.flush(), is(true));
+		assertThat(writer.isSnapshotRequired(), is(false));
+		journal.close();
+
+		container.addAll(AbstractBeanContainer.deserializeContainer(url, new CardBeanBinaryCodec()));
+		assertThat(container, hasSize(1));
+		assertThat(((CardBean)container.get(0)).getName(), is(equalTo("Black Lotus")));
+	}
+
+	private static CardBean utilCreateCard(int id, String name){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		return card;
+	}
+
+}
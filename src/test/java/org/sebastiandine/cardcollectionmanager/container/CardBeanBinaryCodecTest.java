@@ -0,0 +1,248 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardBeanBinaryCodecTest {
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private final CardBeanBinaryCodec codec = new CardBeanBinaryCodec();
+	
+	@Test
+	public void testRoundTrip() throws IOException{
+		List<CardCollectionBean> cards = utilCreateCards(100);
+		CardBean noSet = new CardBean();
+		noSet.setId(101);
+		noSet.setName("Black Lotus");
+		cards.add(noSet);
+		
+		List<CardCollectionBean> read = codec.readContainer(utilAsInput(utilWrite(cards)));
+		
+		assertThat(read, hasSize(cards.size()));
+		for(int i = 0; i < cards.size(); i++){
+			CardBean expected = (CardBean) cards.get(i);
+			CardBean actual = (CardBean) read.get(i);
+			assertThat(actual.getId(), is(equalTo(expected.getId())));
+			assertThat(actual.getName(), is(equalTo(expected.getName())));
+			assertThat(actual.getLanguage(), is(equalTo(expected.getLanguage())));
+			assertThat(actual.getCondition(), is(equalTo(expected.getCondition())));
+			assertThat(actual.getAmount(), is(equalTo(expected.getAmount())));
+			assertThat(actual.isFoil(), is(equalTo(expected.isFoil())));
+			assertThat(actual.isSigned(), is(equalTo(expected.isSigned())));
+			assertThat(actual.isAltered(), is(equalTo(expected.isAltered())));
+			assertThat(actual.getNote(), is(equalTo(expected.getNote())));
+			if(expected.getSet() == null){
+				assertThat(actual.getSet(), is(nullValue()));
+			}
+			else{
+				assertThat(actual.getSet().getCode(), is(equalTo(expected.getSet().getCode())));
+				assertThat(actual.getSet().getReleaseEpochDay(), is(equalTo(expected.getSet().getReleaseEpochDay())));
+			}
+		}
+		
+		/* cards of the same set share one instance from the set dictionary */
+		assertThat(((CardBean)read.get(0)).getSet(), is(sameInstance(((CardBean)read.get(3)).getSet())));
+	}
+	
+	@Test
+	public void testBinaryFormatIsSmallerThanJavaSerialization() throws IOException{
+		List<CardCollectionBean> cards = utilCreateCards(5000);
+		
+		ByteArrayOutputStream legacy = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(legacy)){
+			out.writeObject(cards);
+		}
+		
+		assertThat(utilWrite(cards).length, is(lessThan(legacy.size())));
+	}
+	
+	@Test
+	public void testMigrateLegacyFile() throws IOException, ClassNotFoundException{
+		List<CardCollectionBean> cards = utilCreateCards(10);
+		File file = new File(folder.getRoot(), "carddata");
+		try(ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))){
+			out.writeObject(cards);
+		}
+		
+		List<CardCollectionBean> migrated = AbstractBeanContainer.deserializeContainer(file.getPath(), codec);
+		assertThat(migrated, hasSize(10));
+		assertThat(new File(folder.getRoot(), "carddata.legacy").exists(), is(true));
+		
+		/* second load reads the binary format */
+		List<CardCollectionBean> reloaded = AbstractBeanContainer.deserializeContainer(file.getPath(), codec);
+		assertThat(((CardBean)reloaded.get(9)).getName(), is(equalTo("Card 9")));
+	}
+	
+	@Test
+	public void testReadVersion1() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(codec.getMagic());
+		out.writeShort(1);
+		out.writeInt(0);											/* no sets */
+		out.writeInt(1);
+		out.writeInt(42);
+		BeanBinaryCodec.writeString("Black Lotus", out);
+		out.writeInt(-1);
+		out.writeByte(-1);
+		out.writeByte(-1);
+		out.writeInt(1);
+		out.writeByte(1);
+		BeanBinaryCodec.writeString("Note", out);
+		BeanBinaryCodec.writeString(null, out);
+		BeanBinaryCodec.writeString(null, out);
+		
+		List<CardCollectionBean> streamed = codec.readContainer(utilAsInput(bytes.toByteArray()));
+		List<CardCollectionBean> buffered = codec.readContainer(ByteBuffer.wrap(bytes.toByteArray()));
+		for(List<CardCollectionBean> read : Arrays.asList(streamed, buffered)){
+			CardBean card = (CardBean) read.get(0);
+			assertThat(card.getId(), is(equalTo(42)));
+			assertThat(card.getName(), is(equalTo("Black Lotus")));
+			assertThat(card.isFoil(), is(true));
+			assertThat(card.getNote(), is(equalTo("Note")));
+		}
+	}
+	
+	@Test
+	public void testReadJournalBean() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(7);
+		BeanBinaryCodec.writeString("Black Lotus", out);
+		out.writeByte(1);											/* inline set */
+		BeanBinaryCodec.writeString("LEA", out);
+		BeanBinaryCodec.writeString("Limited Edition Alpha", out);
+		out.writeLong(LocalDate.of(1993, 8, 5).toEpochDay());
+		out.writeByte(-1);
+		out.writeByte(-1);
+		out.writeInt(1);
+		out.writeByte(0);
+		BeanBinaryCodec.writeString(null, out);
+		BeanBinaryCodec.writeString(null, out);
+		BeanBinaryCodec.writeString(null, out);
+		
+		CardBean card = (CardBean) codec.readBean(utilAsInput(bytes.toByteArray()));
+		assertThat(card.getSet().getCode(), is(equalTo("LEA")));
+		assertThat(card.getSet().getReleaseDate(), is(equalTo(LocalDate.of(1993, 8, 5))));
+	}
+	
+	@Test
+	public void testSetWithoutRelease() throws IOException{
+		List<CardCollectionBean> cards = utilCreateCards(1);
+		((CardBean) cards.get(0)).getSet().setReleaseDate(null);
+		
+		CardBean card = (CardBean) codec.readContainer(utilAsInput(utilWrite(cards))).get(0);
+		assertThat(card.getSet().hasRelease(), is(false));
+		assertThat(card.getSet().getReleaseText(), is(equalTo("")));
+	}
+	
+	@Test
+	public void testStreamAndBufferReadIdentical() throws IOException{
+		List<CardCollectionBean> cards = utilCreateCards(50);
+		byte[] data = utilWrite(cards);
+		
+		List<CardCollectionBean> streamed = codec.readContainer(utilAsInput(data));
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		List<CardCollectionBean> buffered = codec.readContainer(buffer);
+		
+		assertThat(buffer.hasRemaining(), is(false));
+		assertThat(buffered, hasSize(streamed.size()));
+		for(int i = 0; i < streamed.size(); i++){
+			CardBean expected = (CardBean) streamed.get(i);
+			CardBean actual = (CardBean) buffered.get(i);
+			assertThat(actual.getId(), is(equalTo(expected.getId())));
+			assertThat(actual.getName(), is(equalTo(expected.getName())));
+			assertThat(actual.getSet().getCode(), is(equalTo(expected.getSet().getCode())));
+			assertThat(actual.getNote(), is(equalTo(expected.getNote())));
+			assertThat(actual.isAltered(), is(equalTo(expected.isAltered())));
+		}
+	}
+	
+	@Test
+	public void testDamagedBufferIsRejected() throws IOException{
+		byte[] data = utilWrite(utilCreateCards(10));
+		
+		/* damage the name length of the last record, which is followed by name, set index, language, condition,
+		 * amount, flags, note and two missing images */
+		int recordLength = "Card 9".length() + 4 + 1 + 1 + 4 + 1 + 4 + "Note 9".length() + 4 + 4;
+		byte[] damaged = data.clone();
+		damaged[damaged.length - 1 - recordLength] ^= 0x7F;
+		try {
+			codec.readContainer(ByteBuffer.wrap(damaged));
+			fail("Damaged record has been read.");
+		} catch (IOException e) {
+			assertThat(e.getMessage(), containsString("Invalid string length"));
+		}
+		
+		/* truncated data */
+		try {
+			codec.readContainer(ByteBuffer.wrap(Arrays.copyOf(data, data.length - 1)));
+			fail("Truncated data has been read.");
+		} catch (IOException e) {
+			assertThat(e.getMessage(), containsString("Unexpected end"));
+		}
+	}
+	
+	private byte[] utilWrite(List<CardCollectionBean> cards) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		codec.writeContainer(cards, new DataOutputStream(bytes));
+		return bytes.toByteArray();
+	}
+	
+	private static DataInputStream utilAsInput(byte[] bytes){
+		return new DataInputStream(new ByteArrayInputStream(bytes));
+	}
+	
+	private static List<CardCollectionBean> utilCreateCards(int count){
+		SetBean[] sets = new SetBean[3];
+		for(int i = 0; i < sets.length; i++){
+			sets[i] = new SetBean();
+			sets[i].setCode("S"+i);
+			sets[i].setName("Set "+i);
+			sets[i].setReleaseDate(LocalDate.of(1993 + i, 8, 5));
+		}
+		
+		List<CardCollectionBean> cards = new ArrayList<CardCollectionBean>();
+		for(int i = 0; i < count; i++){
+			CardBean card = new CardBean();
+			card.setId(i + 1);
+			card.setName("Card "+i);
+			card.setSet(sets[i % sets.length]);
+			card.setLanguage(LanguageEnum.values()[i % LanguageEnum.values().length]);
+			card.setCondition(ConditionEnum.values()[i % ConditionEnum.values().length]);
+			card.setAmount(i % 4 + 1);
+			card.setFoil(i % 2 == 0);
+			card.setSigned(i % 3 == 0);
+			card.setAltered(i % 5 == 0);
+			card.setNote(i % 7 == 0 ? null : "Note "+i);
+			cards.add(card);
+		}
+		return cards;
+	}
+
+}
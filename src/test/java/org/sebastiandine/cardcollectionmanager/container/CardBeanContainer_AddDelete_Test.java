@@ -15,6 +15,8 @@ import org.junit.experimental.theories.Theories;
 import org.junit.experimental.theories.Theory;
 import org.junit.runner.RunWith;
 import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
 
 import static org.junit.Assert.*;
 import static org.hamcrest.Matchers.*;
@@ -96,6 +98,92 @@ public class CardBeanContainer_AddDelete_Test {
 	}
 	
 	
+	@Test
+	public void testBatch_addUpdateDelete(){
+		CardBean lotus = new CardBean();
+		lotus.setName("Black Lotus");
+		CardBean walk = new CardBean();
+		walk.setName("Time Walk");
+		CardBeanContainer.beginBatch().addCardBean(lotus).addCardBean(walk).commit();
+		assertThat(CardBeanContainer.getCardBeanList(), is(arrayWithSize(2)));
+		
+		CardBean twister = new CardBean();
+		twister.setName("Timetwister");
+		walk.setName("Ancestral Recall");
+		CardBeanContainer.Batch batch = CardBeanContainer.beginBatch();
+		batch.addCardBean(twister).updateCardBean(walk).deleteCardBeanById(lotus.getId());
+		assertThat(batch.size(), is(equalTo(3)));
+		assertThat(CardBeanContainer.getCardBeanList(), is(arrayWithSize(2)));	//nothing changes before the commit
+		batch.commit();
+		
+		assertThat(CardBeanContainer.getCardBeanList(), is(arrayWithSize(2)));
+		assertThat(CardBeanContainer.containsCardBeanId(lotus.getId()), is(false));
+		assertThat(CardBeanContainer.getCardBeansSortedByName().get(0).getName(), is(equalTo("Ancestral Recall")));
+		assertThat(CardBeanContainer.getCardBeansSortedByName().get(1), is(sameInstance(twister)));
+	}
+	
+	@Test
+	public void testAddCardBean_setsAreShared(){
+		CardBean lotus = new CardBean();
+		lotus.setName("Black Lotus");
+		lotus.setSet(utilCreateSet("ZZ1"));
+		CardBean recall = new CardBean();
+		recall.setName("Ancestral Recall");
+		recall.setSet(utilCreateSet("zz1"));
+		CardBeanContainer.addCardBean(lotus);
+		CardBeanContainer.addCardBean(recall);
+		
+		SetBean set = CardBeanContainer.getCardBeanById(lotus.getId()).getSet();
+		assertThat(CardBeanContainer.getCardBeanById(recall.getId()).getSet(), is(sameInstance(set)));
+		assertThat(SetBeanContainer.getSetBeanByCode("ZZ1"), is(sameInstance(set)));
+		
+		/* an edited copy of the set is replaced by the canonical instance as well */
+		recall.setSet(utilCreateSet("ZZ1"));
+		CardBeanContainer.updateCardBean(recall);
+		assertThat(CardBeanContainer.getCardBeanById(recall.getId()).getSet(), is(sameInstance(set)));
+	}
+	
+	@Test
+	public void testQuery_indexesFollowChanges(){
+		CardBean lotus = new CardBean();
+		lotus.setName("Black Lotus");
+		lotus.setSet(utilCreateSet("ZZ2"));
+		lotus.setLanguage(LanguageEnum.German);
+		CardBean walk = new CardBean();
+		walk.setName("Time Walk");
+		walk.setSet(utilCreateSet("ZZ2"));
+		walk.setLanguage(LanguageEnum.German);
+		CardBeanContainer.beginBatch().addCardBean(lotus).addCardBean(walk).commit();
+		assertThat(CardBeanContainer.query().setCode("zz2").language(LanguageEnum.German).count(), is(equalTo(2)));
+		
+		walk.setLanguage(LanguageEnum.English);
+		CardBeanContainer.updateCardBean(walk);
+		assertThat(CardBeanContainer.query().setCode("zz2").language(LanguageEnum.German).list(), contains(sameInstance(lotus)));
+		
+		CardBeanContainer.deleteCardBeanById(lotus.getId());
+		assertThat(CardBeanContainer.query().setCode("zz2").count(), is(equalTo(1)));
+		assertThat(CardBeanContainer.query().name("black lotus").count(), is(equalTo(0)));
+	}
+	
+	@Test
+	public void testNameIndex_followsChanges(){
+		CardBean walk = new CardBean();
+		walk.setName("Zz Time Walk");
+		CardBean secondWalk = new CardBean();
+		secondWalk.setName("Zz Time Walk");
+		CardBeanContainer.beginBatch().addCardBean(walk).addCardBean(secondWalk).commit();
+		assertThat(CardBeanContainer.getNameIndex().complete("zz time", 10), contains("Zz Time Walk"));
+		
+		/* renamed in place, the old name is still used by the second card */
+		walk.setName("Zz Timetwister");
+		CardBeanContainer.updateCardBean(walk);
+		assertThat(CardBeanContainer.getNameIndex().complete("zz time", 10), contains("Zz Time Walk", "Zz Timetwister"));
+		
+		CardBeanContainer.deleteCardBeanById(secondWalk.getId());
+		assertThat(CardBeanContainer.getNameIndex().complete("zz time", 10), contains("Zz Timetwister"));
+		assertThat(CardBeanContainer.getNameIndex().suggest("Zz Timetwistr", 10), contains("Zz Timetwister"));
+	}
+	
 	@Theory
 	public void testAddCardBean_multipleEntries(String[] cardNames){
 		//pump data
@@ -139,6 +227,13 @@ public class CardBeanContainer_AddDelete_Test {
 		}
 	}
 	
+	private static SetBean utilCreateSet(String code){
+		SetBean set = new SetBean();
+		set.setCode(code);
+		set.setName("Test Set "+code);
+		return set;
+	}
+	
 	private static void utilAddCardToContainer(String cardname){
 		String cardName = cardname;
 		CardBean card = new CardBean();
@@ -0,0 +1,135 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardBeanIndexTest {
+
+	private CardBeanIndex index;
+	private SetBean alpha;
+	private SetBean beta;
+
+	@Before
+	public void setUp(){
+		index = new CardBeanIndex();
+		alpha = utilCreateSet("LEA");
+		beta = utilCreateSet("LEB");
+
+		List<CardCollectionBean> cards = new ArrayList<CardCollectionBean>();
+		cards.add(utilCreateCard(1, "Black Lotus", alpha, LanguageEnum.English, ConditionEnum.Near_Mint, false));
+		cards.add(utilCreateCard(2, "Black Lotus", beta, LanguageEnum.German, ConditionEnum.Near_Mint, true));
+		cards.add(utilCreateCard(3, "Time Walk", alpha, LanguageEnum.German, ConditionEnum.Near_Mint, true));
+		cards.add(utilCreateCard(4, "Timetwister", alpha, LanguageEnum.German, ConditionEnum.Played, true));
+		cards.add(utilCreateCard(5, "Mox Jet", null, null, null, false));
+		index.rebuild(cards);
+	}
+
+	@Test
+	public void testQueryIntersectsIndexes(){
+		assertThat(new CardBeanQuery(index).count(), is(equalTo(5)));
+		assertThat(new CardBeanQuery(index).setCode("lea").count(), is(equalTo(3)));
+		assertThat(new CardBeanQuery(index).name("  BLACK   lotus ").count(), is(equalTo(2)));
+
+		List<CardBean> germanNearMintFoils = new CardBeanQuery(index)
+				.language(LanguageEnum.German).condition(ConditionEnum.Near_Mint).foil(true).list();
+		assertThat(germanNearMintFoils, contains(hasProperty("id", equalTo(2)), hasProperty("id", equalTo(3))));
+
+		assertThat(new CardBeanQuery(index).set(alpha).foil(false).list(), contains(hasProperty("id", equalTo(1))));
+		assertThat(new CardBeanQuery(index).setCode("XXX").count(), is(equalTo(0)));
+		assertThat(new CardBeanQuery(index).setCode("LEA").sumAmount(), is(equalTo(6)));
+	}
+
+	@Test
+	public void testNormalizeName(){
+		assertThat(CardBeanIndex.normalizeName(" J\u00f6tun  Grunt "), is(equalTo("jotun grunt")));
+		assertThat(CardBeanIndex.normalizeName(null), is(equalTo("")));
+	}
+
+	@Test
+	public void testCardEditedInPlace(){
+		CardBean walk = new CardBeanQuery(index).name("Time Walk").list().get(0);
+
+		/* the card is changed before the index gets updated, so the old keys must be taken from the index */
+		walk.setSet(beta);
+		walk.setLanguage(LanguageEnum.English);
+		walk.setFoil(false);
+		index.add(walk);
+
+		assertThat(index.size(), is(equalTo(5)));
+		assertThat(new CardBeanQuery(index).setCode("LEA").count(), is(equalTo(2)));
+		assertThat(new CardBeanQuery(index).setCode("LEB").count(), is(equalTo(2)));
+		assertThat(new CardBeanQuery(index).language(LanguageEnum.German).count(), is(equalTo(2)));
+		assertThat(new CardBeanQuery(index).foil(true).count(), is(equalTo(2)));
+	}
+
+	@Test
+	public void testRemoveAndReuseSlot(){
+		assertThat(index.remove(1), is(true));
+		assertThat(index.remove(1), is(false));
+		assertThat(new CardBeanQuery(index).name("Black Lotus").list(), contains(hasProperty("id", equalTo(2))));
+
+		index.add(utilCreateCard(6, "Ancestral Recall", alpha, LanguageEnum.English, ConditionEnum.Mint, false));
+		assertThat(index.size(), is(equalTo(5)));
+		assertThat(new CardBeanQuery(index).setCode("LEA").list(), contains(hasProperty("id", equalTo(6)),
+				hasProperty("id", equalTo(3)), hasProperty("id", equalTo(4))));
+		assertThat(new CardBeanQuery(index).language(LanguageEnum.English).count(), is(equalTo(1)));
+	}
+
+	@Test
+	public void testRandomAddAndRemoveMatchesReference(){
+		CardBeanIndex largeIndex = new CardBeanIndex();
+		Map<Integer, String> reference = new HashMap<Integer, String>();
+		Random random = new Random(42);
+
+		for(int i = 0; i < 20000; i++){
+			int id = random.nextInt(500) + 1;
+			if(random.nextBoolean()){
+				String name = "Card "+random.nextInt(50);
+				largeIndex.add(utilCreateCard(id, name, alpha, LanguageEnum.English, ConditionEnum.Mint, false));
+				reference.put(id, CardBeanIndex.normalizeName(name));
+			}
+			else{
+				assertThat(largeIndex.remove(id), is(equalTo(reference.remove(id) != null)));
+			}
+		}
+
+		assertThat(largeIndex.size(), is(equalTo(reference.size())));
+		for(int id = 1; id <= 500; id++){
+			assertThat(largeIndex.getNameKey(id), is(equalTo(reference.get(id))));
+		}
+	}
+
+	private static CardBean utilCreateCard(int id, String name, SetBean set, LanguageEnum language, ConditionEnum condition, boolean foil){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		card.setSet(set);
+		card.setLanguage(language);
+		card.setCondition(condition);
+		card.setFoil(foil);
+		card.setAmount(2);
+		return card;
+	}
+
+	private static SetBean utilCreateSet(String code){
+		SetBean set = new SetBean();
+		set.setCode(code);
+		set.setName("Set "+code);
+		return set;
+	}
+
+}
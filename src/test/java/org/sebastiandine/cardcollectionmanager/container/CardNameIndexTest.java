@@ -0,0 +1,145 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardNameIndexTest {
+
+	private CardNameIndex index;
+
+	@Before
+	public void setUp(){
+		index = new CardNameIndex();
+		index.addCardName("Black Lotus");
+		index.addCardName("Black Knight");
+		index.addCardName("Blacker Lotus");
+		index.addCardName("Black");
+		index.addCardName("Time Walk");
+		index.addCardName("Timetwister");
+		index.addCardName("J\u00f6tun Grunt");
+	}
+
+	@Test
+	public void testComplete(){
+		assertThat(index.complete("black", 10), contains("Black", "Black Knight", "Black Lotus", "Blacker Lotus"));
+		assertThat(index.complete("BLACK L", 10), contains("Black Lotus"));
+		assertThat(index.complete("bla", 2), contains("Black", "Black Knight"));
+		assertThat(index.complete("time", 10), contains("Time Walk", "Timetwister"));
+		assertThat(index.complete("jotun", 10), contains("J\u00f6tun Grunt"));
+		assertThat(index.complete("blue", 10), is(empty()));
+		assertThat(index.complete("black lotus extra", 10), is(empty()));
+		assertThat(index.complete("", 100), hasSize(7));
+	}
+
+	@Test
+	public void testFindSimilar(){
+		assertThat(index.findSimilar("Blak Lotus", 10).get(0), is(equalTo("Black Lotus")));
+		assertThat(index.findSimilar("Timetwistr", 10).get(0), is(equalTo("Timetwister")));
+		assertThat(index.findSimilar("Shivan Dragon", 10), is(empty()));
+
+		/* completions come first, similar names fill the remaining hints */
+		List<String> suggestions = index.suggest("Black Lotos", 10);
+		assertThat(suggestions.get(0), is(equalTo("Black Lotus")));
+		assertThat(suggestions, not(hasItem("Time Walk")));
+		assertThat(index.suggest("Black", 10), hasItems("Black", "Black Knight", "Black Lotus", "Blacker Lotus"));
+	}
+
+	@Test
+	public void testRemoveKeepsTrieCompressed(){
+		/* the name stays, as long as a card uses it */
+		index.addCardName("black lotus");
+		index.removeCardName("Black Lotus");
+		assertThat(index.complete("black lotus", 10), contains("Black Lotus"));
+
+		index.removeCardName("Black Lotus");
+		index.removeCardName("Black");
+		assertThat(index.complete("black", 10), contains("Black Knight", "Blacker Lotus"));
+		assertThat(index.findSimilar("Black Lotus", 10), not(hasItem("Black Lotus")));
+		assertThat(index.size(), is(equalTo(5)));
+
+		index.removeCardName("Black Knight");
+		assertThat(index.complete("black", 10), contains("Blacker Lotus"));
+		assertThat(index.complete("blacker", 10), contains("Blacker Lotus"));
+
+		/* free IDs and split edges are reused */
+		index.addCardName("Black Lotus");
+		index.addCardName("Bl");
+		assertThat(index.complete("bl", 10), contains("Bl", "Black Lotus", "Blacker Lotus"));
+		assertThat(index.findSimilar("Black Lotus", 1), contains("Black Lotus"));
+	}
+
+	@Test
+	public void testCatalogNamesAreKept(){
+		index.addCatalogNames(Arrays.asList("Shivan Dragon", "Time Walk"));
+		index.clearCardNames();
+
+		assertThat(index.size(), is(equalTo(2)));
+		assertThat(index.complete("", 10), contains("Shivan Dragon", "Time Walk"));
+		index.removeCardName("Time Walk");
+		assertThat(index.complete("time", 10), contains("Time Walk"));
+	}
+
+	@Test
+	public void testCatalogIndexIsSuggested(){
+		CardNameIndex catalogIndex = new CardNameIndex();
+		catalogIndex.addCatalogNames(Arrays.asList("BLACK LOTUS", "Black Vise", "Shivan Dragon"));
+		index.setCatalogIndex(catalogIndex);
+
+		assertThat(index.suggest("black", 10), contains("Black", "Black Knight", "Black Lotus", "Blacker Lotus", "Black Vise"));
+		assertThat(index.suggest("shivn dragon", 10), contains("Shivan Dragon"));
+		assertThat(index.suggest("black", 2), hasSize(2));
+
+		index.setCatalogIndex(null);
+		assertThat(index.suggest("shivn dragon", 10), is(empty()));
+	}
+
+	@Test
+	public void testLargeIndex(){
+		CardNameIndex largeIndex = new CardNameIndex();
+		Random random = new Random(4711);
+		List<String> names = new ArrayList<String>();
+		for(int i = 0; i < 100000; i++){
+			names.add(utilRandomName(random));
+		}
+		largeIndex.addCatalogNames(names);
+
+		String[] queries = {"bl", "sha", "dra kor", "Tvo Mr", "qu", "lo zi"};
+		for(String query : queries){
+			List<String> suggested = largeIndex.suggest(query, 20);
+			assertThat(suggested, hasSize(lessThanOrEqualTo(20)));
+			assertThat(new HashSet<String>(suggested), hasSize(suggested.size()));
+		}
+		assertThat(largeIndex.suggest("sha", 20), hasSize(20));
+		for(String name : largeIndex.complete("sha", 20)){
+			assertThat(CardBeanIndex.normalizeName(name), startsWith("sha"));
+		}
+		assertThat(largeIndex.complete(names.get(42), 1), contains(names.get(42)));
+		assertThat(largeIndex.findSimilar(names.get(4711), 1), contains(names.get(4711)));
+	}
+
+	private static String utilRandomName(Random random){
+		String[] syllables = {"bla", "ck", "lo", "tus", "dra", "gon", "sha", "kor", "vo", "mir", "zi", "qu", "el", "tor", "an"};
+		StringBuilder name = new StringBuilder();
+		int words = 1 + random.nextInt(3);
+		for(int w = 0; w < words; w++){
+			if(w > 0){
+				name.append(' ');
+			}
+			int length = 1 + random.nextInt(3);
+			for(int s = 0; s < length; s++){
+				name.append(syllables[random.nextInt(syllables.length)]);
+			}
+		}
+		return name.toString();
+	}
+
+}
@@ -0,0 +1,67 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class IndexedBeanListTest {
+	
+	@Test
+	public void testNextIdResetsWhenEmpty(){
+		IndexedBeanList list = new IndexedBeanList();
+		assertThat(list.nextId(), is(equalTo(1)));
+		
+		list.add(utilCreateCard(1));
+		list.add(utilCreateCard(2));
+		list.removeById(2);
+		assertThat(list.nextId(), is(equalTo(3)));	//IDs are not reused while the list is not empty
+		
+		list.removeById(1);
+		assertThat(list.nextId(), is(equalTo(1)));
+	}
+	
+	@Test
+	public void testRandomOperationsMatchLinearScan(){
+		IndexedBeanList list = new IndexedBeanList();
+		List<CardBean> reference = new ArrayList<CardBean>();
+		Random random = new Random(42);
+		
+		for(int i = 0; i < 20000; i++){
+			int id = random.nextInt(500) + 1;
+			if(random.nextBoolean()){
+				CardBean card = utilCreateCard(id);
+				list.put(card);
+				reference.removeIf(c -> c.getId() == id);
+				reference.add(card);
+			}
+			else{
+				list.removeById(id);
+				reference.removeIf(c -> c.getId() == id);
+			}
+		}
+		
+		assertThat(list.size(), is(equalTo(reference.size())));
+		for(CardBean card : reference){
+			assertThat(list.getById(card.getId()), is(sameInstance((Object)card)));
+		}
+		for(int id = 1; id <= 500; id++){
+			final int searched = id;
+			boolean expected = reference.stream().anyMatch(c -> c.getId() == searched);
+			assertThat(list.indexOfId(id) >= 0, is(expected));
+		}
+	}
+	
+	private static CardBean utilCreateCard(int id){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName("Card "+id);
+		return card;
+	}
+
+}
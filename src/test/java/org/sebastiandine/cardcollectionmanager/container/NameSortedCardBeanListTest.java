@@ -0,0 +1,73 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class NameSortedCardBeanListTest {
+
+	@Test
+	public void testIncrementalChangesKeepOrder(){
+		Random random = new Random(7);
+		NameSortedCardBeanList sorted = new NameSortedCardBeanList();
+		List<CardBean> reference = new ArrayList<CardBean>();
+
+		for(int i = 1; i <= 2000; i++){
+			int action = random.nextInt(3);
+			if(action == 0 && !reference.isEmpty()){
+				CardBean removed = reference.remove(random.nextInt(reference.size()));
+				assertThat(sorted.remove(removed), is(greaterThanOrEqualTo(0)));
+			}
+			else if(action == 1 && !reference.isEmpty()){
+				/* rename in place, like the edit dialog does */
+				CardBean edited = reference.get(random.nextInt(reference.size()));
+				sorted.remove(utilRename(edited, "Card " + random.nextInt(100)));
+				sorted.insert(edited);
+			}
+			else{
+				CardBean card = utilCreateCard(i, "Card " + random.nextInt(100));
+				reference.add(card);
+				sorted.insert(card);
+			}
+		}
+
+		Collections.sort(reference, NameSortedCardBeanList.NAME_ORDER);
+		assertThat(sorted, is(equalTo(reference)));
+	}
+
+	@Test
+	public void testRebuild(){
+		List<CardCollectionBean> container = new ArrayList<CardCollectionBean>();
+		container.add(utilCreateCard(1, "Time Walk"));
+		container.add(utilCreateCard(2, "Black Lotus"));
+		container.add(utilCreateCard(3, "Mox Jet"));
+
+		NameSortedCardBeanList sorted = new NameSortedCardBeanList();
+		sorted.rebuild(container);
+
+		assertThat(sorted.get(0).getName(), is(equalTo("Black Lotus")));
+		assertThat(sorted.get(2).getName(), is(equalTo("Time Walk")));
+		assertThat(sorted.remove(utilCreateCard(4, "Ancestral Recall")), is(equalTo(-1)));
+	}
+
+	private static CardBean utilRename(CardBean card, String name){
+		card.setName(name);
+		return card;
+	}
+
+	private static CardBean utilCreateCard(int id, String name){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		return card;
+	}
+
+}
@@ -1,8 +1,16 @@
 package org.sebastiandine.cardcollectionmanager.container;
 
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.services.CardCatalog;
+import org.sebastiandine.cardcollectionmanager.services.MtgApiClient;
+import org.sebastiandine.cardcollectionmanager.services.RecordedCatalogSource;
 
+import java.io.File;
 import java.util.Arrays;
 
 import static org.hamcrest.Matchers.*;
@@ -10,6 +18,23 @@ import static org.junit.Assert.*;
 
 public class SetBeanContainerTest {
 	
+	@ClassRule
+	public static TemporaryFolder folder = new TemporaryFolder();
+	
+	/* the recorded responses stand in for the live API, so the container is tested offline */
+	@BeforeClass
+	public static void setUpRecordedApi(){
+		MtgApiClient.setCatalogSource(new RecordedCatalogSource());
+		MtgApiClient.setCardCatalog(new CardCatalog(new File(folder.getRoot(), "catalog.json")));
+		SetBeanContainer.updateSetBeanListFromApi();
+	}
+	
+	@AfterClass
+	public static void tearDownRecordedApi(){
+		MtgApiClient.setCatalogSource(null);
+		MtgApiClient.setCardCatalog(null);
+	}
+	
 	@Test
 	public void testSetApiAlive(){
 		SetBeanContainer.updateSetBeanListFromApi();
@@ -0,0 +1,140 @@
+package org.sebastiandine.cardcollectionmanager.container;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardCollectionBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.services.MtgApiClient;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+import io.magicthegathering.javasdk.resource.MtgSet;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class SetBeanDeltaTest {
+
+	/* recorded response of the MtG API as stand-in for the live interface */
+	private SetBean[] apiSets;
+	private List<CardCollectionBean> localSets;
+	private Map<String, SetBean> registry;
+
+	@Before
+	public void setUp() throws IOException{
+		apiSets = utilReadRecordedSets();
+		localSets = new ArrayList<CardCollectionBean>();
+		registry = new HashMap<String, SetBean>();
+		for(SetBean set : utilReadRecordedSets()){
+			localSets.add(set);
+			registry.put(set.getCode().toLowerCase(Locale.ROOT), set);
+		}
+	}
+
+	@Test
+	public void testUnchangedListHasNoDelta(){
+		SetBeanDelta delta = SetBeanDelta.compute(localSets, apiSets);
+		assertThat(delta.isEmpty(), is(true));
+		assertThat(delta.toString(), is(equalTo("0 inserted, 0 updated, 0 retired")));
+	}
+
+	@Test
+	public void testInsertUpdateRetire(){
+		SetBean kaladesh = utilGetLocalSet("KLD");
+		kaladesh.setName("Kaladesh (old)");
+		SetBean aetherRevolt = utilGetLocalSet("AER");
+		localSets.remove(aetherRevolt);
+		registry.remove("aer");
+		SetBean retiredSet = utilCreateSet("ZZZ", "Retired Set");
+		localSets.add(retiredSet);
+		registry.put("zzz", retiredSet);
+
+		SetBeanDelta delta = SetBeanDelta.compute(localSets, apiSets);
+		assertThat(delta.getInserted(), contains(hasProperty("code", equalTo("AER"))));
+		assertThat(delta.getUpdated(), contains(hasProperty("code", equalTo("KLD"))));
+		assertThat(delta.getRetired(), contains(sameInstance(retiredSet)));
+		assertThat(delta.toString(), is(equalTo("1 inserted, 1 updated, 1 retired")));
+		assertThat(delta.describeSets(), is(equalTo("1 inserted (Aether Revolt), 1 updated (Kaladesh), 1 retired (Retired Set)")));
+
+		List<CardCollectionBean> syncedSets = delta.applyTo(registry);
+		assertThat(syncedSets, hasSize(apiSets.length));
+		assertThat(syncedSets, not(hasItem(retiredSet)));
+		assertThat(registry.get("zzz"), is(sameInstance(retiredSet)));
+
+		/* updated sets are changed in place, unchanged sets keep their instance */
+		assertThat(syncedSets.get(12), is(sameInstance((CardCollectionBean) kaladesh)));
+		assertThat(kaladesh.getName(), is(equalTo("Kaladesh")));
+		assertThat(syncedSets.get(1), is(sameInstance((CardCollectionBean) utilGetLocalSet("LEA"))));
+		assertThat(syncedSets.get(13), is(sameInstance((CardCollectionBean) registry.get("aer"))));
+
+		assertThat(SetBeanDelta.compute(syncedSets, apiSets).isEmpty(), is(true));
+	}
+
+	@Test
+	public void testInsertedSetKeepsInstanceOfCardData(){
+		/* a set, which is only known from card data, becomes part of the list without losing its identity */
+		SetBean aetherRevolt = utilGetLocalSet("AER");
+		localSets.remove(aetherRevolt);
+		SetBean cardSet = utilCreateSet("aer", null);
+		registry.put("aer", cardSet);
+
+		SetBeanDelta delta = SetBeanDelta.compute(localSets, apiSets);
+		List<CardCollectionBean> syncedSets = delta.applyTo(registry);
+
+		assertThat(syncedSets.get(13), is(sameInstance((CardCollectionBean) cardSet)));
+		assertThat(cardSet.getName(), is(equalTo("Aether Revolt")));
+		assertThat(cardSet.getReleaseDate(), is(equalTo(LocalDate.of(2017, 1, 20))));
+	}
+
+	@Test
+	public void testReleaseDateChangeIsUpdate(){
+		utilGetLocalSet("XXX").setReleaseDate(LocalDate.of(2000, 1, 1));
+
+		SetBeanDelta delta = SetBeanDelta.compute(localSets, apiSets);
+		assertThat(delta.getUpdated(), contains(hasProperty("code", equalTo("XXX"))));
+		assertThat(delta.getInserted(), is(empty()));
+		assertThat(delta.getRetired(), is(empty()));
+
+		delta.applyTo(registry);
+		assertThat(utilGetLocalSet("XXX").hasRelease(), is(false));
+	}
+
+	private SetBean utilGetLocalSet(String code){
+		for(CardCollectionBean bean : localSets){
+			if(((SetBean) bean).getCode().equals(code)){
+				return (SetBean) bean;
+			}
+		}
+		return null;
+	}
+
+	private static SetBean utilCreateSet(String code, String name){
+		SetBean set = new SetBean();
+		set.setCode(code);
+		set.setName(name);
+		return set;
+	}
+
+	private static SetBean[] utilReadRecordedSets() throws IOException{
+		try(Reader reader = new InputStreamReader(new FileInputStream("./src/test/resources/mtgapi/sets.json"), StandardCharsets.UTF_8)){
+			MtgSet[] sets = new Gson().fromJson(new JsonParser().parse(reader).getAsJsonObject().get("sets"), MtgSet[].class);
+			List<SetBean> setBeans = MtgApiClient.createSetBeans(new ArrayList<MtgSet>(Arrays.asList(sets)));
+			return setBeans.toArray(new SetBean[setBeans.size()]);
+		}
+	}
+
+}
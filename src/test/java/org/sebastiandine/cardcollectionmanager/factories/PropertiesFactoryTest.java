@@ -0,0 +1,31 @@
+package org.sebastiandine.cardcollectionmanager.factories;
+
+import javax.swing.ImageIcon;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class PropertiesFactoryTest {
+
+	@Test
+	public void testIconsAreShared(){
+		PropertiesFactory.warmUpIconCache();
+
+		ImageIcon enabled = PropertiesFactory.getFoilImageIcon(true);
+		ImageIcon disabled = PropertiesFactory.getFoilImageIcon(false);
+
+		assertThat(enabled, is(notNullValue()));
+		assertThat(disabled, is(notNullValue()));
+		assertThat(enabled, is(not(sameInstance(disabled))));
+		assertThat(PropertiesFactory.getFoilImageIcon(true), is(sameInstance(enabled)));
+		assertThat(PropertiesFactory.getFoilImageIcon(false), is(sameInstance(disabled)));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSharedIconsCannotBeChanged(){
+		PropertiesFactory.getSignedImageIcon(true).setImage(null);
+	}
+
+}
@@ -0,0 +1,80 @@
+package org.sebastiandine.cardcollectionmanager.logging;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+import static org.hamcrest.Matchers.*;
+
+public class LoggerTest {
+
+	private static final int CALLS = 100000;
+
+	@Before
+	public void setUp(){
+		/* the tests rely on the default log level WARN of config/config.properties */
+		assumeFalse(Logger.isDebugEnabled());
+	}
+
+	@Test
+	public void testDisabledLevelIsNotFormatted(){
+		final int[] calls = new int[2];
+		Object argument = new Object(){
+			@Override
+			public String toString(){
+				calls[0]++;
+				return "argument";
+			}
+		};
+
+		Logger.debug("Bean deleted: {}.", argument);
+		Logger.debug("Beans {} and {}.", argument, argument);
+		Logger.debug(new Supplier<String>() {
+			@Override
+			public String get() {
+				calls[1]++;
+				return "message";
+			}
+		});
+
+		assertThat(calls[0], is(equalTo(0)));
+		assertThat(calls[1], is(equalTo(0)));
+	}
+
+	@Test
+	public void testDisabledLevelDoesNotAllocate(){
+		com.sun.management.ThreadMXBean threads = utilGetThreadBean();
+		long threadId = Thread.currentThread().getId();
+
+		/* warm up, so class loading and compilation are not measured */
+		utilLogDisabled(CALLS);
+
+		long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+		utilLogDisabled(CALLS);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+		/* boxing the ids alone would allocate more than 1 MB, leave some room for the measurement itself */
+		assertThat(allocated, is(lessThan(16L * 1024)));
+	}
+
+	private static void utilLogDisabled(int calls){
+		Object argument = Integer.valueOf(1000);
+		for(int id = 1000; id < 1000 + calls; id++){
+			Logger.debug("Try to get CardBean with ID={}.", id);
+			Logger.debug("Bean deleted: {}.", argument);
+			Logger.info("CardBean with ID={} deleted.", id);
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean utilGetThreadBean(){
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		return threads;
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardBeanExcelExportServicesTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testStreamingExport() throws IOException{
+		File file = new File(folder.getRoot(), "export.xlsx");
+		final List<Integer> progress = new ArrayList<Integer>();
+
+		boolean completed = CardBeanExcelExportServices.exportCardBeansToXlsx(utilCreateCards(1200), file, new ExportProgressListener() {
+			@Override
+			public void exportProgress(int exported, int total) {
+				progress.add(exported);
+			}
+			@Override
+			public boolean isExportCancelled() {
+				return false;
+			}
+		});
+
+		assertThat(completed, is(true));
+		assertThat(progress, contains(0, 500, 1000, 1200));
+		try(Workbook workbook = new XSSFWorkbook(file)){
+			Sheet sheet = workbook.getSheetAt(0);
+			assertThat(sheet.getLastRowNum(), is(equalTo(1200)));
+			assertThat(sheet.getRow(1).getCell(1).getStringCellValue(), is(equalTo("Card 1")));
+			/* altered column reflects the altered flag, not the signed flag */
+			assertThat(sheet.getRow(2).getCell(7).getStringCellValue(), is(equalTo("")));
+			assertThat(sheet.getRow(2).getCell(8).getStringCellValue(), is(equalTo("Altered")));
+			assertThat(sheet.getColumnWidth(1), is(greaterThan(sheet.getColumnWidth(5))));
+		} catch (InvalidFormatException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testCancelledExportLeavesNoFile() throws IOException{
+		File file = new File(folder.getRoot(), "export.xlsx");
+
+		boolean completed = CardBeanExcelExportServices.exportCardBeansToXlsx(utilCreateCards(1200), file, new ExportProgressListener() {
+			@Override
+			public void exportProgress(int exported, int total) {}
+			@Override
+			public boolean isExportCancelled() {
+				return true;
+			}
+		});
+
+		assertThat(completed, is(false));
+		assertThat(file.exists(), is(false));
+	}
+
+	private static List<CardBean> utilCreateCards(int count){
+		SetBean set = new SetBean();
+		set.setCode("lea");
+		set.setName("Limited Edition Alpha");
+
+		List<CardBean> cards = new ArrayList<CardBean>();
+		for(int id = 1; id <= count; id++){
+			CardBean card = new CardBean();
+			card.setId(id);
+			card.setName("Card "+id);
+			card.setSet(set);
+			card.setLanguage(LanguageEnum.English);
+			card.setCondition(ConditionEnum.Near_Mint);
+			card.setAmount(1);
+			card.setAltered(id % 2 == 0);
+			card.setNote("");
+			cards.add(card);
+		}
+		return cards;
+	}
+
+}
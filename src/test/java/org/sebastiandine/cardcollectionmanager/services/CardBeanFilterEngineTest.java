@@ -0,0 +1,85 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardBeanFilterEngineTest {
+
+	private CardBeanFilterEngine engine;
+	private List<CardBean> cards;
+
+	@Before
+	public void setUp(){
+		engine = new CardBeanFilterEngine();
+		cards = new ArrayList<CardBean>();
+		cards.add(utilCreateCard(1, "Black Lotus", "first print"));
+		cards.add(utilCreateCard(2, "Lotus Petal", "(foil)"));
+		cards.add(utilCreateCard(3, "Time Walk", ""));
+	}
+
+	@Test
+	public void testMatchesLiterallyAndIgnoresCase(){
+		assertThat(engine.filter("LOTUS", cards), is(equalTo(utilIds(1, 2))));
+		assertThat(engine.filter("(foil", cards), is(equalTo(utilIds(2))));
+		assertThat(engine.filter("lotus.", cards), is(equalTo(utilIds())));
+	}
+
+	@Test
+	public void testNarrowsPreviousResult(){
+		assertThat(engine.filter("lot", cards), is(equalTo(utilIds(1, 2))));
+
+		/* an extended query only checks the previous result, which is why the full list is not required */
+		assertThat(engine.filter("lotus p", new ArrayList<CardBean>()), is(equalTo(utilIds(2))));
+	}
+
+	@Test
+	public void testChangedCardsInvalidatePreviousResult(){
+		assertThat(engine.filter("lot", cards), is(equalTo(utilIds(1, 2))));
+
+		cards.get(2).setName("Lotus Vale");
+		engine.cardChanged(cards.get(2));
+		engine.cardDeleted(1);
+		cards.remove(0);
+
+		assertThat(engine.filter("lotus", cards), is(equalTo(utilIds(2, 3))));
+	}
+
+	@Test
+	public void testSearchKeysGrowWithIds(){
+		CardBean card = utilCreateCard(100000, "Mox Pearl", null);
+		engine.cardChanged(card);
+		card.setName("Changed without notification");
+
+		/* the key of the last change is cached */
+		assertThat(engine.getSearchKey(card), containsString("mox pearl"));
+		assertThat(engine.getSearchKey(cards.get(0)), is(equalTo(CardBeanFilterEngine.createSearchKey(cards.get(0)))));
+
+		engine.cardDeleted(100000);
+		assertThat(engine.getSearchKey(card), containsString("changed without notification"));
+	}
+
+	private static BitSet utilIds(int... ids){
+		BitSet bitSet = new BitSet();
+		for(int id : ids){
+			bitSet.set(id);
+		}
+		return bitSet;
+	}
+
+	private static CardBean utilCreateCard(int id, String name, String note){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		card.setNote(note);
+		return card;
+	}
+
+}
@@ -0,0 +1,86 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardBeanJsonExportServiceTest {
+
+	@Test
+	public void testRoundTrip() throws IOException{
+		List<CardBean> cards = new ArrayList<CardBean>();
+		cards.add(utilCreateCard(1, "Ach! Hans, Run!", "plain note"));
+		cards.add(utilCreateCard(2, "\"Quoted\" \\ Backslash", "line 1\nline 2\r\n\ttab \u0001 \u2028 \u00e9"));
+		cards.add(utilCreateCard(3, "Card 3", ""));
+
+		StringWriter writer = new StringWriter();
+		CardBeanJsonExportService.exportCardBeansToJson(cards, writer);
+
+		JsonObject document = new JsonParser().parse(writer.toString()).getAsJsonObject();
+		assertThat(document.entrySet().size(), is(equalTo(3)));
+
+		for(CardBean card : cards){
+			JsonObject json = document.getAsJsonObject(Integer.toString(card.getId()));
+			assertThat(json.get("id").getAsInt(), is(equalTo(card.getId())));
+			assertThat(json.get("name").getAsString(), is(equalTo(card.getName())));
+			assertThat(json.get("note").getAsString(), is(equalTo(card.getNote())));
+			assertThat(json.get("amount").getAsInt(), is(equalTo(4)));
+			assertThat(json.getAsJsonObject("set").get("id").getAsString(), is(equalTo("lea")));
+			assertThat(json.getAsJsonObject("set").get("name").getAsString(), is(equalTo("Limited \"Alpha\"")));
+			assertThat(json.getAsJsonObject("set").get("releaseDate").getAsString(), is(equalTo("1993/08/05")));
+			assertThat(json.get("images").getAsJsonArray().size(), is(equalTo(0)));
+			assertThat(json.get("condition").getAsString(), is(equalTo("NearMint")));
+			assertThat(json.get("foil").getAsBoolean(), is(true));
+			assertThat(json.get("altered").getAsBoolean(), is(false));
+		}
+	}
+
+	@Test
+	public void testEmptyCollection() throws IOException{
+		StringWriter writer = new StringWriter();
+		CardBeanJsonExportService.exportCardBeansToJson(new ArrayList<CardBean>(), writer);
+		assertThat(writer.toString(), is(equalTo("{}")));
+	}
+
+	@Test
+	public void testEscaping() throws IOException{
+		StringWriter writer = new StringWriter();
+		JsonStreamWriter json = new JsonStreamWriter(writer);
+		json.beginArray().value("a\"b\\c\u0000\u001f").value(12).nullValue().beginObject().name("x").value(true).endObject().endArray();
+		json.flush();
+		assertThat(writer.toString(), is(equalTo("[\"a\\\"b\\\\c\\u0000\\u001f\",12,null,{\"x\":true}]")));
+	}
+
+	private static CardBean utilCreateCard(int id, String name, String note){
+		SetBean set = new SetBean();
+		set.setCode("lea");
+		set.setName("Limited \"Alpha\"");
+		set.setReleaseDate(LocalDate.of(1993, 8, 5));
+
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		card.setSet(set);
+		card.setLanguage(LanguageEnum.English);
+		card.setCondition(ConditionEnum.Near_Mint);
+		card.setAmount(4);
+		card.setFoil(true);
+		card.setNote(note);
+		return card;
+	}
+
+}
@@ -0,0 +1,109 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardBeanJsonImportServiceTest {
+
+	@Test
+	public void testRoundTrip() throws IOException{
+		SetBean alpha = utilCreateSet("lea", "Limited Edition Alpha");
+		List<CardBean> exported = new ArrayList<CardBean>();
+		exported.add(utilCreateCard(7, "\"Quoted\" \\ Name", alpha, "line 1\nline 2\t\u0001 \u2028"));
+		exported.add(utilCreateCard(9, "Black Lotus", alpha, ""));
+		exported.get(1).setCondition(ConditionEnum.Light_Played);
+		exported.get(1).setLanguage(LanguageEnum.German);
+		exported.get(1).setSigned(true);
+
+		StringWriter writer = new StringWriter();
+		CardBeanJsonExportService.exportCardBeansToJson(exported, writer);
+
+		Map<String, SetBean> sets = new HashMap<String, SetBean>();
+		sets.put("lea", alpha);
+		List<CardBean> imported = CardBeanJsonImportService.readCardBeans(new StringReader(writer.toString()), sets);
+
+		assertThat(imported.size(), is(equalTo(2)));
+		for(int i = 0; i < imported.size(); i++){
+			CardBean expected = exported.get(i);
+			CardBean actual = imported.get(i);
+			assertThat(actual.getId(), is(equalTo(-1)));
+			assertThat(actual.getName(), is(equalTo(expected.getName())));
+			assertThat(actual.getNote(), is(equalTo(expected.getNote())));
+			assertThat(actual.getSet(), is(sameInstance(alpha)));
+			assertThat(actual.getAmount(), is(equalTo(expected.getAmount())));
+			assertThat(actual.getCondition(), is(equalTo(expected.getCondition())));
+			assertThat(actual.getLanguage(), is(equalTo(expected.getLanguage())));
+			assertThat(actual.isFoil(), is(equalTo(expected.isFoil())));
+			assertThat(actual.isSigned(), is(equalTo(expected.isSigned())));
+			assertThat(actual.isAltered(), is(equalTo(expected.isAltered())));
+		}
+	}
+
+	@Test
+	public void testUnknownSetIsTakenFromFile() throws IOException{
+		String json = "{\"1\":{\"id\":1,\"amount\":2,\"name\":\"A\",\"set\":{\"id\":\"XYZ\",\"name\":\"Unknown\",\"releaseDate\":\"2001/02/03\"},"
+					+ "\"setNo\":\"\",\"extra\":{\"nested\":[1,2.5,true,null]},\"images\":[]},"
+					+ " \"2\" : { \"name\" : \"B\" , \"set\" : { \"id\" : \"xyz\" } },"
+					+ "\"3\":{\"name\":\"C\",\"set\":{\"id\":\"NEW\",\"releaseDate\":\"soon\"}}}";
+
+		List<CardBean> imported = CardBeanJsonImportService.readCardBeans(new StringReader(json), new HashMap<String, SetBean>());
+
+		assertThat(imported.size(), is(equalTo(3)));
+		SetBean set = imported.get(0).getSet();
+		assertThat(set.getCode(), is(equalTo("XYZ")));
+		assertThat(set.getName(), is(equalTo("Unknown")));
+		assertThat(set.getReleaseDate(), is(equalTo(LocalDate.of(2001, 2, 3))));
+		assertThat(imported.get(1).getSet(), is(sameInstance(set)));
+		assertThat(imported.get(1).getNote(), is(equalTo("")));
+		assertThat(imported.get(2).getSet().hasRelease(), is(false));
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformedDocument() throws IOException{
+		String json = "{\"1\":{\"name\":\"A\" \"set\":{\"id\":\"lea\"}}}";
+		CardBeanJsonImportService.readCardBeans(new StringReader(json), new HashMap<String, SetBean>());
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedDocument() throws IOException{
+		String json = "{\"1\":{\"name\":\"A\",\"set\":{\"id\":\"lea\"}}";
+		CardBeanJsonImportService.readCardBeans(new StringReader(json), new HashMap<String, SetBean>());
+	}
+
+	private static SetBean utilCreateSet(String code, String name){
+		SetBean set = new SetBean();
+		set.setCode(code);
+		set.setName(name);
+		set.setReleaseDate(LocalDate.of(1993, 8, 5));
+		return set;
+	}
+
+	private static CardBean utilCreateCard(int id, String name, SetBean set, String note){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		card.setSet(set);
+		card.setLanguage(LanguageEnum.English);
+		card.setCondition(ConditionEnum.Near_Mint);
+		card.setAmount(3);
+		card.setFoil(true);
+		card.setNote(note);
+		return card;
+	}
+
+}
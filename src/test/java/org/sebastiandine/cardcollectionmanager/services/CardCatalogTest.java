@@ -0,0 +1,146 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+
+import io.magicthegathering.javasdk.resource.MtgSet;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardCatalogTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private RecordedCatalogSource source;
+	private CardCatalog catalog;
+
+	@Before
+	public void setUp() throws IOException{
+		source = new RecordedCatalogSource();
+		catalog = new CardCatalog(new File(folder.getRoot(), "catalog.json"));
+		MtgApiClient.setCatalogSource(source);
+		MtgApiClient.setCardCatalog(catalog);
+	}
+
+	@After
+	public void tearDown(){
+		MtgApiClient.setCatalogSource(null);
+		MtgApiClient.setCardCatalog(null);
+	}
+
+	@Test
+	public void testImportBulkFiles() throws IOException{
+		catalog.importFile(new File(RecordedCatalogSource.SETS_URL));
+		catalog.importFile(new File(RecordedCatalogSource.CARDS_URL));
+
+		assertThat(catalog.getSets(), hasSize(14));
+		assertThat(catalog.getSets().get(0).getCode(), is(equalTo("KLD")));
+		assertThat(catalog.size(), is(equalTo(5)));
+		assertThat(catalog.getImageUrl(" black LOTUS", "leb"), containsString("multiverseid=298"));
+		assertThat(catalog.containsCard("Jotun Grunt", "CSP"), is(true));
+		assertThat(catalog.getImageUrl("Jotun Grunt", "CSP"), is(nullValue()));
+		assertThat(catalog.containsCard("Black Lotus", "2ED"), is(false));
+		assertThat(catalog.getCardNames(), containsInAnyOrder("Black Lotus", "Time Walk", "J\u00f6tun Grunt", "Chandra, Torch of Defiance"));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws IOException{
+		catalog.importFile(new File(RecordedCatalogSource.SETS_URL));
+		catalog.importFile(new File(RecordedCatalogSource.CARDS_URL));
+		catalog.save();
+
+		CardCatalog loadedCatalog = CardCatalog.load(catalog.getFile());
+		assertThat(loadedCatalog.size(), is(equalTo(catalog.size())));
+		assertThat(loadedCatalog.getImageUrl("Black Lotus", "LEA"), is(equalTo(catalog.getImageUrl("Black Lotus", "LEA"))));
+		assertThat(MtgApiClient.createSetBeans(loadedCatalog.getSets()), hasSize(MtgApiClient.createSetBeans(catalog.getSets()).size()));
+
+		/* a malformed document does not replace the sets */
+		CardCatalog brokenCatalog = new CardCatalog(catalog.getFile());
+		try{
+			brokenCatalog.read(new StringReader("{\"sets\":[{\"code\":\"LEA\"}"));
+			fail("Malformed document has been accepted.");
+		} catch (IOException e){
+			assertThat(brokenCatalog.hasSets(), is(false));
+		}
+		StringWriter writer = new StringWriter();
+		new CardCatalog(catalog.getFile()).write(writer);
+		assertThat(writer.toString(), is(equalTo("{\"sets\":[],\"cards\":[]}")));
+	}
+
+	@Test
+	public void testSetsAreReadFromCatalogFirst() throws InterruptedException{
+		SetBean[] sets = MtgApiClient.getAllSets();
+		assertThat(sets, is(arrayWithSize(14)));
+		assertThat(source.getSetRequests(), is(equalTo(1)));
+		assertThat(catalog.hasSets(), is(true));
+
+		/* the catalog answers, the API is only requested once more by the background refresh */
+		catalog.setSets(new ArrayList<MtgSet>(catalog.getSets().subList(0, 2)));
+		assertThat(MtgApiClient.getAllSets(), is(arrayWithSize(5)));
+		utilAwaitCatalogSets(14);
+		assertThat(MtgApiClient.getAllSets(), is(arrayWithSize(14)));
+		assertThat(source.getSetRequests(), is(equalTo(2)));
+
+		assertThat(MtgApiClient.fetchAllSets(), is(arrayWithSize(14)));
+		assertThat(source.getSetRequests(), is(equalTo(3)));
+	}
+
+	@Test
+	public void testCardLookupIsStored() throws IOException{
+		CardBean card = new CardBean();
+		card.setId(1);
+		card.setName("Time Walk");
+		SetBean alpha = new SetBean();
+		alpha.setCode("LEA");
+		card.setSet(alpha);
+
+		assertThat(MtgApiClient.getImageUrl(card), containsString("multiverseid=85"));
+		assertThat(MtgApiClient.getImageUrl(card), containsString("multiverseid=85"));
+		assertThat(source.getCardRequests(), is(equalTo(1)));
+		assertThat(catalog.containsCard("time walk", "lea"), is(true));
+	}
+
+	@Test
+	public void testPartialNameMatchIsNotUsed() throws IOException{
+		CardBean card = new CardBean();
+		card.setId(1);
+		card.setName("Lotus");
+		SetBean alpha = new SetBean();
+		alpha.setCode("LEA");
+		card.setSet(alpha);
+
+		/* the API answers with Black Lotus, which is stored, but not returned for the unknown card */
+		assertThat(MtgApiClient.getImageUrl(card), is(nullValue()));
+		assertThat(MtgApiClient.getImageUrl(card), is(nullValue()));
+		assertThat(source.getCardRequests(), is(equalTo(1)));
+		assertThat(catalog.containsCard("Black Lotus", "LEA"), is(true));
+		assertThat(catalog.isMissingCard("Lotus", "LEA"), is(true));
+		assertThat(catalog.getCardNames(), not(hasItem("Lotus")));
+
+		card.setName("Mox Pearl");
+		assertThat(MtgApiClient.getImageUrl(card), is(nullValue()));
+		assertThat(MtgApiClient.getImageUrl(card), is(nullValue()));
+		assertThat(source.getCardRequests(), is(equalTo(2)));
+	}
+
+	private void utilAwaitCatalogSets(int sets) throws InterruptedException{
+		long deadline = System.currentTimeMillis() + 5000;
+		while(catalog.getSets().size() != sets && System.currentTimeMillis() < deadline){
+			Thread.sleep(10);
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests of {@link CardImageCache}, which use a local HTTP server as stand-in for the image service.
+ */
+public class CardImageCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private HttpServer server;
+	private final AtomicInteger imageRequests = new AtomicInteger();
+	private byte[] png;
+
+	private final CardImageCache.ImageUrlResolver resolver = new CardImageCache.ImageUrlResolver() {
+		@Override
+		public String resolveImageUrl(CardBean card) throws IOException {
+			if(card.getName().equals("Unknown")){
+				return null;
+			}
+			/* the redirect mirrors the behaviour of the official image service */
+			return "http://localhost:"+server.getAddress().getPort()+"/redirect/"+card.getId();
+		}
+	};
+
+	@Before
+	public void setUp() throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(20, 30, BufferedImage.TYPE_INT_RGB), "png", bytes);
+		png = bytes.toByteArray();
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/redirect/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				exchange.getResponseHeaders().add("Location", "/image/" + exchange.getRequestURI().getPath().substring(10));
+				exchange.sendResponseHeaders(302, -1);
+				exchange.close();
+			}
+		});
+		server.createContext("/image/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				imageRequests.incrementAndGet();
+				exchange.sendResponseHeaders(200, png.length);
+				try(OutputStream out = exchange.getResponseBody()){
+					out.write(png);
+				}
+			}
+		});
+		server.start();
+	}
+
+	@After
+	public void tearDown(){
+		server.stop(0);
+	}
+
+	@Test
+	public void testImagesAreDownloadedOnce() throws IOException{
+		File directory = folder.newFolder("imagecache");
+		CardImageCache cache = new CardImageCache(directory, 1024 * 1024, 1024 * 1024, resolver);
+
+		assertThat(cache.getImage(utilCreateCard(1, "Black Lotus")).getIconWidth(), is(equalTo(20)));
+		assertThat(cache.getImage(utilCreateCard(1, "Black Lotus")), is(notNullValue()));
+		assertThat(imageRequests.get(), is(equalTo(1)));
+		assertThat(cache.getDiskUsage(), is(equalTo((long) png.length)));
+
+		/* a new cache on the same directory reads the image from disk */
+		CardImageCache reopened = new CardImageCache(directory, 1024 * 1024, 1024 * 1024, resolver);
+		assertThat(reopened.getImage(utilCreateCard(1, "Black Lotus")), is(notNullValue()));
+		assertThat(imageRequests.get(), is(equalTo(1)));
+	}
+
+	@Test
+	public void testMissingImage() throws IOException{
+		CardImageCache cache = new CardImageCache(folder.newFolder("imagecache"), 1024 * 1024, 1024 * 1024, resolver);
+
+		assertThat(cache.getImage(utilCreateCard(1, "Unknown")), is(nullValue()));
+		assertThat(imageRequests.get(), is(equalTo(0)));
+	}
+
+	@Test
+	public void testEviction() throws IOException{
+		File directory = folder.newFolder("imagecache");
+		/* room for two images on disk and a single decoded image in memory */
+		CardImageCache cache = new CardImageCache(directory, 2 * png.length, 4 * 20 * 30, resolver);
+
+		for(int id = 1; id <= 5; id++){
+			assertThat(cache.getImage(utilCreateCard(id, "Card "+id)), is(notNullValue()));
+		}
+
+		assertThat(cache.getDiskUsage(), is(lessThanOrEqualTo(2L * png.length)));
+		assertThat(directory.listFiles(), is(arrayWithSize(2)));
+		assertThat(cache.getMemoryUsage(), is(equalTo(4L * 20 * 30)));
+	}
+
+	@Test
+	public void testFailedWriteLeavesNoTemporaryFile() throws IOException{
+		File directory = folder.newFolder("imagecache");
+		CardImageCache cache = new CardImageCache(directory, 1024 * 1024, 1024 * 1024, resolver);
+		/* a non-empty directory at the place of the image file lets the final move fail */
+		File blocker = new File(directory, CardImageCache.createKey("lea", "Black Lotus")+".img");
+		assertThat(new File(blocker, "content").mkdirs(), is(true));
+
+		assertThat(cache.getImage(utilCreateCard(1, "Black Lotus")), is(notNullValue()));
+		assertThat(directory.list(), is(arrayContaining(blocker.getName())));
+		assertThat(cache.getDiskUsage(), is(equalTo(0L)));
+	}
+
+	private static CardBean utilCreateCard(int id, String name){
+		SetBean set = new SetBean();
+		set.setCode("lea");
+		set.setName("Limited Edition Alpha");
+
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		card.setSet(set);
+		return card;
+	}
+
+}
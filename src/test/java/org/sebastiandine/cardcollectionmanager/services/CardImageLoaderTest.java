@@ -0,0 +1,111 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardImageLoaderTest {
+
+	@Test
+	public void testRapidRequestsAreCoalesced() throws InterruptedException, InvocationTargetException{
+		final CountDownLatch firstLoadStarted = new CountDownLatch(1);
+		final CountDownLatch releaseFirstLoad = new CountDownLatch(1);
+		final List<Integer> loadedIds = new CopyOnWriteArrayList<Integer>();
+		final List<Integer> deliveredIds = new CopyOnWriteArrayList<Integer>();
+		final CountDownLatch lastDelivered = new CountDownLatch(1);
+
+		CardImageLoader loader = new CardImageLoader(new CardImageLoader.ImageSource() {
+			@Override
+			public ImageIcon loadImage(CardBean card) {
+				loadedIds.add(card.getId());
+				if(card.getId() == 1){
+					firstLoadStarted.countDown();
+					try {
+						releaseFirstLoad.await(5, TimeUnit.SECONDS);		/* a slow download */
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return new ImageIcon();
+			}
+		}, new ImageIcon(), "test-image-loader");
+
+		CardImageLoader.Callback callback = new CardImageLoader.Callback() {
+			@Override
+			public void imageLoaded(CardBean card, ImageIcon image) {
+				assertThat(SwingUtilities.isEventDispatchThread(), is(true));
+				deliveredIds.add(card.getId());
+				if(card.getId() == 50){
+					lastDelivered.countDown();
+				}
+			}
+		};
+
+		loader.load(utilCreateCard(1), callback);
+		assertThat(firstLoadStarted.await(5, TimeUnit.SECONDS), is(true));
+		for(int id = 2; id <= 50; id++){
+			loader.load(utilCreateCard(id), callback);
+		}
+		assertThat(loader.getQueueDepth(), is(equalTo(1)));
+		releaseFirstLoad.countDown();
+
+		assertThat(lastDelivered.await(5, TimeUnit.SECONDS), is(true));
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {}
+		});
+
+		/* the stale result of card 1 is discarded, cards 2 to 49 are never loaded */
+		assertThat(loadedIds, contains(1, 50));
+		assertThat(deliveredIds, contains(50));
+		assertThat(loader.getRequestedCount(), is(equalTo(50L)));
+		assertThat(loader.getDeliveredCount(), is(equalTo(1L)));
+		assertThat(loader.getQueueDepth(), is(equalTo(0)));
+	}
+
+	@Test
+	public void testFailedLoadDeliversFallbackImage() throws InterruptedException{
+		final ImageIcon fallback = new ImageIcon();
+		final List<ImageIcon> deliveredImages = new CopyOnWriteArrayList<ImageIcon>();
+		final CountDownLatch delivered = new CountDownLatch(1);
+
+		CardImageLoader loader = new CardImageLoader(new CardImageLoader.ImageSource() {
+			@Override
+			public ImageIcon loadImage(CardBean card) {
+				throw new IllegalStateException("API not reachable");
+			}
+		}, fallback, "test-image-loader");
+
+		loader.load(utilCreateCard(1), new CardImageLoader.Callback() {
+			@Override
+			public void imageLoaded(CardBean card, ImageIcon image) {
+				deliveredImages.add(image);
+				delivered.countDown();
+			}
+		});
+
+		assertThat(delivered.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(deliveredImages, contains(sameInstance(fallback)));
+		assertThat(loader.getLoadedCount(), is(equalTo(0L)));
+		assertThat(loader.getDeliveredCount(), is(equalTo(1L)));
+	}
+
+	private static CardBean utilCreateCard(int id){
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName("Card "+id);
+		return card;
+	}
+
+}
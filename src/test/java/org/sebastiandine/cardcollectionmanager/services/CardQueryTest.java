@@ -0,0 +1,133 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sebastiandine.cardcollectionmanager.bean.CardBean;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+import org.sebastiandine.cardcollectionmanager.container.CardBeanContainer;
+import org.sebastiandine.cardcollectionmanager.enums.ConditionEnum;
+import org.sebastiandine.cardcollectionmanager.enums.LanguageEnum;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class CardQueryTest {
+
+	private List<CardBean> cards;
+
+	@Before
+	public void setUp(){
+		cards = new ArrayList<CardBean>();
+		cards.add(utilCreateCard(1, "Black Lotus", "LEA", LanguageEnum.German, ConditionEnum.Near_Mint, true, 3));
+		cards.add(utilCreateCard(2, "Black Lotus", "LEB", LanguageEnum.English, ConditionEnum.Played, false, 1));
+		cards.add(utilCreateCard(3, "Time Walk", "LEA", LanguageEnum.German, ConditionEnum.Near_Mint, false, 4));
+		cards.add(utilCreateCard(4, "Mox: Jet", "LEA", LanguageEnum.German, ConditionEnum.Good, true, 1));
+	}
+
+	@Test
+	public void testStructuredQuery(){
+		assertThat(utilFilter("set:LEA lang:German foil amount>2"), is(equalTo(utilIds(1))));
+		assertThat(utilFilter("set:lea -foil"), is(equalTo(utilIds(3))));
+		assertThat(utilFilter("cond:\"near mint\" amount>=3"), is(equalTo(utilIds(1, 3))));
+		assertThat(utilFilter("name=\"black  LOTUS\" lang!=German"), is(equalTo(utilIds(2))));
+		assertThat(utilFilter("name:lotus foil:no"), is(equalTo(utilIds(2))));
+		assertThat(utilFilter("id<=2 amount!=3"), is(equalTo(utilIds(2))));
+	}
+
+	@Test
+	public void testFreeText(){
+		/* plain text keeps the literal behaviour of the former filter, including unknown fields */
+		CardQuery plain = CardQuery.parse("mox: jet");
+		assertThat(plain.isPlainText(), is(true));
+		assertThat(utilFilter("mox: jet"), is(equalTo(utilIds(4))));
+		assertThat(utilFilter("black lotus"), is(equalTo(utilIds(1, 2))));
+
+		/* free words next to structured terms */
+		CardQuery mixed = CardQuery.parse("black lotus set:LEB");
+		assertThat(mixed.isPlainText(), is(false));
+		assertThat(utilFilter("black lotus set:LEB"), is(equalTo(utilIds(2))));
+	}
+
+	@Test
+	public void testInvalidQuery(){
+		try {
+			CardQuery.parse("lang:Klingon");
+			fail("Invalid language has been accepted.");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), containsString("Klingon"));
+		}
+		try {
+			CardQuery.parse("set>LEA");
+			fail("Invalid operator has been accepted.");
+		} catch (IllegalArgumentException e) {
+			assertThat(e.getMessage(), containsString("set"));
+		}
+
+		CardQuery literal = CardQuery.parseOrLiteral("amount>");
+		assertThat(literal.isPlainText(), is(true));
+		assertThat(literal.filter(cards, null).isEmpty(), is(true));
+		assertThat(CardQuery.parse("  ").isEmpty(), is(true));
+	}
+
+	@Test
+	public void testSelectUsesIndexes(){
+		List<CardBean> added = new ArrayList<CardBean>();
+		for(CardBean card : cards){
+			CardBean copy = utilCreateCard(0, card.getName(), "ZQ" + card.getSet().getCode(), card.getLanguage(),
+					card.getCondition(), card.isFoil(), card.getAmount());
+			CardBeanContainer.addCardBean(copy);
+			added.add(copy);
+		}
+		try {
+			CardQuery query = CardQuery.parse("set:ZQLEA lang:German foil amount>2");
+			assertThat(query.selectIndexedIds().cardinality(), is(equalTo(2)));
+			assertThat(query.select(), contains(sameInstance(added.get(0))));
+			assertThat(CardQuery.parse("set:zqlea").select(), contains(sameInstance(added.get(0)),
+					sameInstance(added.get(3)), sameInstance(added.get(2))));
+		} finally {
+			for(CardBean card : added){
+				CardBeanContainer.deleteCardBeanById(card.getId());
+			}
+		}
+	}
+
+	private BitSet utilFilter(String text){
+		CardQuery query = CardQuery.parse(text);
+		BitSet ids = query.filter(cards, null);
+		assertThat(query.filter(cards, null, new CardBeanFilterEngine()), is(equalTo(ids)));
+		for(CardBean card : cards){
+			assertThat(query.matches(card), is(equalTo(ids.get(card.getId()))));
+		}
+		return ids;
+	}
+
+	private static BitSet utilIds(int... ids){
+		BitSet bits = new BitSet();
+		for(int id : ids){
+			bits.set(id);
+		}
+		return bits;
+	}
+
+	private static CardBean utilCreateCard(int id, String name, String setCode, LanguageEnum language, ConditionEnum condition,
+			boolean foil, int amount){
+		SetBean set = new SetBean();
+		set.setCode(setCode);
+		set.setName("Set "+setCode);
+
+		CardBean card = new CardBean();
+		card.setId(id);
+		card.setName(name);
+		card.setSet(set);
+		card.setLanguage(language);
+		card.setCondition(condition);
+		card.setFoil(foil);
+		card.setAmount(amount);
+		return card;
+	}
+
+}
@@ -2,15 +2,79 @@ package org.sebastiandine.cardcollectionmanager.services;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sebastiandine.cardcollectionmanager.bean.SetBean;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+import io.magicthegathering.javasdk.resource.MtgSet;
 
 import static org.hamcrest.Matchers.*;
 
 public class MtgApiClientTest {
 	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	/* the recorded responses stand in for the live API, so the client is tested offline */
+	@Before
+	public void setUp(){
+		MtgApiClient.setCatalogSource(new RecordedCatalogSource());
+		MtgApiClient.setCardCatalog(new CardCatalog(new File(folder.getRoot(), "catalog.json")));
+	}
+	
+	@After
+	public void tearDown(){
+		MtgApiClient.setCatalogSource(null);
+		MtgApiClient.setCardCatalog(null);
+	}
+	
 	@Test
 	public void testGetAllSets(){
 		assertThat(MtgApiClient.getAllSets(), is(arrayWithSize(greaterThan(0))));
 	}
+	
+	@Test
+	public void testCreateSetBeans_recordedResponse() throws IOException{
+		List<SetBean> sets = MtgApiClient.createSetBeans(utilReadRecordedSets());
+		
+		List<String> codes = new ArrayList<String>();
+		for(SetBean set : sets){
+			codes.add(set.getCode());
+		}
+		
+		/* online-only sets are filtered, sets of the same day keep the order of the response */
+		assertThat(codes, is(equalTo(Arrays.asList("XXX", "LEA", "LEB", "ARN", "2ED", "ATQ", "3ED", "fbb", "LEG",
+													"fwb", "ren", "PTK", "KLD", "AER"))));
+		assertThat(sets.get(0).hasRelease(), is(false));
+		assertThat(sets.get(1).getReleaseDate(), is(equalTo(LocalDate.of(1993, 8, 5))));
+		assertThat(sets.get(1).getName(), is(equalTo("Limited Edition Alpha")));
+		for(int i = 1; i < sets.size(); i++){
+			assertThat(sets.get(i).compareTo(sets.get(i - 1)), is(greaterThanOrEqualTo(0)));
+		}
+	}
+	
+	private static List<MtgSet> utilReadRecordedSets() throws IOException{
+		try(Reader reader = new InputStreamReader(new FileInputStream("./src/test/resources/mtgapi/sets.json"), StandardCharsets.UTF_8)){
+			MtgSet[] sets = new Gson().fromJson(new JsonParser().parse(reader).getAsJsonObject().get("sets"), MtgSet[].class);
+			return new ArrayList<MtgSet>(Arrays.asList(sets));
+		}
+	}
 
 }
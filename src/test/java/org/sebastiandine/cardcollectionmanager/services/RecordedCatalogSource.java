@@ -0,0 +1,72 @@
+package org.sebastiandine.cardcollectionmanager.services;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sebastiandine.cardcollectionmanager.container.CardBeanIndex;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+
+import io.magicthegathering.javasdk.resource.Card;
+import io.magicthegathering.javasdk.resource.MtgSet;
+
+/**
+ * Stand-in for the official MtG API, which answers from the recorded responses in 'src/test/resources/mtgapi',
+ * so tests of the API clients run offline.
+ */
+public class RecordedCatalogSource implements MtgApiClient.CatalogSource {
+
+	public static final String SETS_URL = "./src/test/resources/mtgapi/sets.json";
+	public static final String CARDS_URL = "./src/test/resources/mtgapi/cards.json";
+
+	private final AtomicInteger setRequests = new AtomicInteger();
+	private final AtomicInteger cardRequests = new AtomicInteger();
+
+	@Override
+	public List<MtgSet> getAllSets() throws IOException {
+		setRequests.incrementAndGet();
+		return new ArrayList<MtgSet>(Arrays.asList(read(SETS_URL, "sets", MtgSet[].class)));
+	}
+
+	@Override
+	public List<Card> getCards(String name, String setCode) throws IOException {
+		cardRequests.incrementAndGet();
+		List<Card> cards = new ArrayList<Card>();
+		for(Card card : read(CARDS_URL, "cards", Card[].class)){
+			if(CardBeanIndex.normalizeName(card.getName()).contains(CardBeanIndex.normalizeName(name))
+					&& card.getSet().equalsIgnoreCase(setCode)){
+				cards.add(card);
+			}
+		}
+		return cards;
+	}
+
+	/**
+	 * @return Number of requests of all sets.
+	 */
+	public int getSetRequests(){
+		return setRequests.get();
+	}
+
+	/**
+	 * @return Number of requests of cards.
+	 */
+	public int getCardRequests(){
+		return cardRequests.get();
+	}
+
+	private static <T> T read(String url, String member, Class<T> type) throws IOException{
+		try(Reader reader = new InputStreamReader(new FileInputStream(url), StandardCharsets.UTF_8)){
+			return new Gson().fromJson(new JsonParser().parse(reader).getAsJsonObject().get(member), type);
+		}
+	}
+
+}